@@ -0,0 +1,166 @@
+package com.example.editorgrafov;
+
+/**
+ * Graph, which chooses its representation according to density of edges
+ * - sparse graphs are kept in AdjacencyList, dense graphs in AdjacencyMatrix
+ * - density is number of edges / (number of vertices)^2 and it is checked after every change,
+ *   which is O(1), representation is migrated only when density crosses one of thresholds
+ * - thresholds are far from each other, so graph does not keep migrating back and forth
+ */
+public class AdaptiveGraph implements Graph {
+
+    private static final double denseThreshold = 0.25;
+    private static final double sparseThreshold = 0.0625;
+    private static final int minDenseVertices = 32;
+    //8192 ids -> 8 MB matrix
+    private static final int maxDenseCapacity = 1 << 13;
+
+    private Graph current = new AdjacencyList();
+
+    /**
+     * Method that tells, which representation is currently used
+     * @return true iff graph is stored in AdjacencyMatrix
+     */
+    public boolean isDense() {
+        return current instanceof AdjacencyMatrix;
+    }
+
+    /**
+     * Method that returns density of edges
+     * @return number of edges / (number of vertices)^2, 0 for empty graph
+     */
+    public double getDensity() {
+        long n = current.getNumberOfVertices();
+        return n == 0 ? 0 : current.getNumberOfEdges() / (double) (n * n);
+    }
+
+    @Override
+    public int getNumberOfVertices() {
+        return current.getNumberOfVertices();
+    }
+
+    @Override
+    public int getNumberOfEdges() {
+        return current.getNumberOfEdges();
+    }
+
+    @Override
+    public int getCapacity() {
+        return current.getCapacity();
+    }
+
+    /**
+     * Vertex with too big id forces sparse representation before it is added, so matrix never grows too much
+     */
+    @Override
+    public void addVertex(int vertex) {
+        if (isDense() && vertex >= maxDenseCapacity) {
+            migrate(new AdjacencyList(vertex + 1));
+        }
+        current.addVertex(vertex);
+        checkRepresentation();
+    }
+
+    @Override
+    public void removeVertex(int vertex) {
+        current.removeVertex(vertex);
+        checkRepresentation();
+    }
+
+    @Override
+    public boolean containsVertex(int vertex) {
+        return current.containsVertex(vertex);
+    }
+
+    @Override
+    public boolean addEdge(int from, int to) {
+        boolean added = current.addEdge(from, to);
+        if (added) {
+            checkRepresentation();
+        }
+        return added;
+    }
+
+    @Override
+    public boolean removeEdge(int from, int to) {
+        boolean removed = current.removeEdge(from, to);
+        if (removed) {
+            checkRepresentation();
+        }
+        return removed;
+    }
+
+    @Override
+    public boolean existsEdge(int from, int to) {
+        return current.existsEdge(from, to);
+    }
+
+    @Override
+    public int getOutDegree(int vertex) {
+        return current.getOutDegree(vertex);
+    }
+
+    @Override
+    public int[] outgoingEdgesDestinations(int vertex) {
+        return current.outgoingEdgesDestinations(vertex);
+    }
+
+    @Override
+    public int[] incomingEdgesSources(int vertex) {
+        return current.incomingEdgesSources(vertex);
+    }
+
+    @Override
+    public void clear() {
+        current = new AdjacencyList();
+    }
+
+    /**
+     * Method that replaces whole content of graph by given graph, which is used from now on (it is not copied)
+     * @param graph new content, it must not be used elsewhere
+     */
+    public void install(AdjacencyList graph) {
+        current = graph;
+        checkRepresentation();
+    }
+
+    /**
+     * Method that migrates graph to other representation, if density crossed threshold
+     */
+    private void checkRepresentation() {
+        long n = current.getNumberOfVertices();
+        double edges = current.getNumberOfEdges();
+        if (isDense()) {
+            if (edges < sparseThreshold * n * n) {
+                migrate(new AdjacencyList(current.getCapacity()));
+            }
+        }
+        else if (n >= minDenseVertices && current.getCapacity() <= maxDenseCapacity && edges >= denseThreshold * n * n) {
+            migrate(new AdjacencyMatrix(current.getCapacity()));
+        }
+    }
+
+    /**
+     * Method that copies all vertices and edges into target and starts using it
+     * @param target empty graph of other representation
+     */
+    private void migrate(Graph target) {
+        int capacity = current.getCapacity();
+        if (target instanceof AdjacencyList) {
+            ((AdjacencyList) target).ensureEdgeCapacity(current.getNumberOfEdges());
+        }
+        for (int v = 0; v < capacity; v++) {
+            if (current.containsVertex(v)) {
+                target.addVertex(v);
+            }
+        }
+        for (int v = 0; v < capacity; v++) {
+            if (current.containsVertex(v)) {
+                for (int destination : current.outgoingEdgesDestinations(v)) {
+                    target.addEdge(v, destination);
+                }
+            }
+        }
+        current = target;
+    }
+}
@@ -0,0 +1,308 @@
+package com.example.editorgrafov;
+
+import java.util.Arrays;
+
+/**
+ * Sparse representation of Graph
+ * - every vertex has growable arrays of outgoing and incoming neighbours, stored as plain ints
+ * - incoming neighbours are kept only so removing a vertex costs O(degree) instead of O(number of edges)
+ * - every entry knows position of its twin (the same edge in list of the other end), so edge is taken out of list
+ *   of the other end in O(1) by swapping with last entry, removal of vertex does not depend on degrees of neighbours
+ * - edges are also kept in EdgeSet (packed long keys), so existsEdge and rejecting of duplicate edges are O(1)
+ *   even for vertices with huge degree
+ * - memory used is proportional to number of vertex ids + number of edges
+ */
+public class AdjacencyList implements Graph {
+
+    private static final int defaultCapacity = 64;
+    private static final int[] empty = new int[0];
+
+    private int[][] out;
+    private int[][] in;
+    //outTwin[v][i] is position of v in in[out[v][i]], inTwin[v][i] is position of v in out[in[v][i]]
+    private int[][] outTwin;
+    private int[][] inTwin;
+    private int[] outDegree;
+    private int[] inDegree;
+    private final EdgeSet edges = new EdgeSet();
+    private int capacity;
+    private int numberOfVertices;
+    private int numberOfEdges;
+
+    public AdjacencyList() {
+        this(defaultCapacity);
+    }
+
+    /**
+     * Constructor of AdjacencyList with space for vertices with ids lower than capacity
+     * @param capacity initial number of vertex ids, lists grow if needed
+     */
+    public AdjacencyList(int capacity) {
+        capacity = Math.max(capacity, 1);
+        out = new int[capacity][];
+        in = new int[capacity][];
+        outTwin = new int[capacity][];
+        inTwin = new int[capacity][];
+        outDegree = new int[capacity];
+        inDegree = new int[capacity];
+    }
+
+    /**
+     * Method that copies CsrGraph into new AdjacencyList, every list is allocated with its exact size
+     * - it is used for big imported graphs, which are built as CsrGraph and then edited
+     * @param graph to be copied
+     * @return new AdjacencyList with the same vertices and edges
+     */
+    public static AdjacencyList of(CsrGraph graph) {
+        int capacity = graph.getCapacity();
+        int[] offsets = graph.getOffsets();
+        int[] targets = graph.getTargets();
+        AdjacencyList list = new AdjacencyList(capacity);
+        list.ensureEdgeCapacity(graph.getNumberOfEdges());
+        int[] inCount = new int[capacity];
+        for (int v = 0; v < capacity; v++) {
+            for (int i = offsets[v]; i < offsets[v + 1]; i++) {
+                inCount[targets[i]]++;
+            }
+        }
+        for (int v = 0; v < capacity; v++) {
+            if (graph.containsVertex(v)) {
+                int outCount = offsets[v + 1] - offsets[v];
+                list.out[v] = outCount == 0 ? empty : new int[outCount];
+                list.outTwin[v] = outCount == 0 ? empty : new int[outCount];
+                list.in[v] = inCount[v] == 0 ? empty : new int[inCount[v]];
+                list.inTwin[v] = inCount[v] == 0 ? empty : new int[inCount[v]];
+                list.numberOfVertices++;
+                list.capacity = v + 1;
+            }
+        }
+        for (int v = 0; v < capacity; v++) {
+            for (int i = offsets[v]; i < offsets[v + 1]; i++) {
+                int to = targets[i];
+                if (list.edges.add(v, to)) {
+                    int outIndex = list.outDegree[v]++;
+                    int inIndex = list.inDegree[to]++;
+                    list.out[v][outIndex] = to;
+                    list.outTwin[v][outIndex] = inIndex;
+                    list.in[to][inIndex] = v;
+                    list.inTwin[to][inIndex] = outIndex;
+                    list.numberOfEdges++;
+                }
+            }
+        }
+        return list;
+    }
+
+    /**
+     * Method that makes sure, that vertex with id lower than capacity can be stored
+     * @param capacity number of vertex ids
+     */
+    public void ensureCapacity(int capacity) {
+        if (capacity <= out.length) {
+            return;
+        }
+        int newLength = Math.max(capacity, out.length + (out.length >> 1));
+        out = Arrays.copyOf(out, newLength);
+        in = Arrays.copyOf(in, newLength);
+        outTwin = Arrays.copyOf(outTwin, newLength);
+        inTwin = Arrays.copyOf(inTwin, newLength);
+        outDegree = Arrays.copyOf(outDegree, newLength);
+        inDegree = Arrays.copyOf(inDegree, newLength);
+    }
+
+    /**
+     * Method that makes sure, that given number of edges can be stored without rehashing set of edges
+     * @param numberOfEdges expected number of edges
+     */
+    public void ensureEdgeCapacity(int numberOfEdges) {
+        edges.ensureCapacity(numberOfEdges);
+    }
+
+    @Override
+    public int getCapacity() {
+        return capacity;
+    }
+
+    @Override
+    public int getNumberOfVertices() {
+        return numberOfVertices;
+    }
+
+    @Override
+    public int getNumberOfEdges() {
+        return numberOfEdges;
+    }
+
+    @Override
+    public void addVertex(int vertex) {
+        if (vertex < 0) {
+            throw new IllegalArgumentException("Vertex id must not be negative: " + vertex);
+        }
+        ensureCapacity(vertex + 1);
+        if (out[vertex] == null) {
+            out[vertex] = empty;
+            in[vertex] = empty;
+            outTwin[vertex] = empty;
+            inTwin[vertex] = empty;
+            numberOfVertices++;
+            capacity = Math.max(capacity, vertex + 1);
+        }
+    }
+
+    @Override
+    public void removeVertex(int vertex) {
+        if (!containsVertex(vertex)) {
+            return;
+        }
+        boolean selfLoop = edges.contains(vertex, vertex);
+        int[] destinations = out[vertex];
+        for (int i = 0; i < outDegree[vertex]; i++) {
+            edges.remove(vertex, destinations[i]);
+            if (destinations[i] != vertex) {
+                removeIncoming(destinations[i], outTwin[vertex][i]);
+            }
+        }
+        int[] sources = in[vertex];
+        for (int i = 0; i < inDegree[vertex]; i++) {
+            edges.remove(sources[i], vertex);
+            if (sources[i] != vertex) {
+                removeOutgoing(sources[i], inTwin[vertex][i]);
+            }
+        }
+        numberOfEdges -= outDegree[vertex] + inDegree[vertex] - (selfLoop ? 1 : 0);
+        out[vertex] = null;
+        in[vertex] = null;
+        outTwin[vertex] = null;
+        inTwin[vertex] = null;
+        outDegree[vertex] = 0;
+        inDegree[vertex] = 0;
+        numberOfVertices--;
+    }
+
+    @Override
+    public boolean containsVertex(int vertex) {
+        return vertex >= 0 && vertex < out.length && out[vertex] != null;
+    }
+
+    @Override
+    public boolean addEdge(int from, int to) {
+        if (!containsVertex(from) || !containsVertex(to)) {
+            throw new IllegalArgumentException("Edge " + from + " -> " + to + " has vertex, which is not present in graph");
+        }
+        if (!edges.add(from, to)) {
+            return false;
+        }
+        int outIndex = outDegree[from]++;
+        int inIndex = inDegree[to]++;
+        out[from] = append(out[from], outIndex, to);
+        outTwin[from] = append(outTwin[from], outIndex, inIndex);
+        in[to] = append(in[to], inIndex, from);
+        inTwin[to] = append(inTwin[to], inIndex, outIndex);
+        numberOfEdges++;
+        return true;
+    }
+
+    @Override
+    public boolean removeEdge(int from, int to) {
+        if (!containsVertex(from) || !containsVertex(to) || !edges.remove(from, to)) {
+            return false;
+        }
+        //edge is searched for in shorter of both lists, its twin is then found directly
+        int outIndex;
+        int inIndex;
+        if (outDegree[from] <= inDegree[to]) {
+            outIndex = indexOf(out[from], outDegree[from], to);
+            inIndex = outTwin[from][outIndex];
+        }
+        else {
+            inIndex = indexOf(in[to], inDegree[to], from);
+            outIndex = inTwin[to][inIndex];
+        }
+        removeOutgoing(from, outIndex);
+        removeIncoming(to, inIndex);
+        numberOfEdges--;
+        return true;
+    }
+
+    @Override
+    public boolean existsEdge(int from, int to) {
+        return containsVertex(from) && containsVertex(to) && edges.contains(from, to);
+    }
+
+    @Override
+    public int getOutDegree(int vertex) {
+        return containsVertex(vertex) ? outDegree[vertex] : 0;
+    }
+
+    /**
+     * Method that returns number of incoming edges of vertex
+     * @param vertex id of vertex
+     * @return in degree of vertex, 0 if vertex is not present
+     */
+    public int getInDegree(int vertex) {
+        return containsVertex(vertex) ? inDegree[vertex] : 0;
+    }
+
+    @Override
+    public int[] outgoingEdgesDestinations(int vertex) {
+        return containsVertex(vertex) ? Arrays.copyOf(out[vertex], outDegree[vertex]) : empty;
+    }
+
+    @Override
+    public int[] incomingEdgesSources(int vertex) {
+        return containsVertex(vertex) ? Arrays.copyOf(in[vertex], inDegree[vertex]) : empty;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(out, null);
+        Arrays.fill(in, null);
+        Arrays.fill(outTwin, null);
+        Arrays.fill(inTwin, null);
+        Arrays.fill(outDegree, 0);
+        Arrays.fill(inDegree, 0);
+        edges.clear();
+        capacity = 0;
+        numberOfVertices = 0;
+        numberOfEdges = 0;
+    }
+
+    private static int[] append(int[] list, int size, int value) {
+        if (size == list.length) {
+            list = Arrays.copyOf(list, Math.max(4, size << 1));
+        }
+        list[size] = value;
+        return list;
+    }
+
+    private static int indexOf(int[] list, int size, int value) {
+        for (int i = 0; i < size; i++) {
+            if (list[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Method that removes entry from list of outgoing neighbours, last entry is moved into its place
+     * (twin of moved entry is told its new position)
+     */
+    private void removeOutgoing(int vertex, int index) {
+        int last = --outDegree[vertex];
+        if (index != last) {
+            out[vertex][index] = out[vertex][last];
+            outTwin[vertex][index] = outTwin[vertex][last];
+            inTwin[out[vertex][index]][outTwin[vertex][index]] = index;
+        }
+    }
+
+    private void removeIncoming(int vertex, int index) {
+        int last = --inDegree[vertex];
+        if (index != last) {
+            in[vertex][index] = in[vertex][last];
+            inTwin[vertex][index] = inTwin[vertex][last];
+            outTwin[in[vertex][index]][inTwin[vertex][index]] = index;
+        }
+    }
+}
@@ -1,24 +1,221 @@
 package com.example.editorgrafov;
 
+import java.util.Arrays;
+
+/**
+ * Dense representation of Graph
+ * - every vertex has its own row of bits packed into long words (bit w of row v is set iff edge v -> w exists)
+ * - vertex is present iff its row is not null
+ * - memory used is capacity^2 / 8 bytes, so it is meant for smaller graphs with a lot of edges
+ */
 public class AdjacencyMatrix implements Graph {
 
+    private static final int defaultCapacity = 64;
+
+    private long[][] rows;
+    private int words;
+    private int numberOfVertices;
+    private int numberOfEdges;
+
+    public AdjacencyMatrix() {
+        this(defaultCapacity);
+    }
+
+    /**
+     * Constructor of AdjacencyMatrix with space for vertices with ids lower than capacity
+     * @param capacity initial number of vertex ids, matrix grows if needed
+     */
+    public AdjacencyMatrix(int capacity) {
+        words = wordsFor(Math.max(capacity, 1));
+        rows = new long[words << 6][];
+    }
+
+    private static int wordsFor(int capacity) {
+        return (capacity + 63) >>> 6;
+    }
+
+    /**
+     * Method that makes sure, that vertex with id lower than capacity can be stored
+     * - rows are reallocated only if number of words per row has to change
+     * @param capacity number of vertex ids
+     */
+    public void ensureCapacity(int capacity) {
+        if (capacity <= rows.length) {
+            return;
+        }
+        int newWords = Math.max(wordsFor(capacity), words << 1);
+        long[][] newRows = new long[newWords << 6][];
+        for (int i = 0; i < rows.length; i++) {
+            if (rows[i] != null) {
+                newRows[i] = Arrays.copyOf(rows[i], newWords);
+            }
+        }
+        rows = newRows;
+        words = newWords;
+    }
+
+    /**
+     * Capacity of matrix is number of vertex ids, that can be stored without growing
+     * @return capacity of matrix
+     */
+    @Override
+    public int getCapacity() {
+        return rows.length;
+    }
+
     @Override
     public int getNumberOfVertices() {
-        return 0;
+        return numberOfVertices;
     }
 
+    /**
+     * Number of edges is kept up to date by counting bits of rows, that are removed
+     * @return number of edges
+     */
     @Override
     public int getNumberOfEdges() {
-        return 0;
+        return numberOfEdges;
+    }
+
+    @Override
+    public void addVertex(int vertex) {
+        checkId(vertex);
+        ensureCapacity(vertex + 1);
+        if (rows[vertex] == null) {
+            rows[vertex] = new long[words];
+            numberOfVertices++;
+        }
+    }
+
+    @Override
+    public void removeVertex(int vertex) {
+        if (!containsVertex(vertex)) {
+            return;
+        }
+        numberOfEdges -= bitCount(rows[vertex]);
+        rows[vertex] = null;
+        numberOfVertices--;
+        int word = vertex >>> 6;
+        long mask = 1L << vertex;
+        for (long[] row : rows) {
+            if (row != null && (row[word] & mask) != 0) {
+                row[word] &= ~mask;
+                numberOfEdges--;
+            }
+        }
+    }
+
+    @Override
+    public boolean containsVertex(int vertex) {
+        return vertex >= 0 && vertex < rows.length && rows[vertex] != null;
+    }
+
+    @Override
+    public boolean addEdge(int from, int to) {
+        long[] row = existingRow(from);
+        existingRow(to);
+        long mask = 1L << to;
+        if ((row[to >>> 6] & mask) != 0) {
+            return false;
+        }
+        row[to >>> 6] |= mask;
+        numberOfEdges++;
+        return true;
+    }
+
+    @Override
+    public boolean removeEdge(int from, int to) {
+        if (!existsEdge(from, to)) {
+            return false;
+        }
+        rows[from][to >>> 6] &= ~(1L << to);
+        numberOfEdges--;
+        return true;
+    }
+
+    @Override
+    public boolean existsEdge(int from, int to) {
+        return containsVertex(from) && containsVertex(to) && (rows[from][to >>> 6] & (1L << to)) != 0;
+    }
+
+    @Override
+    public int getOutDegree(int vertex) {
+        return containsVertex(vertex) ? bitCount(rows[vertex]) : 0;
+    }
+
+    /**
+     * Destinations are found by scanning words of row and taking lowest set bit until the word is empty
+     * @param vertex id of vertex
+     * @return ids of destinations in ascending order
+     */
+    @Override
+    public int[] outgoingEdgesDestinations(int vertex) {
+        if (!containsVertex(vertex)) {
+            return new int[0];
+        }
+        long[] row = rows[vertex];
+        int[] destinations = new int[bitCount(row)];
+        int count = 0;
+        for (int i = 0; i < row.length; i++) {
+            long word = row[i];
+            while (word != 0) {
+                destinations[count++] = (i << 6) + Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+            }
+        }
+        return destinations;
     }
 
+    /**
+     * Sources are found by testing bit of vertex in every row (column scan)
+     * @param vertex id of vertex
+     * @return ids of sources in ascending order
+     */
     @Override
-    public boolean existsEdge() {
-        return false;
+    public int[] incomingEdgesSources(int vertex) {
+        if (!containsVertex(vertex)) {
+            return new int[0];
+        }
+        int word = vertex >>> 6;
+        long bit = 1L << vertex;
+        int[] sources = new int[8];
+        int count = 0;
+        for (int from = 0; from < rows.length; from++) {
+            if (rows[from] != null && (rows[from][word] & bit) != 0) {
+                if (count == sources.length) {
+                    sources = Arrays.copyOf(sources, count << 1);
+                }
+                sources[count++] = from;
+            }
+        }
+        return Arrays.copyOf(sources, count);
     }
 
     @Override
-    public Iterable<String> outgoingEdgesDestinations(String vertex) {
-        return null;
+    public void clear() {
+        Arrays.fill(rows, null);
+        numberOfVertices = 0;
+        numberOfEdges = 0;
+    }
+
+    private long[] existingRow(int vertex) {
+        if (!containsVertex(vertex)) {
+            throw new IllegalArgumentException("Vertex " + vertex + " is not present in graph");
+        }
+        return rows[vertex];
+    }
+
+    private static void checkId(int vertex) {
+        if (vertex < 0) {
+            throw new IllegalArgumentException("Vertex id must not be negative: " + vertex);
+        }
+    }
+
+    private static int bitCount(long[] row) {
+        int count = 0;
+        for (long word : row) {
+            count += Long.bitCount(word);
+        }
+        return count;
     }
 }
@@ -0,0 +1,264 @@
+package com.example.editorgrafov;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Compressed sparse row representation of Graph
+ * - destinations of vertex v are stored in targets[offsets[v]] ... targets[offsets[v + 1] - 1]
+ * - it is read-only snapshot, meant for algorithms, that only walk over the edges many times
+ * - mutating methods throw UnsupportedOperationException
+ */
+public class CsrGraph implements Graph {
+
+    private final int[] offsets;
+    private final int[] targets;
+    private final boolean[] present;
+    private final int numberOfVertices;
+
+    /**
+     * Constructor of CsrGraph from already built arrays (arrays are not copied)
+     * @param offsets array of length capacity + 1, where offsets[v] is index of first destination of v
+     * @param targets destinations of edges grouped by source
+     * @param present present[v] is true iff vertex v is part of graph
+     */
+    public CsrGraph(int[] offsets, int[] targets, boolean[] present) {
+        if (offsets.length != present.length + 1) {
+            throw new IllegalArgumentException("Offsets must have exactly one item more than there are vertex ids");
+        }
+        this.offsets = offsets;
+        this.targets = targets;
+        this.present = present;
+        int count = 0;
+        for (boolean isPresent : present) {
+            if (isPresent) {
+                count++;
+            }
+        }
+        numberOfVertices = count;
+    }
+
+    /**
+     * Method that takes snapshot of any graph
+     * @param graph to be copied
+     * @return CsrGraph with the same vertices and edges
+     */
+    public static CsrGraph of(Graph graph) {
+        if (graph instanceof CsrGraph) {
+            return (CsrGraph) graph;
+        }
+        int capacity = graph.getCapacity();
+        int[] offsets = new int[capacity + 1];
+        int[] targets = new int[graph.getNumberOfEdges()];
+        boolean[] present = new boolean[capacity];
+        int count = 0;
+        for (int v = 0; v < capacity; v++) {
+            offsets[v] = count;
+            if (graph.containsVertex(v)) {
+                present[v] = true;
+                int[] destinations = graph.outgoingEdgesDestinations(v);
+                System.arraycopy(destinations, 0, targets, count, destinations.length);
+                count += destinations.length;
+            }
+        }
+        offsets[capacity] = count;
+        return new CsrGraph(offsets, targets, present);
+    }
+
+    /**
+     * Method that builds graph with vertices 0 ... numberOfVertices - 1 from edges split into parts
+     * - edges are grouped by source with counting sort, so it takes O(numberOfVertices + number of edges)
+     * - destinations of every vertex are then sorted (in parallel) and duplicate edges are removed
+     * @param numberOfVertices number of vertices, all of them are present
+     * @param from parts of array of sources of edges
+     * @param to parts of array of destinations of edges, to[k].length == from[k].length
+     * @return new CsrGraph
+     */
+    public static CsrGraph fromEdges(int numberOfVertices, int[][] from, int[][] to) {
+        int[] offsets = new int[numberOfVertices + 1];
+        long numberOfEdges = 0;
+        for (int[] part : from) {
+            for (int source : part) {
+                offsets[source + 1]++;
+            }
+            numberOfEdges += part.length;
+        }
+        if (numberOfEdges > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Too many edges: " + numberOfEdges);
+        }
+        for (int v = 0; v < numberOfVertices; v++) {
+            offsets[v + 1] += offsets[v];
+        }
+        int[] position = Arrays.copyOf(offsets, numberOfVertices);
+        int[] targets = new int[(int) numberOfEdges];
+        for (int k = 0; k < from.length; k++) {
+            int[] sources = from[k];
+            int[] destinations = to[k];
+            for (int i = 0; i < sources.length; i++) {
+                targets[position[sources[i]]++] = destinations[i];
+            }
+        }
+
+        //position[v] is reused as number of distinct destinations of v
+        IntStream.range(0, numberOfVertices).parallel().forEach(v -> {
+            int start = offsets[v];
+            int end = offsets[v + 1];
+            Arrays.sort(targets, start, end);
+            int distinct = 0;
+            for (int i = start; i < end; i++) {
+                if (i == start || targets[i] != targets[i - 1]) {
+                    targets[start + distinct++] = targets[i];
+                }
+            }
+            position[v] = distinct;
+        });
+        int count = 0;
+        for (int v = 0; v < numberOfVertices; v++) {
+            int start = offsets[v];
+            offsets[v] = count;
+            System.arraycopy(targets, start, targets, count, position[v]);
+            count += position[v];
+        }
+        offsets[numberOfVertices] = count;
+        boolean[] present = new boolean[numberOfVertices];
+        Arrays.fill(present, true);
+        return new CsrGraph(offsets, count == targets.length ? targets : Arrays.copyOf(targets, count), present);
+    }
+
+    /**
+     * Method that returns graph with all edges reversed
+     * - built by counting sort of edges by destination, so it takes O(capacity + number of edges)
+     * @return transposed CsrGraph
+     */
+    public CsrGraph transpose() {
+        int capacity = present.length;
+        int[] transposedOffsets = new int[capacity + 1];
+        for (int target : targets) {
+            transposedOffsets[target + 1]++;
+        }
+        for (int v = 0; v < capacity; v++) {
+            transposedOffsets[v + 1] += transposedOffsets[v];
+        }
+        int[] position = Arrays.copyOf(transposedOffsets, capacity);
+        int[] transposedTargets = new int[targets.length];
+        for (int v = 0; v < capacity; v++) {
+            for (int i = offsets[v]; i < offsets[v + 1]; i++) {
+                transposedTargets[position[targets[i]]++] = v;
+            }
+        }
+        return new CsrGraph(transposedOffsets, transposedTargets, present);
+    }
+
+    /**
+     * Method that returns offsets array (not a copy, so it must not be modified)
+     * @return offsets of destinations of every vertex
+     */
+    public int[] getOffsets() {
+        return offsets;
+    }
+
+    /**
+     * Method that returns targets array (not a copy, so it must not be modified)
+     * @return destinations of all edges grouped by source
+     */
+    public int[] getTargets() {
+        return targets;
+    }
+
+    @Override
+    public int getNumberOfVertices() {
+        return numberOfVertices;
+    }
+
+    @Override
+    public int getNumberOfEdges() {
+        return targets.length;
+    }
+
+    @Override
+    public int getCapacity() {
+        return present.length;
+    }
+
+    @Override
+    public void addVertex(int vertex) {
+        throw new UnsupportedOperationException("CsrGraph is read-only");
+    }
+
+    @Override
+    public void removeVertex(int vertex) {
+        throw new UnsupportedOperationException("CsrGraph is read-only");
+    }
+
+    @Override
+    public boolean containsVertex(int vertex) {
+        return vertex >= 0 && vertex < present.length && present[vertex];
+    }
+
+    @Override
+    public boolean addEdge(int from, int to) {
+        throw new UnsupportedOperationException("CsrGraph is read-only");
+    }
+
+    @Override
+    public boolean removeEdge(int from, int to) {
+        throw new UnsupportedOperationException("CsrGraph is read-only");
+    }
+
+    @Override
+    public boolean existsEdge(int from, int to) {
+        if (!containsVertex(from) || !containsVertex(to)) {
+            return false;
+        }
+        for (int i = offsets[from]; i < offsets[from + 1]; i++) {
+            if (targets[i] == to) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public int getOutDegree(int vertex) {
+        return containsVertex(vertex) ? offsets[vertex + 1] - offsets[vertex] : 0;
+    }
+
+    @Override
+    public int[] outgoingEdgesDestinations(int vertex) {
+        if (!containsVertex(vertex)) {
+            return new int[0];
+        }
+        return Arrays.copyOfRange(targets, offsets[vertex], offsets[vertex + 1]);
+    }
+
+    /**
+     * Sources are found by scanning all edges, transpose() should be used when it is needed for every vertex
+     * @param vertex id of vertex
+     * @return ids of sources in ascending order
+     */
+    @Override
+    public int[] incomingEdgesSources(int vertex) {
+        if (!containsVertex(vertex)) {
+            return new int[0];
+        }
+        int[] sources = new int[8];
+        int count = 0;
+        for (int from = 0; from < present.length; from++) {
+            for (int i = offsets[from]; i < offsets[from + 1]; i++) {
+                if (targets[i] == vertex) {
+                    if (count == sources.length) {
+                        sources = Arrays.copyOf(sources, count << 1);
+                    }
+                    sources[count++] = from;
+                    break;
+                }
+            }
+        }
+        return Arrays.copyOf(sources, count);
+    }
+
+    @Override
+    public void clear() {
+        throw new UnsupportedOperationException("CsrGraph is read-only");
+    }
+}
@@ -0,0 +1,234 @@
+package com.example.editorgrafov;
+
+import com.example.editorgrafov.history.History;
+import com.example.editorgrafov.history.MoveVertexCommand;
+import com.example.editorgrafov.history.MoveVerticesCommand;
+import javafx.scene.paint.Color;
+
+import java.util.Arrays;
+import java.util.function.IntFunction;
+
+/**
+ * Controller of dragging vertices, one instance is shared by all vertices and both rendering modes
+ * - when gesture starts on selected vertex, whole selection is dragged, otherwise only vertex under mouse
+ * - during gesture only one offset is changed and shown by DragView (single transform for all dragged vertices),
+ *   model is changed once, when mouse is released, so whole drag is one step of history
+ * - ids, start coordinates and fills are kept in arrays reused by next gestures, so mouse events do not allocate
+ * - dragged vertices are highlighted once, when gesture starts, and get their own fill back when it ends
+ */
+public class DragController {
+
+    private static final Color dragColor = Color.RED;
+
+    /**
+     * View, which shows dragged vertices moved by offset, without changing model
+     */
+    public interface DragView {
+
+        /**
+         * Method called once, when gesture starts
+         * @param ids of dragged vertices, only first count of them are valid
+         * @param count number of dragged vertices
+         */
+        void dragStarted(int[] ids, int count);
+
+        /**
+         * Method called on every mouse event of gesture
+         * @param dx offset of all dragged vertices from their positions in model
+         * @param dy offset of all dragged vertices from their positions in model
+         */
+        void dragMoved(double dx, double dy);
+
+        /**
+         * Method called once, when gesture ends (right before model is changed)
+         */
+        void dragEnded();
+    }
+
+    private final GraphModel model;
+    private final History history;
+    private final Selection selection;
+    private final IntFunction<VertexHandle> handles;
+    private int[] ids = new int[64];
+    private double[] startX = new double[64];
+    private double[] startY = new double[64];
+    private Color[] fills = new Color[64];
+    private int count;
+    private DragView view;
+    private double pressX;
+    private double pressY;
+    //bounding box of start coordinates of dragged vertices
+    private double minStartX;
+    private double minStartY;
+    private double maxStartX;
+    private double maxStartY;
+    private double dx;
+    private double dy;
+
+    /**
+     * Constructor of DragController
+     * @param model of graph
+     * @param history where move of vertices is executed
+     * @param selection whose vertices are dragged together
+     * @param handles returns handle of displayed vertex by id (used for highlighting)
+     */
+    public DragController(GraphModel model, History history, Selection selection, IntFunction<VertexHandle> handles) {
+        this.model = model;
+        this.history = history;
+        this.selection = selection;
+        this.handles = handles;
+    }
+
+    public boolean isActive() {
+        return view != null;
+    }
+
+    /**
+     * Method that starts gesture on vertex
+     * @param id of vertex under mouse
+     * @param x coordinate of mouse (in any coordinate system, which does not move with vertices)
+     * @param y coordinate of mouse
+     * @param view showing dragged vertices in current rendering mode
+     */
+    public void press(int id, double x, double y, DragView view) {
+        if (isActive()) {
+            cancel();
+        }
+        count = 0;
+        if (selection.contains(id)) {
+            int[] selected = selection.getIds();
+            ensureCapacity(selected.length);
+            for (int selectedId : selected) {
+                ids[count++] = selectedId;
+            }
+        }
+        else {
+            ids[count++] = id;
+        }
+        minStartX = Double.POSITIVE_INFINITY;
+        minStartY = Double.POSITIVE_INFINITY;
+        maxStartX = Double.NEGATIVE_INFINITY;
+        maxStartY = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < count; i++) {
+            startX[i] = model.getX(ids[i]);
+            startY[i] = model.getY(ids[i]);
+            minStartX = Math.min(minStartX, startX[i]);
+            minStartY = Math.min(minStartY, startY[i]);
+            maxStartX = Math.max(maxStartX, startX[i]);
+            maxStartY = Math.max(maxStartY, startY[i]);
+            VertexHandle handle = handles.apply(ids[i]);
+            fills[i] = handle != null ? handle.getFill() : null;
+            if (handle != null) {
+                handle.setVertexFill(dragColor);
+            }
+        }
+        this.view = view;
+        pressX = x;
+        pressY = y;
+        dx = 0;
+        dy = 0;
+        view.dragStarted(ids, count);
+    }
+
+    /**
+     * Method that moves dragged vertices with mouse
+     * - offset is limited, so that bounding box of all dragged vertices stays inside of [0, maxX] x [0, maxY]
+     *   (vertices, which were outside already, can be moved only back inside)
+     * @param x coordinate of mouse
+     * @param y coordinate of mouse
+     * @param maxX limit of x coordinate of vertex
+     * @param maxY limit of y coordinate of vertex
+     */
+    public void drag(double x, double y, double maxX, double maxY) {
+        if (!isActive()) {
+            return;
+        }
+        dx = clamp(x - pressX, -minStartX, maxX - maxStartX);
+        dy = clamp(y - pressY, -minStartY, maxY - maxStartY);
+        view.dragMoved(dx, dy);
+    }
+
+    /**
+     * @return offset limited to [min, max], both limits are extended to 0 (no move is always allowed)
+     */
+    private static double clamp(double offset, double min, double max) {
+        return Math.max(Math.min(min, 0), Math.min(Math.max(max, 0), offset));
+    }
+
+    /**
+     * Method that ends gesture and moves dragged vertices in model as one command
+     * @return number of moved vertices
+     */
+    public int release() {
+        if (!isActive()) {
+            return 0;
+        }
+        DragView ended = view;
+        view = null;
+        ended.dragEnded();
+        restoreFills();
+        int moved = 0;
+        for (int i = 0; i < count; i++) {
+            if (model.isAlive(ids[i])) {
+                ids[moved] = ids[i];
+                startX[moved] = startX[i];
+                startY[moved] = startY[i];
+                moved++;
+            }
+        }
+        if (moved == 0 || dx == 0 && dy == 0) {
+            return 0;
+        }
+        if (moved == 1) {
+            history.execute(new MoveVertexCommand(ids[0], startX[0], startY[0], startX[0] + dx, startY[0] + dy));
+            return 1;
+        }
+        double[] newX = new double[moved];
+        double[] newY = new double[moved];
+        for (int i = 0; i < moved; i++) {
+            newX[i] = startX[i] + dx;
+            newY[i] = startY[i] + dy;
+        }
+        history.execute(new MoveVerticesCommand(Arrays.copyOf(ids, moved), Arrays.copyOf(startX, moved),
+                Arrays.copyOf(startY, moved), newX, newY, "Move nodes"));
+        return moved;
+    }
+
+    /**
+     * Method that ends gesture without changing model (e.g. when graph is cleared or rendering mode changes)
+     */
+    public void cancel() {
+        if (!isActive()) {
+            return;
+        }
+        DragView ended = view;
+        view = null;
+        ended.dragEnded();
+        restoreFills();
+    }
+
+    private void restoreFills() {
+        for (int i = 0; i < count; i++) {
+            VertexHandle handle = model.isAlive(ids[i]) ? handles.apply(ids[i]) : null;
+            if (handle != null) {
+                if (fills[i] != null) {
+                    handle.setVertexFill(fills[i]);
+                }
+                else {
+                    handle.resetFill();
+                }
+            }
+            fills[i] = null;
+        }
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > ids.length) {
+            int newLength = Math.max(capacity, ids.length << 1);
+            ids = Arrays.copyOf(ids, newLength);
+            startX = Arrays.copyOf(startX, newLength);
+            startY = Arrays.copyOf(startY, newLength);
+            fills = Arrays.copyOf(fills, newLength);
+        }
+    }
+}
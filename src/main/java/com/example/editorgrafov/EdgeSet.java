@@ -0,0 +1,150 @@
+package com.example.editorgrafov;
+
+import com.example.editorgrafov.collections.LongHashSet;
+
+import java.util.Arrays;
+
+/**
+ * Set of directed edges without object per edge
+ * - edge from -> to is packed into one long key (from << 32 | to), keys are kept in LongHashSet
+ * - attributes of edges are kept in parallel primitive arrays indexed by index of key in set,
+ *   array of attribute is allocated only when attribute of some edge is set for the first time
+ */
+public class EdgeSet {
+
+    public static final float defaultWeight = 1;
+
+    private final LongHashSet keys;
+    private float[] weights;
+
+    public EdgeSet() {
+        this(0);
+    }
+
+    /**
+     * Constructor of EdgeSet, which holds expected number of edges without growing
+     * @param expected number of edges
+     */
+    public EdgeSet(int expected) {
+        keys = new LongHashSet(expected);
+    }
+
+    /**
+     * Method that packs edge into key
+     * @param from id of source vertex
+     * @param to id of destination vertex
+     * @return key of edge
+     */
+    public static long key(int from, int to) {
+        return (long) from << 32 | (to & 0xFFFFFFFFL);
+    }
+
+    public static int from(long key) {
+        return (int) (key >>> 32);
+    }
+
+    public static int to(long key) {
+        return (int) key;
+    }
+
+    public void ensureCapacity(int expected) {
+        keys.ensureCapacity(expected);
+    }
+
+    public int size() {
+        return keys.size();
+    }
+
+    /**
+     * Method that adds edge, new edge has default attributes
+     * @param from id of source vertex
+     * @param to id of destination vertex
+     * @return true iff edge was not in set before
+     */
+    public boolean add(int from, int to) {
+        if (!keys.add(key(from, to))) {
+            return false;
+        }
+        if (weights != null) {
+            int index = keys.size() - 1;
+            ensureWeights(index + 1);
+            weights[index] = defaultWeight;
+        }
+        return true;
+    }
+
+    public boolean contains(int from, int to) {
+        return keys.contains(key(from, to));
+    }
+
+    /**
+     * Method that removes edge together with its attributes
+     * @param from id of source vertex
+     * @param to id of destination vertex
+     * @return true iff edge was in set
+     */
+    public boolean remove(int from, int to) {
+        int index = keys.remove(key(from, to));
+        if (index < 0) {
+            return false;
+        }
+        //last edge was moved into place of removed one
+        if (weights != null) {
+            weights[index] = weights[keys.size()];
+        }
+        return true;
+    }
+
+    /**
+     * Method that returns weight of edge
+     * @param from id of source vertex
+     * @param to id of destination vertex
+     * @return weight of edge (defaultWeight if it was not set), NaN if there is no such edge
+     */
+    public float getWeight(int from, int to) {
+        int index = keys.indexOf(key(from, to));
+        if (index < 0) {
+            return Float.NaN;
+        }
+        return weights == null ? defaultWeight : weights[index];
+    }
+
+    /**
+     * Method that sets weight of edge
+     * @param from id of source vertex
+     * @param to id of destination vertex
+     * @param weight of edge
+     * @return true iff edge is in set (weight of missing edge is not stored)
+     */
+    public boolean setWeight(int from, int to, float weight) {
+        int index = keys.indexOf(key(from, to));
+        if (index < 0) {
+            return false;
+        }
+        if (weights == null) {
+            if (weight == defaultWeight) {
+                return true;
+            }
+            weights = new float[Math.max(keys.size(), 16)];
+            Arrays.fill(weights, defaultWeight);
+        }
+        weights[index] = weight;
+        return true;
+    }
+
+    /**
+     * Method that removes every edge, attributes are dropped as well
+     */
+    public void clear() {
+        keys.clear();
+        weights = null;
+    }
+
+    private void ensureWeights(int capacity) {
+        if (capacity > weights.length) {
+            int oldLength = weights.length;
+            weights = Arrays.copyOf(weights, Math.max(capacity, oldLength + (oldLength >> 1)));
+            Arrays.fill(weights, oldLength, weights.length, defaultWeight);
+        }
+    }
+}
@@ -1,24 +1,83 @@
 package com.example.editorgrafov;
 
+import com.example.editorgrafov.algorithms.AnalyticsTask;
+import com.example.editorgrafov.algorithms.Clustering;
+import com.example.editorgrafov.algorithms.CommunityTask;
+import com.example.editorgrafov.algorithms.ComponentTracker;
+import com.example.editorgrafov.algorithms.GraphAlgorithms;
+import com.example.editorgrafov.algorithms.ShortestPaths;
+import com.example.editorgrafov.collections.IntList;
 import com.example.editorgrafov.enums.Action;
+import com.example.editorgrafov.enums.FileFormat;
+import com.example.editorgrafov.enums.Measure;
 import com.example.editorgrafov.enums.Mode;
+import com.example.editorgrafov.hierarchy.Hierarchy;
+import com.example.editorgrafov.history.AddEdgeCommand;
+import com.example.editorgrafov.history.AddVertexCommand;
+import com.example.editorgrafov.history.CollapseCommand;
+import com.example.editorgrafov.history.CollapseCommunitiesCommand;
+import com.example.editorgrafov.history.Command;
+import com.example.editorgrafov.history.CompositeCommand;
+import com.example.editorgrafov.history.ExpandCommand;
+import com.example.editorgrafov.history.History;
+import com.example.editorgrafov.history.InsertGraphCommand;
+import com.example.editorgrafov.history.LocalLayoutCommand;
+import com.example.editorgrafov.history.MoveVerticesCommand;
+import com.example.editorgrafov.history.RemoveEdgeCommand;
+import com.example.editorgrafov.history.RemoveVertexCommand;
+import com.example.editorgrafov.history.RemoveVerticesCommand;
+import com.example.editorgrafov.io.GraphBuffer;
+import com.example.editorgrafov.io.GraphFile;
+import com.example.editorgrafov.io.GraphParser;
+import com.example.editorgrafov.io.ImportTask;
+import com.example.editorgrafov.io.Journal;
+import com.example.editorgrafov.io.ParallelEdgeListImporter;
+import com.example.editorgrafov.io.ParallelImportTask;
+import com.example.editorgrafov.io.SaveTask;
+import com.example.editorgrafov.layout.ForceLayout;
+import com.example.editorgrafov.layout.GraphHash;
+import com.example.editorgrafov.layout.IncrementalLayout;
+import com.example.editorgrafov.layout.LayoutCache;
+import com.example.editorgrafov.layout.LayoutTask;
+import com.example.editorgrafov.render.CanvasRenderer;
+import com.example.editorgrafov.render.CanvasVertex;
+import com.example.editorgrafov.render.EdgeRenderer;
+import com.example.editorgrafov.spatial.GraphIndex;
 import com.example.editorgrafov.tuples.*;
+import javafx.animation.AnimationTimer;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
 import javafx.application.*;
-import javafx.collections.ListChangeListener;
+import javafx.concurrent.Task;
+import javafx.concurrent.Worker;
 import javafx.css.PseudoClass;
+import javafx.event.EventHandler;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.control.*;
+import javafx.scene.canvas.Canvas;
 import javafx.scene.image.Image;
 import javafx.scene.input.*;
 import javafx.scene.layout.*;
 import javafx.scene.paint.Color;
+import javafx.scene.shape.Line;
+import javafx.scene.shape.Rectangle;
 import javafx.scene.text.Text;
+import javafx.scene.transform.Translate;
 import javafx.stage.*;
 import javafx.scene.*;
+import javafx.util.Duration;
 import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
 
 public class Editor extends Application {
 
@@ -27,7 +86,97 @@ public class Editor extends Application {
     private MenuItem menuItemSave;
     private RadioMenuItem menuItemInsert;
     private File file;
-    private Graph graph;
+    private GraphModel model;
+    private History history;
+    private Vertex[] vertexViews;
+    //views of vertices are kept in their own layer above edges, position of view in layer is kept by id of vertex,
+    //so removed view is replaced by the last one in O(1), instead of shifting all views behind it
+    private final Group vertexLayer = new Group();
+    private int[] viewPositions;
+    //views of vertices added and removed during transaction of model, they are put into canvas when it ends
+    private final Set<Vertex> addedViews = new LinkedHashSet<>();
+    private final Set<Vertex> removedViews = new HashSet<>();
+    //not null iff graph is drawn onto single canvas instead of one node per vertex
+    private CanvasRenderer renderer;
+    private CheckMenuItem menuItemCanvasRendering;
+    //edges are drawn by the same renderer in both rendering modes, below vertices
+    private EdgeRenderer edgeRenderer;
+    //new edge is dragged from source vertex in ADDEDGE mode, line follows mouse until it is released on target vertex
+    private int connectFrom = -1;
+    private Line connectLine;
+    //dragging of vertices (and of whole selection) in both rendering modes
+    private DragController drag;
+    private final DragController.DragView canvasDragView = new DragController.DragView() {
+        @Override
+        public void dragStarted(int[] ids, int count) {
+            renderer.startDrag(ids, count);
+            edgeRenderer.startDrag(ids, count);
+        }
+
+        @Override
+        public void dragMoved(double dx, double dy) {
+            renderer.setDragOffset(dx, dy);
+            edgeRenderer.setDragOffset(dx, dy);
+        }
+
+        @Override
+        public void dragEnded() {
+            if (renderer != null) {
+                renderer.endDrag();
+            }
+            edgeRenderer.endDrag();
+        }
+    };
+    //in node mode all dragged views share this transform, so one mouse event changes only one object
+    private final Translate dragTranslate = new Translate();
+    private final List<Vertex> draggedViews = new ArrayList<>();
+    private final DragController.DragView nodeDragView = new DragController.DragView() {
+        @Override
+        public void dragStarted(int[] ids, int count) {
+            dragTranslate.setX(0);
+            dragTranslate.setY(0);
+            for (int i = 0; i < count; i++) {
+                Vertex view = ids[i] < vertexViews.length ? vertexViews[ids[i]] : null;
+                if (view != null) {
+                    view.getTransforms().add(dragTranslate);
+                    draggedViews.add(view);
+                }
+            }
+            edgeRenderer.startDrag(ids, count);
+        }
+
+        @Override
+        public void dragMoved(double dx, double dy) {
+            dragTranslate.setX(dx);
+            dragTranslate.setY(dy);
+            edgeRenderer.setDragOffset(dx, dy);
+        }
+
+        @Override
+        public void dragEnded() {
+            for (Vertex view : draggedViews) {
+                view.getTransforms().remove(dragTranslate);
+            }
+            draggedViews.clear();
+            edgeRenderer.endDrag();
+        }
+    };
+    //handlers are shared by views of all vertices, vertex is found by source of event
+    private final EventHandler<MouseEvent> vertexMouseEntered = this::vertexMouseEntered;
+    private final EventHandler<MouseEvent> vertexMouseExited = this::vertexMouseExited;
+    private final EventHandler<MouseEvent> vertexMousePressed = this::vertexMousePressed;
+    private final EventHandler<MouseEvent> vertexMouseDragged = this::vertexMouseDragged;
+    private final EventHandler<MouseEvent> vertexMouseReleased = this::vertexMouseReleased;
+    private GraphIndex index;
+    //weakly connected components kept up to date while graph grows
+    private ComponentTracker components;
+    //collapsed groups of vertices, supervertices added since last change of model get their size in modelChanged()
+    private Hierarchy hierarchy;
+    private final IntList addedSupervertices = new IntList();
+    private Selection selection;
+    private Rectangle selectionBand;
+    private double bandStartX;
+    private double bandStartY;
     private boolean changedStatus;
     private String manualContent;
     private TextArea manualTextArea;
@@ -36,14 +185,74 @@ public class Editor extends Application {
     private List<Pair<String, TextField>> listOfTextFields;
     private List<Triplet<String, Button, Mode>> listOfButtons;
     private List<Pair<String, Mode>> listOfModes;
-    private Map<String, Stack<Vertex>> vertices;
     private Label lastAction = new Label("");
+    private Label modeSelected;
+    //not daemon, so saves in progress are finished even after application is closed
+    private final ExecutorService saveExecutor = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "graph-save"));
+    //journal is forced to disk outside of FX thread, records written before crash of process are kept by OS anyway
+    private final ExecutorService journalExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "journal-sync");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private Future<?> journalForce;
+    //either streaming ImportTask or ParallelImportTask, timer is used only by streaming import
+    private Task<?> importTask;
+    private File importedFile;
+    private AnimationTimer importTimer;
+    private MenuItem menuItemCancelImport;
+    private MenuItem menuItemUndo;
+    private MenuItem menuItemRedo;
+    private Journal journal;
+    //journals of closed sessions, which are deleted only after their save (started by saveBeforeClosing) succeeds
+    private final Map<Journal, SaveTask> retiredJournals = new HashMap<>();
+    private Timeline journalTimer;
+    private SaveTask lastSave;
+    private long lastCheckpoint;
+    //number of session, it changes whenever graph is cleared (new, open, ...), so save finished later
+    //does not change file or status of the next session
+    private long session;
+    //not null while force-directed layout runs, its frames are only previewed until the last one
+    private LayoutTask layoutTask;
+    //centrality computed in background, at most one at a time
+    private AnalyticsTask analyticsTask;
+    //communities computed in background, the last result is kept until vertices or edges change
+    private CommunityTask communityTask;
+    private Clustering clustering;
+    private GraphModelListener clusteringListener;
+    private MenuItem menuItemLayout;
+    private MenuItem menuItemStopLayout;
+    //new vertices and edges change only their neighbourhood, if it is selected
+    private IncrementalLayout incrementalLayout;
+    private CheckMenuItem menuItemIncrementalLayout;
+    //computed layouts of big graphs are reused, when the same (or similar) graph is imported or laid out again
+    private final LayoutCache layoutCache = new LayoutCache(LayoutCache.defaultDirectory(), LayoutCache.defaultMaxSize);
 
     private static final int defaultWindowHeight = 800;
     private static final int defaultWindowWidth = 1200;
 
     private static final int canvasHeight = defaultWindowHeight;
     private static final int canvasWidth = defaultWindowWidth - 200;
+    //how long imported vertices can be added into model in one pulse
+    private static final long importPulseBudget = 8_000_000;
+    //bigger graphs are drawn onto single canvas, nodes of scene graph would be too slow
+    private static final int nodeViewLimit = 2000;
+    //journal is forced to disk every second, file of session is saved when journal gets too big or too old
+    private static final Duration journalSyncPeriod = Duration.seconds(1);
+    private static final long checkpointSize = 8L << 20;
+    private static final long checkpointPeriod = TimeUnit.MINUTES.toNanos(5);
+    //results of algorithms are shown by colours, colours are created once and shared by all vertices
+    private static final Color pathColor = Color.ORANGE;
+    private static final Color[] gradientColors = new Color[64];
+    private static final Color[] componentColors = new Color[64];
+    static {
+        for (int i = 0; i < gradientColors.length; i++) {
+            //from red (start) to blue (end)
+            gradientColors[i] = Color.hsb(240.0 * i / (gradientColors.length - 1), 0.6, 0.95);
+            //golden angle, so neighbouring numbers get distant hues
+            componentColors[i] = Color.hsb(i * 137.508 % 360, 0.55, 0.95);
+        }
+    }
 
 
     /**
@@ -123,8 +332,9 @@ public class Editor extends Application {
         FileChooser fileChooser = new FileChooser();
         fileChooser.setInitialDirectory(new File(System.getProperty("user.dir")));
         //possible to add more extensions
-        fileChooser.getExtensionFilters().addAll(
-                new FileChooser.ExtensionFilter("Text Documents (*.txt)", "*.txt"));
+        for (FileFormat format : FileFormat.values()) {
+            fileChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter(format.getDescription(), format.getPatterns()));
+        }
         return fileChooser;
     }
 
@@ -145,7 +355,13 @@ public class Editor extends Application {
     public File chooseFileToSave() {
         FileChooser fileChooser = fileChooser();
         fileChooser.setTitle("Save");
-        return fileChooser.showSaveDialog(stage);
+        fileChooser.getExtensionFilters().retainAll(fileChooser.getExtensionFilters().get(FileFormat.BINARY.ordinal()));
+        File chosen = fileChooser.showSaveDialog(stage);
+        //graph is always saved in binary format, so extension has to match it
+        if (chosen != null && !chosen.getName().endsWith("." + GraphFile.extension)) {
+            chosen = new File(chosen.getParentFile(), chosen.getName() + "." + GraphFile.extension);
+        }
+        return chosen;
     }
 
     /**
@@ -156,106 +372,1135 @@ public class Editor extends Application {
         if (saveBeforeClosing()) {
             return;
         }
-        event.consume();
+        event.consume();
+    }
+
+    /**
+     * Method for handling process after clicking "New" option in File tab in menu
+     * - if current session has not been saved yet, saveBeforeClosing() method gets called
+     * @return boolean value whether New action was handled correctly
+     */
+    public boolean newAction() {
+        if (saveBeforeClosing()) {
+            updateStatus(null, true);
+            clearTextFields();
+            discardJournal();
+            clearNodes();
+            attachJournal(null, false);
+            setButtonsTextFieldsStartup(menuItemInsert);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Method for handling process after clicking "Open" option in File tab in menu
+     * - if current session has not been saved yet, saveBeforeClosing() method gets called
+     * @return boolean whether Open action was handled correctly (false = either some error occurred or file to Open does not exit)
+     */
+    public boolean openAction() {
+        if (saveBeforeClosing()) {
+            File fileToOpen = chooseFileToOpen();
+            if (fileToOpen == null) {
+                return false;
+            }
+            else {
+                try {
+                    //read and display graph
+                    FileFormat format = FileFormat.fromFileName(fileToOpen.getName());
+                    if (format == null || format == FileFormat.BINARY) {
+                        GraphSnapshot snapshot = GraphFile.read(fileToOpen.toPath());
+                        clearTextFields();
+                        discardJournal();
+                        clearNodes();
+                        model.load(snapshot);
+                        setButtonsTextFieldsStartup(menuItemInsert);
+                        //changes, which were not saved before crash, are replayed from journal of file
+                        int recovered = attachJournal(Journal.locate(fileToOpen.toPath()), true);
+                        updateStatus(fileToOpen, recovered > 0);
+                        if (recovered > 0) {
+                            lastAction.setText("Last action: Recovered " + recovered + " unsaved changes");
+                        }
+                    }
+                    else {
+                        //text formats are only imported, session has to be saved into binary file
+                        clearTextFields();
+                        discardJournal();
+                        clearNodes();
+                        attachJournal(null, false);
+                        setButtonsTextFieldsStartup(menuItemInsert);
+                        if (format == FileFormat.EDGE_LIST && fileToOpen.length() >= ParallelEdgeListImporter.threshold) {
+                            importInParallel(fileToOpen);
+                        }
+                        else {
+                            importInBackground(fileToOpen, GraphParser.forFormat(format));
+                        }
+                        updateStatus(null, true);
+                    }
+                }
+                catch (Exception e) {
+                    errorAction(Action.OPEN);
+                }
+                return true;
+            }
+        }
+        else return false;
+    }
+
+    /**
+     * Method for handling process after clicking "Save" option in File tab in menu
+     * - if file has not been saved yet, saveAsAction() gets called instead
+     * - else content of current session gets written into file (in background)
+     * @return boolean value whether Save action was handled correctly (false = iff saveAsAction() returns false)
+     */
+    public boolean saveAction() {
+        if (file == null) {
+            return saveAsAction();
+        }
+        else {
+            try {
+                // write to file graph representation
+                saveInBackground(file);
+            }
+            catch (Exception e) {
+                errorAction(Action.SAVE);
+            }
+            return true;
+        }
+
+    }
+
+    /**
+     * Method for handling process after clicking "Save As" option in File tab in menu
+     * - firstly, fileChooser window opens for user to choose file to save current session into
+     * - current session is saved into chosen file afterwards
+     * @return boolean value whether Save As action was handled correctly (false = either file to save does not exit or error occurred)
+     */
+    public boolean saveAsAction() {
+        File fileToSave = chooseFileToSave();
+        if (fileToSave == null)
+            return false;
+        else {
+            try {
+                //write to chosen file graph representation
+                saveInBackground(fileToSave);
+            }
+            catch (Exception e) {
+                errorAction(Action.SAVE);
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Method that imports text graph file in background thread
+     * - vertices and edges appear in canvas progressively, every pulse adds part of them into model
+     * - import can be cancelled, vertices imported so far are kept
+     * @param source file to be imported
+     * @param parser of format of file
+     */
+    private void importInBackground(File source, GraphParser parser) {
+        ImportTask task = new ImportTask(parser, source.toPath(), canvasWidth - 60, canvasHeight - 100);
+        importTask = task;
+        importedFile = source;
+        task.messageProperty().addListener((observableValue, oldMessage, message) -> {
+            if (importTask == task) {
+                lastAction.setText("Last action: " + message);
+            }
+        });
+        importTimer = new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                if (task.drain(model, importPulseBudget)) {
+                    finishImport(task);
+                }
+            }
+        };
+        menuItemCancelImport.setDisable(false);
+        importTimer.start();
+        Thread thread = new Thread(task, "graph-import");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Method that imports big edge list using all cores
+     * - graph is added into model at once, after whole file is read
+     * - import can be cancelled, nothing is added into model then
+     * @param source edge list to be imported
+     */
+    private void importInParallel(File source) {
+        ParallelImportTask task = new ParallelImportTask(source.toPath(), canvasWidth - 60, canvasHeight - 100);
+        importTask = task;
+        importedFile = source;
+        task.progressProperty().addListener((observableValue, number, progress) -> {
+            if (importTask == task) {
+                lastAction.setText("Last action: Importing \"" + source.getName() + "\" (" + Math.round(progress.doubleValue() * 100) + " %)");
+            }
+        });
+        task.setOnSucceeded(workerStateEvent -> {
+            if (importTask == task) {
+                importTask = null;
+                menuItemCancelImport.setDisable(true);
+                ParallelEdgeListImporter importer = task.getValue();
+                model.install(importer.getLabels(), importer.getX(), importer.getY(), importer.getBuiltGraph());
+                lastAction.setText("Last action: Imported " + model.getNumberOfVertices() + " nodes from \"" + source.getName() + "\"");
+                startLayout(true);
+            }
+        });
+        task.setOnFailed(workerStateEvent -> {
+            if (importTask == task) {
+                importTask = null;
+                menuItemCancelImport.setDisable(true);
+                lastAction.setText("Last action: Failed to import \"" + source.getName() + "\"");
+                errorAction(Action.OPEN);
+            }
+        });
+        menuItemCancelImport.setDisable(false);
+        Thread thread = new Thread(task, "graph-import");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Method that is called after every batch of running import was added into model
+     * @param task import, that was finished
+     */
+    private void finishImport(ImportTask task) {
+        importTimer.stop();
+        importTask = null;
+        menuItemCancelImport.setDisable(true);
+        if (task.getState() == Worker.State.FAILED) {
+            lastAction.setText("Last action: Failed to import \"" + task.getPath().getFileName() + "\"");
+            errorAction(Action.OPEN);
+        }
+        else {
+            lastAction.setText("Last action: Imported " + task.getAppliedVertices() + " nodes from \"" + task.getPath().getFileName() + "\"");
+            startLayout(true);
+        }
+    }
+
+    /**
+     * Method that cancels running import, vertices and edges imported so far stay in model
+     */
+    public void cancelImport() {
+        if (importTask == null) {
+            return;
+        }
+        Task<?> task = importTask;
+        task.cancel(true);
+        importTask = null;
+        menuItemCancelImport.setDisable(true);
+        if (task instanceof ImportTask) {
+            importTimer.stop();
+            lastAction.setText("Last action: Cancelled import of \"" + importedFile.getName() + "\" after " + ((ImportTask) task).getAppliedVertices() + " nodes");
+        }
+        else {
+            lastAction.setText("Last action: Cancelled import of \"" + importedFile.getName() + "\"");
+        }
+    }
+
+    /**
+     * Method that saves current session into file in background thread
+     * - snapshot of model is taken right away, so user can continue editing while file is being written
+     * - collapsed nodes are expanded in snapshot, so file contains whole graph
+     * - progress is shown in last action label, status and title are updated after saving is finished
+     *   (only if the same session is still open)
+     * @param target file, where current session is saved
+     */
+    private void saveInBackground(File target) {
+        long savedSession = session;
+        long savedModification = model.getModificationCount();
+        Journal savedJournal = journal;
+        long journalMark = markJournal();
+        SaveTask task = new SaveTask(hierarchy.flatten(), target.toPath());
+        lastSave = task;
+        lastCheckpoint = System.nanoTime();
+        task.progressProperty().addListener((observableValue, number, progress) ->
+                lastAction.setText("Last action: Saving \"" + target.getName() + "\" (" + Math.round(progress.doubleValue() * 100) + " %)"));
+        task.setOnSucceeded(workerStateEvent -> {
+            lastAction.setText("Last action: Saved \"" + target.getName() + "\"");
+            if (session != savedSession) {
+                //session was saved before it was closed, file and title belong to another session now
+                return;
+            }
+            updateStatus(target, model.getModificationCount() != savedModification);
+            //records in saved snapshot are not needed anymore, journal moves next to saved file
+            if (journal == savedJournal && journalMark >= 0) {
+                try {
+                    journal.checkpoint(journalMark, Journal.locate(target.toPath()));
+                    Journal.markSession(journal.getPath());
+                }
+                catch (IOException e) {
+                    lastAction.setText("Last action: Saved \"" + target.getName() + "\", journal could not be written");
+                }
+            }
+        });
+        task.setOnFailed(workerStateEvent -> {
+            lastAction.setText("Last action: Failed to save \"" + target.getName() + "\"");
+            errorAction(Action.SAVE);
+        });
+        saveExecutor.execute(task);
+    }
+
+    /**
+     * Method that opens journal of session and starts writing changes of model into it
+     * - journal of previous session has to be closed or discarded before
+     * @param path of journal, or null if new journal of untitled session is created
+     * @param recover whether records already in journal are replayed, otherwise they are thrown away
+     * @return number of replayed records
+     */
+    private int attachJournal(Path path, boolean recover) {
+        int replayed = 0;
+        try {
+            if (path == null) {
+                path = Journal.createUntitled();
+            }
+            else if (!recover) {
+                Files.deleteIfExists(path);
+            }
+            journal = new Journal(model, hierarchy, path);
+            replayed = journal.replay();
+            model.addListener(journal);
+            hierarchy.addListener(journal);
+            Journal.markSession(path);
+        }
+        catch (IOException e) {
+            journal = null;
+            lastAction.setText("Last action: Journal could not be opened (" + e.getMessage() + ")");
+        }
+        lastCheckpoint = System.nanoTime();
+        return replayed;
+    }
+
+    /**
+     * Method that stops journaling of model, journal stays on disk
+     */
+    private void detachJournal() {
+        if (journal != null) {
+            model.removeListener(journal);
+            hierarchy.removeListener(journal);
+        }
+    }
+
+    /**
+     * Method that deletes journal of session, it is called when unsaved changes are thrown away (or saved)
+     * - if session is still being saved, journal is deleted only after save succeeds, it stays on disk if save fails
+     */
+    private void discardJournal() {
+        if (journal == null) {
+            return;
+        }
+        detachJournal();
+        Journal retired = journal;
+        journal = null;
+        SaveTask save = lastSave;
+        if (save == null || save.isDone()) {
+            discard(retired);
+            return;
+        }
+        retiredJournals.put(retired, save);
+        save.stateProperty().addListener((observableValue, oldState, state) -> {
+            if (state == Worker.State.SUCCEEDED) {
+                retiredJournals.remove(retired);
+                discard(retired);
+            }
+            else if (state == Worker.State.FAILED || state == Worker.State.CANCELLED) {
+                retiredJournals.remove(retired);
+                closeJournal(retired);
+            }
+        });
+    }
+
+    private static void discard(Journal journal) {
+        try {
+            journal.discard();
+        }
+        catch (IOException e) {
+            //stale journal is replayed idempotently, so it can stay on disk
+        }
+    }
+
+    /**
+     * Method that marks end of journal before snapshot for saving is taken
+     * @return position in journal, or -1 if there is no working journal
+     */
+    private long markJournal() {
+        try {
+            return journal == null ? -1 : journal.mark();
+        }
+        catch (IOException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Method that is called periodically - it writes journal, forces it to disk in background
+     * and saves file of session (checkpoint), when journal gets too big or too old
+     */
+    private void syncJournal() {
+        if (journal == null) {
+            return;
+        }
+        try {
+            journal.write();
+            //slow disk does not queue more forces, the running one covers records written so far
+            if (journalForce == null || journalForce.isDone()) {
+                journalForce = journalExecutor.submit(journal::force);
+            }
+            boolean saving = lastSave != null && !lastSave.isDone();
+            boolean checkpointDue = journal.size() >= checkpointSize || System.nanoTime() - lastCheckpoint >= checkpointPeriod;
+            if (file != null && !saving && journal.hasRecords() && checkpointDue) {
+                saveInBackground(file);
+            }
+        }
+        catch (IOException e) {
+            lastAction.setText("Last action: Journal \"" + journal.getPath() + "\" could not be written");
+            detachJournal();
+            journal = null;
+        }
+    }
+
+    /**
+     * Method that replays journal of session, which was not ended cleanly (e.g. application crashed)
+     */
+    private void recoverSession() {
+        Path unclean = Journal.findUncleanSession();
+        Path base = unclean == null ? null : Journal.sessionFile(unclean);
+        File baseFile = null;
+        try {
+            if (base != null) {
+                model.load(GraphFile.read(base));
+                baseFile = base.toFile();
+            }
+        }
+        catch (IOException e) {
+            //file of session is gone, its journal can not be replayed
+            unclean = null;
+        }
+        int recovered = attachJournal(unclean, unclean != null);
+        if (unclean != null) {
+            updateStatus(baseFile, baseFile == null || recovered > 0);
+            lastAction.setText("Last action: Recovered " + recovered + " unsaved changes");
+        }
+        journalTimer = new Timeline(new KeyFrame(journalSyncPeriod, actionEvent -> syncJournal()));
+        journalTimer.setCycleCount(Timeline.INDEFINITE);
+        journalTimer.play();
+    }
+
+    /**
+     * Method for handling "Undo" option in Edit tab in menu - last command is reverted
+     */
+    public void undoAction() {
+        Command command = history.undo();
+        if (command != null) {
+            lastAction.setText("Last action: Undo: " + command.getDescription());
+        }
+    }
+
+    /**
+     * Method for handling "Redo" option in Edit tab in menu - last reverted command is executed again
+     */
+    public void redoAction() {
+        Command command = history.redo();
+        if (command != null) {
+            lastAction.setText("Last action: Redo: " + command.getDescription());
+        }
+    }
+
+    /*
+     * algorithms - they run over CSR snapshot of graph on FX thread (they take milliseconds even on big graphs),
+     * results are shown by fills of vertices, fills of other vertices are reset
+     */
+
+    /**
+     * Method for handling "Breadth-first search" option in Algorithms tab in menu
+     * - vertices are coloured by distance from first selected vertex, unreachable vertices keep default colour
+     */
+    public void breadthFirstAction() {
+        int source = firstSelected("Breadth-first search");
+        if (source < 0) {
+            return;
+        }
+        long start = System.nanoTime();
+        int[] distances = GraphAlgorithms.breadthFirst(CsrGraph.of(model.getGraph()), source);
+        long time = System.nanoTime() - start;
+        int max = 0;
+        int reached = 0;
+        for (int distance : distances) {
+            max = Math.max(max, distance);
+            reached += distance >= 0 ? 1 : 0;
+        }
+        resetFills();
+        for (int id = 0; id < distances.length; id++) {
+            if (distances[id] >= 0) {
+                setFill(id, gradient(distances[id], max));
+            }
+        }
+        lastAction.setText("Last action: Breadth-first search reached " + reached + " nodes, the farthest is " + max + " edges away" + duration(time));
+    }
+
+    /**
+     * Method for handling "Depth-first search" option in Algorithms tab in menu
+     * - vertices are coloured by order, in which they were visited from first selected vertex
+     */
+    public void depthFirstAction() {
+        int source = firstSelected("Depth-first search");
+        if (source < 0) {
+            return;
+        }
+        long start = System.nanoTime();
+        int[] order = GraphAlgorithms.depthFirst(CsrGraph.of(model.getGraph()), source);
+        long time = System.nanoTime() - start;
+        resetFills();
+        for (int i = 0; i < order.length; i++) {
+            setFill(order[i], gradient(i, order.length - 1));
+        }
+        lastAction.setText("Last action: Depth-first search reached " + order.length + " nodes" + duration(time));
+    }
+
+    /**
+     * Method for handling "Shortest path" option in Algorithms tab in menu
+     * - path goes from first to second selected vertex, length of edge is distance of its vertices in canvas
+     */
+    public void shortestPathAction() {
+        int[] ids = selection.getIds();
+        if (ids.length != 2) {
+            lastAction.setText("Last action: Shortest path needs exactly 2 selected nodes (click on start, CTRL + click on target)");
+            return;
+        }
+        long start = System.nanoTime();
+        ShortestPaths paths = GraphAlgorithms.dijkstra(CsrGraph.of(model.getGraph()), ids[0], ids[1],
+                (from, to) -> Math.hypot(model.getX(to) - model.getX(from), model.getY(to) - model.getY(from)));
+        long time = System.nanoTime() - start;
+        int[] path = paths.getPath(ids[1]);
+        resetFills();
+        if (path == null) {
+            lastAction.setText("Last action: There is no path from \"" + model.getLabel(ids[0]) + "\" to \"" + model.getLabel(ids[1]) + "\"" + duration(time));
+            return;
+        }
+        for (int id : path) {
+            setFill(id, pathColor);
+        }
+        lastAction.setText("Last action: Shortest path has " + (path.length - 1) + " edges, length " + Math.round(paths.getDistance(ids[1])) + duration(time));
+    }
+
+    /**
+     * Method for handling "Connected components" option in Algorithms tab in menu - every component gets its colour
+     * - components are tracked while graph is edited, so they are searched again only after some removal
+     */
+    public void componentsAction() {
+        long start = System.nanoTime();
+        int[] numbers = components.getComponents();
+        long time = System.nanoTime() - start;
+        for (int id = 0; id < numbers.length; id++) {
+            if (numbers[id] >= 0) {
+                setFill(id, componentColors[numbers[id] % componentColors.length]);
+            }
+        }
+        lastAction.setText("Last action: Found " + components.getComponentCount() + " connected components" + duration(time));
+    }
+
+    /**
+     * Method for handling "Topological sort" option in Algorithms tab in menu - vertices are coloured by their order
+     */
+    public void topologicalSortAction() {
+        long start = System.nanoTime();
+        int[] order;
+        try {
+            order = GraphAlgorithms.topologicalOrder(CsrGraph.of(model.getGraph()));
+        }
+        catch (IllegalArgumentException e) {
+            lastAction.setText("Last action: Topological sort failed, graph contains cycle");
+            return;
+        }
+        long time = System.nanoTime() - start;
+        for (int i = 0; i < order.length; i++) {
+            setFill(order[i], gradient(i, order.length - 1));
+        }
+        lastAction.setText("Last action: Sorted " + order.length + " nodes topologically" + duration(time));
+    }
+
+    /**
+     * Method for handling centrality options in Algorithms tab in menu
+     * - centrality is computed in background on all cores, over snapshot of graph taken now
+     * - result is shown by size (bigger is more central) and colour (from blue to red) of vertices,
+     *   it is thrown away, if vertices or edges changed in the meantime
+     * @param measure which is computed
+     */
+    public void centralityAction(Measure measure) {
+        if (analyticsTask != null) {
+            lastAction.setText("Last action: " + measureName(analyticsTask.getMeasure()) + " is still being computed");
+            return;
+        }
+        if (model.getNumberOfVertices() == 0) {
+            return;
+        }
+        AnalyticsTask task = new AnalyticsTask(CsrGraph.of(model.getGraph()), measure, System.nanoTime());
+        boolean[] changed = {false};
+        GraphModelListener structure = structureListener(() -> changed[0] = true);
+        model.addListener(structure);
+        analyticsTask = task;
+        task.setOnSucceeded(workerStateEvent -> {
+            analyticsTask = null;
+            model.removeListener(structure);
+            if (changed[0]) {
+                lastAction.setText("Last action: Graph changed while " + measureName(measure) + " was computed, result was dropped");
+                return;
+            }
+            showScores(task.getValue());
+            lastAction.setText("Last action: Computed " + measureName(measure) + " of " + model.getNumberOfVertices() + " nodes" + duration(task.getDuration()));
+        });
+        task.setOnFailed(workerStateEvent -> {
+            analyticsTask = null;
+            model.removeListener(structure);
+            lastAction.setText("Last action: Computation of " + measureName(measure) + " failed");
+        });
+        lastAction.setText("Last action: Computing " + measureName(measure) + "...");
+        Thread thread = new Thread(task, "graph-analytics");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * @param onChange which is run on every change of vertices or edges
+     * @return listener of model, which ignores changes of positions
+     */
+    private static GraphModelListener structureListener(Runnable onChange) {
+        return new GraphModelListener() {
+            @Override
+            public void vertexAdded(int id) {
+                onChange.run();
+            }
+
+            @Override
+            public void vertexRemoved(int id, String label) {
+                onChange.run();
+            }
+
+            @Override
+            public void edgeAdded(int from, int to) {
+                onChange.run();
+            }
+
+            @Override
+            public void edgeRemoved(int from, int to) {
+                onChange.run();
+            }
+
+            @Override
+            public void graphCleared() {
+                onChange.run();
+            }
+
+            @Override
+            public void graphLoaded() {
+                onChange.run();
+            }
+        };
+    }
+
+    /**
+     * Method for handling "Communities" option in Algorithms tab in menu
+     * - communities are found in background on all cores (Louvain method), edges of supervertices count with their weight
+     * - vertices are coloured by communities of the coarsest level, result is kept for "Collapse communities",
+     *   until vertices or edges change
+     */
+    public void communitiesAction() {
+        if (communityTask != null) {
+            lastAction.setText("Last action: Communities are still being computed");
+            return;
+        }
+        if (model.getNumberOfVertices() == 0) {
+            return;
+        }
+        CsrGraph graph = CsrGraph.of(model.getGraph());
+        int[] offsets = graph.getOffsets();
+        int[] targets = graph.getTargets();
+        double[] weights = new double[targets.length];
+        for (int v = 0; v < graph.getCapacity(); v++) {
+            for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                weights[e] = hierarchy.getWeight(v, targets[e]);
+            }
+        }
+        CommunityTask task = new CommunityTask(graph, weights);
+        boolean[] changed = {false};
+        GraphModelListener structure = structureListener(() -> changed[0] = true);
+        model.addListener(structure);
+        communityTask = task;
+        task.setOnSucceeded(workerStateEvent -> {
+            communityTask = null;
+            model.removeListener(structure);
+            if (changed[0]) {
+                lastAction.setText("Last action: Graph changed while communities were computed, result was dropped");
+                return;
+            }
+            setClustering(task.getValue());
+            int level = clustering.getLevelCount() - 1;
+            int[] communities = clustering.getCommunities(level);
+            for (int id = 0; id < communities.length; id++) {
+                if (communities[id] >= 0) {
+                    setFill(id, componentColors[communities[id] % componentColors.length]);
+                }
+            }
+            lastAction.setText("Last action: Found " + clustering.getCommunityCount(level) + " communities on "
+                    + clustering.getLevelCount() + (level == 0 ? " level" : " levels") + ", modularity "
+                    + String.format("%.3f", clustering.getModularity(level)) + duration(task.getDuration()));
+        });
+        task.setOnFailed(workerStateEvent -> {
+            communityTask = null;
+            model.removeListener(structure);
+            lastAction.setText("Last action: Computation of communities failed");
+        });
+        lastAction.setText("Last action: Computing communities...");
+        Thread thread = new Thread(task, "graph-communities");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Method that keeps result of community detection, it is dropped at first change of vertices or edges
+     * @param result clustering of current graph, or null
+     */
+    private void setClustering(Clustering result) {
+        if (clusteringListener != null) {
+            model.removeListener(clusteringListener);
+            clusteringListener = null;
+        }
+        clustering = result;
+        if (result != null) {
+            clusteringListener = structureListener(() -> setClustering(null));
+            model.addListener(clusteringListener);
+        }
+    }
+
+    /**
+     * Method for handling "Collapse communities" option in Algorithms tab in menu
+     * - every community found by last "Communities" is collapsed into supervertex, level by level,
+     *   so supervertices of coarser level contain supervertices of finer level, whole collapse is one step of history
+     */
+    public void collapseCommunitiesAction() {
+        if (clustering == null) {
+            lastAction.setText("Last action: Find communities first (Algorithms -> Communities)");
+            return;
+        }
+        drag.cancel();
+        int[][] levels = new int[clustering.getLevelCount()][];
+        for (int level = 0; level < levels.length; level++) {
+            levels[level] = clustering.getCommunities(level);
+        }
+        CollapseCommunitiesCommand command = new CollapseCommunitiesCommand(hierarchy, levels);
+        history.execute(command);
+        lastAction.setText("Last action: Collapsed " + command.getCollapsedCount() + " communities, graph has "
+                + model.getNumberOfVertices() + " nodes now");
+    }
+
+    private static String measureName(Measure measure) {
+        switch (measure) {
+            case PAGERANK:
+                return "PageRank";
+            case BETWEENNESS:
+                return "betweenness";
+            case CLOSENESS:
+                return "closeness";
+            default:
+                return "degree centrality";
+        }
+    }
+
+    /**
+     * Method that maps scores onto vertices - radius grows with square root of score, colour goes from blue to red
+     * @param scores of vertices indexed by id
+     */
+    private void showScores(double[] scores) {
+        double max = 0;
+        for (int id = 0; id < scores.length; id++) {
+            if (model.isAlive(id)) {
+                max = Math.max(max, scores[id]);
+            }
+        }
+        int minRadius = Vertex.defaultRadius / 2;
+        int maxRadius = Vertex.defaultRadius * 2;
+        for (int id = 0; id < scores.length; id++) {
+            VertexHandle handle = model.isAlive(id) ? getVertexHandle(id) : null;
+            if (handle == null) {
+                continue;
+            }
+            double value = max > 0 ? Math.sqrt(scores[id] / max) : 0;
+            handle.resizeNode(minRadius + (int) Math.round((maxRadius - minRadius) * value));
+            handle.setVertexFill(gradientColors[(int) Math.round((1 - value) * (gradientColors.length - 1))]);
+            if (renderer == null) {
+                index.updateVertex(id);
+            }
+        }
+    }
+
+    /**
+     * Method for handling "Reset colours and sizes" option in Algorithms tab in menu
+     */
+    public void resetColorsAction() {
+        resetFills();
+        for (int id = 0; id < model.getCapacity(); id++) {
+            VertexHandle handle = model.isAlive(id) ? getVertexHandle(id) : null;
+            if (handle != null && handle.getRadius() != defaultRadius(id)) {
+                handle.resizeNode(defaultRadius(id));
+                if (renderer == null) {
+                    index.updateVertex(id);
+                }
+            }
+        }
+        lastAction.setText("Last action: Colours and sizes of nodes were reset");
+    }
+
+    /**
+     * @return first selected vertex, or -1 if nothing is selected (user is told so)
+     */
+    private int firstSelected(String algorithm) {
+        if (selection.isEmpty()) {
+            lastAction.setText("Last action: " + algorithm + " needs selected start node");
+            return -1;
+        }
+        return selection.getIds()[0];
+    }
+
+    private void setFill(int id, Color color) {
+        VertexHandle handle = getVertexHandle(id);
+        if (handle != null) {
+            handle.setVertexFill(color);
+        }
+    }
+
+    private void resetFills() {
+        for (int id = 0; id < model.getCapacity(); id++) {
+            VertexHandle handle = model.isAlive(id) ? getVertexHandle(id) : null;
+            if (handle != null) {
+                handle.resetFill();
+            }
+        }
+    }
+
+    private static Color gradient(int value, int max) {
+        return gradientColors[max == 0 ? 0 : (int) ((long) value * (gradientColors.length - 1) / max)];
+    }
+
+    private static String duration(long nanos) {
+        return " (" + TimeUnit.NANOSECONDS.toMillis(nanos) + " ms)";
+    }
+
+    /**
+     * Method for handling "Force-directed layout" option in Layout tab in menu
+     * - layout runs in background, vertices are moved on screen as it goes, model is changed only by final result
+     * - final result is one command in history, so whole layout is undone at once
+     */
+    public void layoutAction() {
+        startLayout(false);
+    }
+
+    /**
+     * Method that starts layout of whole graph in background
+     * @param cachedOnly if true, layout is only taken from cache (e.g. after import) and nothing is computed without it
+     */
+    private void startLayout(boolean cachedOnly) {
+        if (layoutTask != null || model.getNumberOfVertices() < (cachedOnly ? LayoutCache.minVertices : 2)) {
+            return;
+        }
+        ForceLayout layout = ForceLayout.of(model);
+        LayoutTask task = new LayoutTask(layout, canvasWidth - 2 * Vertex.defaultRadius, canvasHeight - 100);
+        task.setOnFrame(frame -> applyLayoutFrame(task, frame));
+        task.setCache(layoutCache, GraphHash.labelHashes(model, layout.getIds()), cachedOnly);
+        layoutTask = task;
+        task.progressProperty().addListener((observable, oldProgress, progress) -> {
+            if (layoutTask == task && progress.doubleValue() >= 0) {
+                lastAction.setText("Last action: Layout of " + layout.getIds().length + " nodes (" + Math.round(progress.doubleValue() * 100) + " %)");
+            }
+        });
+        menuItemLayout.setDisable(true);
+        menuItemStopLayout.setDisable(false);
+        Thread thread = new Thread(task, "graph-layout");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Method for handling "Stop layout" option in Layout tab in menu - positions computed so far are kept
+     */
+    public void stopLayoutAction() {
+        if (layoutTask != null) {
+            layoutTask.cancel();
+        }
+    }
+
+    /**
+     * Method that stops layout and throws its result away (e.g. before model is cleared)
+     */
+    private void stopLayout() {
+        if (layoutTask != null) {
+            layoutTask.cancel();
+            layoutTask = null;
+            menuItemLayout.setDisable(false);
+            menuItemStopLayout.setDisable(true);
+        }
+    }
+
+    /**
+     * Method that shows positions computed by layout, last frame is put into model as one command
+     * @param task which computed frame
+     * @param frame of layout task
+     */
+    private void applyLayoutFrame(LayoutTask task, LayoutTask.Frame frame) {
+        if (layoutTask != task) {
+            //layout was stopped by clearing of model, its result belongs to graph, which is gone
+            return;
+        }
+        int[] ids = frame.getIds();
+        double[] x = frame.getX();
+        double[] y = frame.getY();
+        if (!frame.isLast()) {
+            for (int i = 0; i < ids.length; i++) {
+                int id = ids[i];
+                if (!model.isAlive(id)) {
+                    continue;
+                }
+                if (renderer != null) {
+                    renderer.setDragged(id, x[i], y[i]);
+                }
+                else if (vertexViews[id] != null) {
+                    vertexViews[id].setLayoutX(x[i]);
+                    vertexViews[id].setLayoutY(y[i]);
+                    index.updateVertex(id, x[i], y[i]);
+                }
+            }
+            edgeRenderer.requestRedraw();
+            return;
+        }
+        layoutTask = null;
+        menuItemLayout.setDisable(false);
+        menuItemStopLayout.setDisable(true);
+        if (x == null) {
+            //cache had no layout of imported graph
+            return;
+        }
+        int count = 0;
+        int[] movedIds = new int[ids.length];
+        double[] oldX = new double[ids.length];
+        double[] oldY = new double[ids.length];
+        double[] newX = new double[ids.length];
+        double[] newY = new double[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            if (model.isAlive(ids[i])) {
+                movedIds[count] = ids[i];
+                oldX[count] = model.getX(ids[i]);
+                oldY[count] = model.getY(ids[i]);
+                newX[count] = x[i];
+                newY[count] = y[i];
+                count++;
+            }
+        }
+        history.execute(new MoveVerticesCommand(Arrays.copyOf(movedIds, count), Arrays.copyOf(oldX, count), Arrays.copyOf(oldY, count),
+                Arrays.copyOf(newX, count), Arrays.copyOf(newY, count), "Layout"));
+        lastAction.setText("Last action: Layout of " + count + " nodes" + (task.getReused() > 0 ? " (" + task.getReused() + " reused from cache)" : ""));
+    }
+
+    /**
+     * Method that inserts many vertices and edges at once, as one step of history
+     * - model is resized once and view is refreshed once (after whole insertion)
+     * - if graph gets too big for nodes of scene graph, it is switched to single canvas before insertion,
+     *   so views of vertices are not created just to be thrown away
+     * @param labels values of new vertices
+     * @param x coordinates of new vertices
+     * @param y coordinates of new vertices
+     * @param from sources of edges, as indices into labels
+     * @param to destinations of edges, as indices into labels
+     * @return ids of new vertices, vertex labels[i] has id ids[i]
+     */
+    public int[] insertGraph(String[] labels, double[] x, double[] y, int[] from, int[] to) {
+        if (renderer == null && model.getNumberOfVertices() + labels.length > nodeViewLimit) {
+            setCanvasRendering(true);
+        }
+        InsertGraphCommand command = new InsertGraphCommand(labels, x, y, from, to);
+        history.execute(command);
+        return command.getIds();
+    }
+
+    /**
+     * Method for handling "Paste graph" option in Edit tab in menu
+     * - text in clipboard is read as GraphML, DOT or edge list and inserted at once (it can be undone as one step)
+     */
+    public void pasteAction() {
+        String text = Clipboard.getSystemClipboard().getString();
+        if (text == null || text.isBlank()) {
+            lastAction.setText("Last action: Clipboard does not contain text");
+            return;
+        }
+        GraphBuffer buffer;
+        try {
+            buffer = GraphBuffer.parse(text, canvasWidth - 2 * Vertex.defaultRadius, canvasHeight - 100);
+        }
+        catch (IOException | RuntimeException e) {
+            lastAction.setText("Last action: Clipboard does not contain graph");
+            return;
+        }
+        if (buffer.getNumberOfVertices() == 0) {
+            lastAction.setText("Last action: Clipboard does not contain graph");
+            return;
+        }
+        insertGraph(buffer.getLabels(), buffer.getX(), buffer.getY(), buffer.getFrom(), buffer.getTo());
+        lastAction.setText("Last action: Pasted " + buffer.getNumberOfVertices() + " nodes and " + buffer.getNumberOfEdges() + " edges");
+    }
+
+    /**
+     * Method for handling "Collapse selection" option in Edit tab in menu - selected nodes become one supervertex
+     * - supervertex is placed into centre of nodes and has edges to all their neighbours, edge is as thick,
+     *   as many edges it stands for
+     */
+    public void collapseAction() {
+        if (selection.size() < 2) {
+            lastAction.setText("Last action: Select at least 2 nodes to collapse");
+            return;
+        }
+        int[] ids = selection.getIds();
+        String label = model.getLabel(ids[0]) + " +" + (ids.length - 1);
+        CollapseCommand command = new CollapseCommand(hierarchy, ids, label);
+        history.execute(command);
+        select(new int[]{command.getId()});
+        lastAction.setText("Last action: Collapsed " + ids.length + " nodes into \"" + label + "\"");
+    }
+
+    /**
+     * Method for handling "Expand selection" option in Edit tab in menu - selected supervertices are replaced by their members
+     */
+    public void expandAction() {
+        IntList supervertices = new IntList();
+        for (int id : selection.getIds()) {
+            if (hierarchy.isSupervertex(id)) {
+                supervertices.add(id);
+            }
+        }
+        if (supervertices.isEmpty()) {
+            lastAction.setText("Last action: Select collapsed node to expand");
+            return;
+        }
+        expand(supervertices.toArray());
+    }
+
+    /**
+     * Method for handling "Delete selection" option in Edit tab in menu (or Delete key) - selected nodes and their edges
+     * are removed as one step of history
+     * - nodes in region are deleted by selecting them with band first
+     */
+    public void deleteSelectionAction() {
+        if (selection.isEmpty()) {
+            lastAction.setText("Last action: Select nodes to delete");
+            return;
+        }
+        drag.cancel();
+        cancelConnect();
+        RemoveVerticesCommand command = new RemoveVerticesCommand(selection.getIds());
+        history.execute(command);
+        lastAction.setText("Last action: Deleted " + command.getRemovedCount() + (command.getRemovedCount() == 1 ? " node" : " nodes"));
+    }
+
+    /**
+     * Method that deletes all vertices with value as one step of history
+     * @param value of vertices, * stands for any text (so "a*" deletes all vertices with value starting with "a")
+     */
+    public void deleteMatchingAction(String value) {
+        StringBuilder regex = new StringBuilder();
+        String[] parts = value.split("\\*", -1);
+        for (int i = 0; i < parts.length; i++) {
+            if (i > 0) {
+                regex.append(".*");
+            }
+            regex.append(Pattern.quote(parts[i]));
+        }
+        Pattern pattern = Pattern.compile(regex.toString(), Pattern.DOTALL);
+        int[] ids = model.getVertices().getIds(label -> pattern.matcher(label).matches());
+        if (ids.length == 0) {
+            lastAction.setText("Last action: No nodes match \"" + value + "\"");
+            return;
+        }
+        drag.cancel();
+        cancelConnect();
+        RemoveVerticesCommand command = new RemoveVerticesCommand(ids);
+        history.execute(command);
+        lastAction.setText("Last action: Deleted " + command.getRemovedCount() + " nodes with value \"" + value + "\"");
     }
 
     /**
-     * Method for handling process after clicking "New" option in File tab in menu
-     * - if current session has not been saved yet, saveBeforeClosing() method gets called
-     * @return boolean value whether New action was handled correctly
+     * Method that expands supervertices as one step of history, their members are selected afterwards
+     * @param ids of supervertices
      */
-    public boolean newAction() {
-        if (saveBeforeClosing()) {
-            updateStatus(null, true);
-            clearTextFields();
-            clearNodes();
-            setButtonsTextFieldsStartup(menuItemInsert);
-            return true;
+    private void expand(int[] ids) {
+        drag.cancel();
+        ExpandCommand[] parts = new ExpandCommand[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            parts[i] = new ExpandCommand(hierarchy, ids[i]);
         }
-        return false;
+        history.execute(parts.length == 1 ? parts[0] : new CompositeCommand("Expand " + parts.length + " nodes", parts));
+        IntList members = new IntList();
+        for (ExpandCommand part : parts) {
+            for (int member : part.getMembers()) {
+                members.add(member);
+            }
+        }
+        select(members.toArray());
+        lastAction.setText("Last action: Expanded " + ids.length + (ids.length == 1 ? " node" : " nodes") + " into " + members.size() + " nodes");
     }
 
     /**
-     * Method for handling process after clicking "Open" option in File tab in menu
-     * - if current session has not been saved yet, saveBeforeClosing() method gets called
-     * @return boolean whether Open action was handled correctly (false = either some error occurred or file to Open does not exit)
+     * Method that gives supervertices added by last change of model their size - radius grows with number of vertices inside
      */
-    public boolean openAction() {
-        if (saveBeforeClosing()) {
-            File fileToOpen = chooseFileToOpen();
-            if (fileToOpen == null) {
-                return false;
-            }
-            else {
-                try {
-                    //read and display graph
-                    updateStatus(fileToOpen, false);
-                    clearTextFields();
-                    clearNodes();
-                    setButtonsTextFieldsStartup(menuItemInsert);
-                }
-                catch (Exception e) {
-                    errorAction(Action.OPEN);
+    private void resizeSupervertices() {
+        for (int i = 0; i < addedSupervertices.size(); i++) {
+            int id = addedSupervertices.get(i);
+            VertexHandle handle = model.isAlive(id) ? getVertexHandle(id) : null;
+            if (handle != null) {
+                handle.resizeNode(defaultRadius(id));
+                if (renderer == null) {
+                    index.updateVertex(id);
                 }
-                return true;
             }
         }
-        else return false;
+        addedSupervertices.clear();
     }
 
     /**
-     * Method for handling process after clicking "Save" option in File tab in menu
-     * - if file has not been saved yet, saveAsAction() gets called instead
-     * - else content of current session gets written into file
-     * @return boolean value whether Save action was handled correctly (false = iff saveAsAction() returns false)
+     * @param id of vertex in model
+     * @return radius of vertex before customization (supervertex is bigger)
      */
-    public boolean saveAction() {
-        if (file == null) {
-            return saveAsAction();
-        }
-        else {
-            try {
-                // write to file graph representation
-                //writeToFile
-                updateStatus(file, false);
-                clearTextFields();
-                clearNodes();
-                setButtonsTextFieldsStartup(menuItemInsert);
-            }
-            catch (Exception e) {
-                errorAction(Action.SAVE);
-            }
-            return true;
+    private int defaultRadius(int id) {
+        if (!hierarchy.isSupervertex(id)) {
+            return Vertex.defaultRadius;
         }
-
+        double log = Math.log(hierarchy.getLeafCount(id)) / Math.log(2);
+        return Math.min(3 * Vertex.defaultRadius, Vertex.defaultRadius + (int) Math.round(5 * log));
     }
 
     /**
-     * Method for handling process after clicking "Save As" option in File tab in menu
-     * - firstly, fileChooser window opens for user to choose file to save current session into
-     * - current session is saved into chosen file afterwards
-     * @return boolean value whether Save As action was handled correctly (false = either file to save does not exit or error occurred)
+     * Method that adds edge as one step of history
+     * - with incremental layout, neighbourhood of edge is relaxed in the same step (so undo reverts both)
+     * @param from id of source vertex
+     * @param to id of destination vertex
      */
-    public boolean saveAsAction() {
-        File fileToSave = chooseFileToSave();
-        if (fileToSave == null)
-            return false;
+    public void insertEdge(int from, int to) {
+        AddEdgeCommand edge = new AddEdgeCommand(from, to);
+        if (menuItemIncrementalLayout.isSelected()) {
+            history.execute(new CompositeCommand(edge.getDescription(), edge, new LocalLayoutCommand(incrementalLayout, from, to)));
+        }
         else {
-            try {
-                //write to chosen file graph representation
-                //writeToFile()
-                updateStatus(fileToSave, false);
-                clearTextFields();
-                clearNodes();
-                setButtonsTextFieldsStartup(menuItemInsert);
-            }
-            catch (Exception e) {
-                errorAction(Action.SAVE);
-            }
-            return true;
+            history.execute(edge);
         }
     }
 
+    /**
+     * Method that removes edge as one step of history
+     * @param from id of source vertex
+     * @param to id of destination vertex
+     */
+    public void deleteEdge(int from, int to) {
+        history.execute(new RemoveEdgeCommand(from, to));
+    }
+
     /**
      * Method for handling "Exit" option in File tab in menu
      * - window closes iff file current session is saved (or if there was no change)
@@ -263,6 +1508,7 @@ public class Editor extends Application {
     public void exitAction() {
         if (saveBeforeClosing()) {
             clearTextFields();
+            detachJournal();
             clearNodes();
             setButtonsTextFieldsStartup(menuItemInsert);
             Platform.exit();
@@ -305,11 +1551,401 @@ public class Editor extends Application {
     }
 
     /**
-     * Method that resets canvas and deletes nodes internally
+     * Method that resets canvas and deletes nodes internally, new session starts
+     * - labels with mode and last action are placed back into canvas
      */
     public void clearNodes() {
-        vertices.clear();
+        session++;
+        cancelImport();
+        stopLayout();
+        drag.cancel();
+        cancelConnect();
+        model.clear();
         canvas.getChildren().clear();
+        vertexLayer.getChildren().clear();
+        selectionBand = null;
+        canvas.getChildren().addAll(edgeRenderer.getView(), vertexLayer);
+        if (renderer != null) {
+            canvas.getChildren().add(renderer.getCanvas());
+        }
+        canvas.getChildren().addAll(modeSelected, lastAction);
+    }
+
+    /**
+     * Method that returns handle of displayed vertex, which is used to customize its appearance
+     * @param id of vertex in model
+     * @return handle of vertex, or null if vertex is not displayed
+     */
+    public VertexHandle getVertexHandle(int id) {
+        if (renderer != null) {
+            return model.isAlive(id) ? renderer.getVertex(id) : null;
+        }
+        return id < vertexViews.length ? vertexViews[id] : null;
+    }
+
+    /**
+     * Method that switches between rendering modes
+     * - node mode: every vertex is its own node (Vertex) in canvas
+     * - canvas mode: whole graph is drawn onto single Canvas by CanvasRenderer, vertices are only handles
+     * appearance of vertices (fill, radius, color of value) is kept when mode is switched
+     * @param enabled true for canvas mode, false for node mode
+     */
+    public void setCanvasRendering(boolean enabled) {
+        menuItemCanvasRendering.setSelected(enabled);
+        if (enabled == (renderer != null)) {
+            return;
+        }
+        drag.cancel();
+        cancelConnect();
+        if (enabled) {
+            renderer = new CanvasRenderer(model, index);
+            for (int id = 0; id < vertexViews.length; id++) {
+                Vertex vertex = vertexViews[id];
+                if (vertex != null) {
+                    VertexHandle handle = renderer.getVertex(id);
+                    handle.setVertexFill(vertex.getFill());
+                    handle.resizeNode(vertex.getRadius());
+                    if (vertex.getText().getFill() instanceof Color) {
+                        handle.setValueColor((Color) vertex.getText().getFill());
+                    }
+                }
+            }
+            Arrays.fill(vertexViews, null);
+            addedViews.clear();
+            removedViews.clear();
+            vertexLayer.getChildren().clear();
+            Canvas view = renderer.getCanvas();
+            view.widthProperty().bind(canvas.widthProperty());
+            view.heightProperty().bind(canvas.heightProperty());
+            view.setOnMouseMoved(mouseEvent -> view.setCursor(renderer.pick(mouseEvent.getX(), mouseEvent.getY()) >= 0 ? Cursor.HAND : Cursor.DEFAULT));
+            view.setOnMousePressed(this::canvasMousePressed);
+            view.setOnMouseDragged(this::canvasMouseDragged);
+            view.setOnMouseReleased(this::canvasMouseReleased);
+            //above edges, below everything else
+            canvas.getChildren().add(canvas.getChildren().indexOf(edgeRenderer.getView()) + 1, view);
+        }
+        else {
+            CanvasRenderer old = renderer;
+            renderer = null;
+            old.dispose();
+            canvas.getChildren().remove(old.getCanvas());
+            for (int id = 0; id < model.getCapacity(); id++) {
+                if (model.isAlive(id)) {
+                    showVertex(id);
+                    CanvasVertex handle = old.getVertex(id);
+                    vertexViews[id].setVertexFill(handle.getFill());
+                    vertexViews[id].resizeNode(handle.getRadius());
+                    vertexViews[id].setValueColor(handle.getValueColor());
+                    index.updateVertex(id);
+                }
+            }
+            flushViews();
+        }
+        for (int id : selection.getIds()) {
+            getVertexHandle(id).setSelected(true);
+        }
+    }
+
+    /**
+     * Method that returns radius of displayed vertex (in any rendering mode)
+     * @param id of vertex in model
+     * @return radius of vertex
+     */
+    private int getVertexRadius(int id) {
+        VertexHandle handle = getVertexHandle(id);
+        return handle != null ? handle.getRadius() : Vertex.defaultRadius;
+    }
+
+    /**
+     * Method that replaces selected vertices, selected vertices are highlighted
+     * @param ids of vertices to be selected
+     */
+    public void select(int[] ids) {
+        for (int id : selection.getIds()) {
+            VertexHandle handle = getVertexHandle(id);
+            if (handle != null) {
+                handle.setSelected(false);
+            }
+        }
+        selection.clear();
+        for (int id : ids) {
+            if (model.isAlive(id) && selection.add(id)) {
+                getVertexHandle(id).setSelected(true);
+            }
+        }
+    }
+
+    /**
+     * Method that changes selection by click on vertex, selected vertices are kept in order of clicks
+     * (first one is start of search, shortest path goes from first to second one)
+     * - click selects only clicked vertex, selection is kept if vertex is already selected, so it can be dragged whole
+     * - CTRL + click adds vertex to the end of selection or removes it from selection
+     * @param id of clicked vertex
+     * @param mouseEvent press of mouse
+     * @return true iff vertex can be dragged
+     */
+    private boolean clickVertex(int id, MouseEvent mouseEvent) {
+        if (mouseEvent.isShortcutDown()) {
+            boolean selected = selection.contains(id) ? !selection.remove(id) : selection.add(id);
+            getVertexHandle(id).setSelected(selected);
+            lastAction.setText("Last action: Selected " + selection.size() + " nodes");
+            return false;
+        }
+        if (!selection.contains(id)) {
+            select(new int[]{id});
+        }
+        return true;
+    }
+
+    /*
+     * rubber-band selection - dragging mouse over empty part of canvas selects vertices, whose centers are inside of rectangle
+     * - vertices are found in spatial index, so it does not depend on number of vertices outside of rectangle
+     */
+    private void bandMousePressed(MouseEvent mouseEvent) {
+        boolean background = mouseEvent.getTarget() == canvas
+                || renderer != null && mouseEvent.getTarget() == renderer.getCanvas() && !drag.isActive();
+        if (!background || !mouseEvent.isPrimaryButtonDown()) {
+            return;
+        }
+        bandStartX = mouseEvent.getX();
+        bandStartY = mouseEvent.getY();
+        selectionBand = new Rectangle(bandStartX, bandStartY, 0, 0);
+        selectionBand.setFill(Color.DODGERBLUE.deriveColor(0, 1, 1, 0.15));
+        selectionBand.setStroke(Color.DODGERBLUE);
+        selectionBand.getStrokeDashArray().addAll(4.0, 4.0);
+        selectionBand.setMouseTransparent(true);
+        canvas.getChildren().add(selectionBand);
+    }
+
+    private void bandMouseDragged(MouseEvent mouseEvent) {
+        if (selectionBand == null) {
+            return;
+        }
+        selectionBand.setX(Math.min(bandStartX, mouseEvent.getX()));
+        selectionBand.setY(Math.min(bandStartY, mouseEvent.getY()));
+        selectionBand.setWidth(Math.abs(mouseEvent.getX() - bandStartX));
+        selectionBand.setHeight(Math.abs(mouseEvent.getY() - bandStartY));
+    }
+
+    private void bandMouseReleased(MouseEvent mouseEvent) {
+        if (selectionBand == null) {
+            return;
+        }
+        Rectangle band = selectionBand;
+        selectionBand = null;
+        canvas.getChildren().remove(band);
+        //click without dragging clears selection
+        if (band.getWidth() < 2 && band.getHeight() < 2) {
+            select(new int[0]);
+            return;
+        }
+        select(index.verticesInside(band.getX(), band.getY(), band.getX() + band.getWidth(), band.getY() + band.getHeight()));
+        lastAction.setText("Last action: Selected " + selection.size() + " nodes");
+    }
+
+    /*
+     * dragging in canvas mode - dragged vertices are drawn moved by offset, model is updated when mouse is released
+     */
+    private void canvasMousePressed(MouseEvent mouseEvent) {
+        int id = renderer.pick(mouseEvent.getX(), mouseEvent.getY());
+        if (id < 0 || !mouseEvent.isPrimaryButtonDown()) {
+            return;
+        }
+        if (mouseEvent.getClickCount() == 2 && hierarchy.isSupervertex(id)) {
+            expand(new int[]{id});
+        }
+        else if (getCurrentMode() == Mode.ADDEDGE) {
+            startConnect(id, mouseEvent.getX(), mouseEvent.getY());
+        }
+        else if (clickVertex(id, mouseEvent)) {
+            drag.press(id, mouseEvent.getX(), mouseEvent.getY(), canvasDragView);
+            renderer.getCanvas().setCursor(Cursor.MOVE);
+        }
+    }
+
+    private void canvasMouseDragged(MouseEvent mouseEvent) {
+        if (connectFrom >= 0) {
+            moveConnect(mouseEvent.getX(), mouseEvent.getY());
+        }
+        else {
+            drag.drag(mouseEvent.getX(), mouseEvent.getY(), canvasWidth, canvasHeight);
+        }
+    }
+
+    private void canvasMouseReleased(MouseEvent mouseEvent) {
+        if (connectFrom >= 0) {
+            endConnect(mouseEvent.getX(), mouseEvent.getY());
+        }
+        else if (drag.isActive()) {
+            renderer.getCanvas().setCursor(Cursor.HAND);
+            drag.release();
+        }
+    }
+
+    /*
+     * dragging in node mode - dragged views share one transform, model is updated when mouse is released
+     * - mouse position is taken in scene, because local coordinates of view move together with it
+     */
+    private void vertexMouseEntered(MouseEvent mouseEvent) {
+        if (!mouseEvent.isPrimaryButtonDown()) {
+            ((Node) mouseEvent.getSource()).getScene().setCursor(Cursor.HAND);
+        }
+    }
+
+    private void vertexMouseExited(MouseEvent mouseEvent) {
+        if (!mouseEvent.isPrimaryButtonDown()) {
+            ((Node) mouseEvent.getSource()).getScene().setCursor(Cursor.DEFAULT);
+        }
+    }
+
+    private void vertexMousePressed(MouseEvent mouseEvent) {
+        Vertex vertex = (Vertex) mouseEvent.getSource();
+        if (!mouseEvent.isPrimaryButtonDown()) {
+            return;
+        }
+        if (mouseEvent.getClickCount() == 2 && hierarchy.isSupervertex(vertex.getVertexId())) {
+            //view of supervertex is removed, so it will not get mouse exited
+            vertex.getScene().setCursor(Cursor.DEFAULT);
+            expand(new int[]{vertex.getVertexId()});
+        }
+        else if (getCurrentMode() == Mode.ADDEDGE) {
+            //view of vertex does not move in this mode, so position in canvas is its layout plus local position
+            startConnect(vertex.getVertexId(), vertex.getLayoutX() + mouseEvent.getX(), vertex.getLayoutY() + mouseEvent.getY());
+        }
+        else if (clickVertex(vertex.getVertexId(), mouseEvent)) {
+            drag.press(vertex.getVertexId(), mouseEvent.getSceneX(), mouseEvent.getSceneY(), nodeDragView);
+            vertex.getScene().setCursor(Cursor.MOVE);
+        }
+    }
+
+    private void vertexMouseDragged(MouseEvent mouseEvent) {
+        if (connectFrom >= 0) {
+            Vertex vertex = (Vertex) mouseEvent.getSource();
+            moveConnect(vertex.getLayoutX() + mouseEvent.getX(), vertex.getLayoutY() + mouseEvent.getY());
+        }
+        else {
+            drag.drag(mouseEvent.getSceneX(), mouseEvent.getSceneY(), canvasWidth, canvasHeight);
+        }
+    }
+
+    private void vertexMouseReleased(MouseEvent mouseEvent) {
+        if (connectFrom >= 0) {
+            Vertex vertex = (Vertex) mouseEvent.getSource();
+            endConnect(vertex.getLayoutX() + mouseEvent.getX(), vertex.getLayoutY() + mouseEvent.getY());
+        }
+        else if (drag.isActive()) {
+            ((Node) mouseEvent.getSource()).getScene().setCursor(Cursor.HAND);
+            drag.release();
+        }
+    }
+
+    /*
+     * adding of edge in ADDEDGE mode - mouse is pressed on source vertex and released on target vertex
+     * - when edge from source to target already exists, it is removed instead
+     * - coordinates are in canvas, target is found in spatial index (in both rendering modes)
+     */
+    private void startConnect(int id, double x, double y) {
+        cancelConnect();
+        connectFrom = id;
+        connectLine = new Line(index.getCenterX(id), index.getCenterY(id), x, y);
+        connectLine.setStroke(Color.DODGERBLUE);
+        connectLine.getStrokeDashArray().addAll(4.0, 4.0);
+        connectLine.setMouseTransparent(true);
+        canvas.getChildren().add(connectLine);
+    }
+
+    private void moveConnect(double x, double y) {
+        connectLine.setEndX(x);
+        connectLine.setEndY(y);
+    }
+
+    private void endConnect(double x, double y) {
+        int from = connectFrom;
+        cancelConnect();
+        int to = index.pick(x, y);
+        //release on source vertex is only click, it does not add loop
+        if (to < 0 || to == from || !model.isAlive(from)) {
+            return;
+        }
+        if (model.getGraph().existsEdge(from, to)) {
+            deleteEdge(from, to);
+            lastAction.setText("Last action: Removed edge from \"" + model.getLabel(from) + "\" to \"" + model.getLabel(to) + "\"");
+            return;
+        }
+        insertEdge(from, to);
+        lastAction.setText("Last action: Added edge from \"" + model.getLabel(from) + "\" to \"" + model.getLabel(to) + "\"");
+    }
+
+    private void cancelConnect() {
+        if (connectLine != null) {
+            canvas.getChildren().remove(connectLine);
+            connectLine = null;
+        }
+        connectFrom = -1;
+    }
+
+    /**
+     * Method that creates view of vertex from model and places it into canvas
+     * - dragging of vertex changes only the view, model is updated when mouse is released
+     * @param id of vertex in model
+     */
+    private void showVertex(int id) {
+        if (id >= vertexViews.length) {
+            vertexViews = Arrays.copyOf(vertexViews, Math.max(id + 1, vertexViews.length << 1));
+            viewPositions = Arrays.copyOf(viewPositions, vertexViews.length);
+        }
+        Vertex newVertex = new Vertex(id, new Text(model.getLabel(id)), 0,0);
+        vertexViews[id] = newVertex;
+        newVertex.setLayoutX(model.getX(id));
+        newVertex.setLayoutY(model.getY(id));
+        //view is put into canvas by flushViews() (after change or whole transaction of model)
+        addedViews.add(newVertex);
+        newVertex.setOnMouseEntered(vertexMouseEntered);
+        newVertex.setOnMouseExited(vertexMouseExited);
+        newVertex.setOnMousePressed(vertexMousePressed);
+        newVertex.setOnMouseDragged(vertexMouseDragged);
+        newVertex.setOnMouseReleased(vertexMouseReleased);
+    }
+
+    /**
+     * Method that removes view of vertex from canvas
+     * @param id of vertex in model
+     */
+    private void hideVertex(int id) {
+        if (id < vertexViews.length && vertexViews[id] != null) {
+            if (!addedViews.remove(vertexViews[id])) {
+                removedViews.add(vertexViews[id]);
+            }
+            vertexViews[id] = null;
+        }
+    }
+
+    /**
+     * Method that puts views of vertices added and removed since last flush into canvas at once
+     * - during transaction of model, views are added at once, removed view is replaced by the last view of layer,
+     *   so removal of k views costs O(k) instead of O(k * number of views)
+     */
+    private void flushViews() {
+        if (!removedViews.isEmpty()) {
+            List<Node> views = vertexLayer.getChildren();
+            for (Vertex view : removedViews) {
+                int position = viewPositions[view.getVertexId()];
+                Node moved = views.remove(views.size() - 1);
+                if (moved != view) {
+                    views.set(position, moved);
+                    viewPositions[((Vertex) moved).getVertexId()] = position;
+                }
+            }
+            removedViews.clear();
+        }
+        if (!addedViews.isEmpty()) {
+            int position = vertexLayer.getChildren().size();
+            for (Vertex view : addedViews) {
+                viewPositions[view.getVertexId()] = position++;
+            }
+            vertexLayer.getChildren().addAll(addedViews);
+            addedViews.clear();
+        }
     }
 
     /**
@@ -351,7 +1987,7 @@ public class Editor extends Application {
     }
 
     /**
-     * Method for updating status of session if canvas change occurred
+     * Method for updating status of session if change of graph occurred
      */
     public void handleCanvasChange() {
         if (!changedStatus) {
@@ -396,7 +2032,6 @@ public class Editor extends Application {
             canvas.setMaxHeight(scene.getHeight());
             canvas.setBorder(border);
         });
-        canvas.getChildren().addListener((ListChangeListener<Node>) change -> handleCanvasChange());
 
         /*
          * Vbox
@@ -414,11 +2049,12 @@ public class Editor extends Application {
         textFieldAddVertex.setPromptText("Enter vertex value to insert");
 
         Button deleteVertex = new Button("Delete vertex");
+        Button deleteAllVertices = new Button("Delete all with value");
         TextField textFieldDeleteVertex = new TextField();
         textFieldDeleteVertex.setPromptText("Enter vertex value to delete");
         vBox.setMaxWidth(200);
         vBox.setMinWidth(200);
-        vBox.getChildren().addAll(addVertex, textFieldAddVertex, deleteVertex, textFieldDeleteVertex);
+        vBox.getChildren().addAll(addVertex, textFieldAddVertex, deleteVertex, deleteAllVertices, textFieldDeleteVertex);
         vBox.setAlignment(Pos.TOP_CENTER);
 
         PseudoClass emptyTextField = PseudoClass.getPseudoClass("emptyTextField");
@@ -442,7 +2078,7 @@ public class Editor extends Application {
          * - Mode: toggles
          * -- insert: changes app mode for user to only use insert button
          * -- delete: changes app mode for user to only use delete button
-         * -- addEdge: changes app mode for user to only use addEdge button
+         * -- addEdge: changes app mode, so that dragging from vertex to vertex adds edge (instead of moving vertex)
          * - default: at start, insert toggle is selected
          *
          * - Customization: not implemented yet, but possibly in the future for better UX
@@ -456,30 +2092,82 @@ public class Editor extends Application {
         MenuItem menuItemOpen = new MenuItem("Open");
         MenuItem menuItemExport = new MenuItem("Save as");
         MenuItem menuItemExit = new MenuItem("Exit");
+        menuItemCancelImport = new MenuItem("Cancel import");
+        menuItemCancelImport.setDisable(true);
+
+        Menu mEdit = new Menu("Edit");
+        menuItemUndo = new MenuItem("Undo");
+        menuItemRedo = new MenuItem("Redo");
+        menuItemUndo.setDisable(true);
+        menuItemRedo.setDisable(true);
+        MenuItem menuItemPaste = new MenuItem("Paste graph");
+        MenuItem menuItemCollapse = new MenuItem("Collapse selection");
+        MenuItem menuItemExpand = new MenuItem("Expand selection");
+        MenuItem menuItemDeleteSelection = new MenuItem("Delete selection");
+        mEdit.getItems().addAll(menuItemUndo, menuItemRedo, new SeparatorMenuItem(), menuItemPaste, new SeparatorMenuItem(),
+                menuItemCollapse, menuItemExpand, new SeparatorMenuItem(), menuItemDeleteSelection);
 
         Menu mModes = new Menu("Mode");
         modes = new ToggleGroup();
         listOfModes = new ArrayList<>();
         listOfModes.add(new Pair<>("Insert Nodes...",Mode.INSERT));
         listOfModes.add(new Pair<>("Delete Nodes... (partially implemented)",Mode.DELETE));
-        listOfModes.add(new Pair<>("Add Edges... (not implemented)", Mode.ADDEDGE));
+        listOfModes.add(new Pair<>("Add Edges...", Mode.ADDEDGE));
 
         listOfButtons = new ArrayList<>();
         Triplet<String, Button, Mode> insert = new Triplet<>("Insert Nodes...", addVertex, Mode.INSERT);
         listOfButtons.add(insert);
         Triplet<String, Button, Mode> delete = new Triplet<>("Delete Nodes...", deleteVertex, Mode.DELETE);
         listOfButtons.add(delete);
-        Triplet<String, Button, Mode> addEdge = new Triplet<>("Add Edges... (not implemented)", null, Mode.ADDEDGE);
+        listOfButtons.add(new Triplet<>(delete.getFirst(), deleteAllVertices, Mode.DELETE));
+        Triplet<String, Button, Mode> addEdge = new Triplet<>("Add Edges...", null, Mode.ADDEDGE);
         listOfButtons.add(addEdge);
         menuItemInsert = new RadioMenuItem(insert.getFirst());
         RadioMenuItem menuItemDelete = new RadioMenuItem(delete.getFirst());
         RadioMenuItem menuItemEdges = new RadioMenuItem(addEdge.getFirst());
-        menuItemEdges.setDisable(true);
         menuItemInsert.setToggleGroup(modes);
         menuItemDelete.setToggleGroup(modes);
         menuItemEdges.setToggleGroup(modes);
         mModes.getItems().addAll(menuItemInsert, menuItemDelete, menuItemEdges);
 
+        Menu mLayout = new Menu("Layout");
+        menuItemLayout = new MenuItem("Force-directed layout");
+        menuItemStopLayout = new MenuItem("Stop layout");
+        menuItemStopLayout.setDisable(true);
+        menuItemIncrementalLayout = new CheckMenuItem("Place new nodes and edges locally (incremental layout)");
+        menuItemIncrementalLayout.setSelected(true);
+        mLayout.getItems().addAll(menuItemLayout, menuItemStopLayout, new SeparatorMenuItem(), menuItemIncrementalLayout);
+
+        Menu mAlgorithms = new Menu("Algorithms");
+        MenuItem menuItemBreadthFirst = new MenuItem("Breadth-first search from selected node");
+        MenuItem menuItemDepthFirst = new MenuItem("Depth-first search from selected node");
+        MenuItem menuItemShortestPath = new MenuItem("Shortest path between 2 selected nodes");
+        MenuItem menuItemComponents = new MenuItem("Connected components");
+        MenuItem menuItemTopologicalSort = new MenuItem("Topological sort");
+        MenuItem menuItemPageRank = new MenuItem("PageRank");
+        MenuItem menuItemBetweenness = new MenuItem("Betweenness centrality");
+        MenuItem menuItemCloseness = new MenuItem("Closeness centrality");
+        MenuItem menuItemDegree = new MenuItem("Degree centrality");
+        MenuItem menuItemCommunities = new MenuItem("Communities");
+        MenuItem menuItemCollapseCommunities = new MenuItem("Collapse communities");
+        MenuItem menuItemResetColors = new MenuItem("Reset colours and sizes");
+        mAlgorithms.getItems().addAll(menuItemBreadthFirst, menuItemDepthFirst, menuItemShortestPath, menuItemComponents,
+                menuItemTopologicalSort, new SeparatorMenuItem(), menuItemPageRank, menuItemBetweenness, menuItemCloseness,
+                menuItemDegree, new SeparatorMenuItem(), menuItemCommunities, menuItemCollapseCommunities,
+                new SeparatorMenuItem(), menuItemResetColors);
+        menuItemBreadthFirst.setOnAction(actionEvent -> breadthFirstAction());
+        menuItemDepthFirst.setOnAction(actionEvent -> depthFirstAction());
+        menuItemShortestPath.setOnAction(actionEvent -> shortestPathAction());
+        menuItemComponents.setOnAction(actionEvent -> componentsAction());
+        menuItemTopologicalSort.setOnAction(actionEvent -> topologicalSortAction());
+        menuItemPageRank.setOnAction(actionEvent -> centralityAction(Measure.PAGERANK));
+        menuItemBetweenness.setOnAction(actionEvent -> centralityAction(Measure.BETWEENNESS));
+        menuItemCloseness.setOnAction(actionEvent -> centralityAction(Measure.CLOSENESS));
+        menuItemDegree.setOnAction(actionEvent -> centralityAction(Measure.DEGREE));
+        menuItemCommunities.setOnAction(actionEvent -> communitiesAction());
+        menuItemCollapseCommunities.setOnAction(actionEvent -> collapseCommunitiesAction());
+        menuItemResetColors.setOnAction(actionEvent -> resetColorsAction());
+
         /*
          * Pairs for clearing textFields
          */
@@ -494,7 +2182,9 @@ public class Editor extends Application {
         Menu mCustomization = new Menu("Customization");
         RadioMenuItem menuItemLight = new RadioMenuItem("Light Mode");
         RadioMenuItem menuItemDark = new RadioMenuItem("Dark Mode (not implemented)");
-        mCustomization.getItems().addAll(menuItemDark, menuItemLight);
+        menuItemCanvasRendering = new CheckMenuItem("Single canvas rendering (for big graphs)");
+        menuItemCanvasRendering.setOnAction(actionEvent -> setCanvasRendering(menuItemCanvasRendering.isSelected()));
+        mCustomization.getItems().addAll(menuItemDark, menuItemLight, new SeparatorMenuItem(), menuItemCanvasRendering);
         //default - light mode selected
         menuItemLight.setSelected(true);
 
@@ -509,15 +2199,15 @@ public class Editor extends Application {
             }
         });
         mHelp.getItems().add(openManual);
-        mFile.getItems().addAll(menuItemNew, menuItemSave, menuItemOpen, menuItemExport, new SeparatorMenuItem(), menuItemExit);
-        menuBar.getMenus().addAll(mFile, mModes, mCustomization, mHelp);
+        mFile.getItems().addAll(menuItemNew, menuItemSave, menuItemOpen, menuItemExport, menuItemCancelImport, new SeparatorMenuItem(), menuItemExit);
+        menuBar.getMenus().addAll(mFile, mEdit, mModes, mLayout, mAlgorithms, mCustomization, mHelp);
 
         /*
          * Label for showing, which mode is currently being used
          * - placed on top-right of canvas
          */
         RadioMenuItem selectedForLabel = (RadioMenuItem) modes.getSelectedToggle();
-        Label modeSelected = new Label("Mode selected: " + selectedForLabel.getText());
+        modeSelected = new Label("Mode selected: " + selectedForLabel.getText());
         modeSelected.setLayoutX(10);
         modeSelected.setLayoutY(5);
         canvas.getChildren().add(modeSelected);
@@ -538,6 +2228,9 @@ public class Editor extends Application {
          * - CTRL + O - Open file (load)
          * - CTRL + S - Save
          * - CTRL + Shift + S - Save as
+         * - ESC - Cancel import
+         * - CTRL + Z - Undo
+         * - CTRL + Y - Redo
          * - ALT+F4 - Exit application
          */
         menuItemNew.setAccelerator(new KeyCodeCombination(KeyCode.N, KeyCombination.CONTROL_DOWN));
@@ -545,31 +2238,42 @@ public class Editor extends Application {
         menuItemOpen.setAccelerator(new KeyCodeCombination(KeyCode.O, KeyCombination.CONTROL_DOWN));
         menuItemExport.setAccelerator(new KeyCodeCombination(KeyCode.S, KeyCombination.SHIFT_DOWN, KeyCombination.CONTROL_DOWN));
         menuItemExit.setAccelerator(new KeyCodeCombination(KeyCode.F4, KeyCombination.ALT_DOWN));
+        menuItemCancelImport.setAccelerator(new KeyCodeCombination(KeyCode.ESCAPE));
+        menuItemUndo.setAccelerator(new KeyCodeCombination(KeyCode.Z, KeyCombination.CONTROL_DOWN));
+        menuItemRedo.setAccelerator(new KeyCodeCombination(KeyCode.Y, KeyCombination.CONTROL_DOWN));
+        //plain CTRL + V is left to text fields
+        menuItemPaste.setAccelerator(new KeyCodeCombination(KeyCode.V, KeyCombination.SHIFT_DOWN, KeyCombination.CONTROL_DOWN));
+        menuItemCollapse.setAccelerator(new KeyCodeCombination(KeyCode.G, KeyCombination.CONTROL_DOWN));
+        menuItemExpand.setAccelerator(new KeyCodeCombination(KeyCode.G, KeyCombination.SHIFT_DOWN, KeyCombination.CONTROL_DOWN));
+        menuItemDeleteSelection.setAccelerator(new KeyCodeCombination(KeyCode.DELETE));
+        menuItemLayout.setAccelerator(new KeyCodeCombination(KeyCode.L, KeyCombination.CONTROL_DOWN));
+        menuItemStopLayout.setAccelerator(new KeyCodeCombination(KeyCode.L, KeyCombination.SHIFT_DOWN, KeyCombination.CONTROL_DOWN));
 
         /*
          * Actions when clicked on certain button/tab
          */
         menuItemNew.setOnAction(actionEvent -> {
             newAction(); //can ignore the return value
-            canvas.getChildren().add(modeSelected);
-            canvas.getChildren().add(lastAction);
         });
         menuItemSave.setOnAction(actionEvent -> {
             saveAction();//errorAction(Action.SAVE);
-            canvas.getChildren().add(modeSelected);
-            canvas.getChildren().add(lastAction);
         });
         menuItemOpen.setOnAction(actionEvent -> {
             openAction();//errorAction(Action.OPEN);
-            canvas.getChildren().add(modeSelected);
-            canvas.getChildren().add(lastAction);
         });
         menuItemExport.setOnAction(actionEvent -> {
             saveAsAction(); //errorAction(Action.SAVEAS);
-            canvas.getChildren().add(modeSelected);
-            canvas.getChildren().add(lastAction);
         });
         menuItemExit.setOnAction(actionEvent -> exitAction());
+        menuItemCancelImport.setOnAction(actionEvent -> cancelImport());
+        menuItemUndo.setOnAction(actionEvent -> undoAction());
+        menuItemRedo.setOnAction(actionEvent -> redoAction());
+        menuItemPaste.setOnAction(actionEvent -> pasteAction());
+        menuItemCollapse.setOnAction(actionEvent -> collapseAction());
+        menuItemExpand.setOnAction(actionEvent -> expandAction());
+        menuItemDeleteSelection.setOnAction(actionEvent -> deleteSelectionAction());
+        menuItemLayout.setOnAction(actionEvent -> layoutAction());
+        menuItemStopLayout.setOnAction(actionEvent -> stopLayoutAction());
         modes.selectedToggleProperty().addListener((observableValue, toggle, t1) -> {
             if (modes.getSelectedToggle() != null) {
                 RadioMenuItem radioMenuItem = (RadioMenuItem) modes.getSelectedToggle();
@@ -592,88 +2296,118 @@ public class Editor extends Application {
             }
         });
 
-        vertices = new HashMap<>();
-        Random rnd = new Random(); //for generating random coordinates of node
-
         /*
-         * addVertexButton + dragging functionality of nodes
+         * model of graph - views of vertices are created and removed according to changes in model
          */
-        addVertex.setOnAction(actionEvent -> {
-            AtomicReference<Double> dragX = new AtomicReference<>((double) 0);
-            AtomicReference<Double> dragY = new AtomicReference<>((double) 0);
-            Text value = new Text(textFieldAddVertex.getText());
-            Vertex newVertex = new Vertex(value, 0,0);
-            if (!vertices.containsKey(value.getText())) {
-                Stack<Vertex> verticesWithValue = new Stack<>();
-                verticesWithValue.push(newVertex);
-                vertices.put(value.getText(), verticesWithValue);
-            }
-            else {
-                vertices.get(value.getText()).add(newVertex);
-            }
-            //System.out.println(vertices);
-            //2*radius offset so it isnt generated outside of canvas
-            newVertex.setTranslateX(((double) 1/2) * canvasWidth);
-            newVertex.setTranslateY(((double) 2/3) * canvasHeight);
-            canvas.getChildren().add(newVertex);
-            lastAction.setText("Last action: Inserted node with value \"" + newVertex.getString() + "\"");
-            newVertex.setOnMouseEntered(mouseEvent -> {
-                if (!mouseEvent.isPrimaryButtonDown()) {
-                    newVertex.getScene().setCursor(Cursor.HAND);
+        model = new GraphModel();
+        vertexViews = new Vertex[64];
+        viewPositions = new int[64];
+        model.addListener(new GraphModelListener() {
+            @Override
+            public void vertexAdded(int id) {
+                if (renderer == null && model.getNumberOfVertices() > nodeViewLimit) {
+                    setCanvasRendering(true);
                 }
-            });
+                else if (renderer == null) {
+                    showVertex(id);
+                }
+                if (hierarchy.isSupervertex(id)) {
+                    addedSupervertices.add(id);
+                }
+            }
+
+            @Override
+            public void vertexRemoved(int id, String label) {
+                hideVertex(id);
+            }
 
-            newVertex.setOnMouseExited(mouseEvent -> {
-                if (!mouseEvent.isPrimaryButtonDown()) {
-                    newVertex.getScene().setCursor(Cursor.DEFAULT);
+            @Override
+            public void vertexMoved(int id, double oldX, double oldY) {
+                if (renderer == null) {
+                    vertexViews[id].setLayoutX(model.getX(id));
+                    vertexViews[id].setLayoutY(model.getY(id));
                 }
-            });
+            }
+
+            @Override
+            public void graphCleared() {
+                Arrays.fill(vertexViews, null);
+                addedViews.clear();
+                removedViews.clear();
+                addedSupervertices.clear();
+            }
 
-            newVertex.setOnMousePressed(mouseEvent -> {
-                if (mouseEvent.isPrimaryButtonDown()) {
-                    newVertex.getScene().setCursor(Cursor.DEFAULT);
+            @Override
+            public void graphLoaded() {
+                if (renderer == null && model.getNumberOfVertices() > nodeViewLimit) {
+                    setCanvasRendering(true);
                 }
-                dragX.set(mouseEvent.getX());
-                dragY.set(mouseEvent.getY());
-                newVertex.getScene().setCursor(Cursor.MOVE);
-            });
-
-            newVertex.setOnMouseReleased(mouseEvent -> {
-                newVertex.getScene().setCursor(Cursor.HAND);
-                newVertex.resetFill();
-            });
-
-            newVertex.setOnMouseDragged(mouseEvent -> {
-                double newX = newVertex.getLayoutX() + mouseEvent.getX() - dragX.get();
-                double newY = newVertex.getLayoutY() + mouseEvent.getY() - dragY.get();
-
-                if (newX > canvasWidth || newY > canvasHeight) {
-                    return;
+                else if (renderer == null) {
+                    for (int id = 0; id < model.getCapacity(); id++) {
+                        if (model.isAlive(id)) {
+                            showVertex(id);
+                        }
+                    }
                 }
-                //TODO add boundaries for moving nodes out of the canvas
-
-                newVertex.setVertexFill(Color.RED);
-                newVertex.setLayoutX(newX);
-                newVertex.setLayoutY(newY);
-            });
+            }
 
-            //test, whether click responds
-            newVertex.setOnMouseClicked(mouseEvent -> {
-            });
+            @Override
+            public void modelChanged() {
+                //once per change or whole transaction (import batch, command, loaded file, ...)
+                flushViews();
+                resizeSupervertices();
+                handleCanvasChange();
+            }
+        });
+        history = new History(model);
+        index = new GraphIndex(model, this::getVertexRadius);
+        components = new ComponentTracker(model);
+        hierarchy = new Hierarchy(model);
+        incrementalLayout = new IncrementalLayout(model, index);
+        edgeRenderer = new EdgeRenderer(model, index);
+        edgeRenderer.bindSize(canvas);
+        edgeRenderer.setWeights(hierarchy::getWeight);
+        canvas.getChildren().addAll(0, List.of(edgeRenderer.getView(), vertexLayer));
+        selection = new Selection();
+        model.addListener(selection);
+        drag = new DragController(model, history, selection, this::getVertexHandle);
+        canvas.setOnMousePressed(this::bandMousePressed);
+        canvas.setOnMouseDragged(this::bandMouseDragged);
+        canvas.setOnMouseReleased(this::bandMouseReleased);
+        history.setOnChange(() -> {
+            menuItemUndo.setDisable(!history.canUndo());
+            menuItemRedo.setDisable(!history.canRedo());
+        });
+        Random rnd = new Random(); //for generating random coordinates of node
 
+        /*
+         * addVertexButton - new vertex is placed into model, its view is created by listener
+         */
+        addVertex.setOnAction(actionEvent -> {
+            //random place in canvas, 2*radius offset so it isnt generated outside of canvas (labels at top and bottom are left free)
+            double x = rnd.nextDouble() * (canvasWidth - 2 * Vertex.defaultRadius);
+            double y = 30 + rnd.nextDouble() * (canvasHeight - 100 - 2 * Vertex.defaultRadius);
+            if (menuItemIncrementalLayout.isSelected()) {
+                //new vertex has no neighbours yet, so it only gets the nearest free place (it does not overlap other vertices)
+                double[] place = incrementalLayout.place(new int[0], x, y, Vertex.defaultRadius);
+                x = place[0];
+                y = place[1];
+            }
+            AddVertexCommand command = new AddVertexCommand(textFieldAddVertex.getText(), x, y);
+            history.execute(command);
+            lastAction.setText("Last action: Inserted node with value \"" + model.getLabel(command.getId()) + "\"");
         });
 
         /*
-         * deletes first
+         * deletes last inserted vertex with value
          */
         deleteVertex.setOnAction(actionEvent -> {
             String valueOfNode = textFieldDeleteVertex.getText();
             StringBuilder labelText = new StringBuilder();
-            if (vertices.containsKey(valueOfNode)) {
+            int id = model.getVertices().getLast(valueOfNode);
+            if (id >= 0) {
                 labelText.append("Last action: Deleted node with value \"").append(valueOfNode).append("\"");
-                Vertex vertexToRemove = vertices.get(valueOfNode).pop();
-                canvas.getChildren().remove(vertexToRemove);
-                if (vertices.get(valueOfNode).size() == 0) vertices.remove(valueOfNode);
+                history.execute(new RemoveVertexCommand(id));
             }
             else {
                 labelText.append("Last action: Failed to delete node with value \"").append(valueOfNode).append("\"");
@@ -682,6 +2416,11 @@ public class Editor extends Application {
             lastAction.setText(labelText.toString());
         });
 
+        /*
+         * deletes all vertices with value, * in value stands for any text
+         */
+        deleteAllVertices.setOnAction(actionEvent -> deleteMatchingAction(textFieldDeleteVertex.getText()));
+
 
         /*
          * positioning of nodes on screen
@@ -710,8 +2449,76 @@ public class Editor extends Application {
         stage.getIcons().add(new Image("file:icons/icon2.png"));
         stage.show();
         stage.setOnCloseRequest(this::closeWindowRequest);
+        recoverSession();
+    }
+
+
+    /**
+     * Saves, which are still in progress, are finished before application ends
+     * - journal is deleted after its save finished, unsaved changes were thrown away by user
+     * - if save failed, journal stays on disk and it is replayed at next start
+     */
+    @Override
+    public void stop() {
+        saveExecutor.shutdown();
+        journalExecutor.shutdown();
+        if (journalTimer != null) {
+            journalTimer.stop();
+        }
+        //listeners of retired journals are not called anymore, FX thread ends
+        for (Map.Entry<Journal, SaveTask> retired : retiredJournals.entrySet()) {
+            retireJournal(retired.getKey(), retired.getValue());
+        }
+        retiredJournals.clear();
+        if (journal == null) {
+            return;
+        }
+        detachJournal();
+        if (retireJournal(journal, lastSave)) {
+            try {
+                Journal.unmarkSession();
+            }
+            catch (IOException e) {
+                //marker of finished session is skipped at next start, its journal does not exist anymore
+            }
+        }
     }
 
+    /**
+     * Method that waits for save of session and deletes its journal, journal stays on disk if save failed
+     * @param journal of session
+     * @param save of session, or null if session was not saved
+     * @return true iff journal was deleted
+     */
+    private static boolean retireJournal(Journal journal, SaveTask save) {
+        try {
+            if (save != null) {
+                save.get();
+            }
+            journal.discard();
+            return true;
+        }
+        catch (ExecutionException | CancellationException e) {
+            closeJournal(journal);
+        }
+        catch (InterruptedException e) {
+            closeJournal(journal);
+            Thread.currentThread().interrupt();
+        }
+        catch (IOException e) {
+            //marker stays, journal is replayed idempotently at next start
+        }
+        return false;
+    }
+
+    private static void closeJournal(Journal journal) {
+        try {
+            journal.close();
+        }
+        catch (IOException e) {
+            //records, which were not written, are lost
+        }
+    }
 
     public static void main(String[] args) {
         launch(args);
@@ -1,8 +1,95 @@
 package com.example.editorgrafov;
 
+/**
+ * Directed graph, whose vertices are identified by non-negative int ids
+ * - ids are assigned by the caller, graph only has to be able to store them
+ */
 public interface Graph {
+
+    /**
+     * Method that returns number of vertices currently stored in graph
+     * @return number of vertices
+     */
     int getNumberOfVertices();
+
+    /**
+     * Method that returns number of (directed) edges currently stored in graph
+     * @return number of edges
+     */
     int getNumberOfEdges();
-    boolean existsEdge();
-    Iterable<String> outgoingEdgesDestinations(String vertex);
+
+    /**
+     * Method that returns upper bound of ids of present vertices
+     * @return number, that is greater than id of every vertex in graph
+     */
+    int getCapacity();
+
+    /**
+     * Method that adds vertex with given id, does nothing if vertex is already present
+     * @param vertex id of vertex
+     */
+    void addVertex(int vertex);
+
+    /**
+     * Method that removes vertex with given id together with all of its incoming and outgoing edges
+     * @param vertex id of vertex
+     */
+    void removeVertex(int vertex);
+
+    /**
+     * Method that checks, whether vertex with given id is present in graph
+     * @param vertex id of vertex
+     * @return true iff vertex is present
+     */
+    boolean containsVertex(int vertex);
+
+    /**
+     * Method that adds edge from -> to
+     * @param from id of source vertex
+     * @param to id of destination vertex
+     * @return true iff edge was not present before
+     */
+    boolean addEdge(int from, int to);
+
+    /**
+     * Method that removes edge from -> to
+     * @param from id of source vertex
+     * @param to id of destination vertex
+     * @return true iff edge was present before
+     */
+    boolean removeEdge(int from, int to);
+
+    /**
+     * Method that checks, whether edge from -> to exists
+     * @param from id of source vertex
+     * @param to id of destination vertex
+     * @return true iff edge exists
+     */
+    boolean existsEdge(int from, int to);
+
+    /**
+     * Method that returns number of outgoing edges of vertex
+     * @param vertex id of vertex
+     * @return out degree of vertex, 0 if vertex is not present
+     */
+    int getOutDegree(int vertex);
+
+    /**
+     * Method that returns ids of all destinations of edges going out of vertex
+     * @param vertex id of vertex
+     * @return new array with ids of destinations (in ascending order for matrix representation)
+     */
+    int[] outgoingEdgesDestinations(int vertex);
+
+    /**
+     * Method that returns ids of all sources of edges coming into vertex
+     * @param vertex id of vertex
+     * @return new array with ids of sources
+     */
+    int[] incomingEdgesSources(int vertex);
+
+    /**
+     * Method that removes all vertices and edges from graph
+     */
+    void clear();
 }
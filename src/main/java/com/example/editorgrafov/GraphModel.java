@@ -0,0 +1,447 @@
+package com.example.editorgrafov;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Model of edited graph
+ * - vertices are registered in VertexRegistry, edges are stored in Graph, both use the same int ids
+ * - coordinates of vertices are kept in primitive arrays indexed by id
+ * - every change goes through this class, so listeners (view, ...) are notified about it
+ * - changes can be grouped into transaction, listeners get every single change as it is made,
+ *   but modelChanged() only once after whole transaction (view refresh, dirty status, ...)
+ */
+public class GraphModel {
+
+    private static final int defaultCapacity = 64;
+
+    private final VertexRegistry vertices = new VertexRegistry();
+    private final AdaptiveGraph graph = new AdaptiveGraph();
+    private double[] x = new double[defaultCapacity];
+    private double[] y = new double[defaultCapacity];
+    //listeners can be added or removed while event is being dispatched (e.g. view is replaced)
+    private final List<GraphModelListener> listeners = new CopyOnWriteArrayList<>();
+    private long modificationCount;
+    private int transactionDepth;
+    private long transactionStart;
+
+    public void addListener(GraphModelListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(GraphModelListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Method that starts transaction, transactions can be nested (only the outermost one counts)
+     */
+    public void beginTransaction() {
+        if (transactionDepth++ == 0) {
+            transactionStart = modificationCount;
+        }
+    }
+
+    /**
+     * Method that ends transaction, listeners are notified by modelChanged() if anything changed in outermost one
+     * @throws IllegalStateException iff no transaction was started
+     */
+    public void endTransaction() {
+        if (transactionDepth == 0) {
+            throw new IllegalStateException("No transaction to end");
+        }
+        if (--transactionDepth == 0 && modificationCount != transactionStart) {
+            for (GraphModelListener listener : listeners) {
+                listener.modelChanged();
+            }
+        }
+    }
+
+    /**
+     * Method that makes all changes of action in one transaction
+     * @param action which changes model
+     */
+    public void runInTransaction(Runnable action) {
+        beginTransaction();
+        try {
+            action.run();
+        }
+        finally {
+            endTransaction();
+        }
+    }
+
+    public boolean isInTransaction() {
+        return transactionDepth > 0;
+    }
+
+    /**
+     * Method that adds new vertex
+     * @param label value of vertex
+     * @param x coordinate of vertex
+     * @param y coordinate of vertex
+     * @return id of new vertex
+     */
+    public int addVertex(String label, double x, double y) {
+        int id = vertices.getCapacity();
+        addVertex(id, label, x, y);
+        return id;
+    }
+
+    /**
+     * Method that adds vertex with given id (used when vertex is restored)
+     * @param id of vertex, it must not be used by alive vertex
+     * @param label value of vertex
+     * @param x coordinate of vertex
+     * @param y coordinate of vertex
+     */
+    public void addVertex(int id, String label, double x, double y) {
+        vertices.register(id, label);
+        graph.addVertex(id);
+        ensureCapacity(id + 1);
+        this.x[id] = x;
+        this.y[id] = y;
+        modificationCount++;
+        for (GraphModelListener listener : listeners) {
+            listener.vertexAdded(id);
+        }
+        changed();
+    }
+
+    /**
+     * Method that adds many vertices and edges between them in one transaction, arrays of model are resized only once
+     * @param labels values of new vertices
+     * @param x coordinates of new vertices
+     * @param y coordinates of new vertices
+     * @param from sources of edges, as indices into labels
+     * @param to destinations of edges, as indices into labels
+     * @return ids of new vertices, vertex labels[i] has id ids[i]
+     */
+    public int[] addAll(String[] labels, double[] x, double[] y, int[] from, int[] to) {
+        int[] ids = new int[labels.length];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = vertices.getCapacity() + i;
+        }
+        addAll(ids, labels, x, y, from, to);
+        return ids;
+    }
+
+    /**
+     * Method that adds many vertices with given ids (used when they are restored) and edges between them
+     * @param ids of new vertices, they must not be used by alive vertices
+     * @param labels values of new vertices
+     * @param x coordinates of new vertices
+     * @param y coordinates of new vertices
+     * @param from sources of edges, as indices into ids
+     * @param to destinations of edges, as indices into ids
+     */
+    public void addAll(int[] ids, String[] labels, double[] x, double[] y, int[] from, int[] to) {
+        int n = ids.length;
+        if (labels.length != n || x.length != n || y.length != n || from.length != to.length) {
+            throw new IllegalArgumentException("Arrays of vertices or edges have different lengths");
+        }
+        for (int i = 0; i < from.length; i++) {
+            if (from[i] < 0 || from[i] >= n || to[i] < 0 || to[i] >= n) {
+                throw new IllegalArgumentException("Edge " + i + " references vertex outside of added vertices");
+            }
+        }
+        int capacity = vertices.getCapacity();
+        for (int id : ids) {
+            capacity = Math.max(capacity, id + 1);
+        }
+        vertices.ensureCapacity(capacity);
+        ensureCapacity(capacity);
+        beginTransaction();
+        try {
+            for (int i = 0; i < n; i++) {
+                addVertex(ids[i], labels[i], x[i], y[i]);
+            }
+            for (int i = 0; i < from.length; i++) {
+                addEdge(ids[from[i]], ids[to[i]]);
+            }
+        }
+        finally {
+            endTransaction();
+        }
+    }
+
+    /**
+     * Method that removes vertex together with its edges
+     * @param id of vertex
+     * @return true iff vertex was alive
+     */
+    public boolean removeVertex(int id) {
+        String label = vertices.unregister(id);
+        if (label == null) {
+            return false;
+        }
+        graph.removeVertex(id);
+        modificationCount++;
+        for (GraphModelListener listener : listeners) {
+            listener.vertexRemoved(id, label);
+        }
+        changed();
+        return true;
+    }
+
+    /**
+     * Method that moves vertex to new coordinates
+     * @param id of vertex
+     * @param x new coordinate
+     * @param y new coordinate
+     */
+    public void moveVertex(int id, double x, double y) {
+        checkAlive(id);
+        double oldX = this.x[id];
+        double oldY = this.y[id];
+        if (oldX == x && oldY == y) {
+            return;
+        }
+        this.x[id] = x;
+        this.y[id] = y;
+        modificationCount++;
+        for (GraphModelListener listener : listeners) {
+            listener.vertexMoved(id, oldX, oldY);
+        }
+        changed();
+    }
+
+    /**
+     * Method that adds edge from -> to
+     * @param from id of source vertex
+     * @param to id of destination vertex
+     * @return true iff edge was not present before
+     */
+    public boolean addEdge(int from, int to) {
+        checkAlive(from);
+        checkAlive(to);
+        if (!graph.addEdge(from, to)) {
+            return false;
+        }
+        modificationCount++;
+        for (GraphModelListener listener : listeners) {
+            listener.edgeAdded(from, to);
+        }
+        changed();
+        return true;
+    }
+
+    /**
+     * Method that removes edge from -> to
+     * @param from id of source vertex
+     * @param to id of destination vertex
+     * @return true iff edge was present before
+     */
+    public boolean removeEdge(int from, int to) {
+        if (!graph.removeEdge(from, to)) {
+            return false;
+        }
+        modificationCount++;
+        for (GraphModelListener listener : listeners) {
+            listener.edgeRemoved(from, to);
+        }
+        changed();
+        return true;
+    }
+
+    /**
+     * Method that removes all vertices and edges, ids start from 0 again
+     */
+    public void clear() {
+        vertices.clear();
+        graph.clear();
+        modificationCount++;
+        for (GraphModelListener listener : listeners) {
+            listener.graphCleared();
+        }
+        changed();
+    }
+
+    /**
+     * Method that copies whole model into primitive arrays
+     * - labels are interned by VertexRegistry, so they can be deduplicated by identity
+     * @return snapshot of current state
+     */
+    public GraphSnapshot snapshot() {
+        int n = vertices.getNumberOfVertices();
+        int[] ids = new int[n];
+        int[] labelIndices = new int[n];
+        float[] snapshotX = new float[n];
+        float[] snapshotY = new float[n];
+        Map<String, Integer> labelIndex = new IdentityHashMap<>();
+        List<String> labels = new ArrayList<>();
+        int[] from = new int[graph.getNumberOfEdges()];
+        int[] to = new int[from.length];
+        int vertexCount = 0;
+        int edgeCount = 0;
+        for (int id = 0; id < vertices.getCapacity(); id++) {
+            String label = vertices.getLabel(id);
+            if (label == null) {
+                continue;
+            }
+            Integer index = labelIndex.get(label);
+            if (index == null) {
+                index = labels.size();
+                labelIndex.put(label, index);
+                labels.add(label);
+            }
+            ids[vertexCount] = id;
+            labelIndices[vertexCount] = index;
+            snapshotX[vertexCount] = (float) x[id];
+            snapshotY[vertexCount] = (float) y[id];
+            vertexCount++;
+            for (int destination : graph.outgoingEdgesDestinations(id)) {
+                from[edgeCount] = id;
+                to[edgeCount] = destination;
+                edgeCount++;
+            }
+        }
+        return new GraphSnapshot(ids, labels.toArray(new String[0]), labelIndices, snapshotX, snapshotY, from, to);
+    }
+
+    /**
+     * Method that replaces content of model with content of snapshot, ids of vertices are kept
+     * @param snapshot to be loaded
+     */
+    public void load(GraphSnapshot snapshot) {
+        beginTransaction();
+        try {
+            loadContent(snapshot);
+        }
+        finally {
+            endTransaction();
+        }
+    }
+
+    private void loadContent(GraphSnapshot snapshot) {
+        clear();
+        int[] ids = snapshot.getIds();
+        String[] labels = snapshot.getLabels();
+        int[] labelIndices = snapshot.getLabelIndices();
+        float[] snapshotX = snapshot.getX();
+        float[] snapshotY = snapshot.getY();
+        for (int i = 0; i < ids.length; i++) {
+            addVertex(ids[i], labels[labelIndices[i]], snapshotX[i], snapshotY[i]);
+        }
+        int[] from = snapshot.getFrom();
+        int[] to = snapshot.getTo();
+        for (int i = 0; i < from.length; i++) {
+            addEdge(from[i], to[i]);
+        }
+    }
+
+    /**
+     * Method that replaces content of model with graph built outside of it, listeners get only graphLoaded()
+     * - graph is used by model from now on (it is not copied), so big graph is not added edge by edge
+     * @param labels values of vertices, vertex with id i has label labels[i]
+     * @param x coordinates of vertices
+     * @param y coordinates of vertices
+     * @param content graph with vertices 0 ... labels.length - 1
+     */
+    public void install(String[] labels, float[] x, float[] y, AdjacencyList content) {
+        if (x.length != labels.length || y.length != labels.length
+                || content.getNumberOfVertices() != labels.length || content.getCapacity() > labels.length) {
+            throw new IllegalArgumentException("Labels, coordinates and graph must have the same vertices");
+        }
+        beginTransaction();
+        try {
+            clear();
+            ensureCapacity(labels.length);
+            for (int id = 0; id < labels.length; id++) {
+                vertices.register(id, labels[id]);
+                this.x[id] = x[id];
+                this.y[id] = y[id];
+            }
+            graph.install(content);
+            modificationCount++;
+            for (GraphModelListener listener : listeners) {
+                listener.graphLoaded();
+            }
+        }
+        finally {
+            endTransaction();
+        }
+    }
+
+    public VertexRegistry getVertices() {
+        return vertices;
+    }
+
+    /**
+     * Method that returns graph with edges (it should be modified only through GraphModel)
+     * @return graph of model
+     */
+    public Graph getGraph() {
+        return graph;
+    }
+
+    public boolean isAlive(int id) {
+        return vertices.isAlive(id);
+    }
+
+    public String getLabel(int id) {
+        return vertices.getLabel(id);
+    }
+
+    public double getX(int id) {
+        return x[id];
+    }
+
+    public double getY(int id) {
+        return y[id];
+    }
+
+    /**
+     * Method that returns upper bound of vertex ids
+     * @return number greater than id of every vertex
+     */
+    public int getCapacity() {
+        return vertices.getCapacity();
+    }
+
+    public int getNumberOfVertices() {
+        return vertices.getNumberOfVertices();
+    }
+
+    public int getNumberOfEdges() {
+        return graph.getNumberOfEdges();
+    }
+
+    /**
+     * Method that returns number of changes made to model so far
+     * - it is used to find out, whether model changed after some point (e.g. after snapshot was saved)
+     * @return modification count
+     */
+    public long getModificationCount() {
+        return modificationCount;
+    }
+
+    /**
+     * Method that notifies listeners about change made outside of transaction
+     */
+    private void changed() {
+        if (transactionDepth == 0) {
+            for (GraphModelListener listener : listeners) {
+                listener.modelChanged();
+            }
+        }
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > x.length) {
+            int newLength = Math.max(capacity, x.length << 1);
+            x = Arrays.copyOf(x, newLength);
+            y = Arrays.copyOf(y, newLength);
+        }
+    }
+
+    private void checkAlive(int id) {
+        if (!vertices.isAlive(id)) {
+            throw new IllegalArgumentException("Vertex " + id + " does not exist");
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.editorgrafov;
+
+/**
+ * Listener of changes in GraphModel, every method is called after the change was made
+ * - all methods have empty default implementation, so listener overrides only what it needs
+ */
+public interface GraphModelListener {
+
+    default void vertexAdded(int id) {
+    }
+
+    /**
+     * @param id of removed vertex (it is not alive anymore)
+     * @param label which removed vertex had
+     */
+    default void vertexRemoved(int id, String label) {
+    }
+
+    /**
+     * @param id of moved vertex
+     * @param oldX x coordinate before move
+     * @param oldY y coordinate before move
+     */
+    default void vertexMoved(int id, double oldX, double oldY) {
+    }
+
+    default void edgeAdded(int from, int to) {
+    }
+
+    default void edgeRemoved(int from, int to) {
+    }
+
+    default void graphCleared() {
+    }
+
+    /**
+     * Called after whole content was put into cleared model at once (big import), instead of one call per vertex and edge
+     * - graphCleared() was called before, listener builds its state from model
+     */
+    default void graphLoaded() {
+    }
+
+    /**
+     * Called once after every change made outside of transaction and once after whole transaction
+     * - listener, which only needs to know that something changed (refresh of view, dirty status), should use this
+     */
+    default void modelChanged() {
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.editorgrafov;
+
+/**
+ * Immutable copy of GraphModel stored in primitive arrays
+ * - vertex i has id ids[i], label labels[labelIndices[i]] and coordinates x[i], y[i]
+ * - edge i goes from vertex with id from[i] to vertex with id to[i]
+ * - every distinct label is stored only once
+ */
+public class GraphSnapshot {
+
+    private final int[] ids;
+    private final String[] labels;
+    private final int[] labelIndices;
+    private final float[] x;
+    private final float[] y;
+    private final int[] from;
+    private final int[] to;
+
+    public GraphSnapshot(int[] ids, String[] labels, int[] labelIndices, float[] x, float[] y, int[] from, int[] to) {
+        if (labelIndices.length != ids.length || x.length != ids.length || y.length != ids.length) {
+            throw new IllegalArgumentException("Arrays of vertices must have the same length");
+        }
+        if (from.length != to.length) {
+            throw new IllegalArgumentException("Arrays of edges must have the same length");
+        }
+        this.ids = ids;
+        this.labels = labels;
+        this.labelIndices = labelIndices;
+        this.x = x;
+        this.y = y;
+        this.from = from;
+        this.to = to;
+    }
+
+    public int getNumberOfVertices() {
+        return ids.length;
+    }
+
+    public int getNumberOfEdges() {
+        return from.length;
+    }
+
+    /*
+     * arrays are not copied, they must not be modified
+     */
+
+    public int[] getIds() {
+        return ids;
+    }
+
+    public String[] getLabels() {
+        return labels;
+    }
+
+    public int[] getLabelIndices() {
+        return labelIndices;
+    }
+
+    public float[] getX() {
+        return x;
+    }
+
+    public float[] getY() {
+        return y;
+    }
+
+    public int[] getFrom() {
+        return from;
+    }
+
+    public int[] getTo() {
+        return to;
+    }
+}
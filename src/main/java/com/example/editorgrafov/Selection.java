@@ -0,0 +1,134 @@
+package com.example.editorgrafov;
+
+import com.example.editorgrafov.collections.IntList;
+
+import java.util.Arrays;
+
+/**
+ * Set of selected vertices (their ids)
+ * - membership is kept in boolean array indexed by id, ids are kept also in list, so they can be iterated
+ * - removed id stays in list as tombstone until tombstones make half of list, so removal of many vertices is not quadratic
+ * - selection listens to model, removed vertices are removed from selection as well
+ */
+public class Selection implements GraphModelListener {
+
+    private boolean[] selected = new boolean[64];
+    private final IntList ids = new IntList();
+    //position of id in list, id at position i is selected iff selected[id] && positions[id] == i
+    private int[] positions = new int[64];
+    private int tombstones;
+
+    /**
+     * Method that adds vertex into selection
+     * @param id of vertex
+     * @return true iff vertex was not selected before
+     */
+    public boolean add(int id) {
+        if (id >= selected.length) {
+            selected = Arrays.copyOf(selected, Math.max(id + 1, selected.length << 1));
+            positions = Arrays.copyOf(positions, selected.length);
+        }
+        if (selected[id]) {
+            return false;
+        }
+        selected[id] = true;
+        positions[id] = ids.size();
+        ids.add(id);
+        return true;
+    }
+
+    /**
+     * Method that removes vertex from selection
+     * @param id of vertex
+     * @return true iff vertex was selected
+     */
+    public boolean remove(int id) {
+        if (!contains(id)) {
+            return false;
+        }
+        selected[id] = false;
+        tombstones++;
+        while (!ids.isEmpty() && !isSelectedAt(ids.size() - 1)) {
+            ids.removeLast();
+            tombstones--;
+        }
+        if (tombstones > ids.size() / 2) {
+            compact();
+        }
+        return true;
+    }
+
+    public boolean contains(int id) {
+        return id >= 0 && id < selected.length && selected[id];
+    }
+
+    public int size() {
+        return ids.size() - tombstones;
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Method that returns ids of selected vertices
+     * @return new array with ids in order, in which they were selected
+     */
+    public int[] getIds() {
+        if (tombstones == 0) {
+            return ids.toArray();
+        }
+        int[] result = new int[size()];
+        int count = 0;
+        for (int i = 0; i < ids.size(); i++) {
+            if (isSelectedAt(i)) {
+                result[count++] = ids.get(i);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Method that removes every vertex from selection
+     */
+    public void clear() {
+        for (int i = 0; i < ids.size(); i++) {
+            selected[ids.get(i)] = false;
+        }
+        ids.clear();
+        tombstones = 0;
+    }
+
+    private boolean isSelectedAt(int position) {
+        int id = ids.get(position);
+        return selected[id] && positions[id] == position;
+    }
+
+    /**
+     * Method that removes tombstones from list, order of selected ids is kept
+     */
+    private void compact() {
+        int count = 0;
+        for (int i = 0; i < ids.size(); i++) {
+            if (isSelectedAt(i)) {
+                int id = ids.get(i);
+                positions[id] = count;
+                ids.set(count++, id);
+            }
+        }
+        while (ids.size() > count) {
+            ids.removeLast();
+        }
+        tombstones = 0;
+    }
+
+    @Override
+    public void vertexRemoved(int id, String label) {
+        remove(id);
+    }
+
+    @Override
+    public void graphCleared() {
+        clear();
+    }
+}
@@ -6,25 +6,35 @@ import javafx.scene.shape.Circle;
 import javafx.scene.text.Font;
 import javafx.scene.text.Text;
 
-public class Vertex extends StackPane {
+/**
+ * View of vertex as node of scene graph (StackPane with Circle and Text)
+ */
+public class Vertex extends StackPane implements VertexHandle {
 
+    private final int id;
     private final Circle circle;
     private final Text text;
     private int radius;
     private Color colorFill;
-    private static final Color defaultColorFill = Color.YELLOW;
-    private static final int defaultRadius = 30;
+    private boolean selected;
+    public static final Color defaultColorFill = Color.YELLOW;
+    public static final int defaultRadius = 30;
+    private static final Color selectionColor = Color.DODGERBLUE;
 
     /**
      * Constructor of Vertex object
+     * @param id of vertex in graph
      * @param text value stored inside of vertex
      * @param x coordinate, where vertex is placed
      * @param y coordinate, where vertex is placed
      */
-    public Vertex(Text text, double x, double y) {
+    public Vertex(int id, Text text, double x, double y) {
+        this.id = id;
         this.text = text;
         this.circle = new Circle(x, y, defaultRadius);
         //default
+        radius = defaultRadius;
+        colorFill = defaultColorFill;
         circle.setFill(defaultColorFill);
         circle.setStroke(Color.BLACK);
         text.setStyle("-fx-font-weight: bold");
@@ -33,16 +43,27 @@ public class Vertex extends StackPane {
         getChildren().add(text);
     }
 
+    @Override
     public void resetFill() {
         colorFill = defaultColorFill;
         circle.setFill(defaultColorFill);
     }
 
+    @Override
     public void resetRadius() {
         radius = defaultRadius;
         resizeNode(radius);
     }
 
+    /**
+     * Method that returns id of vertex, under which it is stored in graph
+     * @return id of vertex
+     */
+    @Override
+    public int getVertexId() {
+        return id;
+    }
+
     /**
      * Method that returns x coordinate of vertex center
      * @return x coordinate of vertex
@@ -87,6 +108,7 @@ public class Vertex extends StackPane {
      * Method which returns value of vertex
      * @return String value of vertex
      */
+    @Override
     public String getString() {
         return text.getText();
     }
@@ -103,6 +125,7 @@ public class Vertex extends StackPane {
      * Method which return radius of vertex
      * @return integer value of radius
      */
+    @Override
     public int getRadius() {
         return radius;
     }
@@ -111,6 +134,7 @@ public class Vertex extends StackPane {
      * Method which returns color fill of Shape which represents vertex
      * @return Color of object representing vertex
      */
+    @Override
     public Color getFill() {
         return colorFill;
     }
@@ -123,6 +147,7 @@ public class Vertex extends StackPane {
      * Method that sets colorfill of Vertex
      * @param color
      */
+    @Override
     public void setVertexFill(Color color) {
         colorFill = color;
         circle.setFill(color);
@@ -132,6 +157,7 @@ public class Vertex extends StackPane {
      * Method that sets color of value inside vertex
      * @param color
      */
+    @Override
     public void setValueColor(Color color) {
         text.setFill(color);
     }
@@ -140,11 +166,24 @@ public class Vertex extends StackPane {
      * Method that resizes vertex to one with new radius
      * @param radius
      */
+    @Override
     public void resizeNode(int radius) {
         this.radius = radius;
         circle.setRadius(radius);
     }
 
+    @Override
+    public void setSelected(boolean selected) {
+        this.selected = selected;
+        circle.setStroke(selected ? selectionColor : Color.BLACK);
+        circle.setStrokeWidth(selected ? 3 : 1);
+    }
+
+    @Override
+    public boolean isSelected() {
+        return selected;
+    }
+
     /**
      * Method that changes font of value inside the vertex
      * @param fontName of value
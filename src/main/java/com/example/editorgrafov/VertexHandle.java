@@ -0,0 +1,74 @@
+package com.example.editorgrafov;
+
+import javafx.scene.paint.Color;
+
+/**
+ * Handle of displayed vertex, through which its appearance is customized
+ * - Vertex (one node in scene graph per vertex) and CanvasVertex (vertex drawn onto shared canvas) implement it,
+ *   so code, which customizes vertices, does not depend on rendering mode
+ */
+public interface VertexHandle {
+
+    /**
+     * Method that returns id of vertex, under which it is stored in graph
+     * @return id of vertex
+     */
+    int getVertexId();
+
+    /**
+     * Method which returns value of vertex
+     * @return String value of vertex
+     */
+    String getString();
+
+    /**
+     * Method which returns color fill of vertex
+     * @return Color of vertex
+     */
+    Color getFill();
+
+    /**
+     * Method that sets color fill of vertex
+     * @param color of vertex
+     */
+    void setVertexFill(Color color);
+
+    /**
+     * Method that sets default color fill of vertex
+     */
+    void resetFill();
+
+    /**
+     * Method which return radius of vertex
+     * @return integer value of radius
+     */
+    int getRadius();
+
+    /**
+     * Method that resizes vertex to one with new radius
+     * @param radius of vertex
+     */
+    void resizeNode(int radius);
+
+    /**
+     * Method that sets default radius of vertex
+     */
+    void resetRadius();
+
+    /**
+     * Method that sets color of value inside vertex
+     * @param color of value
+     */
+    void setValueColor(Color color);
+
+    /**
+     * Method that highlights vertex as selected
+     * @param selected whether vertex is selected
+     */
+    void setSelected(boolean selected);
+
+    /**
+     * @return true iff vertex is highlighted as selected
+     */
+    boolean isSelected();
+}
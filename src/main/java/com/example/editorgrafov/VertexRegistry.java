@@ -0,0 +1,249 @@
+package com.example.editorgrafov;
+
+import com.example.editorgrafov.collections.IntList;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Symbol table of vertices
+ * - every vertex gets dense int id, ids are never reused until registry is cleared, so they stay stable
+ * - removed vertex leaves tombstone (null label) behind
+ * - every label is stored only once and all vertices with the same label share the same String
+ * - more vertices can have the same label, their ids are kept in order of insertion
+ * - removed id stays in list of its label as tombstone (it is skipped), list is compacted when tombstones outnumber
+ *   alive ids, so removal of vertex is O(1) amortized even when thousands of vertices share one label
+ */
+public class VertexRegistry {
+
+    private static final int defaultCapacity = 64;
+
+    private String[] labels = new String[defaultCapacity];
+    //position of vertex in list of ids of its label
+    private int[] positions = new int[defaultCapacity];
+    private final Map<String, Ids> idsByLabel = new HashMap<>();
+    private int capacity;
+    private int numberOfVertices;
+
+    /**
+     * Method that registers new vertex
+     * @param label value of vertex
+     * @return id of new vertex
+     */
+    public int register(String label) {
+        int id = capacity;
+        register(id, label);
+        return id;
+    }
+
+    /**
+     * Method that registers vertex with given id (used when vertex is restored, e.g. from file)
+     * @param id of vertex, it must not be used by other vertex
+     * @param label value of vertex
+     */
+    public void register(int id, String label) {
+        if (id < 0) {
+            throw new IllegalArgumentException("Vertex id must not be negative: " + id);
+        }
+        if (isAlive(id)) {
+            throw new IllegalArgumentException("Vertex id " + id + " is already used");
+        }
+        if (id >= labels.length) {
+            ensureCapacity(id + 1);
+        }
+        Ids ids = idsByLabel.get(label);
+        if (ids == null) {
+            ids = new Ids(label);
+            idsByLabel.put(label, ids);
+        }
+        labels[id] = ids.label;
+        positions[id] = ids.list.size();
+        ids.list.add(id);
+        ids.alive++;
+        capacity = Math.max(capacity, id + 1);
+        numberOfVertices++;
+    }
+
+    /**
+     * Method that resizes internal array at once, so following registrations do not resize it
+     * @param capacity upper bound of ids, that will be registered
+     */
+    public void ensureCapacity(int capacity) {
+        if (capacity > labels.length) {
+            labels = Arrays.copyOf(labels, Math.max(capacity, labels.length << 1));
+            positions = Arrays.copyOf(positions, labels.length);
+        }
+    }
+
+    /**
+     * Method that removes vertex, its id is not given to any other vertex
+     * @param id of vertex
+     * @return label of removed vertex, or null if vertex with this id was not alive
+     */
+    public String unregister(int id) {
+        if (!isAlive(id)) {
+            return null;
+        }
+        String label = labels[id];
+        Ids ids = idsByLabel.get(label);
+        labels[id] = null;
+        numberOfVertices--;
+        if (--ids.alive == 0) {
+            idsByLabel.remove(label);
+            return label;
+        }
+        //last id of list is always alive, so getLast() does not have to skip tombstones
+        while (!ids.isLastAlive()) {
+            ids.list.removeLast();
+        }
+        if (ids.list.size() > 2 * ids.alive + 8) {
+            ids.compact();
+        }
+        return label;
+    }
+
+    /**
+     * Method that checks whether id belongs to vertex, that was not removed
+     * @param id of vertex
+     * @return true iff vertex is alive
+     */
+    public boolean isAlive(int id) {
+        return id >= 0 && id < capacity && labels[id] != null;
+    }
+
+    /**
+     * Method that returns label of vertex
+     * @param id of vertex
+     * @return label, or null if vertex is not alive
+     */
+    public String getLabel(int id) {
+        return id >= 0 && id < capacity ? labels[id] : null;
+    }
+
+    /**
+     * Method that returns ids of all alive vertices with label, in order of insertion
+     * @param label value of vertices
+     * @return new array of ids, empty if there is no such vertex
+     */
+    public int[] getIds(String label) {
+        Ids ids = idsByLabel.get(label);
+        return ids == null ? new int[0] : ids.toArray();
+    }
+
+    /**
+     * Method that returns ids of all alive vertices, whose label matches predicate
+     * - predicate is tested once for every distinct label, not for every vertex
+     * @param predicate on labels
+     * @return new array of ids, ids with the same label are in order of insertion
+     */
+    public int[] getIds(Predicate<String> predicate) {
+        IntList result = new IntList();
+        for (Ids ids : idsByLabel.values()) {
+            if (predicate.test(ids.label)) {
+                for (int i = 0; i < ids.list.size(); i++) {
+                    if (ids.contains(ids.list.get(i), i)) {
+                        result.add(ids.list.get(i));
+                    }
+                }
+            }
+        }
+        return result.toArray();
+    }
+
+    /**
+     * Method that returns id of vertex with label, that was inserted last
+     * @param label value of vertex
+     * @return id of vertex, or -1 if there is no such vertex
+     */
+    public int getLast(String label) {
+        Ids ids = idsByLabel.get(label);
+        return ids == null ? -1 : ids.list.getLast();
+    }
+
+    /**
+     * Method that returns upper bound of ids, every id ever given is lower than capacity
+     * @return capacity
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Method that returns number of alive vertices
+     * @return number of vertices
+     */
+    public int getNumberOfVertices() {
+        return numberOfVertices;
+    }
+
+    /**
+     * Method that returns number of distinct labels of alive vertices
+     * @return number of labels
+     */
+    public int getNumberOfLabels() {
+        return idsByLabel.size();
+    }
+
+    /**
+     * Method that removes all vertices, ids start from 0 again
+     */
+    public void clear() {
+        Arrays.fill(labels, 0, capacity, null);
+        idsByLabel.clear();
+        capacity = 0;
+        numberOfVertices = 0;
+    }
+
+    /**
+     * Ids of vertices with one label, in order of insertion, with tombstones of removed vertices
+     * - id at position i is alive iff it has this label and its position is i (vertex could be removed
+     *   and registered again, then its old position is tombstone)
+     */
+    private final class Ids {
+        private final String label;
+        private final IntList list = new IntList();
+        private int alive;
+
+        private Ids(String label) {
+            this.label = label;
+        }
+
+        private boolean isLastAlive() {
+            return contains(list.getLast(), list.size() - 1);
+        }
+
+        private boolean contains(int id, int position) {
+            return labels[id] == label && positions[id] == position;
+        }
+
+        private int[] toArray() {
+            int[] result = new int[alive];
+            int count = 0;
+            for (int i = 0; i < list.size(); i++) {
+                if (contains(list.get(i), i)) {
+                    result[count++] = list.get(i);
+                }
+            }
+            return result;
+        }
+
+        /**
+         * Method that removes tombstones from list
+         */
+        private void compact() {
+            int count = 0;
+            for (int i = 0; i < list.size(); i++) {
+                int id = list.get(i);
+                if (contains(id, i)) {
+                    positions[id] = count;
+                    list.set(count++, id);
+                }
+            }
+            while (list.size() > count) {
+                list.removeLast();
+            }
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.editorgrafov.algorithms;
+
+import com.example.editorgrafov.CsrGraph;
+import com.example.editorgrafov.enums.Measure;
+import javafx.concurrent.Task;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Task, which computes centrality of all vertices in background
+ * - snapshot of graph has to be taken on thread owning model, task does not touch model
+ * - computation runs on its own ForkJoinPool (all cores), so common pool stays free
+ */
+public class AnalyticsTask extends Task<double[]> {
+
+    private final CsrGraph graph;
+    private final Measure measure;
+    private final long seed;
+    private long duration;
+
+    /**
+     * Constructor of AnalyticsTask
+     * @param graph snapshot of graph
+     * @param measure which is computed
+     * @param seed of sampling of sources (used by betweenness and closeness)
+     */
+    public AnalyticsTask(CsrGraph graph, Measure measure, long seed) {
+        this.graph = graph;
+        this.measure = measure;
+        this.seed = seed;
+    }
+
+    public Measure getMeasure() {
+        return measure;
+    }
+
+    /**
+     * @return time of computation in nanoseconds (known after task succeeded)
+     */
+    public long getDuration() {
+        return duration;
+    }
+
+    @Override
+    protected double[] call() {
+        long start = System.nanoTime();
+        ForkJoinPool pool = new ForkJoinPool();
+        try {
+            switch (measure) {
+                case PAGERANK:
+                    return Centrality.pageRank(graph, Centrality.defaultDamping, Centrality.defaultIterations, Centrality.defaultTolerance, pool);
+                case BETWEENNESS:
+                    return Centrality.betweenness(graph, Centrality.defaultSamples(graph), seed, pool);
+                case CLOSENESS:
+                    return Centrality.closeness(graph, Centrality.defaultSamples(graph), seed, pool);
+                default:
+                    return Centrality.degree(graph, pool);
+            }
+        }
+        finally {
+            pool.shutdown();
+            duration = System.nanoTime() - start;
+        }
+    }
+}
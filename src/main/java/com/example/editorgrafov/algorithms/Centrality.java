@@ -0,0 +1,291 @@
+package com.example.editorgrafov.algorithms;
+
+import com.example.editorgrafov.CsrGraph;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Centrality measures of vertices (PageRank, betweenness, degree, closeness) computed in parallel over CsrGraph
+ * - work is split into chunks of vertices (or sampled sources), which run on given ForkJoinPool
+ * - betweenness and closeness need search from every vertex, so on big graphs they are estimated from sampled sources
+ *   (exact result is returned, when number of samples is at least number of vertices)
+ * - results are arrays indexed by id of vertex, vertices, which are not present in graph, get 0
+ * - edges are directed (PageRank follows them, searches go along them)
+ */
+public final class Centrality {
+
+    public static final double defaultDamping = 0.85;
+    public static final int defaultIterations = 100;
+    public static final double defaultTolerance = 1e-9;
+
+    private Centrality() {
+    }
+
+    /**
+     * Method that returns number of sampled sources, so that sampled searches of graph take seconds
+     * - small graphs get many samples (exact result for up to 1024 vertices), big graphs at least 64
+     * @param graph snapshot of graph
+     * @return number of samples
+     */
+    public static int defaultSamples(CsrGraph graph) {
+        long size = (long) graph.getNumberOfVertices() + graph.getNumberOfEdges();
+        return (int) Math.max(64, Math.min(1024, 100_000_000 / Math.max(1, size)));
+    }
+
+    /**
+     * Method that computes PageRank by power iteration, every vertex pulls rank from its incoming neighbours
+     * - rank of vertices without outgoing edges is spread over all vertices
+     * @param graph snapshot of graph
+     * @param damping probability of following an edge (usually 0.85)
+     * @param maxIterations maximal number of iterations
+     * @param tolerance iteration stops, when ranks change less than this (sum over all vertices)
+     * @param pool on which iterations run
+     * @return rank of every vertex, ranks sum to 1
+     */
+    public static double[] pageRank(CsrGraph graph, double damping, int maxIterations, double tolerance, ForkJoinPool pool) {
+        int capacity = graph.getCapacity();
+        int n = graph.getNumberOfVertices();
+        double[] rank = new double[capacity];
+        if (n == 0) {
+            return rank;
+        }
+        int[] offsets = graph.getOffsets();
+        CsrGraph reversed = graph.transpose();
+        int[] reversedOffsets = reversed.getOffsets();
+        int[] sources = reversed.getTargets();
+        //vertex with many incoming edges (hub) is summed by one thread, so threads get about the same number of edges
+        int[] bounds = Chunk.bounds(reversedOffsets, capacity, pool.getParallelism());
+        double[] next = new double[capacity];
+        double[] share = new double[capacity];
+        for (int v = 0; v < capacity; v++) {
+            rank[v] = graph.containsVertex(v) ? 1.0 / n : 0;
+        }
+        for (int iteration = 0; iteration < maxIterations; iteration++) {
+            double dangling = 0;
+            for (int v = 0; v < capacity; v++) {
+                int degree = offsets[v + 1] - offsets[v];
+                share[v] = degree == 0 ? 0 : rank[v] / degree;
+                if (degree == 0) {
+                    dangling += rank[v];
+                }
+            }
+            double base = (1 - damping) / n + damping * dangling / n;
+            double[] current = rank;
+            double[] updated = next;
+            pool.invoke(new Chunk(0, bounds.length - 1, part -> {
+                for (int v = bounds[part]; v < bounds[part + 1]; v++) {
+                    if (graph.containsVertex(v)) {
+                        double sum = 0;
+                        for (int e = reversedOffsets[v]; e < reversedOffsets[v + 1]; e++) {
+                            sum += share[sources[e]];
+                        }
+                        updated[v] = base + damping * sum;
+                    }
+                }
+            }, 1));
+            double change = 0;
+            for (int v = 0; v < capacity; v++) {
+                change += Math.abs(updated[v] - current[v]);
+            }
+            next = current;
+            rank = updated;
+            if (change < tolerance) {
+                break;
+            }
+        }
+        return rank;
+    }
+
+    /**
+     * Method that computes betweenness by Brandes' algorithm (number of shortest paths going through vertex)
+     * - sources are split among tasks, every task has its own arrays and result, results are summed at the end
+     * @param graph snapshot of graph
+     * @param samples number of sampled sources, result is scaled to all sources
+     * @param seed of random sampling of sources
+     * @param pool on which searches run
+     * @return (estimated) betweenness of every vertex
+     */
+    public static double[] betweenness(CsrGraph graph, int samples, long seed, ForkJoinPool pool) {
+        int[] offsets = graph.getOffsets();
+        int[] targets = graph.getTargets();
+        int capacity = graph.getCapacity();
+        int[] sources = sampleSources(graph, samples, seed);
+        double[][] partial = perTask(sources.length, pool, capacity, (from, to) -> {
+            double[] result = new double[capacity];
+            int[] distance = new int[capacity];
+            Arrays.fill(distance, -1);
+            double[] paths = new double[capacity];
+            double[] dependency = new double[capacity];
+            //vertices in order of discovery, walked backwards for accumulation of dependencies
+            int[] order = new int[capacity];
+            for (int i = from; i < to; i++) {
+                int source = sources[i];
+                int count = 0;
+                order[count++] = source;
+                distance[source] = 0;
+                paths[source] = 1;
+                for (int head = 0; head < count; head++) {
+                    int v = order[head];
+                    for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                        int w = targets[e];
+                        if (distance[w] < 0) {
+                            distance[w] = distance[v] + 1;
+                            order[count++] = w;
+                        }
+                        if (distance[w] == distance[v] + 1) {
+                            paths[w] += paths[v];
+                        }
+                    }
+                }
+                for (int k = count - 1; k >= 0; k--) {
+                    int v = order[k];
+                    double sum = 0;
+                    for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                        int w = targets[e];
+                        if (distance[w] == distance[v] + 1) {
+                            sum += paths[v] / paths[w] * (1 + dependency[w]);
+                        }
+                    }
+                    dependency[v] = sum;
+                    if (v != source) {
+                        result[v] += sum;
+                    }
+                }
+                //only reached vertices are reset, so search from source costs only size of its reach
+                for (int k = 0; k < count; k++) {
+                    int v = order[k];
+                    distance[v] = -1;
+                    paths[v] = 0;
+                    dependency[v] = 0;
+                }
+            }
+            return result;
+        });
+        return sum(partial, capacity, graph.getNumberOfVertices() / (double) Math.max(1, sources.length));
+    }
+
+    /**
+     * Method that computes harmonic closeness (average of 1 / distance to other vertices, unreachable count as 0)
+     * - breadth-first search from sampled vertex over reversed edges gives distances of all vertices to it
+     * @param graph snapshot of graph
+     * @param samples number of sampled vertices, to which distances are measured
+     * @param seed of random sampling
+     * @param pool on which searches run
+     * @return (estimated) closeness of every vertex, between 0 and 1
+     */
+    public static double[] closeness(CsrGraph graph, int samples, long seed, ForkJoinPool pool) {
+        CsrGraph reversed = graph.transpose();
+        int[] offsets = reversed.getOffsets();
+        int[] targets = reversed.getTargets();
+        int capacity = graph.getCapacity();
+        int n = graph.getNumberOfVertices();
+        int[] sampled = sampleSources(graph, samples, seed);
+        double[][] partial = perTask(sampled.length, pool, capacity, (from, to) -> {
+            double[] result = new double[capacity];
+            int[] distance = new int[capacity];
+            Arrays.fill(distance, -1);
+            int[] queue = new int[capacity];
+            for (int i = from; i < to; i++) {
+                int count = 0;
+                queue[count++] = sampled[i];
+                distance[sampled[i]] = 0;
+                for (int head = 0; head < count; head++) {
+                    int v = queue[head];
+                    if (distance[v] > 0) {
+                        result[v] += 1.0 / distance[v];
+                    }
+                    for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                        int w = targets[e];
+                        if (distance[w] < 0) {
+                            distance[w] = distance[v] + 1;
+                            queue[count++] = w;
+                        }
+                    }
+                }
+                for (int k = 0; k < count; k++) {
+                    distance[queue[k]] = -1;
+                }
+            }
+            return result;
+        });
+        return sum(partial, capacity, n <= 1 ? 0 : n / (double) Math.max(1, sampled.length) / (n - 1));
+    }
+
+    /**
+     * Method that computes degree centrality (number of incoming and outgoing edges / (number of vertices - 1))
+     * @param graph snapshot of graph
+     * @param pool on which vertices are processed
+     * @return degree centrality of every vertex
+     */
+    public static double[] degree(CsrGraph graph, ForkJoinPool pool) {
+        int capacity = graph.getCapacity();
+        int n = graph.getNumberOfVertices();
+        int[] offsets = graph.getOffsets();
+        int[] targets = graph.getTargets();
+        int[] inDegree = new int[capacity];
+        for (int target : targets) {
+            inDegree[target]++;
+        }
+        double[] result = new double[capacity];
+        double scale = n <= 1 ? 0 : 1.0 / (n - 1);
+        pool.invoke(new Chunk(0, capacity, v -> result[v] = (offsets[v + 1] - offsets[v] + inDegree[v]) * scale));
+        return result;
+    }
+
+    /**
+     * @return all present vertices, or random sample of them (without repetition)
+     */
+    private static int[] sampleSources(CsrGraph graph, int samples, long seed) {
+        int[] vertices = new int[graph.getNumberOfVertices()];
+        int count = 0;
+        for (int v = 0; v < graph.getCapacity(); v++) {
+            if (graph.containsVertex(v)) {
+                vertices[count++] = v;
+            }
+        }
+        if (samples >= count) {
+            return vertices;
+        }
+        //partial Fisher-Yates shuffle
+        Random random = new Random(seed);
+        for (int i = 0; i < samples; i++) {
+            int j = i + random.nextInt(count - i);
+            int swap = vertices[i];
+            vertices[i] = vertices[j];
+            vertices[j] = swap;
+        }
+        return Arrays.copyOf(vertices, samples);
+    }
+
+    private interface Part {
+        double[] run(int from, int to);
+    }
+
+    /**
+     * Method that splits items into as many parts as pool has threads, every part returns its own result
+     * - every part allocates arrays of size capacity, so there are not more parts than threads
+     */
+    private static double[][] perTask(int items, ForkJoinPool pool, int capacity, Part body) {
+        int parts = Math.max(1, Math.min(items, pool.getParallelism()));
+        double[][] results = new double[parts][];
+        pool.invoke(new Chunk(0, parts, part -> {
+            results[part] = body.run((int) ((long) items * part / parts), (int) ((long) items * (part + 1) / parts));
+        }, 1));
+        return results;
+    }
+
+    private static double[] sum(double[][] partial, int capacity, double scale) {
+        double[] result = new double[capacity];
+        for (double[] part : partial) {
+            for (int v = 0; v < capacity; v++) {
+                result[v] += part[v];
+            }
+        }
+        for (int v = 0; v < capacity; v++) {
+            result[v] *= scale;
+        }
+        return result;
+    }
+}
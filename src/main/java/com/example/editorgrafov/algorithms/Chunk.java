@@ -0,0 +1,80 @@
+package com.example.editorgrafov.algorithms;
+
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+/**
+ * Task, which runs body for every index from range, range is split in halves until parts are small enough
+ * - bounds() splits vertices by number of their edges, so parts of graph with hubs take about the same time
+ * - it is shared by algorithms and ForceLayout
+ */
+public final class Chunk extends RecursiveAction {
+
+    private static final long serialVersionUID = 1L;
+
+    public static final int defaultGrain = 4096;
+
+    private final int from;
+    private final int to;
+    private final IntConsumer body;
+    private final int grain;
+
+    public Chunk(int from, int to, IntConsumer body) {
+        this(from, to, body, defaultGrain);
+    }
+
+    /**
+     * @param from first index
+     * @param to index after last one
+     * @param body which is run for every index
+     * @param grain maximal number of indices run by one task
+     */
+    public Chunk(int from, int to, IntConsumer body, int grain) {
+        this.from = from;
+        this.to = to;
+        this.body = body;
+        this.grain = grain;
+    }
+
+    /**
+     * Method that splits items into parts with about the same number of edges (one part for every thread)
+     * @param offsets of edges of items, offsets[n] is number of all edges
+     * @param n number of items
+     * @param parallelism number of threads
+     * @return bounds of parts, part p has items bounds[p] ... bounds[p + 1] - 1
+     */
+    public static int[] bounds(int[] offsets, int n, int parallelism) {
+        int parts = Math.max(1, Math.min(n, parallelism));
+        int[] bounds = new int[parts + 1];
+        long total = offsets[n];
+        for (int p = 1; p < parts; p++) {
+            long target = total * p / parts;
+            int low = bounds[p - 1];
+            int high = n;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (offsets[middle] < target) {
+                    low = middle + 1;
+                }
+                else {
+                    high = middle;
+                }
+            }
+            bounds[p] = low;
+        }
+        bounds[parts] = n;
+        return bounds;
+    }
+
+    @Override
+    protected void compute() {
+        if (to - from <= grain) {
+            for (int i = from; i < to; i++) {
+                body.accept(i);
+            }
+            return;
+        }
+        int middle = (from + to) >>> 1;
+        invokeAll(new Chunk(from, middle, body, grain), new Chunk(middle, to, body, grain));
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.editorgrafov.algorithms;
+
+/**
+ * Result of community detection - communities of vertices on every level of clustering
+ * - level 0 is the finest, communities of level l + 1 are unions of communities of level l
+ * - arrays are indexed by id of vertex, communities are numbered 0, 1, ... on every level,
+ *   vertices, which were not present in graph, have community -1
+ */
+public class Clustering {
+
+    private final int[][] levels;
+    private final int[] counts;
+    private final double[] modularity;
+
+    Clustering(int[][] levels, int[] counts, double[] modularity) {
+        this.levels = levels;
+        this.counts = counts;
+        this.modularity = modularity;
+    }
+
+    /**
+     * @return number of levels, at least 1
+     */
+    public int getLevelCount() {
+        return levels.length;
+    }
+
+    /**
+     * Method that returns communities on given level (not a copy, so it must not be modified)
+     * @param level from 0 (the finest) to getLevelCount() - 1 (the coarsest)
+     * @return community of every vertex
+     */
+    public int[] getCommunities(int level) {
+        return levels[level];
+    }
+
+    /**
+     * @param level of clustering
+     * @return number of communities on level
+     */
+    public int getCommunityCount(int level) {
+        return counts[level];
+    }
+
+    /**
+     * @param level of clustering
+     * @return modularity of communities on level (from -0.5 to 1, higher means denser communities)
+     */
+    public double getModularity(int level) {
+        return modularity[level];
+    }
+}
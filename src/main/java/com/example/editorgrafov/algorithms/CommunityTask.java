@@ -0,0 +1,48 @@
+package com.example.editorgrafov.algorithms;
+
+import com.example.editorgrafov.CsrGraph;
+import javafx.concurrent.Task;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Task, which finds communities of vertices (Louvain method) in background
+ * - snapshot of graph and weights of its edges have to be taken on thread owning model, task does not touch model
+ * - computation runs on its own ForkJoinPool (all cores), so common pool stays free
+ */
+public class CommunityTask extends Task<Clustering> {
+
+    private final CsrGraph graph;
+    private final double[] weights;
+    private long duration;
+
+    /**
+     * Constructor of CommunityTask
+     * @param graph snapshot of graph
+     * @param weights of edges in order of graph.getTargets(), null if all edges have weight 1
+     */
+    public CommunityTask(CsrGraph graph, double[] weights) {
+        this.graph = graph;
+        this.weights = weights;
+    }
+
+    /**
+     * @return time of computation in nanoseconds (known after task succeeded)
+     */
+    public long getDuration() {
+        return duration;
+    }
+
+    @Override
+    protected Clustering call() {
+        long start = System.nanoTime();
+        ForkJoinPool pool = new ForkJoinPool();
+        try {
+            return Louvain.cluster(graph, weights, Louvain.defaultTolerance, pool);
+        }
+        finally {
+            pool.shutdown();
+            duration = System.nanoTime() - start;
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package com.example.editorgrafov.algorithms;
+
+import com.example.editorgrafov.GraphModel;
+import com.example.editorgrafov.GraphModelListener;
+
+import java.util.Arrays;
+
+/**
+ * Connected components of model, which are kept up to date while vertices and edges are added (direction is ignored)
+ * - components are sets of union-find over ids of vertices (union by size, path halving), so added vertex
+ *   or edge costs almost O(1)
+ * - union-find can not split sets, so removal of vertex or edge only marks components as stale,
+ *   they are rebuilt from whole model at next query (many removals in a row cost one rebuild)
+ * - component of vertex is identified by its representative (id of one of its vertices), it can change after edit
+ */
+public class ComponentTracker implements GraphModelListener {
+
+    private final GraphModel model;
+    //parent[v] == v for representatives, -1 for ids without vertex
+    private int[] parent = new int[64];
+    private int[] size = new int[64];
+    private int count;
+    private boolean stale;
+
+    /**
+     * Constructor of ComponentTracker, components of whole model are found and tracker listens to model afterwards
+     * @param model of graph
+     */
+    public ComponentTracker(GraphModel model) {
+        this.model = model;
+        rebuild();
+        model.addListener(this);
+    }
+
+    /**
+     * Method that stops listening to model
+     */
+    public void dispose() {
+        model.removeListener(this);
+    }
+
+    /**
+     * @return number of connected components (isolated vertex is component as well)
+     */
+    public int getComponentCount() {
+        validate();
+        return count;
+    }
+
+    /**
+     * Method that returns component of vertex
+     * @param id of vertex
+     * @return representative of component (the same for all vertices of component), -1 if vertex is not alive
+     */
+    public int getComponent(int id) {
+        validate();
+        return id >= 0 && id < parent.length && parent[id] >= 0 ? find(id) : -1;
+    }
+
+    /**
+     * Method that numbers components the same way as GraphAlgorithms.components(), O(capacity)
+     * @return component of every vertex (components are numbered 0, 1, ... in order of their smallest id),
+     *         -1 for ids without vertex
+     */
+    public int[] getComponents() {
+        validate();
+        int capacity = model.getCapacity();
+        int[] components = new int[capacity];
+        Arrays.fill(components, -1);
+        //number of component is stored at its representative first, other vertices copy it from there
+        int next = 0;
+        for (int id = 0; id < capacity && id < parent.length; id++) {
+            if (parent[id] >= 0) {
+                int root = find(id);
+                if (components[root] < 0) {
+                    components[root] = next++;
+                }
+                components[id] = components[root];
+            }
+        }
+        return components;
+    }
+
+    /**
+     * @param id of vertex
+     * @return number of vertices in component of vertex, 0 if vertex is not alive
+     */
+    public int getComponentSize(int id) {
+        int root = getComponent(id);
+        return root < 0 ? 0 : size[root];
+    }
+
+    /**
+     * @return true iff components will be rebuilt at next query (some vertex or edge was removed)
+     */
+    public boolean isStale() {
+        return stale;
+    }
+
+    private void validate() {
+        if (stale) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Method that finds components of whole model again, O(number of vertices + number of edges)
+     */
+    private void rebuild() {
+        stale = false;
+        int capacity = model.getCapacity();
+        if (capacity > parent.length) {
+            parent = new int[Math.max(capacity, parent.length << 1)];
+            size = new int[parent.length];
+        }
+        Arrays.fill(parent, -1);
+        count = 0;
+        for (int id = 0; id < capacity; id++) {
+            if (model.isAlive(id)) {
+                makeSet(id);
+            }
+        }
+        for (int id = 0; id < capacity; id++) {
+            if (model.isAlive(id)) {
+                for (int destination : model.getGraph().outgoingEdgesDestinations(id)) {
+                    union(id, destination);
+                }
+            }
+        }
+    }
+
+    private void makeSet(int id) {
+        if (id >= parent.length) {
+            int oldLength = parent.length;
+            parent = Arrays.copyOf(parent, Math.max(id + 1, oldLength << 1));
+            size = Arrays.copyOf(size, parent.length);
+            Arrays.fill(parent, oldLength, parent.length, -1);
+        }
+        parent[id] = id;
+        size[id] = 1;
+        count++;
+    }
+
+    private int find(int id) {
+        while (parent[id] != id) {
+            //path halving - every visited vertex skips to its grandparent
+            parent[id] = parent[parent[id]];
+            id = parent[id];
+        }
+        return id;
+    }
+
+    private void union(int a, int b) {
+        int rootA = find(a);
+        int rootB = find(b);
+        if (rootA == rootB) {
+            return;
+        }
+        if (size[rootA] < size[rootB]) {
+            int swap = rootA;
+            rootA = rootB;
+            rootB = swap;
+        }
+        parent[rootB] = rootA;
+        size[rootA] += size[rootB];
+        count--;
+    }
+
+    @Override
+    public void vertexAdded(int id) {
+        if (!stale) {
+            makeSet(id);
+        }
+    }
+
+    @Override
+    public void vertexRemoved(int id, String label) {
+        stale = true;
+    }
+
+    @Override
+    public void edgeAdded(int from, int to) {
+        if (!stale) {
+            union(from, to);
+        }
+    }
+
+    @Override
+    public void edgeRemoved(int from, int to) {
+        stale = true;
+    }
+
+    @Override
+    public void graphLoaded() {
+        stale = true;
+    }
+
+    @Override
+    public void graphCleared() {
+        if (parent.length > 64) {
+            parent = new int[64];
+            size = new int[64];
+        }
+        Arrays.fill(parent, -1);
+        count = 0;
+        stale = false;
+    }
+}
@@ -0,0 +1,260 @@
+package com.example.editorgrafov.algorithms;
+
+import com.example.editorgrafov.CsrGraph;
+import com.example.editorgrafov.Graph;
+import com.example.editorgrafov.collections.IntMinHeap;
+
+import java.util.Arrays;
+
+/**
+ * Basic algorithms over Graph (traversals, shortest paths, components, topological order)
+ * - graph is converted into CsrGraph once (CsrGraph is used as it is), algorithms then walk over its int arrays,
+ *   queues, stacks and heaps are primitive arrays of size capacity, so there is no boxing and no object per vertex
+ * - results are arrays indexed by id of vertex, vertices, which are not present in graph, get -1
+ * - edges are directed, only components treat them as undirected (weakly connected components)
+ */
+public final class GraphAlgorithms {
+
+    /**
+     * Length of edge for Dijkstra's algorithm, it must not be negative
+     */
+    public interface EdgeWeight {
+        double weight(int from, int to);
+    }
+
+    private GraphAlgorithms() {
+    }
+
+    /**
+     * Method that finds distances (number of edges) from source to every vertex by breadth-first search
+     * @param graph to be searched
+     * @param source id of first vertex
+     * @return distance of every vertex from source, -1 for unreachable vertices
+     */
+    public static int[] breadthFirst(Graph graph, int source) {
+        CsrGraph csr = CsrGraph.of(graph);
+        checkVertex(csr, source);
+        int[] offsets = csr.getOffsets();
+        int[] targets = csr.getTargets();
+        int[] distances = new int[csr.getCapacity()];
+        Arrays.fill(distances, -1);
+        int[] queue = new int[csr.getCapacity()];
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = source;
+        distances[source] = 0;
+        while (head < tail) {
+            int v = queue[head++];
+            for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                int w = targets[e];
+                if (distances[w] < 0) {
+                    distances[w] = distances[v] + 1;
+                    queue[tail++] = w;
+                }
+            }
+        }
+        return distances;
+    }
+
+    /**
+     * Method that visits vertices reachable from source by depth-first search (without recursion)
+     * @param graph to be searched
+     * @param source id of first vertex
+     * @return ids of reached vertices in order, in which they were visited (preorder)
+     */
+    public static int[] depthFirst(Graph graph, int source) {
+        CsrGraph csr = CsrGraph.of(graph);
+        checkVertex(csr, source);
+        int[] offsets = csr.getOffsets();
+        int[] targets = csr.getTargets();
+        int capacity = csr.getCapacity();
+        boolean[] visited = new boolean[capacity];
+        //stack of vertices and index of next edge of every vertex on stack
+        int[] stack = new int[capacity];
+        int[] next = new int[capacity];
+        int[] order = new int[capacity];
+        int count = 0;
+        int top = 0;
+        stack[top++] = source;
+        next[source] = offsets[source];
+        visited[source] = true;
+        order[count++] = source;
+        while (top > 0) {
+            int v = stack[top - 1];
+            if (next[v] == offsets[v + 1]) {
+                top--;
+                continue;
+            }
+            int w = targets[next[v]++];
+            if (!visited[w]) {
+                visited[w] = true;
+                order[count++] = w;
+                next[w] = offsets[w];
+                stack[top++] = w;
+            }
+        }
+        return Arrays.copyOf(order, count);
+    }
+
+    /**
+     * Method that finds shortest paths from source by Dijkstra's algorithm with binary heap
+     * @param graph to be searched
+     * @param source id of first vertex
+     * @param target search stops, when shortest path to target is known (-1 to find paths to all vertices)
+     * @param weight length of every edge
+     * @return distances and shortest paths from source
+     */
+    public static ShortestPaths dijkstra(Graph graph, int source, int target, EdgeWeight weight) {
+        CsrGraph csr = CsrGraph.of(graph);
+        checkVertex(csr, source);
+        int[] offsets = csr.getOffsets();
+        int[] targets = csr.getTargets();
+        int capacity = csr.getCapacity();
+        double[] distances = new double[capacity];
+        Arrays.fill(distances, Double.POSITIVE_INFINITY);
+        int[] parents = new int[capacity];
+        Arrays.fill(parents, -1);
+        boolean[] settled = new boolean[capacity];
+        IntMinHeap heap = new IntMinHeap(capacity);
+        distances[source] = 0;
+        heap.put(source, 0);
+        while (!heap.isEmpty()) {
+            int v = heap.poll();
+            settled[v] = true;
+            if (v == target) {
+                break;
+            }
+            for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                int w = targets[e];
+                if (settled[w]) {
+                    continue;
+                }
+                double length = weight.weight(v, w);
+                if (length < 0) {
+                    throw new IllegalArgumentException("Edge " + v + " -> " + w + " has negative weight " + length);
+                }
+                double distance = distances[v] + length;
+                if (distance < distances[w]) {
+                    distances[w] = distance;
+                    parents[w] = v;
+                    heap.put(w, distance);
+                }
+            }
+        }
+        if (target >= 0 && !settled[target]) {
+            //unsettled vertices have only upper bounds of distance, path to target does not exist
+            Arrays.fill(distances, Double.POSITIVE_INFINITY);
+            for (int v = 0; v < capacity; v++) {
+                if (!settled[v]) {
+                    parents[v] = -1;
+                }
+            }
+        }
+        return new ShortestPaths(source, distances, parents);
+    }
+
+    /**
+     * Method that finds weakly connected components (direction of edges is ignored)
+     * @param graph to be searched
+     * @return component of every vertex (components are numbered 0, 1, ... in order of their smallest id),
+     *         -1 for ids, which are not present in graph
+     */
+    public static int[] components(Graph graph) {
+        CsrGraph csr = CsrGraph.of(graph);
+        CsrGraph reversed = csr.transpose();
+        int[] offsets = csr.getOffsets();
+        int[] targets = csr.getTargets();
+        int[] reversedOffsets = reversed.getOffsets();
+        int[] reversedTargets = reversed.getTargets();
+        int capacity = csr.getCapacity();
+        int[] components = new int[capacity];
+        Arrays.fill(components, -1);
+        int[] queue = new int[capacity];
+        int count = 0;
+        for (int start = 0; start < capacity; start++) {
+            if (components[start] >= 0 || !csr.containsVertex(start)) {
+                continue;
+            }
+            int component = count++;
+            int head = 0;
+            int tail = 0;
+            queue[tail++] = start;
+            components[start] = component;
+            while (head < tail) {
+                int v = queue[head++];
+                for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                    int w = targets[e];
+                    if (components[w] < 0) {
+                        components[w] = component;
+                        queue[tail++] = w;
+                    }
+                }
+                for (int e = reversedOffsets[v]; e < reversedOffsets[v + 1]; e++) {
+                    int w = reversedTargets[e];
+                    if (components[w] < 0) {
+                        components[w] = component;
+                        queue[tail++] = w;
+                    }
+                }
+            }
+        }
+        return components;
+    }
+
+    /**
+     * Method that returns number of components found by components()
+     * @param components component of every vertex
+     * @return number of components
+     */
+    public static int countComponents(int[] components) {
+        int max = -1;
+        for (int component : components) {
+            max = Math.max(max, component);
+        }
+        return max + 1;
+    }
+
+    /**
+     * Method that orders vertices so every edge goes from earlier vertex to later one (Kahn's algorithm)
+     * @param graph directed acyclic graph
+     * @return ids of all vertices in topological order
+     * @throws IllegalArgumentException iff graph contains cycle
+     */
+    public static int[] topologicalOrder(Graph graph) {
+        CsrGraph csr = CsrGraph.of(graph);
+        int[] offsets = csr.getOffsets();
+        int[] targets = csr.getTargets();
+        int capacity = csr.getCapacity();
+        int[] inDegree = new int[capacity];
+        for (int e = 0; e < offsets[capacity]; e++) {
+            inDegree[targets[e]]++;
+        }
+        int[] order = new int[csr.getNumberOfVertices()];
+        int head = 0;
+        int tail = 0;
+        for (int v = 0; v < capacity; v++) {
+            if (inDegree[v] == 0 && csr.containsVertex(v)) {
+                order[tail++] = v;
+            }
+        }
+        while (head < tail) {
+            int v = order[head++];
+            for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                int w = targets[e];
+                if (--inDegree[w] == 0) {
+                    order[tail++] = w;
+                }
+            }
+        }
+        if (tail < order.length) {
+            throw new IllegalArgumentException("Graph contains cycle, " + (order.length - tail) + " vertices can not be ordered");
+        }
+        return order;
+    }
+
+    private static void checkVertex(CsrGraph graph, int vertex) {
+        if (!graph.containsVertex(vertex)) {
+            throw new IllegalArgumentException("Vertex " + vertex + " is not present in graph");
+        }
+    }
+}
@@ -0,0 +1,490 @@
+package com.example.editorgrafov.algorithms;
+
+import com.example.editorgrafov.CsrGraph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Community detection by Louvain method (greedy maximization of modularity) computed in parallel over CsrGraph
+ * - level moves every vertex into community of its neighbour, which increases modularity most, until nothing moves,
+ *   then communities become vertices of smaller graph for next level, so result is hierarchy of communities
+ * - vertices of one round of sweep decide in parallel against communities left by previous round, so result does not depend
+ *   on number of threads (vertex alone in its community can join other lonely vertex only if it has smaller number,
+ *   so pairs of vertices do not swap their communities forever)
+ * - direction of edges is ignored, weights of edge and its reverse edge are added up
+ * - every thread sums weights to neighbouring communities in its own small hash map, so scratch memory follows
+ *   the largest degree, not number of threads times number of vertices
+ */
+public final class Louvain {
+
+    public static final double defaultTolerance = 1e-6;
+    public static final int maxSweeps = 32;
+    public static final int maxLevels = 16;
+    //number of rounds of sweep, vertices of one round move at the same time
+    private static final int rounds = 16;
+
+    private Louvain() {
+    }
+
+    /**
+     * Method that finds communities of graph on all levels
+     * @param graph snapshot of graph
+     * @param weights positive weight of every edge in order of graph.getTargets(), null if all edges have weight 1
+     * @param tolerance level (or sweep) ends, when modularity increases less than this
+     * @param pool on which sweeps run
+     * @return clustering with at least one level (every vertex alone in its community, when graph has no edges)
+     */
+    public static Clustering cluster(CsrGraph graph, double[] weights, double tolerance, ForkJoinPool pool) {
+        int capacity = graph.getCapacity();
+        int[] ids = new int[graph.getNumberOfVertices()];
+        int[] index = new int[capacity];
+        int n = 0;
+        for (int v = 0; v < capacity; v++) {
+            index[v] = graph.containsVertex(v) ? n : -1;
+            if (index[v] >= 0) {
+                ids[n++] = v;
+            }
+        }
+        Level level = Level.of(graph, weights, index, n);
+        //vertex of current level, in which original vertex is
+        int[] node = new int[n];
+        for (int i = 0; i < n; i++) {
+            node[i] = i;
+        }
+        List<int[]> levels = new ArrayList<>();
+        int[] counts = new int[maxLevels];
+        double[] modularity = new double[maxLevels];
+        while (levels.size() < maxLevels) {
+            double[] quality = new double[1];
+            int[] community = level.move(tolerance, quality, pool);
+            int count = renumber(community);
+            boolean last = count == level.n || count == 1;
+            if (!levels.isEmpty() && (count == level.n || quality[0] - modularity[levels.size() - 1] < tolerance)) {
+                break;
+            }
+            int[] communities = new int[capacity];
+            Arrays.fill(communities, -1);
+            for (int i = 0; i < n; i++) {
+                node[i] = community[node[i]];
+                communities[ids[i]] = node[i];
+            }
+            counts[levels.size()] = count;
+            modularity[levels.size()] = quality[0];
+            levels.add(communities);
+            if (last) {
+                break;
+            }
+            level = level.aggregate(community, count, pool);
+        }
+        return new Clustering(levels.toArray(new int[0][]), Arrays.copyOf(counts, levels.size()),
+                Arrays.copyOf(modularity, levels.size()));
+    }
+
+    /**
+     * @return round of sweep, in which vertex moves (vertices are spread over rounds by hash, not by their order)
+     */
+    private static int round(int v) {
+        int hash = v * 0x9E3779B9;
+        return (hash ^ hash >>> 16) & (rounds - 1);
+    }
+
+    /**
+     * Method that numbers used communities 0, 1, ... (in order of their first vertex)
+     * @param community of every vertex, it is renumbered in place
+     * @return number of communities
+     */
+    private static int renumber(int[] community) {
+        int[] number = new int[community.length];
+        Arrays.fill(number, -1);
+        int count = 0;
+        for (int v = 0; v < community.length; v++) {
+            if (number[community[v]] < 0) {
+                number[community[v]] = count++;
+            }
+            community[v] = number[community[v]];
+        }
+        return count;
+    }
+
+    /**
+     * Undirected weighted graph of one level, every edge is stored at both of its ends
+     * - edges inside of vertex (merged community) are kept as its self weight (counted twice, as from both ends)
+     */
+    private static final class Level {
+        private final int n;
+        private final int[] offsets;
+        private final int[] targets;
+        private final double[] weights;
+        private final double[] self;
+        private final double[] degree;
+        //sum of degrees of all vertices (twice the weight of all edges)
+        private final double total;
+
+        private Level(int[] offsets, int[] targets, double[] weights, double[] self, double[] degree) {
+            this.n = self.length;
+            this.offsets = offsets;
+            this.targets = targets;
+            this.weights = weights;
+            this.self = self;
+            this.degree = degree;
+            double sum = 0;
+            for (double value : degree) {
+                sum += value;
+            }
+            total = sum;
+        }
+
+        /**
+         * Method that builds first level from directed graph, edge u -> v is stored at u and at v
+         * (edges u -> v and v -> u are not merged, they just add up)
+         */
+        private static Level of(CsrGraph graph, double[] edgeWeights, int[] index, int n) {
+            int[] graphOffsets = graph.getOffsets();
+            int[] graphTargets = graph.getTargets();
+            int[] offsets = new int[n + 1];
+            double[] self = new double[n];
+            for (int v = 0; v < index.length; v++) {
+                for (int e = graphOffsets[v]; e < graphOffsets[v + 1] && index[v] >= 0; e++) {
+                    int target = index[graphTargets[e]];
+                    if (target == index[v]) {
+                        self[target] += 2 * (edgeWeights == null ? 1 : edgeWeights[e]);
+                    }
+                    else {
+                        offsets[index[v] + 1]++;
+                        offsets[target + 1]++;
+                    }
+                }
+            }
+            for (int u = 0; u < n; u++) {
+                offsets[u + 1] += offsets[u];
+            }
+            int[] position = Arrays.copyOf(offsets, n);
+            int[] targets = new int[offsets[n]];
+            double[] weights = new double[offsets[n]];
+            double[] degree = self.clone();
+            for (int v = 0; v < index.length; v++) {
+                int u = index[v];
+                for (int e = graphOffsets[v]; e < graphOffsets[v + 1] && u >= 0; e++) {
+                    int target = index[graphTargets[e]];
+                    if (target != u) {
+                        double weight = edgeWeights == null ? 1 : edgeWeights[e];
+                        targets[position[u]] = target;
+                        weights[position[u]++] = weight;
+                        targets[position[target]] = u;
+                        weights[position[target]++] = weight;
+                        degree[u] += weight;
+                        degree[target] += weight;
+                    }
+                }
+            }
+            return new Level(offsets, targets, weights, self, degree);
+        }
+
+        /**
+         * Method that moves vertices between communities in sweeps, until modularity stops increasing
+         * - sweep goes in rounds, every round moves only vertices of one round (by hash of vertex) in parallel
+         *   and its moves are applied before next round, so neighbours seldom decide against stale communities
+         * @param quality modularity of result is stored into quality[0]
+         * @return community of every vertex (numbers of communities are numbers of some of their vertices)
+         */
+        private int[] move(double tolerance, double[] quality, ForkJoinPool pool) {
+            int[] community = new int[n];
+            int[] size = new int[n];
+            for (int v = 0; v < n; v++) {
+                community[v] = v;
+                size[v] = 1;
+            }
+            double[] tot = degree.clone();
+            double modularity = modularity(community, pool);
+            int[] bounds = Chunk.bounds(offsets, n, pool.getParallelism());
+            int parts = bounds.length - 1;
+            WeightMap[] weightTo = new WeightMap[parts];
+            //vertices of part, which move in current round
+            int[][] moved = new int[parts][];
+            for (int part = 0; part < parts; part++) {
+                weightTo[part] = new WeightMap();
+                moved[part] = new int[bounds[part + 1] - bounds[part]];
+            }
+            int[] movedCount = new int[parts];
+            int[] next = new int[n];
+            int[] previous = new int[n];
+            for (int sweep = 0; sweep < maxSweeps; sweep++) {
+                System.arraycopy(community, 0, previous, 0, n);
+                int changed = 0;
+                for (int round = 0; round < rounds; round++) {
+                    int currentRound = round;
+                    pool.invoke(new Chunk(0, parts, part -> {
+                        int count = 0;
+                        for (int v = bounds[part]; v < bounds[part + 1]; v++) {
+                            if (round(v) == currentRound) {
+                                next[v] = best(v, community, size, tot, weightTo[part]);
+                                if (next[v] != community[v]) {
+                                    moved[part][count++] = v;
+                                }
+                            }
+                        }
+                        movedCount[part] = count;
+                    }, 1));
+                    for (int part = 0; part < parts; part++) {
+                        for (int i = 0; i < movedCount[part]; i++) {
+                            int v = moved[part][i];
+                            tot[community[v]] -= degree[v];
+                            size[community[v]]--;
+                            community[v] = next[v];
+                            tot[community[v]] += degree[v];
+                            size[community[v]]++;
+                        }
+                        changed += movedCount[part];
+                    }
+                }
+                if (changed == 0) {
+                    break;
+                }
+                double nextModularity = modularity(community, pool);
+                if (nextModularity <= modularity) {
+                    //sweep made it worse, so communities of previous sweep are kept
+                    System.arraycopy(previous, 0, community, 0, n);
+                    break;
+                }
+                boolean converged = nextModularity - modularity < tolerance;
+                modularity = nextModularity;
+                if (converged) {
+                    break;
+                }
+            }
+            quality[0] = modularity;
+            return community;
+        }
+
+        /**
+         * @return community of neighbour, into which vertex should move (or its own community, if it should stay)
+         */
+        private int best(int v, int[] community, int[] size, double[] tot, WeightMap weightTo) {
+            for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                weightTo.add(community[targets[e]], weights[e]);
+            }
+            int own = community[v];
+            double scale = degree[v] / total;
+            //gain of modularity (times total / 2) of joining community, vertex itself is left out of its own community
+            double bestGain = weightTo.get(own) - (tot[own] - degree[v]) * scale;
+            int best = own;
+            for (int i = 0; i < weightTo.size(); i++) {
+                int c = weightTo.key(i);
+                double gain = weightTo.value(i) - tot[c] * scale;
+                if (c == own || size[own] == 1 && size[c] == 1 && c > own) {
+                    continue;
+                }
+                if (gain > bestGain || gain == bestGain && best != own && c < best) {
+                    bestGain = gain;
+                    best = c;
+                }
+            }
+            weightTo.clear();
+            return best;
+        }
+
+        /**
+         * @return modularity of communities (weight inside of communities minus weight expected in random graph)
+         */
+        private double modularity(int[] community, ForkJoinPool pool) {
+            int[] bounds = Chunk.bounds(offsets, n, pool.getParallelism());
+            double[] inside = new double[bounds.length - 1];
+            pool.invoke(new Chunk(0, inside.length, part -> {
+                double sum = 0;
+                for (int v = bounds[part]; v < bounds[part + 1]; v++) {
+                    sum += self[v];
+                    for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                        if (community[targets[e]] == community[v]) {
+                            sum += weights[e];
+                        }
+                    }
+                }
+                inside[part] = sum;
+            }, 1));
+            if (total == 0) {
+                return 0;
+            }
+            double[] tot = new double[n];
+            for (int v = 0; v < n; v++) {
+                tot[community[v]] += degree[v];
+            }
+            double modularity = Arrays.stream(inside).sum() / total;
+            for (double value : tot) {
+                modularity -= (value / total) * (value / total);
+            }
+            return modularity;
+        }
+
+        /**
+         * Method that merges every community into one vertex, edges between two communities are merged into one edge
+         * @param community of every vertex, numbered 0 ... count - 1
+         * @param count number of communities
+         * @return graph of next level
+         */
+        private Level aggregate(int[] community, int count, ForkJoinPool pool) {
+            int[] memberOffsets = new int[count + 1];
+            for (int v = 0; v < n; v++) {
+                memberOffsets[community[v] + 1]++;
+            }
+            for (int c = 0; c < count; c++) {
+                memberOffsets[c + 1] += memberOffsets[c];
+            }
+            int[] position = Arrays.copyOf(memberOffsets, count);
+            int[] members = new int[n];
+            for (int v = 0; v < n; v++) {
+                members[position[community[v]]++] = v;
+            }
+            int[] bounds = Chunk.bounds(memberOffsets, count, pool.getParallelism());
+            int parts = bounds.length - 1;
+            double[] nextSelf = new double[count];
+            double[] nextDegree = new double[count];
+            int[] nextCounts = new int[count];
+            int[][] partTargets = new int[parts][];
+            double[][] partWeights = new double[parts][];
+            pool.invoke(new Chunk(0, parts, part -> {
+                WeightMap weightTo = new WeightMap();
+                int[] partTarget = new int[16];
+                double[] partWeight = new double[16];
+                int size = 0;
+                for (int c = bounds[part]; c < bounds[part + 1]; c++) {
+                    double inside = 0;
+                    for (int i = memberOffsets[c]; i < memberOffsets[c + 1]; i++) {
+                        int v = members[i];
+                        inside += self[v];
+                        nextDegree[c] += degree[v];
+                        for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                            int d = community[targets[e]];
+                            if (d == c) {
+                                inside += weights[e];
+                                continue;
+                            }
+                            weightTo.add(d, weights[e]);
+                        }
+                    }
+                    int neighbours = weightTo.size();
+                    nextSelf[c] = inside;
+                    nextCounts[c] = neighbours;
+                    if (size + neighbours > partTarget.length) {
+                        int length = Math.max(size + neighbours, partTarget.length << 1);
+                        partTarget = Arrays.copyOf(partTarget, length);
+                        partWeight = Arrays.copyOf(partWeight, length);
+                    }
+                    for (int i = 0; i < neighbours; i++) {
+                        partTarget[size] = weightTo.key(i);
+                        partWeight[size++] = weightTo.value(i);
+                    }
+                    weightTo.clear();
+                }
+                partTargets[part] = partTarget;
+                partWeights[part] = partWeight;
+            }, 1));
+            int[] nextOffsets = new int[count + 1];
+            for (int c = 0; c < count; c++) {
+                nextOffsets[c + 1] = nextOffsets[c] + nextCounts[c];
+            }
+            int[] nextTargets = new int[nextOffsets[count]];
+            double[] nextWeights = new double[nextOffsets[count]];
+            for (int part = 0; part < parts; part++) {
+                int start = nextOffsets[bounds[part]];
+                int length = nextOffsets[bounds[part + 1]] - start;
+                System.arraycopy(partTargets[part], 0, nextTargets, start, length);
+                System.arraycopy(partWeights[part], 0, nextWeights, start, length);
+            }
+            return new Level(nextOffsets, nextTargets, nextWeights, nextSelf, nextDegree);
+        }
+    }
+
+    /**
+     * Sums of weights to communities (open addressing map from community to weight), one for every thread
+     * - keys are kept also in order of insertion, so they are iterated in the same order as edges were visited
+     *   and clear() costs only number of keys, map grows with the largest number of neighbouring communities
+     */
+    private static final class WeightMap {
+        private int[] keys = newKeys(16);
+        private double[] values = new double[16];
+        //slots of keys in order of insertion
+        private int[] slots = new int[8];
+        private int size;
+
+        void add(int key, double weight) {
+            int slot = find(key);
+            if (keys[slot] < 0) {
+                if (2 * (size + 1) > keys.length) {
+                    grow();
+                    slot = find(key);
+                }
+                keys[slot] = key;
+                values[slot] = 0;
+                if (size == slots.length) {
+                    slots = Arrays.copyOf(slots, size << 1);
+                }
+                slots[size++] = slot;
+            }
+            values[slot] += weight;
+        }
+
+        /**
+         * @return weight of community, 0 if it is not in map
+         */
+        double get(int key) {
+            int slot = find(key);
+            return keys[slot] < 0 ? 0 : values[slot];
+        }
+
+        int size() {
+            return size;
+        }
+
+        /**
+         * @param i order of insertion
+         * @return i-th inserted community
+         */
+        int key(int i) {
+            return keys[slots[i]];
+        }
+
+        double value(int i) {
+            return values[slots[i]];
+        }
+
+        void clear() {
+            for (int i = 0; i < size; i++) {
+                keys[slots[i]] = -1;
+            }
+            size = 0;
+        }
+
+        private int find(int key) {
+            int mask = keys.length - 1;
+            int hash = key * 0x9E3779B9;
+            int slot = (hash ^ hash >>> 16) & mask;
+            while (keys[slot] >= 0 && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        private void grow() {
+            int[] oldKeys = keys;
+            double[] oldValues = values;
+            keys = newKeys(oldKeys.length << 1);
+            values = new double[keys.length];
+            for (int i = 0; i < size; i++) {
+                int key = oldKeys[slots[i]];
+                int slot = find(key);
+                keys[slot] = key;
+                values[slot] = oldValues[slots[i]];
+                slots[i] = slot;
+            }
+        }
+
+        private static int[] newKeys(int capacity) {
+            int[] keys = new int[capacity];
+            Arrays.fill(keys, -1);
+            return keys;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.editorgrafov.algorithms;
+
+import com.example.editorgrafov.collections.IntList;
+
+/**
+ * Result of Dijkstra's algorithm - distances from source and tree of shortest paths (parent of every reached vertex)
+ * - arrays are indexed by id of vertex, unreached vertices have infinite distance and parent -1
+ */
+public class ShortestPaths {
+
+    private final int source;
+    private final double[] distances;
+    private final int[] parents;
+
+    ShortestPaths(int source, double[] distances, int[] parents) {
+        this.source = source;
+        this.distances = distances;
+        this.parents = parents;
+    }
+
+    public int getSource() {
+        return source;
+    }
+
+    /**
+     * @param target id of vertex
+     * @return length of shortest path from source to target, Double.POSITIVE_INFINITY if target is not reachable
+     */
+    public double getDistance(int target) {
+        return target >= 0 && target < distances.length ? distances[target] : Double.POSITIVE_INFINITY;
+    }
+
+    public boolean isReachable(int target) {
+        return getDistance(target) != Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Method that returns shortest path from source to target
+     * @param target id of vertex
+     * @return ids of vertices on path (source first, target last), or null if target is not reachable
+     */
+    public int[] getPath(int target) {
+        if (!isReachable(target)) {
+            return null;
+        }
+        IntList reversed = new IntList();
+        for (int v = target; v != -1; v = parents[v]) {
+            reversed.add(v);
+        }
+        int[] path = new int[reversed.size()];
+        for (int i = 0; i < path.length; i++) {
+            path[i] = reversed.get(path.length - 1 - i);
+        }
+        return path;
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.editorgrafov.collections;
+
+import java.util.Arrays;
+
+/**
+ * Growable list of primitive ints (no boxing, one array per list)
+ */
+public class IntList {
+
+    private static final int defaultCapacity = 4;
+
+    private int[] items;
+    private int size;
+
+    public IntList() {
+        this(defaultCapacity);
+    }
+
+    public IntList(int capacity) {
+        items = new int[Math.max(capacity, 1)];
+    }
+
+    /**
+     * Method that makes sure, that capacity items can be stored without growing
+     * @param capacity number of items
+     */
+    public void ensureCapacity(int capacity) {
+        if (capacity > items.length) {
+            items = Arrays.copyOf(items, Math.max(capacity, items.length << 1));
+        }
+    }
+
+    public void add(int value) {
+        if (size == items.length) {
+            ensureCapacity(size + 1);
+        }
+        items[size++] = value;
+    }
+
+    public int get(int index) {
+        checkIndex(index);
+        return items[index];
+    }
+
+    public void set(int index, int value) {
+        checkIndex(index);
+        items[index] = value;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Method that returns last item of list
+     * @return last item
+     * @throws IllegalStateException iff list is empty
+     */
+    public int getLast() {
+        if (size == 0) {
+            throw new IllegalStateException("List is empty");
+        }
+        return items[size - 1];
+    }
+
+    /**
+     * Method that removes and returns last item of list
+     * @return removed item
+     * @throws IllegalStateException iff list is empty
+     */
+    public int removeLast() {
+        int last = getLast();
+        size--;
+        return last;
+    }
+
+    /**
+     * Method that returns index of first occurrence of value
+     * @param value to be found
+     * @return index of value, or -1 if list does not contain value
+     */
+    public int indexOf(int value) {
+        for (int i = 0; i < size; i++) {
+            if (items[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Method that removes last occurrence of value, order of other items is kept
+     * - searching starts from the end, because recently added values are removed most often
+     * @param value to be removed
+     * @return true iff value was found
+     */
+    public boolean removeValue(int value) {
+        for (int i = size - 1; i >= 0; i--) {
+            if (items[i] == value) {
+                System.arraycopy(items, i + 1, items, i, size - i - 1);
+                size--;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Method that removes item at index by moving last item into its place (order is not kept)
+     * @param index of item to be removed
+     * @return removed item
+     */
+    public int swapRemove(int index) {
+        checkIndex(index);
+        int removed = items[index];
+        items[index] = items[--size];
+        return removed;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Method that returns copy of items
+     * @return new array with size items
+     */
+    public int[] toArray() {
+        return Arrays.copyOf(items, size);
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.editorgrafov.collections;
+
+import java.util.Arrays;
+
+/**
+ * Binary min-heap of int ids with double priorities, priority of id in heap can be decreased (e.g. for Dijkstra)
+ * - ids are in range 0 ... capacity - 1, position of every id in heap is kept in array, so there is no search
+ * - everything is stored in primitive arrays allocated once, operations do not allocate
+ */
+public class IntMinHeap {
+
+    private final int[] heap;
+    private final double[] priorities;
+    //position of id in heap, -1 if id is not in heap
+    private final int[] positions;
+    private int size;
+
+    /**
+     * Constructor of IntMinHeap for ids lower than capacity
+     * @param capacity number of ids
+     */
+    public IntMinHeap(int capacity) {
+        heap = new int[capacity];
+        priorities = new double[capacity];
+        positions = new int[capacity];
+        Arrays.fill(positions, -1);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean contains(int id) {
+        return positions[id] >= 0;
+    }
+
+    /**
+     * @param id in heap
+     * @return priority of id
+     */
+    public double getPriority(int id) {
+        return priorities[id];
+    }
+
+    /**
+     * Method that inserts id, or changes its priority, if it already is in heap
+     * @param id to be inserted
+     * @param priority of id
+     */
+    public void put(int id, double priority) {
+        int position = positions[id];
+        if (position < 0) {
+            position = size++;
+            heap[position] = id;
+            positions[id] = position;
+            priorities[id] = priority;
+            siftUp(position);
+        }
+        else if (priority < priorities[id]) {
+            priorities[id] = priority;
+            siftUp(position);
+        }
+        else {
+            priorities[id] = priority;
+            siftDown(position);
+        }
+    }
+
+    /**
+     * Method that removes id with the lowest priority
+     * @return removed id
+     */
+    public int poll() {
+        if (size == 0) {
+            throw new IllegalStateException("Heap is empty");
+        }
+        int top = heap[0];
+        positions[top] = -1;
+        int last = heap[--size];
+        if (size > 0) {
+            heap[0] = last;
+            positions[last] = 0;
+            siftDown(0);
+        }
+        return top;
+    }
+
+    /**
+     * Method that removes every id from heap
+     */
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            positions[heap[i]] = -1;
+        }
+        size = 0;
+    }
+
+    private void siftUp(int position) {
+        int id = heap[position];
+        double priority = priorities[id];
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            int parentId = heap[parent];
+            if (priorities[parentId] <= priority) {
+                break;
+            }
+            heap[position] = parentId;
+            positions[parentId] = position;
+            position = parent;
+        }
+        heap[position] = id;
+        positions[id] = position;
+    }
+
+    private void siftDown(int position) {
+        int id = heap[position];
+        double priority = priorities[id];
+        int half = size >>> 1;
+        while (position < half) {
+            int child = 2 * position + 1;
+            int right = child + 1;
+            if (right < size && priorities[heap[right]] < priorities[heap[child]]) {
+                child = right;
+            }
+            int childId = heap[child];
+            if (priority <= priorities[childId]) {
+                break;
+            }
+            heap[position] = childId;
+            positions[childId] = position;
+            position = child;
+        }
+        heap[position] = id;
+        positions[id] = position;
+    }
+}
@@ -0,0 +1,188 @@
+package com.example.editorgrafov.collections;
+
+import java.util.Arrays;
+
+/**
+ * Set of primitive longs with open addressing (no boxing, no object per key)
+ * - keys are stored densely in one array (indices 0 ... size - 1), hash table with linear probing only points into it,
+ *   so callers can keep values of keys in their own parallel primitive arrays indexed by the same index
+ * - removal moves last key into the hole (see remove()), so dense array never has gaps
+ * - table is kept at most 3/4 full, so every key costs 8 bytes in dense array and about 5 bytes in table
+ */
+public class LongHashSet {
+
+    private static final int minTableSize = 16;
+
+    private long[] keys;
+    //slot -> index of key in keys + 1, 0 marks empty slot
+    private int[] table;
+    private int mask;
+    private int size;
+
+    public LongHashSet() {
+        this(0);
+    }
+
+    /**
+     * Constructor of LongHashSet, which holds expected number of keys without growing
+     * @param expected number of keys
+     */
+    public LongHashSet(int expected) {
+        keys = new long[Math.max(expected, 4)];
+        table = new int[tableSize(expected)];
+        mask = table.length - 1;
+    }
+
+    /**
+     * Method that makes sure, that expected number of keys can be stored without growing
+     * @param expected number of keys
+     */
+    public void ensureCapacity(int expected) {
+        if (expected > keys.length) {
+            keys = Arrays.copyOf(keys, Math.max(expected, keys.length + (keys.length >> 1)));
+        }
+        if (tableSize(expected) > table.length) {
+            rehash(tableSize(expected));
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Method that adds key into set
+     * @param key to be added
+     * @return true iff key was not in set before (it got index size() - 1)
+     */
+    public boolean add(long key) {
+        int slot = slotOf(key);
+        if (table[slot] != 0) {
+            return false;
+        }
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, keys.length + (keys.length >> 1));
+        }
+        keys[size] = key;
+        table[slot] = ++size;
+        if (tableSize(size) > table.length) {
+            rehash(table.length << 1);
+        }
+        return true;
+    }
+
+    public boolean contains(long key) {
+        return table[slotOf(key)] != 0;
+    }
+
+    /**
+     * Method that returns index of key in dense array
+     * @param key to be found
+     * @return index of key, or -1 if key is not in set
+     */
+    public int indexOf(long key) {
+        return table[slotOf(key)] - 1;
+    }
+
+    /**
+     * @param index of key, 0 <= index < size()
+     * @return key stored under index
+     */
+    public long get(int index) {
+        if (index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " is out of bounds for size " + size);
+        }
+        return keys[index];
+    }
+
+    /**
+     * Method that removes key from set
+     * - last key (with index size() after removal) is moved to index of removed key, values in parallel arrays
+     *   have to be moved the same way: value[index] = value[size()]
+     * @param key to be removed
+     * @return index, which removed key had, or -1 if key was not in set
+     */
+    public int remove(long key) {
+        int slot = slotOf(key);
+        int index = table[slot] - 1;
+        if (index < 0) {
+            return -1;
+        }
+        deleteSlot(slot);
+        int last = --size;
+        if (index != last) {
+            long moved = keys[last];
+            keys[index] = moved;
+            table[slotOf(moved)] = index + 1;
+        }
+        return index;
+    }
+
+    /**
+     * Method that removes every key from set, memory is kept
+     */
+    public void clear() {
+        Arrays.fill(table, 0);
+        size = 0;
+    }
+
+    /**
+     * @return slot, which holds key, or empty slot, where key belongs
+     */
+    private int slotOf(long key) {
+        int slot = hash(key) & mask;
+        while (table[slot] != 0 && keys[table[slot] - 1] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Method that empties slot and moves following keys of the same cluster back (no tombstones are needed)
+     */
+    private void deleteSlot(int slot) {
+        int gap = slot;
+        int i = (slot + 1) & mask;
+        while (table[i] != 0) {
+            int home = hash(keys[table[i] - 1]) & mask;
+            //key can fill the gap only if its home slot is not between gap and its current slot
+            if (((i - home) & mask) >= ((i - gap) & mask)) {
+                table[gap] = table[i];
+                gap = i;
+            }
+            i = (i + 1) & mask;
+        }
+        table[gap] = 0;
+    }
+
+    private void rehash(int newTableSize) {
+        table = new int[newTableSize];
+        mask = newTableSize - 1;
+        for (int index = 0; index < size; index++) {
+            int slot = hash(keys[index]) & mask;
+            while (table[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = index + 1;
+        }
+    }
+
+    private static int tableSize(int expected) {
+        long needed = Math.max(minTableSize, (long) expected * 4 / 3 + 1);
+        return (int) Math.min(1 << 30, Long.highestOneBit(needed - 1) << 1);
+    }
+
+    private static int hash(long key) {
+        //finalizer of MurmurHash3, consecutive ids spread over whole table
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return (int) key;
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.editorgrafov.enums;
+
+import java.util.Locale;
+
+/**
+ * Enum for formats of files, that can be opened
+ */
+public enum FileFormat {
+    BINARY("Graph files", "grf"),
+    EDGE_LIST("Edge lists", "txt", "edges", "csv"),
+    DOT("DOT files", "dot", "gv"),
+    GRAPHML("GraphML files", "graphml");
+
+    private final String description;
+    private final String[] extensions;
+
+    FileFormat(String description, String... extensions) {
+        this.description = description;
+        this.extensions = extensions;
+    }
+
+    /**
+     * Method that returns description of format for file chooser, e.g. "DOT files (*.dot, *.gv)"
+     * @return description with extensions
+     */
+    public String getDescription() {
+        StringBuilder sb = new StringBuilder(description).append(" (");
+        for (int i = 0; i < extensions.length; i++) {
+            sb.append(i == 0 ? "" : ", ").append("*.").append(extensions[i]);
+        }
+        return sb.append(")").toString();
+    }
+
+    /**
+     * Method that returns patterns of extensions for file chooser, e.g. "*.dot"
+     * @return patterns of extensions
+     */
+    public String[] getPatterns() {
+        String[] patterns = new String[extensions.length];
+        for (int i = 0; i < extensions.length; i++) {
+            patterns[i] = "*." + extensions[i];
+        }
+        return patterns;
+    }
+
+    /**
+     * Method that finds format according to extension of file
+     * @param fileName name of file
+     * @return format of file, or null if extension is not known
+     */
+    public static FileFormat fromFileName(String fileName) {
+        String lowerCase = fileName.toLowerCase(Locale.ROOT);
+        for (FileFormat format : values()) {
+            for (String extension : format.extensions) {
+                if (lowerCase.endsWith("." + extension)) {
+                    return format;
+                }
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.editorgrafov.enums;
+
+/**
+ * Enum for centrality measures in Algorithms tab in menu
+ */
+public enum Measure {
+    PAGERANK, BETWEENNESS, DEGREE, CLOSENESS;
+}
@@ -0,0 +1,682 @@
+package com.example.editorgrafov.hierarchy;
+
+import com.example.editorgrafov.EdgeSet;
+import com.example.editorgrafov.Graph;
+import com.example.editorgrafov.GraphModel;
+import com.example.editorgrafov.GraphModelListener;
+import com.example.editorgrafov.GraphSnapshot;
+import com.example.editorgrafov.collections.IntList;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Hierarchy of supervertices - groups of vertices collapsed into one vertex of model, which can be expanded again
+ * - collapse removes members from model and adds supervertex with edges to every vertex, to which members had edge,
+ *   weight of such edge is number of original edges it stands for
+ * - supervertex can be member of other supervertex, so big graph can be shown as few thousands of supervertices
+ *   and expanded only where it is needed
+ * - model never reuses ids, so members get back their ids, expand returns group, which restore() puts back
+ *   unchanged under the same id (undo of expand, redo of collapse)
+ * - edge added to supervertex by user goes to its first leaf vertex on expand
+ * - edge of supervertex removed by user takes its original edges out of groups, they are put back, when the same edge
+ *   is added again (undo), edges removed together with vertex stay in groups - they are restored on expand only if
+ *   the vertex is alive again (ids are never reused, so removal of vertex needs no work)
+ * - edges, which are not incident to supervertex, have weight 1
+ * - collapses and expands are reported to HierarchyListener (e.g. journal records them instead of changes of model)
+ */
+public class Hierarchy implements GraphModelListener {
+
+    private static final int defaultCapacity = 64;
+
+    private final GraphModel model;
+    //group of supervertex by its id, it is kept after removal of supervertex, so removal can be undone
+    private Supervertex[] groups = new Supervertex[defaultCapacity];
+    //supervertex, in which vertex is directly hidden, -1 for vertices, which are not hidden
+    private int[] parents = newParents(defaultCapacity);
+    private final EdgeSet weights = new EdgeSet();
+    //original edges of removed edges of supervertices by key of removed edge, so undo of removal restores them
+    private final Map<Long, long[]> removedEdges = new HashMap<>();
+    //vertices marked in current operation are those with marks[id] == mark
+    private int[] marks = new int[defaultCapacity];
+    private int mark;
+    //changes made by hierarchy itself are not handled as changes made by user
+    private boolean updating;
+    private final List<HierarchyListener> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Constructor of Hierarchy, hierarchy listens to model until dispose() is called
+     * @param model of graph
+     */
+    public Hierarchy(GraphModel model) {
+        this.model = model;
+        model.addListener(this);
+    }
+
+    /**
+     * Method that stops listening to model
+     */
+    public void dispose() {
+        model.removeListener(this);
+    }
+
+    public void addListener(HierarchyListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(HierarchyListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * @return true iff model is being changed by collapse or expand
+     */
+    public boolean isUpdating() {
+        return updating;
+    }
+
+    /**
+     * Method that reports every supervertex, which is collapsed now (also inside of other supervertex), to listener
+     * - supervertices are reported in ascending order of ids, so every supervertex comes after supervertices
+     *   among its members, collapses in this order rebuild hierarchy from flattened graph
+     * @param listener which gets collapsed() for every supervertex
+     */
+    public void reportCollapsed(HierarchyListener listener) {
+        for (int id = 0; id < groups.length; id++) {
+            Supervertex group = groups[id];
+            if (group != null && model.isAlive(getVisible(id))) {
+                listener.collapsed(id, group.members, model.isAlive(id) ? model.getLabel(id) : group.label);
+            }
+        }
+    }
+
+    /**
+     * @param id of vertex
+     * @return true iff vertex is alive supervertex
+     */
+    public boolean isSupervertex(int id) {
+        return group(id) != null && model.isAlive(id);
+    }
+
+    /**
+     * @param id of supervertex
+     * @return ids of members of supervertex (they are not in model until supervertex is expanded)
+     */
+    public int[] getMembers(int id) {
+        return checkSupervertex(id).members.clone();
+    }
+
+    /**
+     * @param id of vertex
+     * @return number of original vertices inside supervertex, 1 for vertex, which is not supervertex
+     */
+    public int getLeafCount(int id) {
+        Supervertex group = group(id);
+        return group == null ? 1 : group.leaves;
+    }
+
+    /**
+     * @param id of vertex
+     * @return supervertex, in which vertex is directly hidden, -1 if vertex is not hidden
+     */
+    public int getParent(int id) {
+        return id >= 0 && id < parents.length ? parents[id] : -1;
+    }
+
+    /**
+     * Method that returns vertex of model, which stands for given vertex (itself, or supervertex in which it is hidden)
+     * @param id of vertex
+     * @return visible vertex, it is not alive iff vertex (or its supervertex) was removed
+     */
+    public int getVisible(int id) {
+        while (!model.isAlive(id) && getParent(id) >= 0) {
+            id = parents[id];
+        }
+        return id;
+    }
+
+    /**
+     * @param from id of source vertex
+     * @param to id of destination vertex
+     * @return weight of edge (number of original edges, which it stands for)
+     */
+    public float getWeight(int from, int to) {
+        float weight = weights.getWeight(from, to);
+        return Float.isNaN(weight) ? EdgeSet.defaultWeight : weight;
+    }
+
+    /**
+     * Method that collapses vertices into new supervertex placed into their centre
+     * @param members ids of alive vertices (at least 2)
+     * @param label of supervertex
+     * @return id of supervertex
+     */
+    public int collapse(int[] members, String label) {
+        return collapse(model.getCapacity(), members, label);
+    }
+
+    /**
+     * Method that collapses vertices into new supervertex with given id (e.g. collapse replayed from journal)
+     * @param id of supervertex, it must not be used by any vertex
+     * @param members ids of alive vertices (at least 2)
+     * @param label of supervertex
+     * @return id of supervertex
+     */
+    public int collapse(int id, int[] members, String label) {
+        checkMembers(id, members);
+        Graph graph = model.getGraph();
+        IntList internalFrom = new IntList();
+        IntList internalTo = new IntList();
+        float[] internalWeights = new float[16];
+        EdgeList cut = new EdgeList();
+        for (int member : members) {
+            Supervertex group = group(member);
+            for (int destination : graph.outgoingEdgesDestinations(member)) {
+                if (isMarked(destination)) {
+                    if (internalFrom.size() == internalWeights.length) {
+                        internalWeights = Arrays.copyOf(internalWeights, internalWeights.length << 1);
+                    }
+                    internalWeights[internalFrom.size()] = getWeight(member, destination);
+                    internalFrom.add(member);
+                    internalTo.add(destination);
+                }
+                else if (group == null) {
+                    addLeafEdges(cut, member, destination, true);
+                }
+            }
+            if (group == null) {
+                for (int source : graph.incomingEdgesSources(member)) {
+                    if (!isMarked(source)) {
+                        addLeafEdges(cut, member, source, false);
+                    }
+                }
+                continue;
+            }
+            //edges of member, which is supervertex, are taken from its group (only those, which still exist in model)
+            for (long edge : group.cut) {
+                int outside = getVisible(Supervertex.outside(edge));
+                boolean outgoing = Supervertex.isOutgoing(edge);
+                if (model.isAlive(outside) && !isMarked(outside)
+                        && (outgoing ? graph.existsEdge(member, outside) : graph.existsEdge(outside, member))) {
+                    cut.add(edge);
+                }
+            }
+        }
+        int n = members.length;
+        String[] labels = new String[n];
+        double[] x = new double[n];
+        double[] y = new double[n];
+        double centerX = 0;
+        double centerY = 0;
+        int leaves = 0;
+        for (int i = 0; i < n; i++) {
+            labels[i] = model.getLabel(members[i]);
+            x[i] = model.getX(members[i]);
+            y[i] = model.getY(members[i]);
+            centerX += x[i] / n;
+            centerY += y[i] / n;
+            leaves += getLeafCount(members[i]);
+        }
+        install(new Supervertex(id, label, members.clone(), labels, x, y, centerX, centerY, internalFrom.toArray(),
+                internalTo.toArray(), Arrays.copyOf(internalWeights, internalFrom.size()), cut.toSortedArray(), leaves,
+                representative(members[0])));
+        return id;
+    }
+
+    /**
+     * Method that collapses members of expanded supervertex again into the same supervertex (undo of expand, redo of collapse)
+     * - group is put back as it was, so it keeps also edges to vertices, which were removed (and can be restored by undo)
+     * @param group returned by expand()
+     */
+    public void restore(Supervertex group) {
+        checkMembers(group.id, group.members);
+        install(group);
+    }
+
+    private void checkMembers(int id, int[] members) {
+        if (members.length < 2) {
+            throw new IllegalArgumentException("Supervertex needs at least 2 members");
+        }
+        if (id < 0 || model.isAlive(id) || getParent(id) >= 0 || group(id) != null) {
+            throw new IllegalArgumentException("Vertex id " + id + " is already used");
+        }
+        nextMark();
+        for (int member : members) {
+            if (!model.isAlive(member)) {
+                throw new IllegalArgumentException("Vertex " + member + " does not exist");
+            }
+            if (isMarked(member)) {
+                throw new IllegalArgumentException("Vertex " + member + " is given more than once");
+            }
+            marks[member] = mark;
+        }
+    }
+
+    /**
+     * Method that replaces members of group by supervertex placed into their centre
+     * - supervertex gets edge for every leaving edge of group, whose member still has edge to its visible other end
+     */
+    private void install(Supervertex group) {
+        int id = group.id;
+        int[] members = group.members;
+        ensureCapacity(Math.max(id + 1, model.getCapacity()));
+        groups[id] = group;
+        for (int member : members) {
+            parents[member] = id;
+        }
+        Graph graph = model.getGraph();
+        EdgeList edges = new EdgeList();
+        for (long edge : group.cut) {
+            int member = member(id, Supervertex.inside(edge));
+            int outside = getVisible(Supervertex.outside(edge));
+            boolean outgoing = Supervertex.isOutgoing(edge);
+            if (model.isAlive(outside) && (outgoing ? graph.existsEdge(member, outside) : graph.existsEdge(outside, member))) {
+                edges.add(Supervertex.edge(0, outside, outgoing));
+            }
+        }
+        double supervertexX = 0;
+        double supervertexY = 0;
+        for (int member : members) {
+            supervertexX += model.getX(member) / members.length;
+            supervertexY += model.getY(member) / members.length;
+        }
+        double x = supervertexX;
+        double y = supervertexY;
+        updating = true;
+        try {
+            model.runInTransaction(() -> {
+                for (int member : members) {
+                    removeWeights(member);
+                    model.removeVertex(member);
+                }
+                model.addVertex(id, group.label, x, y);
+                for (int i = 0; i < edges.size(); i++) {
+                    long edge = edges.get(i);
+                    if (Supervertex.isOutgoing(edge)) {
+                        addWeight(id, Supervertex.outside(edge), 1);
+                    }
+                    else {
+                        addWeight(Supervertex.outside(edge), id, 1);
+                    }
+                }
+            });
+        }
+        finally {
+            updating = false;
+        }
+        for (HierarchyListener listener : listeners) {
+            listener.collapsed(id, members, group.label);
+        }
+    }
+
+    /**
+     * Method that replaces supervertex by its members, members are moved together with supervertex
+     * - edges of group are restored only if supervertex still has edge to the same visible vertex
+     * @param id of supervertex
+     * @return group of supervertex, it can be put back by restore()
+     */
+    public Supervertex expand(int id) {
+        Supervertex group = checkSupervertex(id);
+        Graph graph = model.getGraph();
+        EdgeList restored = new EdgeList();
+        for (long edge : group.cut) {
+            int outside = getVisible(Supervertex.outside(edge));
+            boolean outgoing = Supervertex.isOutgoing(edge);
+            if (model.isAlive(outside) && (outgoing ? graph.existsEdge(id, outside) : graph.existsEdge(outside, id))) {
+                restored.add(Supervertex.edge(member(id, Supervertex.inside(edge)), outside, outgoing));
+            }
+        }
+        group.label = model.getLabel(id);
+        double dx = model.getX(id) - group.centerX;
+        double dy = model.getY(id) - group.centerY;
+        updating = true;
+        try {
+            model.runInTransaction(() -> {
+                removeWeights(id);
+                model.removeVertex(id);
+                groups[id] = null;
+                for (int i = 0; i < group.members.length; i++) {
+                    parents[group.members[i]] = -1;
+                    model.addVertex(group.members[i], group.labels[i], group.x[i] + dx, group.y[i] + dy);
+                }
+                for (int i = 0; i < group.internalFrom.length; i++) {
+                    addWeight(group.internalFrom[i], group.internalTo[i], group.internalWeights[i]);
+                }
+                for (int i = 0; i < restored.size(); i++) {
+                    long edge = restored.get(i);
+                    if (Supervertex.isOutgoing(edge)) {
+                        addWeight(Supervertex.inside(edge), Supervertex.outside(edge), 1);
+                    }
+                    else {
+                        addWeight(Supervertex.outside(edge), Supervertex.inside(edge), 1);
+                    }
+                }
+            });
+        }
+        finally {
+            updating = false;
+        }
+        for (HierarchyListener listener : listeners) {
+            listener.expanded(id);
+        }
+        return group;
+    }
+
+    /**
+     * Method that returns snapshot of graph with every supervertex expanded (e.g. to be saved into file)
+     * - model is not changed, supervertices are expanded in its copy
+     * @return snapshot of expanded graph
+     */
+    public GraphSnapshot flatten() {
+        IntList pending = new IntList();
+        for (int id = 0; id < model.getCapacity(); id++) {
+            if (isSupervertex(id)) {
+                pending.add(id);
+            }
+        }
+        if (pending.isEmpty()) {
+            return model.snapshot();
+        }
+        GraphModel copy = new GraphModel();
+        copy.load(model.snapshot());
+        Hierarchy expanded = new Hierarchy(copy);
+        //groups are not changed by expand, so they can be shared
+        expanded.groups = groups.clone();
+        expanded.parents = parents.clone();
+        while (!pending.isEmpty()) {
+            for (int member : expanded.expand(pending.removeLast()).members) {
+                if (expanded.isSupervertex(member)) {
+                    pending.add(member);
+                }
+            }
+        }
+        expanded.dispose();
+        return copy.snapshot();
+    }
+
+    /**
+     * Method that adds leaving edges of member, which is not supervertex, to neighbour outside of group
+     * - neighbour, which is supervertex, knows leaf vertices inside of it, to which member has edges
+     */
+    private void addLeafEdges(EdgeList cut, int member, int neighbour, boolean outgoing) {
+        Supervertex other = group(neighbour);
+        if (other == null) {
+            cut.add(Supervertex.edge(member, neighbour, outgoing));
+            return;
+        }
+        if (outgoing) {
+            support(member, neighbour);
+        }
+        else {
+            support(neighbour, member);
+        }
+        for (int i = other.firstEdge(member); i < other.lastEdge(member); i++) {
+            long edge = other.cut[i];
+            if (Supervertex.isOutgoing(edge) != outgoing) {
+                cut.add(Supervertex.edge(member, Supervertex.inside(edge), outgoing));
+            }
+        }
+    }
+
+    /**
+     * Method that makes sure, that edge of model incident to supervertex stands for at least one original edge
+     * - edge added by user gets original edge between first leaf vertices of its ends
+     * @return number of original edges, for which edge stands
+     */
+    private int support(int from, int to) {
+        int count = count(from, to);
+        if (count > 0) {
+            return count;
+        }
+        int fromLeaf = representative(from);
+        int toLeaf = representative(to);
+        for (int id = from; group(id) != null; id = groups[id].members[0]) {
+            groups[id].addEdge(Supervertex.edge(fromLeaf, toLeaf, true));
+        }
+        for (int id = to; group(id) != null; id = groups[id].members[0]) {
+            groups[id].addEdge(Supervertex.edge(toLeaf, fromLeaf, false));
+        }
+        return 1;
+    }
+
+    /**
+     * @return number of leaving edges of supervertex from (or to), which go to (or from) the other end of edge
+     */
+    private int count(int from, int to) {
+        Supervertex group = group(from);
+        int other = to;
+        boolean outgoing = true;
+        if (group == null) {
+            group = group(to);
+            other = from;
+            outgoing = false;
+        }
+        int count = 0;
+        if (group(other) == null) {
+            for (int i = group.firstEdge(other); i < group.lastEdge(other); i++) {
+                if (Supervertex.isOutgoing(group.cut[i]) == outgoing) {
+                    count++;
+                }
+            }
+            return count;
+        }
+        for (long edge : group.cut) {
+            if (Supervertex.isOutgoing(edge) == outgoing && getVisible(Supervertex.outside(edge)) == other) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return original edges (as keys of EdgeSet), for which edge from -> to of model stands
+     */
+    private long[] originalEdges(int from, int to) {
+        EdgeList edges = new EdgeList();
+        Supervertex group = group(from);
+        if (group != null) {
+            for (long edge : group.cut) {
+                if (Supervertex.isOutgoing(edge) && getVisible(Supervertex.outside(edge)) == to) {
+                    edges.add(EdgeSet.key(Supervertex.inside(edge), Supervertex.outside(edge)));
+                }
+            }
+        }
+        else {
+            group = groups[to];
+            for (int i = group.firstEdge(from); i < group.lastEdge(from); i++) {
+                if (!Supervertex.isOutgoing(group.cut[i])) {
+                    edges.add(EdgeSet.key(from, Supervertex.inside(group.cut[i])));
+                }
+            }
+        }
+        return edges.toSortedArray();
+    }
+
+    /**
+     * Method that adds or removes original edges in every group, in which their ends are hidden
+     * @param edges original edges as keys of EdgeSet
+     * @param add true to add edges, false to remove them
+     */
+    private void updateOriginalEdges(long[] edges, boolean add) {
+        Map<Supervertex, EdgeList> changes = new IdentityHashMap<>();
+        for (long key : edges) {
+            int from = EdgeSet.from(key);
+            int to = EdgeSet.to(key);
+            for (int id = getParent(from); id >= 0; id = getParent(id)) {
+                changes.computeIfAbsent(groups[id], group -> new EdgeList()).add(Supervertex.edge(from, to, true));
+            }
+            for (int id = getParent(to); id >= 0; id = getParent(id)) {
+                changes.computeIfAbsent(groups[id], group -> new EdgeList()).add(Supervertex.edge(to, from, false));
+            }
+        }
+        for (Map.Entry<Supervertex, EdgeList> change : changes.entrySet()) {
+            change.getKey().updateEdges(change.getValue().toSortedArray(), add);
+        }
+    }
+
+    /**
+     * Method that adds edge into model (if it is not there yet) and increases its weight
+     */
+    private void addWeight(int from, int to, float weight) {
+        boolean added = model.addEdge(from, to);
+        if (group(from) == null && group(to) == null) {
+            //edge between original vertices always has weight 1
+            return;
+        }
+        float current = added ? 0 : getWeight(from, to);
+        weights.add(from, to);
+        weights.setWeight(from, to, current + weight);
+    }
+
+    private void removeWeights(int id) {
+        if (group(id) == null) {
+            return;
+        }
+        Graph graph = model.getGraph();
+        for (int destination : graph.outgoingEdgesDestinations(id)) {
+            weights.remove(id, destination);
+        }
+        for (int source : graph.incomingEdgesSources(id)) {
+            weights.remove(source, id);
+        }
+    }
+
+    /**
+     * @return member of supervertex, in which leaf vertex is hidden
+     */
+    private int member(int supervertex, int leaf) {
+        while (parents[leaf] != supervertex) {
+            leaf = parents[leaf];
+        }
+        return leaf;
+    }
+
+    private int representative(int id) {
+        Supervertex group = group(id);
+        return group == null ? id : group.representative;
+    }
+
+    private Supervertex group(int id) {
+        return id >= 0 && id < groups.length ? groups[id] : null;
+    }
+
+    private Supervertex checkSupervertex(int id) {
+        if (!isSupervertex(id)) {
+            throw new IllegalArgumentException("Vertex " + id + " is not supervertex");
+        }
+        return groups[id];
+    }
+
+    private void nextMark() {
+        if (marks.length < model.getCapacity()) {
+            marks = new int[Math.max(model.getCapacity(), marks.length << 1)];
+        }
+        if (++mark == 0) {
+            Arrays.fill(marks, 0);
+            mark = 1;
+        }
+    }
+
+    private boolean isMarked(int id) {
+        return id < marks.length && marks[id] == mark;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > groups.length) {
+            int oldLength = groups.length;
+            groups = Arrays.copyOf(groups, Math.max(capacity, oldLength << 1));
+            parents = Arrays.copyOf(parents, groups.length);
+            Arrays.fill(parents, oldLength, parents.length, -1);
+        }
+    }
+
+    private static int[] newParents(int capacity) {
+        int[] parents = new int[capacity];
+        Arrays.fill(parents, -1);
+        return parents;
+    }
+
+    /**
+     * Supervertex removed by user (alone or in bulk delete) keeps its group, so undo gives back collapsed vertex,
+     * only weights of its edges are dropped, edges added by undo get them back from group
+     */
+    @Override
+    public void vertexRemoved(int id, String label) {
+        Supervertex group = group(id);
+        if (updating || group == null) {
+            return;
+        }
+        for (long edge : group.cut) {
+            int outside = getVisible(Supervertex.outside(edge));
+            if (Supervertex.isOutgoing(edge)) {
+                weights.remove(id, outside);
+            }
+            else {
+                weights.remove(outside, id);
+            }
+        }
+    }
+
+    @Override
+    public void edgeAdded(int from, int to) {
+        if (!updating && (group(from) != null || group(to) != null)) {
+            long[] edges = removedEdges.remove(EdgeSet.key(from, to));
+            if (edges != null) {
+                updateOriginalEdges(edges, true);
+            }
+            weights.add(from, to);
+            weights.setWeight(from, to, support(from, to));
+        }
+    }
+
+    @Override
+    public void edgeRemoved(int from, int to) {
+        if (!updating && (group(from) != null || group(to) != null)) {
+            weights.remove(from, to);
+            long[] edges = originalEdges(from, to);
+            updateOriginalEdges(edges, false);
+            removedEdges.put(EdgeSet.key(from, to), edges);
+        }
+    }
+
+    @Override
+    public void graphCleared() {
+        groups = new Supervertex[defaultCapacity];
+        parents = newParents(defaultCapacity);
+        weights.clear();
+        removedEdges.clear();
+    }
+
+    /**
+     * Growable array of packed edges
+     */
+    private static final class EdgeList {
+        private long[] edges = new long[16];
+        private int size;
+
+        void add(long edge) {
+            if (size == edges.length) {
+                edges = Arrays.copyOf(edges, size << 1);
+            }
+            edges[size++] = edge;
+        }
+
+        long get(int index) {
+            return edges[index];
+        }
+
+        int size() {
+            return size;
+        }
+
+        long[] toSortedArray() {
+            long[] sorted = Arrays.copyOf(edges, size);
+            Arrays.sort(sorted);
+            return sorted;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.editorgrafov.hierarchy;
+
+/**
+ * Listener of collapses and expands made by Hierarchy, every method is called after model was changed
+ * - vertices and edges changed by collapse or expand are reported to listeners of model too,
+ *   Hierarchy.isUpdating() is true meanwhile
+ * - all methods have empty default implementation, so listener overrides only what it needs
+ */
+public interface HierarchyListener {
+
+    /**
+     * @param id of supervertex
+     * @param members ids of vertices hidden in supervertex (array must not be changed)
+     * @param label of supervertex
+     */
+    default void collapsed(int id, int[] members, String label) {
+    }
+
+    /**
+     * @param id of expanded supervertex (it is not alive anymore)
+     */
+    default void expanded(int id) {
+    }
+}
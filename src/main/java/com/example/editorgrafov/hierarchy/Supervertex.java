@@ -0,0 +1,166 @@
+package com.example.editorgrafov.hierarchy;
+
+import java.util.Arrays;
+
+/**
+ * Collapsed group of vertices, which is shown in model as one vertex until it is expanded
+ * - members are vertices (or other supervertices), which were visible when group was collapsed,
+ *   their labels and coordinates are kept in primitive arrays
+ * - edges between members are kept as pairs of members with weights, they can not change while group is collapsed
+ * - edges leaving group are kept on the lowest level - between leaf vertex inside group and leaf vertex outside of it,
+ *   so they stay valid, when the other end is collapsed or expanded later (it is resolved to visible vertex)
+ * - every leaving edge is packed into one long (outside << 32 | direction | inside), array is sorted,
+ *   so edges to one outside vertex are found by binary search
+ * - group is changed only by Hierarchy, outside of package it can be only read or given back to Hierarchy.restore()
+ */
+public final class Supervertex {
+
+    private static final long incoming = 0x80000000L;
+
+    final int id;
+    //label of supervertex, it is updated on expand (supervertex could be renamed)
+    String label;
+    final int[] members;
+    final String[] labels;
+    final double[] x;
+    final double[] y;
+    //coordinates of supervertex at collapse, members are moved together with it
+    final double centerX;
+    final double centerY;
+    final int[] internalFrom;
+    final int[] internalTo;
+    final float[] internalWeights;
+    long[] cut;
+    //number of leaf vertices inside and the first of them (it gets edges added to supervertex by user)
+    final int leaves;
+    final int representative;
+
+    Supervertex(int id, String label, int[] members, String[] labels, double[] x, double[] y, double centerX, double centerY,
+                int[] internalFrom, int[] internalTo, float[] internalWeights, long[] cut, int leaves, int representative) {
+        this.id = id;
+        this.label = label;
+        this.members = members;
+        this.labels = labels;
+        this.x = x;
+        this.y = y;
+        this.centerX = centerX;
+        this.centerY = centerY;
+        this.internalFrom = internalFrom;
+        this.internalTo = internalTo;
+        this.internalWeights = internalWeights;
+        this.cut = cut;
+        this.leaves = leaves;
+        this.representative = representative;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * @return ids of members of group
+     */
+    public int[] getMembers() {
+        return members.clone();
+    }
+
+    /**
+     * @return approximate size of group in bytes
+     */
+    public long getSize() {
+        long size = 96 + 2L * label.length() + 8L * cut.length;
+        size += members.length * (4L + 16 + 40) + internalFrom.length * 12L;
+        return size;
+    }
+
+    /**
+     * Method that packs leaving edge into one long
+     * @param inside leaf vertex inside of group
+     * @param outside leaf vertex outside of group
+     * @param outgoing true for edge inside -> outside, false for outside -> inside
+     * @return packed edge
+     */
+    static long edge(int inside, int outside, boolean outgoing) {
+        return (long) outside << 32 | (outgoing ? 0 : incoming) | inside;
+    }
+
+    static int inside(long edge) {
+        return (int) (edge & 0x7FFFFFFFL);
+    }
+
+    static int outside(long edge) {
+        return (int) (edge >>> 32);
+    }
+
+    static boolean isOutgoing(long edge) {
+        return (edge & incoming) == 0;
+    }
+
+    /**
+     * @param outside leaf vertex
+     * @return index of first leaving edge with given outside vertex (edges with it follow until lastEdge())
+     */
+    int firstEdge(int outside) {
+        return lowerBound((long) outside << 32);
+    }
+
+    int lastEdge(int outside) {
+        return lowerBound((long) (outside + 1) << 32);
+    }
+
+    /**
+     * Method that adds leaving edge (edges added by user to collapsed supervertex)
+     * @param edge packed edge
+     */
+    void addEdge(long edge) {
+        int position = lowerBound(edge);
+        long[] grown = new long[cut.length + 1];
+        System.arraycopy(cut, 0, grown, 0, position);
+        grown[position] = edge;
+        System.arraycopy(cut, position, grown, position + 1, cut.length - position);
+        cut = grown;
+    }
+
+    /**
+     * Method that adds or removes many leaving edges at once (one pass over array)
+     * @param edges sorted packed edges
+     * @param add true to add edges, false to remove them
+     */
+    void updateEdges(long[] edges, boolean add) {
+        long[] updated = new long[add ? cut.length + edges.length : cut.length];
+        int count = 0;
+        int i = 0;
+        for (long edge : cut) {
+            while (i < edges.length && edges[i] < edge) {
+                if (add) {
+                    updated[count++] = edges[i];
+                }
+                i++;
+            }
+            if (!add && i < edges.length && edges[i] == edge) {
+                i++;
+                continue;
+            }
+            updated[count++] = edge;
+        }
+        while (add && i < edges.length) {
+            updated[count++] = edges[i++];
+        }
+        cut = count == updated.length ? updated : Arrays.copyOf(updated, count);
+    }
+
+    private int lowerBound(long key) {
+        int index = Arrays.binarySearch(cut, key);
+        if (index < 0) {
+            return -index - 1;
+        }
+        while (index > 0 && cut[index - 1] == key) {
+            index--;
+        }
+        return index;
+    }
+}
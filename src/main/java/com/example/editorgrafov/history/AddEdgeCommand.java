@@ -0,0 +1,40 @@
+package com.example.editorgrafov.history;
+
+import com.example.editorgrafov.GraphModel;
+
+/**
+ * Command, which adds edge from -> to, undo removes it only if it was not present before
+ */
+public class AddEdgeCommand implements Command {
+
+    private final int from;
+    private final int to;
+    private boolean added;
+
+    public AddEdgeCommand(int from, int to) {
+        this.from = from;
+        this.to = to;
+    }
+
+    @Override
+    public void execute(GraphModel model) {
+        added = model.addEdge(from, to);
+    }
+
+    @Override
+    public void undo(GraphModel model) {
+        if (added) {
+            model.removeEdge(from, to);
+        }
+    }
+
+    @Override
+    public long getSize() {
+        return 24;
+    }
+
+    @Override
+    public String getDescription() {
+        return "Add edge";
+    }
+}
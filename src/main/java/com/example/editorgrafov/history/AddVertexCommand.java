@@ -0,0 +1,59 @@
+package com.example.editorgrafov.history;
+
+import com.example.editorgrafov.GraphModel;
+
+/**
+ * Command, which adds vertex, id of vertex is assigned on first execution and kept for redo
+ */
+public class AddVertexCommand implements Command {
+
+    private final String label;
+    private final double x;
+    private final double y;
+    private int id = -1;
+
+    /**
+     * Constructor of AddVertexCommand
+     * @param label value of vertex
+     * @param x coordinate, where vertex is placed
+     * @param y coordinate, where vertex is placed
+     */
+    public AddVertexCommand(String label, double x, double y) {
+        this.label = label;
+        this.x = x;
+        this.y = y;
+    }
+
+    /**
+     * @return id of added vertex, or -1 if command was not executed yet
+     */
+    public int getId() {
+        return id;
+    }
+
+    @Override
+    public void execute(GraphModel model) {
+        if (id < 0) {
+            id = model.addVertex(label, x, y);
+        }
+        else if (!model.isAlive(id)) {
+            model.addVertex(id, label, x, y);
+        }
+    }
+
+    @Override
+    public void undo(GraphModel model) {
+        model.removeVertex(id);
+    }
+
+    @Override
+    public long getSize() {
+        //header, fields and label (it is shared with model while vertex is alive)
+        return 40 + 2L * label.length();
+    }
+
+    @Override
+    public String getDescription() {
+        return "Insert node \"" + label + "\"";
+    }
+}
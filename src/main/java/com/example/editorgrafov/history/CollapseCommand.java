@@ -0,0 +1,64 @@
+package com.example.editorgrafov.history;
+
+import com.example.editorgrafov.GraphModel;
+import com.example.editorgrafov.hierarchy.Hierarchy;
+import com.example.editorgrafov.hierarchy.Supervertex;
+
+/**
+ * Command, which collapses vertices into one supervertex
+ * - id of supervertex is chosen on first execution and reused on redo, so later commands can refer to it
+ * - undo keeps group of supervertex, redo puts the same group back
+ */
+public class CollapseCommand implements Command {
+
+    private final Hierarchy hierarchy;
+    private final int[] members;
+    private final String label;
+    private int id = -1;
+    private Supervertex group;
+
+    /**
+     * Constructor of CollapseCommand
+     * @param hierarchy of supervertices
+     * @param members ids of vertices, which are collapsed
+     * @param label of supervertex
+     */
+    public CollapseCommand(Hierarchy hierarchy, int[] members, String label) {
+        this.hierarchy = hierarchy;
+        this.members = members;
+        this.label = label;
+    }
+
+    /**
+     * @return id of supervertex, -1 before first execution
+     */
+    public int getId() {
+        return id;
+    }
+
+    @Override
+    public void execute(GraphModel model) {
+        if (group == null) {
+            id = hierarchy.collapse(members, label);
+        }
+        else {
+            hierarchy.restore(group);
+        }
+    }
+
+    @Override
+    public void undo(GraphModel model) {
+        group = hierarchy.expand(id);
+    }
+
+    @Override
+    public long getSize() {
+        long size = 56 + 16 + 4L * members.length + 40 + 2L * label.length();
+        return group == null ? size : size + group.getSize();
+    }
+
+    @Override
+    public String getDescription() {
+        return "Collapse " + members.length + " nodes";
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.editorgrafov.history;
+
+import com.example.editorgrafov.GraphModel;
+import com.example.editorgrafov.collections.IntList;
+import com.example.editorgrafov.hierarchy.Hierarchy;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Command, which collapses every community of every level of clustering into supervertex
+ * - communities of level 0 are collapsed first, communities of next level are collapsed from their supervertices,
+ *   so hierarchy of supervertices follows levels of clustering
+ * - community, which has only one vertex (or only one community of previous level), is not collapsed
+ * - collapses are made on first execution, redo and undo repeat them (in reverse order)
+ */
+public class CollapseCommunitiesCommand implements Command {
+
+    private final Hierarchy hierarchy;
+    private int[][] levels;
+    private final List<CollapseCommand> parts = new ArrayList<>();
+
+    /**
+     * Constructor of CollapseCommunitiesCommand
+     * @param hierarchy of supervertices
+     * @param levels community of every vertex (-1 for no vertex) on every level, communities of level l + 1
+     *               are unions of communities of level l
+     */
+    public CollapseCommunitiesCommand(Hierarchy hierarchy, int[][] levels) {
+        this.hierarchy = hierarchy;
+        this.levels = levels;
+    }
+
+    /**
+     * @return number of supervertices made by command
+     */
+    public int getCollapsedCount() {
+        return parts.size();
+    }
+
+    @Override
+    public void execute(GraphModel model) {
+        if (levels == null) {
+            for (CollapseCommand part : parts) {
+                part.execute(model);
+            }
+            return;
+        }
+        int capacity = levels[0].length;
+        //community of previous level of every vertex and vertex of model, which stands for it
+        int[] previous = new int[capacity];
+        int[] visible = new int[capacity];
+        for (int id = 0; id < capacity; id++) {
+            previous[id] = levels[0][id] >= 0 ? id : -1;
+            visible[id] = id;
+        }
+        for (int level = 0; level < levels.length; level++) {
+            int[] communities = levels[level];
+            int count = 0;
+            for (int id = 0; id < capacity; id++) {
+                count = Math.max(count, communities[id] + 1);
+            }
+            //every community of previous level is put into its community only once
+            boolean[] added = new boolean[capacity];
+            IntList[] members = new IntList[count];
+            for (int id = 0; id < capacity; id++) {
+                int unit = previous[id];
+                if (unit >= 0 && !added[unit]) {
+                    added[unit] = true;
+                    if (members[communities[id]] == null) {
+                        members[communities[id]] = new IntList();
+                    }
+                    members[communities[id]].add(visible[unit]);
+                }
+            }
+            int[] next = new int[count];
+            for (int c = 0; c < count; c++) {
+                if (members[c].size() == 1) {
+                    next[c] = members[c].get(0);
+                    continue;
+                }
+                CollapseCommand part = new CollapseCommand(hierarchy, members[c].toArray(),
+                        "Community " + (level + 1) + "." + (c + 1));
+                part.execute(model);
+                parts.add(part);
+                next[c] = part.getId();
+            }
+            System.arraycopy(communities, 0, previous, 0, capacity);
+            visible = next;
+        }
+        levels = null;
+    }
+
+    @Override
+    public void undo(GraphModel model) {
+        for (int i = parts.size() - 1; i >= 0; i--) {
+            parts.get(i).undo(model);
+        }
+    }
+
+    @Override
+    public long getSize() {
+        long size = 48 + 8L * parts.size();
+        for (CollapseCommand part : parts) {
+            size += part.getSize();
+        }
+        return size;
+    }
+
+    @Override
+    public String getDescription() {
+        return "Collapse " + parts.size() + " communities";
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.editorgrafov.history;
+
+import com.example.editorgrafov.GraphModel;
+
+/**
+ * Reversible change of model, which is kept in History
+ * - command stores only what changed (ids, labels and coordinates as primitives), never copy of model
+ */
+public interface Command {
+
+    /**
+     * Method that applies change to model, it is called again on redo
+     * @param model where change is applied
+     */
+    void execute(GraphModel model);
+
+    /**
+     * Method that reverts change made by execute()
+     * @param model where change is reverted
+     */
+    void undo(GraphModel model);
+
+    /**
+     * Method that estimates memory used by command, history is limited by sum of these sizes
+     * @return approximate size in bytes
+     */
+    long getSize();
+
+    /**
+     * Method that returns short description of change for user, e.g. "Move node"
+     * @return description
+     */
+    String getDescription();
+}
@@ -0,0 +1,51 @@
+package com.example.editorgrafov.history;
+
+import com.example.editorgrafov.GraphModel;
+
+/**
+ * Command, which consists of more commands, that are undone and redone together as one step
+ * - parts are executed in given order and undone in reverse order
+ */
+public class CompositeCommand implements Command {
+
+    private final String description;
+    private final Command[] parts;
+
+    /**
+     * Constructor of CompositeCommand
+     * @param description shown to user
+     * @param parts commands, which were not executed yet
+     */
+    public CompositeCommand(String description, Command... parts) {
+        this.description = description;
+        this.parts = parts;
+    }
+
+    @Override
+    public void execute(GraphModel model) {
+        for (Command part : parts) {
+            part.execute(model);
+        }
+    }
+
+    @Override
+    public void undo(GraphModel model) {
+        for (int i = parts.length - 1; i >= 0; i--) {
+            parts[i].undo(model);
+        }
+    }
+
+    @Override
+    public long getSize() {
+        long size = 24 + 8L * parts.length;
+        for (Command part : parts) {
+            size += part.getSize();
+        }
+        return size;
+    }
+
+    @Override
+    public String getDescription() {
+        return description;
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.editorgrafov.history;
+
+import com.example.editorgrafov.GraphModel;
+import com.example.editorgrafov.hierarchy.Hierarchy;
+import com.example.editorgrafov.hierarchy.Supervertex;
+
+/**
+ * Command, which replaces supervertex by its members, undo puts the same group back into supervertex
+ */
+public class ExpandCommand implements Command {
+
+    private final Hierarchy hierarchy;
+    private final int id;
+    private String label;
+    private Supervertex group;
+
+    /**
+     * Constructor of ExpandCommand
+     * @param hierarchy of supervertices
+     * @param id of supervertex, which is expanded
+     */
+    public ExpandCommand(Hierarchy hierarchy, int id) {
+        this.hierarchy = hierarchy;
+        this.id = id;
+    }
+
+    /**
+     * @return ids of members of supervertex, null before first execution
+     */
+    public int[] getMembers() {
+        return group == null ? null : group.getMembers();
+    }
+
+    @Override
+    public void execute(GraphModel model) {
+        label = model.getLabel(id);
+        group = hierarchy.expand(id);
+    }
+
+    @Override
+    public void undo(GraphModel model) {
+        hierarchy.restore(group);
+    }
+
+    @Override
+    public long getSize() {
+        long size = 48;
+        if (group != null) {
+            size += 40 + 2L * label.length() + group.getSize();
+        }
+        return size;
+    }
+
+    @Override
+    public String getDescription() {
+        return "Expand node \"" + label + "\"";
+    }
+}
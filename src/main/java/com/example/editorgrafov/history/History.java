@@ -0,0 +1,149 @@
+package com.example.editorgrafov.history;
+
+import com.example.editorgrafov.GraphModel;
+import com.example.editorgrafov.GraphModelListener;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Undo/redo history of commands executed on model
+ * - history is limited by estimated size of commands in bytes, oldest commands are dropped first
+ * - history is cleared when model is cleared (new or opened graph), ids in commands would not be valid anymore
+ * - every command is executed and undone in one transaction of model, so view is refreshed once per command
+ */
+public class History implements GraphModelListener {
+
+    public static final long defaultMaxSize = 32L << 20;
+
+    private final GraphModel model;
+    private final long maxSize;
+    private final Deque<Command> undoStack = new ArrayDeque<>();
+    private final Deque<Command> redoStack = new ArrayDeque<>();
+    private long size;
+    private Runnable onChange;
+
+    public History(GraphModel model) {
+        this(model, defaultMaxSize);
+    }
+
+    /**
+     * Constructor of History, history listens to model, so it is cleared together with model
+     * @param model where commands are executed
+     * @param maxSize limit of estimated size of all commands in bytes
+     */
+    public History(GraphModel model, long maxSize) {
+        this.model = model;
+        this.maxSize = maxSize;
+        model.addListener(this);
+    }
+
+    /**
+     * Method that sets action, which is called whenever undo or redo availability can change
+     * @param onChange action, e.g. update of menu items
+     */
+    public void setOnChange(Runnable onChange) {
+        this.onChange = onChange;
+    }
+
+    /**
+     * Method that executes command and stores it for undo, redo history is thrown away
+     * @param command to be executed
+     */
+    public void execute(Command command) {
+        model.runInTransaction(() -> command.execute(model));
+        clearRedo();
+        undoStack.addLast(command);
+        size += command.getSize();
+        trim();
+        changed();
+    }
+
+    public boolean canUndo() {
+        return !undoStack.isEmpty();
+    }
+
+    public boolean canRedo() {
+        return !redoStack.isEmpty();
+    }
+
+    /**
+     * Method that reverts last command
+     * @return reverted command, or null if there is nothing to undo
+     */
+    public Command undo() {
+        Command command = undoStack.pollLast();
+        if (command == null) {
+            return null;
+        }
+        size -= command.getSize();
+        model.runInTransaction(() -> command.undo(model));
+        redoStack.addLast(command);
+        size += command.getSize();
+        changed();
+        return command;
+    }
+
+    /**
+     * Method that executes again last reverted command
+     * @return executed command, or null if there is nothing to redo
+     */
+    public Command redo() {
+        Command command = redoStack.pollLast();
+        if (command == null) {
+            return null;
+        }
+        size -= command.getSize();
+        model.runInTransaction(() -> command.execute(model));
+        undoStack.addLast(command);
+        size += command.getSize();
+        trim();
+        changed();
+        return command;
+    }
+
+    /**
+     * Method that removes every command from history
+     */
+    public void clear() {
+        undoStack.clear();
+        redoStack.clear();
+        size = 0;
+        changed();
+    }
+
+    /**
+     * Method that returns estimated size of all commands in history
+     * @return size in bytes
+     */
+    public long getSize() {
+        return size;
+    }
+
+    @Override
+    public void graphCleared() {
+        clear();
+    }
+
+    private void clearRedo() {
+        for (Command command : redoStack) {
+            size -= command.getSize();
+        }
+        redoStack.clear();
+    }
+
+    /**
+     * Method that drops oldest commands until history fits into limit, last command is always kept
+     */
+    private void trim() {
+        while (size > maxSize && undoStack.size() > 1) {
+            size -= undoStack.pollFirst().getSize();
+        }
+    }
+
+    private void changed() {
+        if (onChange != null) {
+            onChange.run();
+        }
+    }
+}
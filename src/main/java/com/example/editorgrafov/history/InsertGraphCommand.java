@@ -0,0 +1,71 @@
+package com.example.editorgrafov.history;
+
+import com.example.editorgrafov.GraphModel;
+
+/**
+ * Command, which inserts many vertices and edges between them at once (bulk insertion, paste)
+ * - ids of vertices are assigned on first execution and kept for redo, undo removes vertices together with edges
+ */
+public class InsertGraphCommand implements Command {
+
+    private final String[] labels;
+    private final double[] x;
+    private final double[] y;
+    private final int[] from;
+    private final int[] to;
+    private int[] ids;
+
+    /**
+     * Constructor of InsertGraphCommand
+     * @param labels values of new vertices
+     * @param x coordinates of new vertices
+     * @param y coordinates of new vertices
+     * @param from sources of edges, as indices into labels
+     * @param to destinations of edges, as indices into labels
+     */
+    public InsertGraphCommand(String[] labels, double[] x, double[] y, int[] from, int[] to) {
+        this.labels = labels;
+        this.x = x;
+        this.y = y;
+        this.from = from;
+        this.to = to;
+    }
+
+    /**
+     * @return ids of inserted vertices, or null if command was not executed yet
+     */
+    public int[] getIds() {
+        return ids;
+    }
+
+    @Override
+    public void execute(GraphModel model) {
+        if (ids == null) {
+            ids = model.addAll(labels, x, y, from, to);
+        }
+        else {
+            model.addAll(ids, labels, x, y, from, to);
+        }
+    }
+
+    @Override
+    public void undo(GraphModel model) {
+        for (int i = ids.length - 1; i >= 0; i--) {
+            model.removeVertex(ids[i]);
+        }
+    }
+
+    @Override
+    public long getSize() {
+        long size = 80 + 20L * labels.length + 8L * from.length;
+        for (String label : labels) {
+            size += 2L * label.length();
+        }
+        return size;
+    }
+
+    @Override
+    public String getDescription() {
+        return "Insert " + labels.length + " nodes";
+    }
+}
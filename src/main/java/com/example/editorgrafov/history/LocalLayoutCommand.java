@@ -0,0 +1,55 @@
+package com.example.editorgrafov.history;
+
+import com.example.editorgrafov.GraphModel;
+import com.example.editorgrafov.layout.IncrementalLayout;
+
+/**
+ * Command, which relaxes neighbourhood of changed vertices by IncrementalLayout
+ * - new positions are computed on first execution (after previous parts of CompositeCommand changed graph)
+ *   and kept for redo, so redo does not depend on state of layout
+ */
+public class LocalLayoutCommand implements Command {
+
+    private final IncrementalLayout layout;
+    private final int[] seeds;
+    private MoveVerticesCommand moves;
+    private boolean computed;
+
+    /**
+     * Constructor of LocalLayoutCommand
+     * @param layout which computes new positions
+     * @param seeds ids of changed vertices
+     */
+    public LocalLayoutCommand(IncrementalLayout layout, int... seeds) {
+        this.layout = layout;
+        this.seeds = seeds;
+    }
+
+    @Override
+    public void execute(GraphModel model) {
+        if (!computed) {
+            moves = layout.relax(seeds);
+            computed = true;
+        }
+        if (moves != null) {
+            moves.execute(model);
+        }
+    }
+
+    @Override
+    public void undo(GraphModel model) {
+        if (moves != null) {
+            moves.undo(model);
+        }
+    }
+
+    @Override
+    public long getSize() {
+        return 40 + 4L * seeds.length + (moves != null ? moves.getSize() : 0);
+    }
+
+    @Override
+    public String getDescription() {
+        return "Local layout";
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.editorgrafov.history;
+
+import com.example.editorgrafov.GraphModel;
+
+/**
+ * Command, which moves vertex
+ * - drag is stored as single command when it ends, so whole drag is undone at once and separate drags never merge
+ */
+public class MoveVertexCommand implements Command {
+
+    private final int id;
+    private final double oldX;
+    private final double oldY;
+    private final double newX;
+    private final double newY;
+
+    /**
+     * Constructor of MoveVertexCommand
+     * @param id of vertex
+     * @param oldX coordinate before move
+     * @param oldY coordinate before move
+     * @param newX coordinate after move
+     * @param newY coordinate after move
+     */
+    public MoveVertexCommand(int id, double oldX, double oldY, double newX, double newY) {
+        this.id = id;
+        this.oldX = oldX;
+        this.oldY = oldY;
+        this.newX = newX;
+        this.newY = newY;
+    }
+
+    @Override
+    public void execute(GraphModel model) {
+        if (model.isAlive(id)) {
+            model.moveVertex(id, newX, newY);
+        }
+    }
+
+    @Override
+    public void undo(GraphModel model) {
+        if (model.isAlive(id)) {
+            model.moveVertex(id, oldX, oldY);
+        }
+    }
+
+    @Override
+    public long getSize() {
+        return 56;
+    }
+
+    @Override
+    public String getDescription() {
+        return "Move node";
+    }
+}
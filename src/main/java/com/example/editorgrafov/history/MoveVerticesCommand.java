@@ -0,0 +1,66 @@
+package com.example.editorgrafov.history;
+
+import com.example.editorgrafov.GraphModel;
+
+/**
+ * Command, which moves many vertices at once (e.g. result of layout), so they are undone as one step
+ * - coordinates are kept in primitive arrays, vertex ids[i] moves from (oldX[i], oldY[i]) to (newX[i], newY[i])
+ */
+public class MoveVerticesCommand implements Command {
+
+    private final int[] ids;
+    private final double[] oldX;
+    private final double[] oldY;
+    private final double[] newX;
+    private final double[] newY;
+    private final String description;
+
+    /**
+     * Constructor of MoveVerticesCommand
+     * @param ids of vertices
+     * @param oldX coordinates before move
+     * @param oldY coordinates before move
+     * @param newX coordinates after move
+     * @param newY coordinates after move
+     * @param description shown to user, e.g. "Layout"
+     */
+    public MoveVerticesCommand(int[] ids, double[] oldX, double[] oldY, double[] newX, double[] newY, String description) {
+        if (oldX.length != ids.length || oldY.length != ids.length || newX.length != ids.length || newY.length != ids.length) {
+            throw new IllegalArgumentException("Arrays of ids and coordinates have different lengths");
+        }
+        this.ids = ids;
+        this.oldX = oldX;
+        this.oldY = oldY;
+        this.newX = newX;
+        this.newY = newY;
+        this.description = description;
+    }
+
+    @Override
+    public void execute(GraphModel model) {
+        move(model, newX, newY);
+    }
+
+    @Override
+    public void undo(GraphModel model) {
+        move(model, oldX, oldY);
+    }
+
+    private void move(GraphModel model, double[] x, double[] y) {
+        for (int i = 0; i < ids.length; i++) {
+            if (model.isAlive(ids[i])) {
+                model.moveVertex(ids[i], x[i], y[i]);
+            }
+        }
+    }
+
+    @Override
+    public long getSize() {
+        return 64 + 36L * ids.length;
+    }
+
+    @Override
+    public String getDescription() {
+        return description;
+    }
+}
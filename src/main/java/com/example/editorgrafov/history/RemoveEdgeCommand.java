@@ -0,0 +1,40 @@
+package com.example.editorgrafov.history;
+
+import com.example.editorgrafov.GraphModel;
+
+/**
+ * Command, which removes edge from -> to, undo adds it back only if it was present before
+ */
+public class RemoveEdgeCommand implements Command {
+
+    private final int from;
+    private final int to;
+    private boolean removed;
+
+    public RemoveEdgeCommand(int from, int to) {
+        this.from = from;
+        this.to = to;
+    }
+
+    @Override
+    public void execute(GraphModel model) {
+        removed = model.removeEdge(from, to);
+    }
+
+    @Override
+    public void undo(GraphModel model) {
+        if (removed && model.isAlive(from) && model.isAlive(to)) {
+            model.addEdge(from, to);
+        }
+    }
+
+    @Override
+    public long getSize() {
+        return 24;
+    }
+
+    @Override
+    public String getDescription() {
+        return "Remove edge";
+    }
+}
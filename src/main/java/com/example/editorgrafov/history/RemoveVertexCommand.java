@@ -0,0 +1,70 @@
+package com.example.editorgrafov.history;
+
+import com.example.editorgrafov.GraphModel;
+
+/**
+ * Command, which removes vertex together with its edges
+ * - label, coordinates and incident edges are remembered on execution, so undo restores vertex with the same id
+ */
+public class RemoveVertexCommand implements Command {
+
+    private final int id;
+    private String label;
+    private double x;
+    private double y;
+    private int[] destinations;
+    private int[] sources;
+
+    /**
+     * Constructor of RemoveVertexCommand
+     * @param id of vertex, which is removed
+     */
+    public RemoveVertexCommand(int id) {
+        this.id = id;
+    }
+
+    @Override
+    public void execute(GraphModel model) {
+        if (!model.isAlive(id)) {
+            return;
+        }
+        label = model.getLabel(id);
+        x = model.getX(id);
+        y = model.getY(id);
+        destinations = model.getGraph().outgoingEdgesDestinations(id);
+        sources = model.getGraph().incomingEdgesSources(id);
+        model.removeVertex(id);
+    }
+
+    @Override
+    public void undo(GraphModel model) {
+        if (label == null || model.isAlive(id)) {
+            return;
+        }
+        model.addVertex(id, label, x, y);
+        for (int destination : destinations) {
+            if (model.isAlive(destination)) {
+                model.addEdge(id, destination);
+            }
+        }
+        for (int source : sources) {
+            if (model.isAlive(source)) {
+                model.addEdge(source, id);
+            }
+        }
+    }
+
+    @Override
+    public long getSize() {
+        long size = 56;
+        if (label != null) {
+            size += 40 + 2L * label.length() + 16 + 4L * destinations.length + 16 + 4L * sources.length;
+        }
+        return size;
+    }
+
+    @Override
+    public String getDescription() {
+        return "Delete node \"" + label + "\"";
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.editorgrafov.history;
+
+import com.example.editorgrafov.Graph;
+import com.example.editorgrafov.GraphModel;
+import com.example.editorgrafov.collections.IntList;
+
+import java.util.Arrays;
+
+/**
+ * Command, which removes many vertices together with their edges as one step (selection, region, vertices with label, ...)
+ * - labels, coordinates and incident edges are remembered on execution in primitive arrays,
+ *   edge between two removed vertices is remembered only once
+ * - removal costs O(number of vertices + number of their edges), it does not depend on size of graph
+ * - removed supervertex keeps its group in Hierarchy (ids are never reused), so undo gives it back collapsed
+ *   and its edges get their weights from group again
+ */
+public class RemoveVerticesCommand implements Command {
+
+    private final int[] ids;
+    private String[] labels;
+    private double[] x;
+    private double[] y;
+    private int[] from;
+    private int[] to;
+    private int removed;
+
+    /**
+     * Constructor of RemoveVerticesCommand
+     * @param ids of vertices, which are removed (ids of vertices, which are not alive, are skipped)
+     */
+    public RemoveVerticesCommand(int[] ids) {
+        this.ids = ids;
+    }
+
+    /**
+     * @return number of vertices removed by last execution
+     */
+    public int getRemovedCount() {
+        return removed;
+    }
+
+    @Override
+    public void execute(GraphModel model) {
+        Graph graph = model.getGraph();
+        labels = new String[ids.length];
+        x = new double[ids.length];
+        y = new double[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            if (model.isAlive(ids[i])) {
+                labels[i] = model.getLabel(ids[i]);
+                x[i] = model.getX(ids[i]);
+                y[i] = model.getY(ids[i]);
+            }
+        }
+        //outgoing edges of every removed vertex, incoming edges only from vertices, which stay
+        int[] sorted = ids.clone();
+        Arrays.sort(sorted);
+        IntList sources = new IntList();
+        IntList destinations = new IntList();
+        for (int i = 0; i < ids.length; i++) {
+            if (labels[i] == null) {
+                continue;
+            }
+            for (int destination : graph.outgoingEdgesDestinations(ids[i])) {
+                sources.add(ids[i]);
+                destinations.add(destination);
+            }
+        }
+        for (int i = 0; i < ids.length; i++) {
+            if (labels[i] == null) {
+                continue;
+            }
+            for (int source : graph.incomingEdgesSources(ids[i])) {
+                if (Arrays.binarySearch(sorted, source) < 0) {
+                    sources.add(source);
+                    destinations.add(ids[i]);
+                }
+            }
+        }
+        removed = 0;
+        for (int id : ids) {
+            if (model.removeVertex(id)) {
+                removed++;
+            }
+        }
+        from = sources.toArray();
+        to = destinations.toArray();
+    }
+
+    @Override
+    public void undo(GraphModel model) {
+        for (int i = 0; i < ids.length; i++) {
+            if (labels[i] != null && !model.isAlive(ids[i])) {
+                model.addVertex(ids[i], labels[i], x[i], y[i]);
+            }
+        }
+        for (int i = 0; i < from.length; i++) {
+            if (model.isAlive(from[i]) && model.isAlive(to[i])) {
+                model.addEdge(from[i], to[i]);
+            }
+        }
+    }
+
+    @Override
+    public long getSize() {
+        long size = 72 + 16 + 4L * ids.length;
+        if (labels != null) {
+            size += 3 * 16 + ids.length * (8L + 16) + 2 * (16 + 4L * from.length);
+            for (String label : labels) {
+                size += label == null ? 0 : 40 + 2L * label.length();
+            }
+        }
+        return size;
+    }
+
+    @Override
+    public String getDescription() {
+        return "Delete " + removed + " nodes";
+    }
+}
@@ -0,0 +1,307 @@
+package com.example.editorgrafov.io;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PushbackReader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Parser of DOT (Graphviz) files
+ * - supported: node statements, edge chains (a -> b -> c), attribute lists, comments, quoted and HTML ids
+ * - attribute "pos" of node is used as coordinates of vertex, other attributes are skipped
+ * - subgraph braces are ignored, so vertices and edges of subgraphs become part of graph
+ * - edges of undirected graph (--) are added in both directions
+ */
+public class DotParser implements GraphParser {
+
+    @Override
+    public void parse(InputStream in, ImportHandler handler) throws IOException {
+        Tokenizer tokens = new Tokenizer(new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 1 << 16));
+        if (tokens.next() && tokens.isKeyword("strict")) {
+            tokens.next();
+        }
+        if (!tokens.isKeyword("graph") && !tokens.isKeyword("digraph")) {
+            throw new IOException("DOT file has to start with \"graph\" or \"digraph\"");
+        }
+        if (tokens.next() && !tokens.isOperator("{")) {
+            tokens.next();
+        }
+        if (!tokens.isOperator("{")) {
+            throw new IOException("Missing \"{\" at the start of DOT graph");
+        }
+        while (tokens.next()) {
+            if (tokens.isOperator("{") || tokens.isOperator("}") || tokens.isOperator(";") || tokens.isOperator(",")) {
+                continue;
+            }
+            if (tokens.isKeyword("subgraph")) {
+                if (tokens.next() && !tokens.isOperator("{")) {
+                    continue;
+                }
+                tokens.pushBack();
+                continue;
+            }
+            if (tokens.isKeyword("node") || tokens.isKeyword("edge") || tokens.isKeyword("graph")) {
+                if (tokens.next() && tokens.isOperator("[")) {
+                    skipAttributes(tokens);
+                }
+                else {
+                    tokens.pushBack();
+                }
+                continue;
+            }
+            if (tokens.isOperator()) {
+                throw new IOException("Unexpected \"" + tokens.text + "\" in DOT file");
+            }
+            statement(tokens, handler);
+        }
+    }
+
+    /**
+     * Method that parses statement starting with id - graph attribute, node or chain of edges
+     */
+    private void statement(Tokenizer tokens, ImportHandler handler) throws IOException {
+        String first = tokens.text;
+        if (!tokens.next()) {
+            handler.vertex(first, first, Double.NaN, Double.NaN);
+            return;
+        }
+        if (tokens.isOperator("=")) {
+            tokens.next();
+            return;
+        }
+        if (tokens.isOperator("->") || tokens.isOperator("--")) {
+            String from = first;
+            while (tokens.isOperator("->") || tokens.isOperator("--")) {
+                boolean undirected = tokens.isOperator("--");
+                if (!tokens.next() || tokens.isOperator()) {
+                    throw new IOException("Missing destination of edge from \"" + from + "\" in DOT file");
+                }
+                String to = tokens.text;
+                handler.edge(from, to);
+                if (undirected) {
+                    handler.edge(to, from);
+                }
+                from = to;
+                if (!tokens.next()) {
+                    return;
+                }
+            }
+            if (tokens.isOperator("[")) {
+                skipAttributes(tokens);
+            }
+            else {
+                tokens.pushBack();
+            }
+            return;
+        }
+        double x = Double.NaN;
+        double y = Double.NaN;
+        if (tokens.isOperator("[")) {
+            String position = skipAttributes(tokens);
+            if (position != null) {
+                String[] coordinates = position.replace("!", "").split(",");
+                try {
+                    x = Double.parseDouble(coordinates[0].trim());
+                    y = Double.parseDouble(coordinates[1].trim());
+                }
+                catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+                    x = Double.NaN;
+                    y = Double.NaN;
+                }
+            }
+        }
+        else {
+            tokens.pushBack();
+        }
+        handler.vertex(first, first, x, y);
+    }
+
+    /**
+     * Method that skips attribute list after "["
+     * @return value of attribute "pos", or null if list does not contain it
+     */
+    private String skipAttributes(Tokenizer tokens) throws IOException {
+        String position = null;
+        String name = null;
+        while (tokens.next()) {
+            if (tokens.isOperator("]")) {
+                return position;
+            }
+            if (tokens.isOperator("=")) {
+                if (tokens.next() && "pos".equals(name)) {
+                    position = tokens.text;
+                }
+                name = null;
+            }
+            else if (!tokens.isOperator()) {
+                name = tokens.text;
+            }
+        }
+        throw new IOException("Missing \"]\" at the end of attribute list in DOT file");
+    }
+
+    /**
+     * Splits DOT file into ids (plain, quoted or HTML) and operators
+     */
+    private static class Tokenizer {
+        private final PushbackReader reader;
+        private final StringBuilder sb = new StringBuilder();
+        private String text;
+        private boolean operator;
+        private boolean quoted;
+        private boolean pushedBack;
+
+        Tokenizer(BufferedReader reader) {
+            this.reader = new PushbackReader(reader, 2);
+        }
+
+        boolean isOperator() {
+            return text != null && operator;
+        }
+
+        boolean isOperator(String value) {
+            return isOperator() && text.equals(value);
+        }
+
+        boolean isKeyword(String keyword) {
+            return text != null && !operator && !quoted && text.equalsIgnoreCase(keyword);
+        }
+
+        void pushBack() {
+            pushedBack = true;
+        }
+
+        /**
+         * Method that reads next token
+         * @return false iff end of file was reached
+         */
+        boolean next() throws IOException {
+            if (pushedBack) {
+                pushedBack = false;
+                return text != null;
+            }
+            int c = skipWhitespaceAndComments();
+            operator = false;
+            quoted = false;
+            sb.setLength(0);
+            if (c < 0) {
+                text = null;
+                return false;
+            }
+            if (c == '"') {
+                readQuoted();
+            }
+            else if (c == '<') {
+                readHtml();
+            }
+            else if (c == '-' && (peek() == '>' || peek() == '-')) {
+                operator = true;
+                sb.append('-').append((char) reader.read());
+            }
+            else if ("{}[];,=".indexOf(c) >= 0) {
+                operator = true;
+                sb.append((char) c);
+            }
+            else {
+                sb.append((char) c);
+                readPlain();
+            }
+            text = sb.toString();
+            return true;
+        }
+
+        private int peek() throws IOException {
+            int c = reader.read();
+            if (c >= 0) {
+                reader.unread(c);
+            }
+            return c;
+        }
+
+        private int skipWhitespaceAndComments() throws IOException {
+            while (true) {
+                int c = reader.read();
+                if (c < 0 || !Character.isWhitespace(c) && c != '#' && c != '/') {
+                    return c;
+                }
+                if (c == '#') {
+                    skipLine();
+                }
+                else if (c == '/') {
+                    int next = reader.read();
+                    if (next == '/') {
+                        skipLine();
+                    }
+                    else if (next == '*') {
+                        int previous = 0;
+                        while ((c = reader.read()) >= 0 && !(previous == '*' && c == '/')) {
+                            previous = c;
+                        }
+                    }
+                    else {
+                        if (next >= 0) {
+                            reader.unread(next);
+                        }
+                        return '/';
+                    }
+                }
+            }
+        }
+
+        private void skipLine() throws IOException {
+            int c;
+            while ((c = reader.read()) >= 0 && c != '\n') {
+                //skip
+            }
+        }
+
+        private void readQuoted() throws IOException {
+            quoted = true;
+            int c;
+            while ((c = reader.read()) >= 0 && c != '"') {
+                if (c == '\\') {
+                    int escaped = reader.read();
+                    if (escaped == '\n') {
+                        continue;
+                    }
+                    if (escaped != '"') {
+                        sb.append('\\');
+                    }
+                    c = escaped;
+                }
+                if (c >= 0) {
+                    sb.append((char) c);
+                }
+            }
+        }
+
+        private void readHtml() throws IOException {
+            quoted = true;
+            int depth = 1;
+            int c;
+            while ((c = reader.read()) >= 0) {
+                if (c == '<') {
+                    depth++;
+                }
+                else if (c == '>' && --depth == 0) {
+                    return;
+                }
+                sb.append((char) c);
+            }
+        }
+
+        private void readPlain() throws IOException {
+            int c;
+            while ((c = reader.read()) >= 0) {
+                if (Character.isWhitespace(c) || "{}[];,=\"<#".indexOf(c) >= 0
+                        || c == '-' && (peek() == '>' || peek() == '-')) {
+                    reader.unread(c);
+                    return;
+                }
+                sb.append((char) c);
+            }
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.editorgrafov.io;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Parser of edge lists
+ * - every line contains source and destination of one edge, separated by whitespace, comma or semicolon
+ * - line with only one value is vertex without edges
+ * - empty lines and lines starting with '#' or '%' are skipped, values after second one are ignored (e.g. weights)
+ */
+public class EdgeListParser implements GraphParser {
+
+    @Override
+    public void parse(InputStream in, ImportHandler handler) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 1 << 16);
+        String line;
+        while ((line = reader.readLine()) != null) {
+            parseLine(line, handler);
+        }
+    }
+
+    /**
+     * Method that parses one line of edge list
+     * @param line of edge list
+     * @param handler receiver of vertex or edge on line
+     */
+    public static void parseLine(String line, ImportHandler handler) {
+        int length = line.length();
+        int start = skipSeparators(line, 0);
+        if (start == length || line.charAt(start) == '#' || line.charAt(start) == '%') {
+            return;
+        }
+        int end = skipValue(line, start);
+        String from = line.substring(start, end);
+        start = skipSeparators(line, end);
+        if (start == length) {
+            handler.vertex(from, from, Double.NaN, Double.NaN);
+            return;
+        }
+        String to = line.substring(start, skipValue(line, start));
+        handler.edge(from, to);
+    }
+
+    private static boolean isSeparator(char c) {
+        return c == ',' || c == ';' || Character.isWhitespace(c);
+    }
+
+    private static int skipSeparators(String line, int index) {
+        while (index < line.length() && isSeparator(line.charAt(index))) {
+            index++;
+        }
+        return index;
+    }
+
+    private static int skipValue(String line, int index) {
+        while (index < line.length() && !isSeparator(line.charAt(index))) {
+            index++;
+        }
+        return index;
+    }
+}
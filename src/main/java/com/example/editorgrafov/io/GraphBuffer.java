@@ -0,0 +1,133 @@
+package com.example.editorgrafov.io;
+
+import com.example.editorgrafov.collections.IntList;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Handler, which collects whole parsed graph into arrays, so it can be inserted into model at once (GraphModel.addAll)
+ * - it is meant for small graphs (e.g. pasted from clipboard), big files are imported by ImportTask
+ * - vertices without coordinates are placed randomly into given area
+ * - edges reference vertices by index in order of first appearance
+ */
+public class GraphBuffer implements ImportHandler {
+
+    private final double width;
+    private final double height;
+    private final Random random = new Random();
+    private final Map<String, Integer> keys = new HashMap<>();
+    private final List<String> labels = new ArrayList<>();
+    private double[] x = new double[64];
+    private double[] y = new double[64];
+    private final IntList from = new IntList();
+    private final IntList to = new IntList();
+
+    /**
+     * Constructor of GraphBuffer
+     * @param width of area, where vertices without coordinates are placed
+     * @param height of area, where vertices without coordinates are placed
+     */
+    public GraphBuffer(double width, double height) {
+        this.width = width;
+        this.height = height;
+    }
+
+    /**
+     * Method that parses graph from text, format is recognized by content (GraphML, DOT, otherwise edge list)
+     * @param text with graph
+     * @param width of area, where vertices without coordinates are placed
+     * @param height of area, where vertices without coordinates are placed
+     * @return buffer with parsed graph
+     * @throws IOException iff text is not valid graph
+     */
+    public static GraphBuffer parse(String text, double width, double height) throws IOException {
+        GraphBuffer buffer = new GraphBuffer(width, height);
+        String start = text.stripLeading().toLowerCase(Locale.ROOT);
+        GraphParser parser;
+        if (start.startsWith("<")) {
+            parser = new GraphMLParser();
+        }
+        else if (start.matches("(?s)(strict\\s+)?(di)?graph\\b.*")) {
+            parser = new DotParser();
+        }
+        else {
+            parser = new EdgeListParser();
+        }
+        parser.parse(new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8)), buffer);
+        return buffer;
+    }
+
+    @Override
+    public void vertex(String key, String label, double x, double y) {
+        if (!keys.containsKey(key)) {
+            add(key, label, x, y);
+        }
+    }
+
+    @Override
+    public void edge(String fromKey, String toKey) {
+        from.add(index(fromKey));
+        to.add(index(toKey));
+    }
+
+    private int index(String key) {
+        Integer index = keys.get(key);
+        return index != null ? index : add(key, key, Double.NaN, Double.NaN);
+    }
+
+    private int add(String key, String label, double x, double y) {
+        int index = labels.size();
+        keys.put(key, index);
+        labels.add(label);
+        if (index == this.x.length) {
+            this.x = Arrays.copyOf(this.x, index << 1);
+            this.y = Arrays.copyOf(this.y, index << 1);
+        }
+        this.x[index] = Double.isNaN(x) ? random.nextDouble() * width : x;
+        this.y[index] = Double.isNaN(y) ? random.nextDouble() * height : y;
+        return index;
+    }
+
+    public int getNumberOfVertices() {
+        return labels.size();
+    }
+
+    public int getNumberOfEdges() {
+        return from.size();
+    }
+
+    public String[] getLabels() {
+        return labels.toArray(new String[0]);
+    }
+
+    public double[] getX() {
+        return Arrays.copyOf(x, labels.size());
+    }
+
+    public double[] getY() {
+        return Arrays.copyOf(y, labels.size());
+    }
+
+    /**
+     * @return sources of edges, as indices into getLabels()
+     */
+    public int[] getFrom() {
+        return from.toArray();
+    }
+
+    /**
+     * @return destinations of edges, as indices into getLabels()
+     */
+    public int[] getTo() {
+        return to.toArray();
+    }
+}
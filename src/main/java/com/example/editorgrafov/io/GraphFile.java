@@ -0,0 +1,289 @@
+package com.example.editorgrafov.io;
+
+import com.example.editorgrafov.GraphSnapshot;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.function.DoubleConsumer;
+
+/**
+ * Binary format of graph files (*.grf), all numbers are little endian
+ * - header: magic, version, number of vertices (n), number of edges (m), number of labels (l), length of label bytes (b)
+ * - label pool: int[l + 1] offsets into UTF-8 bytes, byte[b] bytes (padded to multiple of 4)
+ * - vertices: int[n] ids, int[n] label indices, float[n] x, float[n] y
+ * - edges: int[m] ids of sources, int[m] ids of destinations
+ * File is read into single buffer with one bulk read, so arrays are copied from it without any parsing
+ * - file is not memory mapped, mapping would stay alive until garbage collection and block replacing of file on Windows
+ * - read file is checked (unique ids, labels and edges of existing vertices, finite coordinates) before it is returned,
+ *   so loading of returned snapshot can not fail halfway
+ */
+public class GraphFile {
+
+    public static final String extension = "grf";
+
+    private static final int magic = 0x46524745; //"EGRF"
+    private static final int version = 1;
+    private static final int headerSize = 6 * Integer.BYTES;
+    private static final int bufferSize = 1 << 16;
+
+    private GraphFile() {
+    }
+
+    /**
+     * Method that writes snapshot into file (file is overwritten)
+     * @param snapshot of graph
+     * @param path of file
+     * @throws IOException iff writing fails
+     */
+    public static void write(GraphSnapshot snapshot, Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            write(snapshot, channel);
+        }
+    }
+
+    /**
+     * Method that writes snapshot into channel from its current position
+     * @param snapshot of graph
+     * @param channel opened for writing
+     * @throws IOException iff writing fails
+     */
+    public static void write(GraphSnapshot snapshot, FileChannel channel) throws IOException {
+        write(snapshot, channel, progress -> { });
+    }
+
+    /**
+     * Method that writes snapshot into channel from its current position and reports, how much was written
+     * @param snapshot of graph
+     * @param channel opened for writing
+     * @param progress called with fraction of file (0 to 1) written so far, after every flush of buffer
+     * @throws IOException iff writing fails
+     */
+    public static void write(GraphSnapshot snapshot, FileChannel channel, DoubleConsumer progress) throws IOException {
+        String[] labels = snapshot.getLabels();
+        byte[][] encodedLabels = new byte[labels.length][];
+        int[] labelOffsets = new int[labels.length + 1];
+        for (int i = 0; i < labels.length; i++) {
+            encodedLabels[i] = labels[i].getBytes(StandardCharsets.UTF_8);
+            labelOffsets[i + 1] = labelOffsets[i] + encodedLabels[i].length;
+        }
+        int labelBytes = labelOffsets[labels.length];
+        long size = headerSize + 4L * (labels.length + 1) + align(labelBytes)
+                + 16L * snapshot.getNumberOfVertices() + 8L * snapshot.getNumberOfEdges();
+
+        ByteBuffer buffer = ByteBuffer.allocateDirect(bufferSize).order(ByteOrder.LITTLE_ENDIAN);
+        Output output = new Output(channel, buffer, size, progress);
+        buffer.putInt(magic).putInt(version)
+                .putInt(snapshot.getNumberOfVertices()).putInt(snapshot.getNumberOfEdges())
+                .putInt(labels.length).putInt(labelBytes);
+        putInts(output, labelOffsets);
+        for (byte[] label : encodedLabels) {
+            int written = 0;
+            while (written < label.length) {
+                if (!buffer.hasRemaining()) {
+                    output.flush();
+                }
+                int length = Math.min(label.length - written, buffer.remaining());
+                buffer.put(label, written, length);
+                written += length;
+            }
+        }
+        for (int i = labelBytes; i % Integer.BYTES != 0; i++) {
+            if (!buffer.hasRemaining()) {
+                output.flush();
+            }
+            buffer.put((byte) 0);
+        }
+        putInts(output, snapshot.getIds());
+        putInts(output, snapshot.getLabelIndices());
+        putFloats(output, snapshot.getX());
+        putFloats(output, snapshot.getY());
+        putInts(output, snapshot.getFrom());
+        putInts(output, snapshot.getTo());
+        output.flush();
+    }
+
+    /**
+     * Method that reads graph from file
+     * @param path of file
+     * @return snapshot of graph stored in file
+     * @throws IOException iff file can not be read or it is not valid graph file
+     */
+    public static GraphSnapshot read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < headerSize) {
+                throw new IOException("File " + path + " is not a graph file");
+            }
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("File " + path + " is too big");
+            }
+            ByteBuffer buffer = ByteBuffer.allocate((int) size).order(ByteOrder.LITTLE_ENDIAN);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer) < 0) {
+                    throw new IOException("Graph file " + path + " is truncated or corrupted");
+                }
+            }
+            buffer.flip();
+            if (buffer.getInt() != magic) {
+                throw new IOException("File " + path + " is not a graph file");
+            }
+            int fileVersion = buffer.getInt();
+            if (fileVersion != version) {
+                throw new IOException("Unsupported version " + fileVersion + " of graph file " + path);
+            }
+            int n = buffer.getInt();
+            int m = buffer.getInt();
+            int l = buffer.getInt();
+            int b = buffer.getInt();
+            if (!isCount(n) || !isCount(m) || !isCount(l) || !isCount(b)) {
+                throw new IOException("Graph file " + path + " is truncated or corrupted");
+            }
+            long expectedSize = headerSize + 4L * (l + 1) + align(b) + 16L * n + 8L * m;
+            if (size < expectedSize) {
+                throw new IOException("Graph file " + path + " is truncated or corrupted");
+            }
+
+            int[] labelOffsets = getInts(buffer, l + 1);
+            if (labelOffsets[0] != 0) {
+                throw new IOException("Graph file " + path + " is corrupted");
+            }
+            for (int i = 0; i < l; i++) {
+                if (labelOffsets[i + 1] < labelOffsets[i] || labelOffsets[i + 1] > b) {
+                    throw new IOException("Graph file " + path + " is corrupted");
+                }
+            }
+            byte[] labelBytes = new byte[b];
+            buffer.get(labelBytes);
+            buffer.position(buffer.position() + align(b) - b);
+            String[] labels = new String[l];
+            for (int i = 0; i < l; i++) {
+                labels[i] = new String(labelBytes, labelOffsets[i], labelOffsets[i + 1] - labelOffsets[i], StandardCharsets.UTF_8);
+            }
+
+            int[] ids = getInts(buffer, n);
+            int[] labelIndices = getInts(buffer, n);
+            float[] x = getFloats(buffer, n);
+            float[] y = getFloats(buffer, n);
+            int[] from = getInts(buffer, m);
+            int[] to = getInts(buffer, m);
+            for (int labelIndex : labelIndices) {
+                if (labelIndex < 0 || labelIndex >= l) {
+                    throw new IOException("Graph file " + path + " is corrupted");
+                }
+            }
+            check(path, ids, x, y, from, to);
+            return new GraphSnapshot(ids, labels, labelIndices, x, y, from, to);
+        }
+    }
+
+    /**
+     * Method that checks, that ids are unique and not negative, coordinates are finite and edges connect existing vertices
+     * @throws IOException iff some check fails
+     */
+    private static void check(Path path, int[] ids, float[] x, float[] y, int[] from, int[] to) throws IOException {
+        int[] sorted = ids.clone();
+        Arrays.sort(sorted);
+        for (int i = 0; i < sorted.length; i++) {
+            if (sorted[i] < 0 || (i > 0 && sorted[i] == sorted[i - 1])) {
+                throw new IOException("Graph file " + path + " contains invalid id of vertex " + sorted[i]);
+            }
+        }
+        for (int i = 0; i < ids.length; i++) {
+            if (!Float.isFinite(x[i]) || !Float.isFinite(y[i])) {
+                throw new IOException("Graph file " + path + " contains vertex " + ids[i] + " with invalid coordinates");
+            }
+        }
+        for (int i = 0; i < from.length; i++) {
+            if (Arrays.binarySearch(sorted, from[i]) < 0 || Arrays.binarySearch(sorted, to[i]) < 0) {
+                throw new IOException("Graph file " + path + " contains edge " + from[i] + " -> " + to[i] + " of missing vertex");
+            }
+        }
+    }
+
+    /**
+     * Method that checks count from header, so that any size computed from it fits into int
+     */
+    private static boolean isCount(int count) {
+        return count >= 0 && count < Integer.MAX_VALUE / 4;
+    }
+
+    private static int align(int bytes) {
+        return (bytes + Integer.BYTES - 1) & -Integer.BYTES;
+    }
+
+    private static int[] getInts(ByteBuffer buffer, int count) {
+        int[] values = new int[count];
+        buffer.asIntBuffer().get(values);
+        buffer.position(buffer.position() + count * Integer.BYTES);
+        return values;
+    }
+
+    private static float[] getFloats(ByteBuffer buffer, int count) {
+        float[] values = new float[count];
+        buffer.asFloatBuffer().get(values);
+        buffer.position(buffer.position() + count * Float.BYTES);
+        return values;
+    }
+
+    private static void putInts(Output output, int[] values) throws IOException {
+        ByteBuffer buffer = output.buffer;
+        int written = 0;
+        while (written < values.length) {
+            if (buffer.remaining() < Integer.BYTES) {
+                output.flush();
+            }
+            int length = Math.min(values.length - written, buffer.remaining() / Integer.BYTES);
+            buffer.asIntBuffer().put(values, written, length);
+            buffer.position(buffer.position() + length * Integer.BYTES);
+            written += length;
+        }
+    }
+
+    private static void putFloats(Output output, float[] values) throws IOException {
+        ByteBuffer buffer = output.buffer;
+        int written = 0;
+        while (written < values.length) {
+            if (buffer.remaining() < Float.BYTES) {
+                output.flush();
+            }
+            int length = Math.min(values.length - written, buffer.remaining() / Float.BYTES);
+            buffer.asFloatBuffer().put(values, written, length);
+            buffer.position(buffer.position() + length * Float.BYTES);
+            written += length;
+        }
+    }
+
+    /**
+     * Buffer, which is flushed into channel when it is full, counting bytes written
+     */
+    private static class Output {
+        private final FileChannel channel;
+        private final ByteBuffer buffer;
+        private final long size;
+        private final DoubleConsumer progress;
+        private long written;
+
+        Output(FileChannel channel, ByteBuffer buffer, long size, DoubleConsumer progress) {
+            this.channel = channel;
+            this.buffer = buffer;
+            this.size = size;
+            this.progress = progress;
+        }
+
+        void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                written += channel.write(buffer);
+            }
+            buffer.clear();
+            progress.accept(size == 0 ? 1 : Math.min(1, written / (double) size));
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.editorgrafov.io;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Parser of GraphML files, which reads file element by element (StAX), so document is never built in memory
+ * - label of vertex is taken from node data with key named "label" or "name", otherwise node id is used
+ * - coordinates are taken from node data with keys named "x" and "y" or from yEd Geometry element
+ * - edges of undirected graph are added in both directions
+ */
+public class GraphMLParser implements GraphParser {
+
+    @Override
+    public void parse(InputStream in, ImportHandler handler) throws IOException {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        XMLStreamReader reader = null;
+        try {
+            reader = factory.createXMLStreamReader(in);
+            parse(reader, handler);
+        }
+        catch (XMLStreamException e) {
+            throw new IOException("Invalid GraphML file: " + e.getMessage(), e);
+        }
+        finally {
+            if (reader != null) {
+                try {
+                    reader.close();
+                }
+                catch (XMLStreamException e) {
+                    //stream itself is closed by caller
+                }
+            }
+        }
+    }
+
+    private void parse(XMLStreamReader reader, ImportHandler handler) throws XMLStreamException, IOException {
+        Map<String, String> keyNames = new HashMap<>();
+        boolean directedByDefault = true;
+        String node = null;
+        String label = null;
+        double x = Double.NaN;
+        double y = Double.NaN;
+        String dataKey = null;
+        StringBuilder data = new StringBuilder();
+
+        while (reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                switch (reader.getLocalName()) {
+                    case "key":
+                        String name = reader.getAttributeValue(null, "attr.name");
+                        if (name != null) {
+                            keyNames.put(reader.getAttributeValue(null, "id"), name.toLowerCase());
+                        }
+                        break;
+                    case "graph":
+                        directedByDefault = !"undirected".equals(reader.getAttributeValue(null, "edgedefault"));
+                        break;
+                    case "node":
+                        node = reader.getAttributeValue(null, "id");
+                        if (node == null) {
+                            throw new IOException("Node without id in GraphML file");
+                        }
+                        label = node;
+                        x = Double.NaN;
+                        y = Double.NaN;
+                        break;
+                    case "data":
+                        if (node != null) {
+                            dataKey = reader.getAttributeValue(null, "key");
+                            data.setLength(0);
+                        }
+                        break;
+                    case "Geometry":
+                        if (node != null) {
+                            x = parseCoordinate(reader.getAttributeValue(null, "x"));
+                            y = parseCoordinate(reader.getAttributeValue(null, "y"));
+                        }
+                        break;
+                    case "edge":
+                        String source = reader.getAttributeValue(null, "source");
+                        String target = reader.getAttributeValue(null, "target");
+                        if (source == null || target == null) {
+                            throw new IOException("Edge without source or target in GraphML file");
+                        }
+                        String directed = reader.getAttributeValue(null, "directed");
+                        handler.edge(source, target);
+                        if (directed == null ? !directedByDefault : "false".equals(directed)) {
+                            handler.edge(target, source);
+                        }
+                        break;
+                    default:
+                        break;
+                }
+            }
+            else if ((event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA) && dataKey != null) {
+                data.append(reader.getText());
+            }
+            else if (event == XMLStreamConstants.END_ELEMENT) {
+                String element = reader.getLocalName();
+                if ("data".equals(element) && dataKey != null) {
+                    String name = keyNames.get(dataKey);
+                    String value = data.toString().trim();
+                    if (("label".equals(name) || "name".equals(name)) && !value.isEmpty()) {
+                        label = value;
+                    }
+                    else if ("x".equals(name)) {
+                        x = parseCoordinate(value);
+                    }
+                    else if ("y".equals(name)) {
+                        y = parseCoordinate(value);
+                    }
+                    dataKey = null;
+                }
+                else if ("node".equals(element) && node != null) {
+                    handler.vertex(node, label, x, y);
+                    node = null;
+                }
+            }
+        }
+    }
+
+    private static double parseCoordinate(String value) {
+        if (value == null) {
+            return Double.NaN;
+        }
+        try {
+            return Double.parseDouble(value.trim());
+        }
+        catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.editorgrafov.io;
+
+import com.example.editorgrafov.enums.FileFormat;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Streaming parser of text graph formats
+ * - every vertex and edge is passed to handler as soon as it is read, whole document is never kept in memory
+ */
+public interface GraphParser {
+
+    /**
+     * Method that reads whole stream and passes its content to handler
+     * @param in stream with graph (it is not closed)
+     * @param handler receiver of vertices and edges
+     * @throws IOException iff stream can not be read or it is not valid
+     */
+    void parse(InputStream in, ImportHandler handler) throws IOException;
+
+    /**
+     * Method that returns parser for text format
+     * @param format of file
+     * @return parser, or null if format is not text format
+     */
+    static GraphParser forFormat(FileFormat format) {
+        switch (format) {
+            case EDGE_LIST:
+                return new EdgeListParser();
+            case DOT:
+                return new DotParser();
+            case GRAPHML:
+                return new GraphMLParser();
+            default:
+                return null;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.editorgrafov.io;
+
+/**
+ * Receiver of vertices and edges, that are found by GraphParser
+ * - vertices are identified by key from file (e.g. node id in GraphML), which can differ from label
+ * - edge can reference key, that was not reported by vertex() yet, such vertex is created with key as label
+ */
+public interface ImportHandler {
+
+    /**
+     * @param key of vertex in file
+     * @param label value of vertex
+     * @param x coordinate of vertex, or NaN if file does not contain it
+     * @param y coordinate of vertex, or NaN if file does not contain it
+     */
+    void vertex(String key, String label, double x, double y);
+
+    /**
+     * @param fromKey key of source vertex
+     * @param toKey key of destination vertex
+     */
+    void edge(String fromKey, String toKey);
+}
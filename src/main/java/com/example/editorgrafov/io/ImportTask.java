@@ -0,0 +1,253 @@
+package com.example.editorgrafov.io;
+
+import com.example.editorgrafov.GraphModel;
+import javafx.concurrent.Task;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Task, which parses text graph file in background thread and passes it to model in batches
+ * - parser fills batches of vertices and edges and puts them into bounded queue,
+ *   so parsing waits, when model can not keep up with it (memory stays bounded)
+ * - batches are moved into model by drain(), which is called from JavaFX application thread once per pulse
+ * - vertices without coordinates in file are placed randomly into given area
+ * - progress of task is number of bytes of file read so far
+ */
+public class ImportTask extends Task<Integer> {
+
+    private static final int batchSize = 4096;
+    private static final int queueCapacity = 16;
+
+    private final GraphParser parser;
+    private final Path path;
+    private final double width;
+    private final double height;
+    private final BlockingQueue<Batch> batches = new ArrayBlockingQueue<>(queueCapacity);
+
+    //used only in JavaFX application thread
+    private int[] modelIds = new int[batchSize];
+    private int appliedVertices;
+
+    /**
+     * Constructor of ImportTask
+     * @param parser of format of file
+     * @param path of file
+     * @param width of area, where vertices without coordinates are placed
+     * @param height of area, where vertices without coordinates are placed
+     */
+    public ImportTask(GraphParser parser, Path path, double width, double height) {
+        this.parser = parser;
+        this.path = path;
+        this.width = width;
+        this.height = height;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * Method that returns number of vertices already moved into model
+     * @return number of vertices
+     */
+    public int getAppliedVertices() {
+        return appliedVertices;
+    }
+
+    @Override
+    protected Integer call() throws IOException {
+        updateMessage("Importing " + path.getFileName());
+        long size = Files.size(path);
+        try (CountingInputStream in = new CountingInputStream(Files.newInputStream(path))) {
+            Collector collector = new Collector(in, size);
+            parser.parse(in, collector);
+            collector.publish();
+            updateProgress(size, size);
+            return collector.keys.size();
+        }
+    }
+
+    /**
+     * Method that moves parsed batches into model, it has to be called from JavaFX application thread
+     * @param model where vertices and edges are added
+     * @param budgetNanos how long it can take, at least one batch is moved (if there is any)
+     * @return true iff task is done and every batch was moved into model
+     */
+    public boolean drain(GraphModel model, long budgetNanos) {
+        long deadline = System.nanoTime() + budgetNanos;
+        Batch batch;
+        //view is refreshed once per drain, not after every vertex
+        model.beginTransaction();
+        try {
+            while ((batch = batches.poll()) != null) {
+                apply(batch, model);
+                if (System.nanoTime() >= deadline) {
+                    break;
+                }
+            }
+        }
+        finally {
+            model.endTransaction();
+        }
+        return isDone() && batches.isEmpty();
+    }
+
+    private void apply(Batch batch, GraphModel model) {
+        if (appliedVertices + batch.vertexCount > modelIds.length) {
+            modelIds = Arrays.copyOf(modelIds, Math.max(appliedVertices + batch.vertexCount, modelIds.length << 1));
+        }
+        for (int i = 0; i < batch.vertexCount; i++) {
+            modelIds[appliedVertices++] = model.addVertex(batch.labels[i], batch.x[i], batch.y[i]);
+        }
+        for (int i = 0; i < batch.edgeCount; i++) {
+            model.addEdge(modelIds[batch.from[i]], modelIds[batch.to[i]]);
+        }
+    }
+
+    /**
+     * Vertices and edges parsed since previous batch, edges reference vertices by order of first appearance in file
+     */
+    private static class Batch {
+        //one call of handler adds at most 2 vertices
+        private final String[] labels = new String[batchSize + 2];
+        private final double[] x = new double[batchSize + 2];
+        private final double[] y = new double[batchSize + 2];
+        private final int[] from = new int[batchSize];
+        private final int[] to = new int[batchSize];
+        private int vertexCount;
+        private int edgeCount;
+
+        boolean isFull() {
+            return vertexCount >= batchSize || edgeCount >= batchSize;
+        }
+
+        boolean isEmpty() {
+            return vertexCount == 0 && edgeCount == 0;
+        }
+    }
+
+    /**
+     * Handler, which assigns indices to keys of vertices and fills batches (runs in background thread)
+     */
+    private class Collector implements ImportHandler {
+        private final Map<String, Integer> keys = new HashMap<>();
+        private final Random random = new Random();
+        private final CountingInputStream in;
+        private final long size;
+        private Batch batch = new Batch();
+
+        Collector(CountingInputStream in, long size) {
+            this.in = in;
+            this.size = size;
+        }
+
+        @Override
+        public void vertex(String key, String label, double x, double y) {
+            if (!keys.containsKey(key)) {
+                addVertex(key, label, x, y);
+                publishIfFull();
+            }
+        }
+
+        @Override
+        public void edge(String fromKey, String toKey) {
+            int from = index(fromKey);
+            int to = index(toKey);
+            batch.from[batch.edgeCount] = from;
+            batch.to[batch.edgeCount] = to;
+            batch.edgeCount++;
+            publishIfFull();
+        }
+
+        private int index(String key) {
+            Integer index = keys.get(key);
+            return index != null ? index : addVertex(key, key, Double.NaN, Double.NaN);
+        }
+
+        private int addVertex(String key, String label, double x, double y) {
+            int index = keys.size();
+            keys.put(key, index);
+            batch.labels[batch.vertexCount] = label;
+            batch.x[batch.vertexCount] = Double.isNaN(x) ? random.nextDouble() * width : x;
+            batch.y[batch.vertexCount] = Double.isNaN(y) ? random.nextDouble() * height : y;
+            batch.vertexCount++;
+            return index;
+        }
+
+        private void publishIfFull() {
+            if (batch.isFull()) {
+                publish();
+            }
+        }
+
+        /**
+         * Method that puts current batch into queue, it waits if queue is full
+         * @throws CancellationException iff task was cancelled
+         */
+        void publish() {
+            if (isCancelled()) {
+                throw new CancellationException();
+            }
+            if (batch.isEmpty()) {
+                return;
+            }
+            try {
+                batches.put(batch);
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CancellationException();
+            }
+            batch = new Batch();
+            updateProgress(in.count, size);
+            updateMessage("Importing " + path.getFileName() + " (" + keys.size() + " vertices)");
+        }
+    }
+
+    /**
+     * Stream, which counts bytes read from it
+     */
+    private static class CountingInputStream extends FilterInputStream {
+        private long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int read = super.read(b, off, len);
+            if (read > 0) {
+                count += read;
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+    }
+}
@@ -0,0 +1,660 @@
+package com.example.editorgrafov.io;
+
+import com.example.editorgrafov.Graph;
+import com.example.editorgrafov.GraphModel;
+import com.example.editorgrafov.GraphModelListener;
+import com.example.editorgrafov.hierarchy.Hierarchy;
+import com.example.editorgrafov.hierarchy.HierarchyListener;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.DirectoryStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Append-only journal of changes of model (write-ahead log), which is kept next to file of session
+ * - every change of model is appended as small binary record, so after crash it can be replayed over last saved file
+ * - records are buffered, buffer is written by write() (called periodically) or when it is full
+ * - after file of session is saved, records included in saved snapshot are dropped by checkpoint()
+ * - replaying is idempotent (ids of vertices are never reused), so record already included in file does no harm
+ * - journal is locked while it is open, so other running instance does not replay or delete it,
+ *   every untitled session has its own journal and every process its own marker of session
+ * - records are written by thread of model, force() (fsync) can be called from other thread, so it does not block it
+ * - collapse and expand are recorded as one record (changes of model made by them are not recorded),
+ *   file of session contains flattened graph, so mark() records collapse of every current supervertex after mark
+ *   and journal kept by checkpoint() rebuilds hierarchy over saved file
+ *
+ * Format (little-endian): magic, version, records
+ * - ADD_VERTEX id x y labelLength label (UTF-8), REMOVE_VERTEX id, MOVE_VERTEX id x y
+ * - ADD_EDGE from to, REMOVE_EDGE from to, CLEAR
+ * - COLLAPSE id labelLength label (UTF-8) memberCount members, EXPAND id
+ */
+public class Journal implements GraphModelListener, HierarchyListener, Closeable {
+
+    public static final String extension = "journal";
+
+    private static final int magic = 0x4A524746;
+    //version 2 added COLLAPSE and EXPAND, journals of version 1 are still replayed
+    private static final int version = 2;
+    private static final int headerSize = 8;
+    private static final int bufferSize = 1 << 16;
+
+    private static final byte addVertex = 1;
+    private static final byte removeVertex = 2;
+    private static final byte moveVertex = 3;
+    private static final byte addEdge = 4;
+    private static final byte removeEdge = 5;
+    private static final byte clear = 6;
+    private static final byte collapse = 7;
+    private static final byte expand = 8;
+
+    private static final Path sessionDirectory = Paths.get(System.getProperty("user.home"), ".editor-grafov");
+    private static final String markerPrefix = "session";
+    private static final String untitledPrefix = "untitled";
+    private static final long pid = ProcessHandle.current().pid();
+    private static final Path sessionMarker = sessionDirectory.resolve(markerPrefix + "-" + pid);
+
+    private final GraphModel model;
+    private final Hierarchy hierarchy;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(bufferSize).order(ByteOrder.LITTLE_ENDIAN);
+    private Path path;
+    //channel is replaced by checkpoint() while force() can run in other thread
+    private volatile FileChannel channel;
+    private volatile IOException failure;
+
+    /**
+     * Constructor of Journal, it opens existing journal (records are kept for replay()) or creates new one
+     * @param model which is journaled, journal has to be added as its listener after replay()
+     * @param hierarchy of model, journal has to be added as its listener after replay() as well
+     * @param path of journal
+     * @throws IOException iff journal can not be opened or existing file is not journal
+     */
+    public Journal(GraphModel model, Hierarchy hierarchy, Path path) throws IOException {
+        this.model = model;
+        this.hierarchy = hierarchy;
+        this.path = path;
+        Files.createDirectories(path.toAbsolutePath().getParent());
+        channel = openLocked(path);
+        if (channel.size() < headerSize) {
+            writeHeader(channel);
+        }
+        else {
+            ByteBuffer header = ByteBuffer.allocate(headerSize).order(ByteOrder.LITTLE_ENDIAN);
+            channel.read(header, 0);
+            if (header.getInt(0) != magic || header.getInt(4) < 1 || header.getInt(4) > version) {
+                channel.close();
+                throw new IOException("File " + path + " is not journal of graph editor");
+            }
+        }
+        channel.position(channel.size());
+    }
+
+    /**
+     * Method that returns location of journal of session saved in file
+     * @param file of session
+     * @return path next to file
+     */
+    public static Path locate(Path file) {
+        return file.resolveSibling(file.getFileName() + "." + extension);
+    }
+
+    /**
+     * Method that creates new empty journal for untitled session in user's home directory
+     * @return path of new journal, no other session uses it
+     * @throws IOException iff journal can not be created
+     */
+    public static Path createUntitled() throws IOException {
+        Files.createDirectories(sessionDirectory);
+        return Files.createTempFile(sessionDirectory, untitledPrefix + "-", "." + extension);
+    }
+
+    /**
+     * Method that returns file of session, whose journal is on given path
+     * @param journal path of journal
+     * @return file of session, or null if journal belongs to untitled session
+     */
+    public static Path sessionFile(Path journal) {
+        String name = journal.getFileName().toString();
+        if (name.startsWith(untitledPrefix) && sessionDirectory.equals(journal.toAbsolutePath().getParent())) {
+            return null;
+        }
+        return journal.resolveSibling(name.substring(0, name.length() - extension.length() - 1));
+    }
+
+    /**
+     * Method that remembers journal of running session, marker (one per process) stays on disk if application crashes
+     * @param journal path of journal
+     * @throws IOException iff marker can not be written
+     */
+    public static void markSession(Path journal) throws IOException {
+        Files.createDirectories(sessionDirectory);
+        Files.write(sessionMarker, journal.toAbsolutePath().toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Method that removes marker of running session, it is called when application ends cleanly
+     * @throws IOException iff marker can not be deleted
+     */
+    public static void unmarkSession() throws IOException {
+        Files.deleteIfExists(sessionMarker);
+    }
+
+    /**
+     * Method that finds journal of session, which was not ended cleanly
+     * - markers of running processes and journals locked by them are skipped, marker of found session is removed
+     *   (session is taken over by this process), so other instance does not recover it too
+     * @return path of journal with records, or null if no session has to be recovered
+     */
+    public static Path findUncleanSession() {
+        if (!Files.isDirectory(sessionDirectory)) {
+            return null;
+        }
+        try (DirectoryStream<Path> markers = Files.newDirectoryStream(sessionDirectory, markerPrefix + "*")) {
+            for (Path marker : markers) {
+                if (marker.equals(sessionMarker) || isRunning(marker)) {
+                    continue;
+                }
+                try {
+                    Path journal = Paths.get(new String(Files.readAllBytes(marker), StandardCharsets.UTF_8));
+                    if (Files.exists(journal) && Files.size(journal) > headerSize && !isLocked(journal)) {
+                        Files.delete(marker);
+                        return journal;
+                    }
+                    //session ended, but its process did not remove marker
+                    if (!Files.exists(journal)) {
+                        Files.delete(marker);
+                    }
+                }
+                catch (IOException | RuntimeException e) {
+                    //marker can not be read, other markers are tried
+                }
+            }
+        }
+        catch (IOException e) {
+            return null;
+        }
+        return null;
+    }
+
+    /**
+     * @return true iff process, which wrote marker, is still running
+     */
+    private static boolean isRunning(Path marker) {
+        String name = marker.getFileName().toString();
+        try {
+            long markerPid = Long.parseLong(name.substring(markerPrefix.length() + 1));
+            return ProcessHandle.of(markerPid).map(ProcessHandle::isAlive).orElse(false);
+        }
+        catch (RuntimeException e) {
+            //marker without pid (older version)
+            return false;
+        }
+    }
+
+    private static boolean isLocked(Path journal) {
+        try (FileChannel channel = FileChannel.open(journal, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            FileLock lock = channel.tryLock();
+            if (lock == null) {
+                return true;
+            }
+            lock.release();
+            return false;
+        }
+        catch (OverlappingFileLockException e) {
+            return true;
+        }
+        catch (IOException e) {
+            return true;
+        }
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * Method that returns size of journal including records, which are not written yet
+     * @return size in bytes
+     */
+    public long size() throws IOException {
+        return channel.size() + buffer.position();
+    }
+
+    /**
+     * Method that returns whether journal contains any record
+     * @return true iff there is record since creation or last checkpoint
+     */
+    public boolean hasRecords() throws IOException {
+        return size() > headerSize;
+    }
+
+    /**
+     * Method that applies every record of journal to model
+     * - journal must not be listener of model yet, otherwise records would be written again
+     * - incomplete record at the end (crash during writing) is cut off
+     * @return number of replayed records
+     * @throws IOException iff journal can not be read
+     */
+    public int replay() throws IOException {
+        long size = channel.size();
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Journal " + path + " is too big");
+        }
+        ByteBuffer records = ByteBuffer.allocate((int) size - headerSize).order(ByteOrder.LITTLE_ENDIAN);
+        while (records.hasRemaining() && channel.read(records, headerSize + records.position()) > 0) {
+            //read whole journal
+        }
+        records.flip();
+        int count = 0;
+        int complete = 0;
+        model.beginTransaction();
+        try {
+            while (records.hasRemaining() && replayRecord(records)) {
+                complete = records.position();
+                count++;
+            }
+        }
+        finally {
+            model.endTransaction();
+        }
+        if (headerSize + complete < size) {
+            channel.truncate(headerSize + complete);
+        }
+        channel.position(channel.size());
+        return count;
+    }
+
+    /**
+     * @return false iff record is incomplete or damaged, nothing is applied then
+     */
+    private boolean replayRecord(ByteBuffer records) {
+        byte type = records.get();
+        switch (type) {
+            case addVertex:
+                if (records.remaining() < 24) {
+                    return false;
+                }
+                int id = records.getInt();
+                double x = records.getDouble();
+                double y = records.getDouble();
+                int length = records.getInt();
+                if (id < 0 || length < 0 || length > records.remaining()) {
+                    return false;
+                }
+                byte[] label = new byte[length];
+                records.get(label);
+                if (!model.isAlive(id)) {
+                    model.addVertex(id, new String(label, StandardCharsets.UTF_8), x, y);
+                }
+                return true;
+            case removeVertex:
+                if (records.remaining() < 4) {
+                    return false;
+                }
+                model.removeVertex(records.getInt());
+                return true;
+            case moveVertex:
+                if (records.remaining() < 20) {
+                    return false;
+                }
+                id = records.getInt();
+                x = records.getDouble();
+                y = records.getDouble();
+                if (model.isAlive(id)) {
+                    model.moveVertex(id, x, y);
+                }
+                return true;
+            case addEdge:
+            case removeEdge:
+                if (records.remaining() < 8) {
+                    return false;
+                }
+                int from = records.getInt();
+                int to = records.getInt();
+                if (!model.isAlive(from) || !model.isAlive(to)) {
+                    return true;
+                }
+                if (type == removeEdge) {
+                    model.removeEdge(from, to);
+                }
+                else {
+                    model.addEdge(from, to);
+                }
+                return true;
+            case clear:
+                model.clear();
+                return true;
+            case collapse:
+                if (records.remaining() < 8) {
+                    return false;
+                }
+                id = records.getInt();
+                length = records.getInt();
+                if (id < 0 || length < 0 || length > records.remaining() - 4) {
+                    return false;
+                }
+                label = new byte[length];
+                records.get(label);
+                int count = records.getInt();
+                if (count < 0 || count > records.remaining() / 4) {
+                    return false;
+                }
+                int[] members = new int[count];
+                for (int i = 0; i < count; i++) {
+                    members[i] = records.getInt();
+                }
+                try {
+                    hierarchy.collapse(id, members, new String(label, StandardCharsets.UTF_8));
+                }
+                catch (IllegalArgumentException e) {
+                    //collapse is already included in file (record after mark) or some member is gone
+                }
+                return true;
+            case expand:
+                if (records.remaining() < 4) {
+                    return false;
+                }
+                id = records.getInt();
+                if (hierarchy.isSupervertex(id)) {
+                    hierarchy.expand(id);
+                }
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    @Override
+    public void vertexAdded(int id) {
+        byte[] label = model.getLabel(id).getBytes(StandardCharsets.UTF_8);
+        if (reserve(25 + label.length)) {
+            buffer.put(addVertex).putInt(id).putDouble(model.getX(id)).putDouble(model.getY(id)).putInt(label.length);
+            putLarge(label);
+        }
+    }
+
+    @Override
+    public void vertexRemoved(int id, String label) {
+        if (reserve(5)) {
+            buffer.put(removeVertex).putInt(id);
+        }
+    }
+
+    @Override
+    public void vertexMoved(int id, double oldX, double oldY) {
+        if (reserve(21)) {
+            buffer.put(moveVertex).putInt(id).putDouble(model.getX(id)).putDouble(model.getY(id));
+        }
+    }
+
+    @Override
+    public void edgeAdded(int from, int to) {
+        if (reserve(9)) {
+            buffer.put(addEdge).putInt(from).putInt(to);
+        }
+    }
+
+    @Override
+    public void edgeRemoved(int from, int to) {
+        if (reserve(9)) {
+            buffer.put(removeEdge).putInt(from).putInt(to);
+        }
+    }
+
+    @Override
+    public void graphCleared() {
+        if (reserve(1)) {
+            buffer.put(clear);
+        }
+    }
+
+    @Override
+    public void collapsed(int id, int[] members, String label) {
+        byte[] bytes = label.getBytes(StandardCharsets.UTF_8);
+        if (reserve(9 + bytes.length)) {
+            buffer.put(collapse).putInt(id).putInt(bytes.length);
+            putLarge(bytes);
+            putInt(members.length);
+            for (int member : members) {
+                putInt(member);
+            }
+        }
+    }
+
+    @Override
+    public void expanded(int id) {
+        if (reserve(5)) {
+            buffer.put(expand).putInt(id);
+        }
+    }
+
+    /**
+     * Loaded graph is written as if its vertices and edges were added one by one, so replay does not need its source
+     */
+    @Override
+    public void graphLoaded() {
+        Graph graph = model.getGraph();
+        for (int id = 0; id < model.getCapacity(); id++) {
+            if (model.isAlive(id)) {
+                vertexAdded(id);
+            }
+        }
+        for (int id = 0; id < model.getCapacity(); id++) {
+            if (model.isAlive(id)) {
+                for (int destination : graph.outgoingEdgesDestinations(id)) {
+                    edgeAdded(id, destination);
+                }
+            }
+        }
+    }
+
+    /**
+     * Method that makes room for record in buffer
+     * - listener can not throw IOException, so first failure is kept and thrown by next write()
+     * @return false iff journal failed before, record is not written then
+     */
+    private boolean reserve(int length) {
+        //changes of model made by collapse or expand are recorded by collapsed() or expanded()
+        if (failure != null || hierarchy.isUpdating()) {
+            return false;
+        }
+        if (buffer.remaining() < Math.min(length, bufferSize)) {
+            try {
+                flush();
+            }
+            catch (IOException e) {
+                failure = e;
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Method that puts int into buffer, buffer is written first if it is full (record can be longer than buffer)
+     */
+    private void putInt(int value) {
+        if (buffer.remaining() >= 4 || reserve(bufferSize)) {
+            buffer.putInt(value);
+        }
+    }
+
+    /**
+     * Method that puts bytes into buffer, label longer than buffer is written in parts
+     */
+    private void putLarge(byte[] bytes) {
+        int offset = 0;
+        while (offset < bytes.length) {
+            if (!buffer.hasRemaining() && !reserve(bufferSize)) {
+                return;
+            }
+            int length = Math.min(buffer.remaining(), bytes.length - offset);
+            buffer.put(bytes, offset, length);
+            offset += length;
+        }
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Method that writes buffered records into file, they are forced to disk by force()
+     * @throws IOException iff journal could not be written (now, in some listener method or in force() before)
+     */
+    public void write() throws IOException {
+        if (failure != null) {
+            throw failure;
+        }
+        if (buffer.position() > 0) {
+            flush();
+        }
+    }
+
+    /**
+     * Method that forces written records to disk, it can be called from other thread than the one writing records
+     * - failure is kept and thrown by next write()
+     */
+    public void force() {
+        try {
+            channel.force(false);
+        }
+        catch (ClosedChannelException e) {
+            //journal was closed or replaced by checkpoint meanwhile, new journal is forced by checkpoint itself
+        }
+        catch (IOException e) {
+            failure = e;
+        }
+    }
+
+    /**
+     * Method that marks current end of journal, it is called when snapshot for saving is taken
+     * - saved snapshot is flattened, so collapse of every current supervertex is recorded after mark
+     * @return position, which is passed to checkpoint() after snapshot is saved
+     * @throws IOException iff buffered records could not be written
+     */
+    public long mark() throws IOException {
+        write();
+        long position = channel.size();
+        hierarchy.reportCollapsed(this);
+        return position;
+    }
+
+    /**
+     * Method that drops records before mark, because they are already saved in file of session
+     * - records written after mark are copied into new journal, which atomically replaces old one
+     * @param position returned by mark() when saved snapshot was taken
+     * @param target new location of journal (file of session can change by "Save As")
+     * @throws IOException iff new journal could not be written
+     */
+    public void checkpoint(long position, Path target) throws IOException {
+        write();
+        if (!target.equals(path) && Files.exists(target) && isLocked(target)) {
+            throw new IOException("Journal " + target + " is used by another session");
+        }
+        Path temp = Files.createTempFile(target.toAbsolutePath().getParent(), "journal", ".tmp");
+        try {
+            try (FileChannel copy = open(temp)) {
+                writeHeader(copy);
+                long end = channel.size();
+                while (position < end) {
+                    position += channel.transferTo(position, end - position, copy);
+                }
+                copy.force(true);
+            }
+            channel.close();
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            }
+            catch (IOException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+            if (!target.equals(path)) {
+                Files.deleteIfExists(path);
+            }
+            path = target;
+        }
+        finally {
+            Files.deleteIfExists(temp);
+            if (!channel.isOpen()) {
+                channel = openLocked(path);
+                channel.position(channel.size());
+            }
+        }
+    }
+
+    /**
+     * Method that closes and deletes journal, it is used when changes of session are saved or thrown away
+     * @throws IOException iff journal could not be deleted
+     */
+    public void discard() throws IOException {
+        buffer.clear();
+        channel.close();
+        Files.deleteIfExists(path);
+    }
+
+    /**
+     * Method that writes buffered records and closes journal, journal stays on disk
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            if (failure == null && channel.isOpen()) {
+                flush();
+                channel.force(false);
+            }
+        }
+        finally {
+            channel.close();
+        }
+    }
+
+    private static FileChannel open(Path path) throws IOException {
+        return FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    /**
+     * Method that opens journal and locks it for this process
+     * @throws IOException iff journal can not be opened or it is used by other running instance
+     */
+    private static FileChannel openLocked(Path path) throws IOException {
+        FileChannel channel = open(path);
+        FileLock lock;
+        try {
+            lock = channel.tryLock();
+        }
+        catch (OverlappingFileLockException e) {
+            lock = null;
+        }
+        if (lock == null) {
+            channel.close();
+            throw new IOException("Journal " + path + " is used by another session");
+        }
+        return channel;
+    }
+
+    private static void writeHeader(FileChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(headerSize).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(magic).putInt(version).flip();
+        channel.truncate(0);
+        while (header.hasRemaining()) {
+            channel.write(header, headerSize - header.remaining());
+        }
+        channel.position(headerSize);
+    }
+}
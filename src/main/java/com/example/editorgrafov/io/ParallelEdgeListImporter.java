@@ -0,0 +1,265 @@
+package com.example.editorgrafov.io;
+
+import com.example.editorgrafov.AdjacencyList;
+import com.example.editorgrafov.CsrGraph;
+import com.example.editorgrafov.collections.IntList;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.DoubleConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * Importer of big edge lists (same format as EdgeListParser), which uses all cores
+ * - file is split into chunks of bytes, every chunk starts right after end of line
+ * - chunks are memory mapped and parsed in parallel, labels get ids in shared concurrent symbol table
+ * - edges of all chunks are merged straight into CsrGraph by counting sort
+ * - build() turns CsrGraph into AdjacencyList still in background, so model gets whole graph at once
+ */
+public class ParallelEdgeListImporter {
+
+    //smaller edge lists are imported by streaming ImportTask, so they appear progressively
+    public static final long threshold = 32L << 20;
+
+    private static final long maxChunkSize = 16L << 20;
+
+    private final Path path;
+    private final ConcurrentHashMap<String, Integer> symbols = new ConcurrentHashMap<>();
+    private final AtomicInteger nextId = new AtomicInteger();
+    private String[] labels;
+    private CsrGraph graph;
+    private AdjacencyList built;
+    private float[] x;
+    private float[] y;
+
+    public ParallelEdgeListImporter(Path path) {
+        this.path = path;
+    }
+
+    /**
+     * Method that reads whole file
+     * @param cancelled checked regularly, reading stops with CancellationException when it returns true
+     * @param progress called with fraction of chunks parsed so far (from more threads)
+     * @throws IOException iff file can not be read
+     */
+    public void run(BooleanSupplier cancelled, DoubleConsumer progress) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long[] bounds = chunkBounds(channel);
+            int chunks = bounds.length - 1;
+            int[][] from = new int[chunks][];
+            int[][] to = new int[chunks][];
+            AtomicInteger parsed = new AtomicInteger();
+            IOException[] failure = new IOException[1];
+            IntStream.range(0, chunks).parallel().forEach(chunk -> {
+                IntList sources = new IntList(1024);
+                IntList destinations = new IntList(1024);
+                try {
+                    long length = bounds[chunk + 1] - bounds[chunk];
+                    if (length > 0) {
+                        parseChunk(channel.map(FileChannel.MapMode.READ_ONLY, bounds[chunk], length), sources, destinations, cancelled);
+                    }
+                }
+                catch (IOException e) {
+                    failure[0] = e;
+                }
+                from[chunk] = sources.toArray();
+                to[chunk] = destinations.toArray();
+                progress.accept(parsed.incrementAndGet() / (double) chunks);
+            });
+            if (failure[0] != null) {
+                throw failure[0];
+            }
+            if (cancelled.getAsBoolean()) {
+                throw new CancellationException();
+            }
+            int n = nextId.get();
+            labels = new String[n];
+            symbols.forEach((label, id) -> labels[id] = label);
+            graph = CsrGraph.fromEdges(n, from, to);
+        }
+    }
+
+    /**
+     * Method that returns labels of vertices, vertex v has label getLabels()[v]
+     * @return labels, or null if file was not read yet
+     */
+    public String[] getLabels() {
+        return labels;
+    }
+
+    /**
+     * @return graph read from file, or null if file was not read yet
+     */
+    public CsrGraph getGraph() {
+        return graph;
+    }
+
+    /**
+     * Method that places vertices randomly and converts read graph into AdjacencyList, which is installed into model
+     * - CsrGraph is dropped afterwards (getGraph() returns null), so only one copy of edges is kept
+     * @param width of area, where vertices are randomly placed
+     * @param height of area, where vertices are randomly placed
+     */
+    public void build(double width, double height) {
+        int n = labels.length;
+        x = new float[n];
+        y = new float[n];
+        Random random = new Random();
+        for (int v = 0; v < n; v++) {
+            x[v] = (float) (random.nextDouble() * width);
+            y[v] = (float) (random.nextDouble() * height);
+        }
+        built = AdjacencyList.of(graph);
+        graph = null;
+    }
+
+    /**
+     * @return graph made by build(), or null if it was not called yet
+     */
+    public AdjacencyList getBuiltGraph() {
+        return built;
+    }
+
+    public float[] getX() {
+        return x;
+    }
+
+    public float[] getY() {
+        return y;
+    }
+
+    /**
+     * Method that splits file into chunks, every chunk (except first one) starts right after '\n'
+     * @return array, where chunk i consists of bytes bounds[i] ... bounds[i + 1] - 1
+     */
+    private long[] chunkBounds(FileChannel channel) throws IOException {
+        long size = channel.size();
+        int chunks = (int) Math.max(Runtime.getRuntime().availableProcessors() * 4L, (size + maxChunkSize - 1) / maxChunkSize);
+        long[] bounds = new long[chunks + 1];
+        ByteBuffer buffer = ByteBuffer.allocate(1 << 12);
+        for (int i = 1; i < chunks; i++) {
+            long position = Math.max(bounds[i - 1], size / chunks * i);
+            bounds[i] = lineStartAfter(channel, buffer, position, size);
+        }
+        bounds[chunks] = size;
+        return bounds;
+    }
+
+    private static long lineStartAfter(FileChannel channel, ByteBuffer buffer, long position, long size) throws IOException {
+        if (position == 0) {
+            return 0;
+        }
+        //if byte before position is '\n', position itself is start of line
+        position--;
+        while (position < size) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    private void parseChunk(MappedByteBuffer chunk, IntList sources, IntList destinations, BooleanSupplier cancelled) {
+        int limit = chunk.limit();
+        byte[] scratch = new byte[64];
+        int lines = 0;
+        int i = 0;
+        while (i < limit) {
+            if ((++lines & 0xFFFF) == 0 && cancelled.getAsBoolean()) {
+                throw new CancellationException();
+            }
+            i = skipSeparators(chunk, i, limit);
+            if (i == limit) {
+                break;
+            }
+            byte b = chunk.get(i);
+            if (b == '\n') {
+                i++;
+                continue;
+            }
+            if (b == '#' || b == '%') {
+                i = skipLine(chunk, i, limit);
+                continue;
+            }
+            int end = skipValue(chunk, i, limit);
+            scratch = ensureScratch(scratch, end - i);
+            int from = symbol(chunk, i, end, scratch);
+            i = skipSeparators(chunk, end, limit);
+            if (i < limit && chunk.get(i) != '\n') {
+                end = skipValue(chunk, i, limit);
+                scratch = ensureScratch(scratch, end - i);
+                int to = symbol(chunk, i, end, scratch);
+                sources.add(from);
+                destinations.add(to);
+                i = end;
+            }
+            i = skipLine(chunk, i, limit);
+        }
+    }
+
+    private int symbol(MappedByteBuffer chunk, int start, int end, byte[] scratch) {
+        for (int i = start; i < end; i++) {
+            scratch[i - start] = chunk.get(i);
+        }
+        String label = new String(scratch, 0, end - start, StandardCharsets.UTF_8);
+        Integer id = symbols.get(label);
+        if (id == null) {
+            id = symbols.computeIfAbsent(label, key -> nextId.getAndIncrement());
+        }
+        return id;
+    }
+
+    private static byte[] ensureScratch(byte[] scratch, int length) {
+        return length <= scratch.length ? scratch : new byte[Math.max(length, scratch.length << 1)];
+    }
+
+    private static boolean isSeparator(byte b) {
+        return b == ' ' || b == ',' || b == ';' || b == '\t' || b == '\r' || b == '\f' || b == 0x0B;
+    }
+
+    private static int skipSeparators(MappedByteBuffer chunk, int i, int limit) {
+        while (i < limit && isSeparator(chunk.get(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private static int skipValue(MappedByteBuffer chunk, int i, int limit) {
+        while (i < limit) {
+            byte b = chunk.get(i);
+            if (b == '\n' || isSeparator(b)) {
+                break;
+            }
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * @return index right after next '\n' (or limit)
+     */
+    private static int skipLine(MappedByteBuffer chunk, int i, int limit) {
+        while (i < limit && chunk.get(i) != '\n') {
+            i++;
+        }
+        return Math.min(i + 1, limit);
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.editorgrafov.io;
+
+import javafx.concurrent.Task;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Task, which reads big edge list by ParallelEdgeListImporter in background
+ * - graph is built in background as well and installed into model at once, when whole file is read
+ * - progress of task is fraction of chunks of file parsed so far
+ */
+public class ParallelImportTask extends Task<ParallelEdgeListImporter> {
+
+    private final Path path;
+    private final double width;
+    private final double height;
+
+    /**
+     * Constructor of ParallelImportTask
+     * @param path of edge list
+     * @param width of area, where vertices are placed
+     * @param height of area, where vertices are placed
+     */
+    public ParallelImportTask(Path path, double width, double height) {
+        this.path = path;
+        this.width = width;
+        this.height = height;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    @Override
+    protected ParallelEdgeListImporter call() throws IOException {
+        updateMessage("Importing " + path.getFileName());
+        ParallelEdgeListImporter importer = new ParallelEdgeListImporter(path);
+        importer.run(this::isCancelled, progress -> updateProgress(progress, 1));
+        updateMessage("Importing " + path.getFileName() + " (" + importer.getLabels().length + " vertices)");
+        importer.build(width, height);
+        return importer;
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.editorgrafov.io;
+
+import com.example.editorgrafov.GraphSnapshot;
+import javafx.concurrent.Task;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Task, which saves snapshot of graph in background thread
+ * - snapshot is written into temporary file in the same directory as target,
+ *   forced to disk and then renamed over target, so target is never left half written
+ * - progress of task is fraction of file written so far
+ */
+public class SaveTask extends Task<Path> {
+
+    private final GraphSnapshot snapshot;
+    private final Path target;
+
+    /**
+     * Constructor of SaveTask
+     * @param snapshot of graph to be saved, it must not be modified during saving
+     * @param target file, where graph is saved
+     */
+    public SaveTask(GraphSnapshot snapshot, Path target) {
+        this.snapshot = snapshot;
+        this.target = target.toAbsolutePath();
+    }
+
+    public Path getTarget() {
+        return target;
+    }
+
+    @Override
+    protected Path call() throws IOException {
+        updateMessage("Saving " + target.getFileName());
+        Path temporary = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                GraphFile.write(snapshot, channel, progress -> updateProgress(progress, 1));
+                channel.force(true);
+            }
+            try {
+                Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            }
+            catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        finally {
+            Files.deleteIfExists(temporary);
+        }
+        updateMessage("Saved " + target.getFileName());
+        return target;
+    }
+}
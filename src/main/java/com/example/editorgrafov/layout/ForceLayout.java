@@ -0,0 +1,482 @@
+package com.example.editorgrafov.layout;
+
+import com.example.editorgrafov.Graph;
+import com.example.editorgrafov.GraphModel;
+import com.example.editorgrafov.algorithms.Chunk;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Force-directed layout (Fruchterman-Reingold) over primitive arrays
+ * - vertices repel each other with force k^2 / d, edges attract their vertices with force d^2 / k (k = ideal distance)
+ * - repulsion is approximated by Barnes-Hut quadtree (distant groups of vertices act as one body), so step takes O(n log n)
+ * - forces and new positions of vertices are computed in parallel on ForkJoinPool, every vertex writes only its own cells
+ * - movement of vertex in one step is limited by temperature, which cools down linearly to zero
+ * - weak gravity pulls vertices towards center, so components of graph do not drift away from each other
+ * - layout works with local indices 0 ... n-1, ids of vertices in model are kept in getIds()
+ * - fixed vertices keep their positions (e.g. ones reused from LayoutCache), only the rest of graph is laid out
+ */
+public class ForceLayout {
+
+    private static final double theta = 1.0;
+    private static final double gravity = 0.01;
+    private static final double minDistance = 0.01;
+    private static final int grain = 512;
+    private static final int maxDepth = 48;
+    private static final int empty = -1;
+    private static final int internal = -2;
+    private static final int multiple = -3;
+
+    private final int n;
+    private final int[] ids;
+    private final double[] x;
+    private final double[] y;
+    private final double[] dispX;
+    private final double[] dispY;
+    private final int[] offsets;
+    private final int[] neighbors;
+    private double k = 90;
+    private int iterations;
+    private int iteration;
+    private double temperature;
+    private double initialTemperature;
+    private boolean[] fixed;
+
+    //Barnes-Hut tree, rebuilt in every step
+    private int nodeCount;
+    private double[] nodeCenterX = new double[64];
+    private double[] nodeCenterY = new double[64];
+    private double[] nodeHalfSize = new double[64];
+    private double[] nodeMass = new double[64];
+    private double[] nodeSumX = new double[64];
+    private double[] nodeSumY = new double[64];
+    private int[] nodeBody = new int[64];
+    private int[] nodeChildren = new int[256];
+    private final int[] leafOf;
+    //vertices ordered by leaves of tree, so neighboring threads and steps of loop traverse similar parts of tree
+    private final int[] order;
+    private int[] leafStart = new int[65];
+    private int[] nodeRank = new int[64];
+    //stack of traversal of tree, one for every thread of pool
+    private final ThreadLocal<int[]> stacks = ThreadLocal.withInitial(() -> new int[maxDepth * 3 + 4]);
+
+    /**
+     * Constructor of ForceLayout
+     * @param ids of vertices in model, vertex with local index i has id ids[i]
+     * @param x coordinates of vertices (array is used and modified by layout)
+     * @param y coordinates of vertices (array is used and modified by layout)
+     * @param offsets neighbors of vertex i are neighbors[offsets[i]] ... neighbors[offsets[i + 1] - 1]
+     * @param neighbors local indices of neighbors (edges are treated as undirected, both directions should be present)
+     */
+    public ForceLayout(int[] ids, double[] x, double[] y, int[] offsets, int[] neighbors) {
+        this.n = ids.length;
+        this.ids = ids;
+        this.x = x;
+        this.y = y;
+        this.offsets = offsets;
+        this.neighbors = neighbors;
+        dispX = new double[n];
+        dispY = new double[n];
+        leafOf = new int[n];
+        order = new int[n];
+        iterations = defaultIterations(n);
+        restart();
+    }
+
+    /**
+     * Method that copies alive vertices and edges of model into new layout, it has to be called from thread owning model
+     * @param model of graph
+     * @return layout of whole model, starting from current coordinates
+     */
+    public static ForceLayout of(GraphModel model) {
+        int capacity = model.getCapacity();
+        int[] local = new int[capacity];
+        int n = model.getNumberOfVertices();
+        int[] ids = new int[n];
+        double[] x = new double[n];
+        double[] y = new double[n];
+        int count = 0;
+        for (int id = 0; id < capacity; id++) {
+            if (model.isAlive(id)) {
+                local[id] = count;
+                ids[count] = id;
+                x[count] = model.getX(id);
+                y[count] = model.getY(id);
+                count++;
+            }
+        }
+        Graph graph = model.getGraph();
+        int[] degree = new int[n];
+        for (int i = 0; i < n; i++) {
+            for (int destination : graph.outgoingEdgesDestinations(ids[i])) {
+                if (destination != ids[i]) {
+                    degree[i]++;
+                    degree[local[destination]]++;
+                }
+            }
+        }
+        int[] offsets = new int[n + 1];
+        for (int i = 0; i < n; i++) {
+            offsets[i + 1] = offsets[i] + degree[i];
+        }
+        int[] position = Arrays.copyOf(offsets, n);
+        int[] neighbors = new int[offsets[n]];
+        for (int i = 0; i < n; i++) {
+            for (int destination : graph.outgoingEdgesDestinations(ids[i])) {
+                if (destination != ids[i]) {
+                    int j = local[destination];
+                    neighbors[position[i]++] = j;
+                    neighbors[position[j]++] = i;
+                }
+            }
+        }
+        return new ForceLayout(ids, x, y, offsets, neighbors);
+    }
+
+    /**
+     * Method that sets ideal distance between neighboring vertices
+     * @param distance ideal length of edge
+     */
+    public void setIdealDistance(double distance) {
+        k = distance;
+        restart();
+    }
+
+    /**
+     * Method that sets number of steps of layout
+     * @param iterations number of steps
+     */
+    public void setIterations(int iterations) {
+        this.iterations = iterations;
+        restart();
+    }
+
+    /**
+     * Method that returns default number of steps, big graphs get fewer steps (they start spread by spreadOut())
+     * @param n number of vertices
+     * @return number of steps
+     */
+    public static int defaultIterations(int n) {
+        return Math.max(60, Math.min(300, 6_000_000 / Math.max(n, 1)));
+    }
+
+    private void restart() {
+        iteration = 0;
+        initialTemperature = k * Math.sqrt(Math.max(n, 1)) / 10;
+        temperature = initialTemperature;
+    }
+
+    /**
+     * Method that fixes vertices, they keep their positions, but they still act on other vertices
+     * - positions are taken as they are (they are not spread out before first step)
+     * @param fixed fixed[i] is true iff vertex i does not move, or null if every vertex moves
+     */
+    public void setFixed(boolean[] fixed) {
+        this.fixed = fixed;
+    }
+
+    /**
+     * Method that sets how far vertex can move in first step (it decreases linearly to zero)
+     * @param temperature maximal movement in first step
+     */
+    public void setInitialTemperature(double temperature) {
+        initialTemperature = temperature;
+        this.temperature = temperature * (1 - (double) iteration / iterations);
+    }
+
+    public double getIdealDistance() {
+        return k;
+    }
+
+    public int[] getOffsets() {
+        return offsets;
+    }
+
+    public int[] getNeighbors() {
+        return neighbors;
+    }
+
+    public int[] getIds() {
+        return ids;
+    }
+
+    public double[] getX() {
+        return x;
+    }
+
+    public double[] getY() {
+        return y;
+    }
+
+    public int getIteration() {
+        return iteration;
+    }
+
+    public int getIterations() {
+        return iterations;
+    }
+
+    public boolean isDone() {
+        return iteration >= iterations || n < 2;
+    }
+
+    /**
+     * Method that makes one step of layout
+     * @param pool where forces are computed
+     */
+    public void step(ForkJoinPool pool) {
+        if (isDone()) {
+            return;
+        }
+        if (iteration == 0 && fixed == null) {
+            spreadOut();
+        }
+        buildTree();
+        double centerX = nodeSumX[0] / n;
+        double centerY = nodeSumY[0] / n;
+        double limit = temperature;
+        pool.invoke(new Chunk(0, n, index -> {
+            int i = order[index];
+            if (fixed != null && fixed[i]) {
+                dispX[i] = 0;
+                dispY[i] = 0;
+                return;
+            }
+            force(i, centerX, centerY);
+            double length = Math.sqrt(dispX[i] * dispX[i] + dispY[i] * dispY[i]);
+            if (length > 0) {
+                double move = Math.min(length, limit) / length;
+                dispX[i] *= move;
+                dispY[i] *= move;
+            }
+        }, grain));
+        pool.invoke(new Chunk(0, n, i -> {
+            x[i] += dispX[i];
+            y[i] += dispY[i];
+        }, grain));
+        iteration++;
+        temperature = initialTemperature * (1 - (double) iteration / iterations);
+    }
+
+    /**
+     * Method that computes displacement of vertex (repulsion from tree, attraction of neighbors, gravity)
+     */
+    private void force(int i, double centerX, double centerY) {
+        double fx = 0;
+        double fy = 0;
+        double xi = x[i];
+        double yi = y[i];
+        double k2 = k * k;
+        int[] stack = stacks.get();
+        int top = 0;
+        stack[top++] = 0;
+        while (top > 0) {
+            int node = stack[--top];
+            double mass = nodeMass[node];
+            double sumX = nodeSumX[node];
+            double sumY = nodeSumY[node];
+            boolean leaf = nodeBody[node] != internal;
+            if (leaf && leafOf[i] == node) {
+                //vertex does not repel itself
+                mass--;
+                sumX -= xi;
+                sumY -= yi;
+            }
+            if (mass <= 0) {
+                continue;
+            }
+            double dx = xi - sumX / mass;
+            double dy = yi - sumY / mass;
+            double d2 = dx * dx + dy * dy;
+            double size = 2 * nodeHalfSize[node];
+            if (leaf || size * size < theta * theta * d2) {
+                if (d2 < minDistance * minDistance) {
+                    //vertices on the same place are pushed apart in direction given by their index
+                    dx = minDistance * Math.cos(i);
+                    dy = minDistance * Math.sin(i);
+                    d2 = minDistance * minDistance;
+                }
+                double f = k2 * mass / d2;
+                fx += dx * f;
+                fy += dy * f;
+            }
+            else {
+                for (int q = 0; q < 4; q++) {
+                    int child = nodeChildren[(node << 2) + q];
+                    if (child != empty) {
+                        stack[top++] = child;
+                    }
+                }
+            }
+        }
+        for (int e = offsets[i]; e < offsets[i + 1]; e++) {
+            int j = neighbors[e];
+            double dx = xi - x[j];
+            double dy = yi - y[j];
+            double d = Math.sqrt(dx * dx + dy * dy);
+            fx -= dx * d / k;
+            fy -= dy * d / k;
+        }
+        fx -= gravity * (xi - centerX);
+        fy -= gravity * (yi - centerY);
+        dispX[i] = fx;
+        dispY[i] = fy;
+    }
+
+    /**
+     * Method that scales positions around their center, when they occupy much smaller area than final layout will,
+     * so vertices do not have to spend steps by moving apart
+     */
+    private void spreadOut() {
+        double minX = Double.POSITIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY;
+        double maxY = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < n; i++) {
+            minX = Math.min(minX, x[i]);
+            minY = Math.min(minY, y[i]);
+            maxX = Math.max(maxX, x[i]);
+            maxY = Math.max(maxY, y[i]);
+        }
+        double size = k * Math.sqrt(n);
+        double current = Math.max(maxX - minX, maxY - minY);
+        if (current >= size / 2) {
+            return;
+        }
+        double scale = size / Math.max(current, 1);
+        double centerX = (minX + maxX) / 2;
+        double centerY = (minY + maxY) / 2;
+        for (int i = 0; i < n; i++) {
+            x[i] = centerX + (x[i] - centerX) * scale;
+            y[i] = centerY + (y[i] - centerY) * scale;
+        }
+    }
+
+    private void buildTree() {
+        double minX = Double.POSITIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY;
+        double maxY = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < n; i++) {
+            minX = Math.min(minX, x[i]);
+            minY = Math.min(minY, y[i]);
+            maxX = Math.max(maxX, x[i]);
+            maxY = Math.max(maxY, y[i]);
+        }
+        nodeCount = 0;
+        double half = Math.max(Math.max(maxX - minX, maxY - minY) / 2, 1) * 1.0001;
+        newNode((minX + maxX) / 2, (minY + maxY) / 2, half);
+        for (int i = 0; i < n; i++) {
+            insert(i);
+        }
+        sortByLeaves();
+    }
+
+    /**
+     * Method that fills order by counting sort of vertices according to position of their leaf in depth-first order of tree
+     */
+    private void sortByLeaves() {
+        if (leafStart.length < nodeCount + 1) {
+            leafStart = new int[nodeMass.length + 1];
+            nodeRank = new int[nodeMass.length];
+        }
+        Arrays.fill(leafStart, 0, nodeCount + 1, 0);
+        int[] rank = nodeRank;
+        int[] stack = stacks.get();
+        int top = 0;
+        int next = 0;
+        stack[top++] = 0;
+        while (top > 0) {
+            int node = stack[--top];
+            rank[node] = next++;
+            for (int q = 3; q >= 0; q--) {
+                int child = nodeChildren[(node << 2) + q];
+                if (child != empty) {
+                    stack[top++] = child;
+                }
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            leafStart[rank[leafOf[i]] + 1]++;
+        }
+        for (int r = 0; r < nodeCount; r++) {
+            leafStart[r + 1] += leafStart[r];
+        }
+        for (int i = 0; i < n; i++) {
+            order[leafStart[rank[leafOf[i]]]++] = i;
+        }
+    }
+
+    private void insert(int body) {
+        double bx = x[body];
+        double by = y[body];
+        int node = 0;
+        int depth = 0;
+        while (true) {
+            nodeMass[node]++;
+            nodeSumX[node] += bx;
+            nodeSumY[node] += by;
+            if (nodeBody[node] != internal) {
+                if (nodeBody[node] == empty) {
+                    nodeBody[node] = body;
+                    leafOf[body] = node;
+                    return;
+                }
+                if (depth >= maxDepth) {
+                    //too many vertices on (almost) the same place, they stay in one leaf
+                    nodeBody[node] = multiple;
+                    leafOf[body] = node;
+                    return;
+                }
+                int other = nodeBody[node];
+                nodeBody[node] = internal;
+                int child = child(node, x[other], y[other]);
+                nodeMass[child] = 1;
+                nodeSumX[child] = x[other];
+                nodeSumY[child] = y[other];
+                nodeBody[child] = other;
+                leafOf[other] = child;
+            }
+            node = child(node, bx, by);
+            depth++;
+        }
+    }
+
+    private int child(int node, double px, double py) {
+        int quadrant = (px >= nodeCenterX[node] ? 1 : 0) | (py >= nodeCenterY[node] ? 2 : 0);
+        int index = (node << 2) + quadrant;
+        if (nodeChildren[index] == empty) {
+            double half = nodeHalfSize[node] / 2;
+            double cx = nodeCenterX[node] + ((quadrant & 1) != 0 ? half : -half);
+            double cy = nodeCenterY[node] + ((quadrant & 2) != 0 ? half : -half);
+            int child = newNode(cx, cy, half);
+            nodeChildren[index] = child;
+        }
+        return nodeChildren[index];
+    }
+
+    private int newNode(double centerX, double centerY, double halfSize) {
+        if (nodeCount == nodeMass.length) {
+            int newLength = nodeCount << 1;
+            nodeCenterX = Arrays.copyOf(nodeCenterX, newLength);
+            nodeCenterY = Arrays.copyOf(nodeCenterY, newLength);
+            nodeHalfSize = Arrays.copyOf(nodeHalfSize, newLength);
+            nodeMass = Arrays.copyOf(nodeMass, newLength);
+            nodeSumX = Arrays.copyOf(nodeSumX, newLength);
+            nodeSumY = Arrays.copyOf(nodeSumY, newLength);
+            nodeBody = Arrays.copyOf(nodeBody, newLength);
+            nodeChildren = Arrays.copyOf(nodeChildren, newLength << 2);
+        }
+        int node = nodeCount++;
+        nodeCenterX[node] = centerX;
+        nodeCenterY[node] = centerY;
+        nodeHalfSize[node] = halfSize;
+        nodeMass[node] = 0;
+        nodeSumX[node] = 0;
+        nodeSumY[node] = 0;
+        nodeBody[node] = empty;
+        Arrays.fill(nodeChildren, node << 2, (node << 2) + 4, empty);
+        return node;
+    }
+}
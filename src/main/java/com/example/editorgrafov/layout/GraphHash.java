@@ -0,0 +1,115 @@
+package com.example.editorgrafov.layout;
+
+import com.example.editorgrafov.GraphModel;
+
+import java.util.Arrays;
+
+/**
+ * Structural hash of graph (Weisfeiler-Lehman style), which is used as key of LayoutCache
+ * - every vertex starts with hash of its label, in every round it mixes in sum of hashes of its neighbours,
+ *   so after r rounds signature of vertex describes its neighbourhood up to distance r
+ * - hash of graph is order independent sum of signatures, so it does not depend on ids of vertices
+ * - MinHash sketch of signatures estimates how many vertices two graphs share, lightly edited graph has similar sketch
+ * - edges are treated as undirected (same as in layout)
+ */
+public final class GraphHash {
+
+    public static final int rounds = 2;
+    public static final int sketchSize = 32;
+
+    private GraphHash() {
+    }
+
+    /**
+     * Method that hashes labels of vertices, it has to be called from thread owning model
+     * @param model of graph
+     * @param ids of vertices
+     * @return hash of label of vertex ids[i] at index i
+     */
+    public static long[] labelHashes(GraphModel model, int[] ids) {
+        long[] labels = new long[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            labels[i] = mix(model.getLabel(ids[i]).hashCode());
+        }
+        return labels;
+    }
+
+    /**
+     * Method that computes signatures of vertices
+     * @param labels hashes of labels of vertices
+     * @param offsets neighbors of vertex i are neighbors[offsets[i]] ... neighbors[offsets[i + 1] - 1]
+     * @param neighbors local indices of neighbors
+     * @return signature of every vertex
+     */
+    public static long[] signatures(long[] labels, int[] offsets, int[] neighbors) {
+        int n = labels.length;
+        long[] current = Arrays.copyOf(labels, n);
+        long[] next = new long[n];
+        for (int round = 0; round < rounds; round++) {
+            for (int i = 0; i < n; i++) {
+                long sum = 0;
+                for (int e = offsets[i]; e < offsets[i + 1]; e++) {
+                    sum += mix(current[neighbors[e]] ^ 0x5DEECE66DL);
+                }
+                next[i] = mix(current[i] * 31 + sum + round);
+            }
+            long[] swap = current;
+            current = next;
+            next = swap;
+        }
+        return current;
+    }
+
+    /**
+     * @param signatures of vertices
+     * @param edges number of entries in neighbors
+     * @return hash of whole graph
+     */
+    public static long hash(long[] signatures, int edges) {
+        long sum = 0;
+        for (long signature : signatures) {
+            sum += mix(signature);
+        }
+        return mix(sum + 31 * mix(signatures.length) + mix(~(long) edges));
+    }
+
+    /**
+     * @param signatures of vertices
+     * @return minima of sketchSize different hash functions over signatures
+     */
+    public static long[] sketch(long[] signatures) {
+        long[] sketch = new long[sketchSize];
+        Arrays.fill(sketch, Long.MAX_VALUE);
+        for (long signature : signatures) {
+            for (int s = 0; s < sketchSize; s++) {
+                long h = mix(signature + s * 0x9E3779B97F4A7C15L);
+                if (h < sketch[s]) {
+                    sketch[s] = h;
+                }
+            }
+        }
+        return sketch;
+    }
+
+    /**
+     * @return estimated fraction of signatures shared by both graphs (Jaccard similarity)
+     */
+    public static double similarity(long[] sketch, long[] other) {
+        int same = 0;
+        for (int s = 0; s < sketchSize; s++) {
+            if (sketch[s] == other[s]) {
+                same++;
+            }
+        }
+        return same / (double) sketchSize;
+    }
+
+    /**
+     * Finalizer of SplitMix64
+     */
+    static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,255 @@
+package com.example.editorgrafov.layout;
+
+import com.example.editorgrafov.Graph;
+import com.example.editorgrafov.GraphModel;
+import com.example.editorgrafov.collections.IntList;
+import com.example.editorgrafov.history.MoveVerticesCommand;
+import com.example.editorgrafov.spatial.GraphIndex;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Layout of small neighbourhood of graph, which is used when vertices or edges are inserted into laid out graph
+ * - new vertex is placed near its neighbours onto free place (overlaps are checked by spatial index, so it is local)
+ * - relax() moves only vertices at most maxHops edges from changed vertices (at most maxVertices of them),
+ *   vertices further from change move less, everything else stays where user left it
+ * - forces are the same as in ForceLayout, repulsion is counted only from vertices within 2k (found by index)
+ */
+public class IncrementalLayout {
+
+    private static final int maxHops = 2;
+    private static final int maxVertices = 256;
+    private static final int iterations = 20;
+    private static final int placementAttempts = 100;
+    private static final double goldenAngle = Math.PI * (3 - Math.sqrt(5));
+    private static final double gap = 10;
+    private static final double minDistance = 0.01;
+
+    private final GraphModel model;
+    private final GraphIndex index;
+    private double k = 90;
+
+    /**
+     * Constructor of IncrementalLayout
+     * @param model of graph
+     * @param index of vertices of model, it is used for overlap checks and as positions of vertices, which do not move
+     */
+    public IncrementalLayout(GraphModel model, GraphIndex index) {
+        this.model = model;
+        this.index = index;
+    }
+
+    /**
+     * Method that sets ideal distance between neighboring vertices
+     * @param distance ideal length of edge
+     */
+    public void setIdealDistance(double distance) {
+        k = distance;
+    }
+
+    /**
+     * Method that finds free place for new vertex near its neighbours (on spiral around their center)
+     * - if there is no free place nearby, place right next to center is returned
+     * @param neighbors ids of vertices, which will be connected with new vertex (dead ones are skipped)
+     * @param x coordinate, around which vertex is placed if it has no neighbours
+     * @param y coordinate, around which vertex is placed if it has no neighbours
+     * @param radius of new vertex
+     * @return coordinates {x, y} of new vertex (top-left corner, same as in model)
+     */
+    public double[] place(int[] neighbors, double x, double y, double radius) {
+        double centerX = 0;
+        double centerY = 0;
+        int count = 0;
+        for (int neighbor : neighbors) {
+            if (model.isAlive(neighbor)) {
+                centerX += index.getCenterX(neighbor);
+                centerY += index.getCenterY(neighbor);
+                count++;
+            }
+        }
+        if (count == 0) {
+            centerX = x + radius;
+            centerY = y + radius;
+        }
+        else {
+            centerX /= count;
+            centerY /= count;
+        }
+        //center of single neighbour is taken by neighbour itself, so search starts at ideal distance from it
+        double start = count == 1 ? k : 0;
+        for (int attempt = 0; attempt < placementAttempts; attempt++) {
+            double distance = start + k * Math.sqrt(attempt) / 2;
+            double candidateX = centerX + distance * Math.cos(attempt * goldenAngle);
+            double candidateY = centerY + distance * Math.sin(attempt * goldenAngle);
+            //canvas can not be scrolled to negative coordinates
+            if (candidateX >= radius && candidateY >= radius && isFree(candidateX, candidateY, radius)) {
+                return new double[] {candidateX - radius, candidateY - radius};
+            }
+        }
+        return new double[] {Math.max(0, centerX + start - radius), Math.max(0, centerY - radius)};
+    }
+
+    /**
+     * Method that checks, whether circle does not overlap any vertex (with gap between them)
+     * @param centerX coordinate of center of circle
+     * @param centerY coordinate of center of circle
+     * @param radius of circle
+     * @return true iff no vertex is closer than gap to circle
+     */
+    public boolean isFree(double centerX, double centerY, double radius) {
+        double reach = radius + gap;
+        boolean[] free = {true};
+        index.queryVertices(centerX - reach, centerY - reach, centerX + reach, centerY + reach, id -> {
+            double dx = index.getCenterX(id) - centerX;
+            double dy = index.getCenterY(id) - centerY;
+            double distance = radius + radiusOf(id) + gap;
+            if (dx * dx + dy * dy < distance * distance) {
+                free[0] = false;
+            }
+        });
+        return free[0];
+    }
+
+    /**
+     * Method that moves vertices near changed ones, so new edges get ideal length and vertices do not overlap
+     * @param seeds ids of changed vertices (e.g. ends of new edge)
+     * @return command, which was not executed yet and moves vertices to new positions, or null if nothing moves
+     */
+    public MoveVerticesCommand relax(int... seeds) {
+        Graph graph = model.getGraph();
+        Map<Integer, Integer> local = new HashMap<>();
+        IntList ids = new IntList();
+        IntList hops = new IntList();
+        for (int seed : seeds) {
+            if (model.isAlive(seed) && !local.containsKey(seed)) {
+                local.put(seed, ids.size());
+                ids.add(seed);
+                hops.add(0);
+            }
+        }
+        if (ids.isEmpty()) {
+            return null;
+        }
+        int[][] adjacency = new int[maxVertices][];
+        for (int head = 0; head < ids.size(); head++) {
+            int id = ids.get(head);
+            int[] out = graph.outgoingEdgesDestinations(id);
+            int[] in = graph.incomingEdgesSources(id);
+            int[] neighbors = new int[out.length + in.length];
+            System.arraycopy(out, 0, neighbors, 0, out.length);
+            System.arraycopy(in, 0, neighbors, out.length, in.length);
+            adjacency[head] = neighbors;
+            if (hops.get(head) == maxHops) {
+                continue;
+            }
+            for (int neighbor : neighbors) {
+                if (ids.size() == maxVertices) {
+                    break;
+                }
+                if (neighbor != id && !local.containsKey(neighbor)) {
+                    local.put(neighbor, ids.size());
+                    ids.add(neighbor);
+                    hops.add(hops.get(head) + 1);
+                }
+            }
+        }
+        int n = ids.size();
+        double[] x = new double[n];
+        double[] y = new double[n];
+        double[] r = new double[n];
+        double[] dispX = new double[n];
+        double[] dispY = new double[n];
+        for (int i = 0; i < n; i++) {
+            int id = ids.get(i);
+            r[i] = radiusOf(id);
+            x[i] = model.getX(id) + r[i];
+            y[i] = model.getY(id) + r[i];
+        }
+        double[] force = new double[2];
+        for (int iteration = 0; iteration < iterations; iteration++) {
+            double temperature = k / 2 * (1 - (double) iteration / iterations);
+            for (int i = 0; i < n; i++) {
+                int id = ids.get(i);
+                double xi = x[i];
+                double yi = y[i];
+                double ri = r[i];
+                force[0] = 0;
+                force[1] = 0;
+                index.queryVertices(xi - 2 * k, yi - 2 * k, xi + 2 * k, yi + 2 * k, other -> {
+                    if (other == id) {
+                        return;
+                    }
+                    Integer j = local.get(other);
+                    double dx = xi - (j != null ? x[j] : index.getCenterX(other));
+                    double dy = yi - (j != null ? y[j] : index.getCenterY(other));
+                    double d2 = dx * dx + dy * dy;
+                    if (d2 < minDistance * minDistance) {
+                        dx = minDistance * Math.cos(id);
+                        dy = minDistance * Math.sin(id);
+                        d2 = minDistance * minDistance;
+                    }
+                    double d = Math.sqrt(d2);
+                    double push = k * k / d;
+                    double overlap = ri + (j != null ? r[j] : radiusOf(other)) + gap - d;
+                    if (overlap > 0) {
+                        push += overlap;
+                    }
+                    force[0] += dx / d * push;
+                    force[1] += dy / d * push;
+                });
+                for (int neighbor : adjacency[i]) {
+                    if (neighbor == id) {
+                        continue;
+                    }
+                    Integer j = local.get(neighbor);
+                    double dx = xi - (j != null ? x[j] : index.getCenterX(neighbor));
+                    double dy = yi - (j != null ? y[j] : index.getCenterY(neighbor));
+                    double d = Math.sqrt(dx * dx + dy * dy);
+                    force[0] -= dx * d / k;
+                    force[1] -= dy * d / k;
+                }
+                //vertices further from change are stiffer, so mental map of user is kept
+                double limit = temperature / (1 + hops.get(i));
+                double length = Math.sqrt(force[0] * force[0] + force[1] * force[1]);
+                double move = length > limit ? limit / length : 1;
+                dispX[i] = force[0] * move;
+                dispY[i] = force[1] * move;
+            }
+            for (int i = 0; i < n; i++) {
+                //the same limit as in place(), canvas can not be scrolled to negative coordinates
+                x[i] = Math.max(r[i], x[i] + dispX[i]);
+                y[i] = Math.max(r[i], y[i] + dispY[i]);
+            }
+        }
+        IntList moved = new IntList();
+        for (int i = 0; i < n; i++) {
+            int id = ids.get(i);
+            if (Math.abs(x[i] - r[i] - model.getX(id)) >= 0.5 || Math.abs(y[i] - r[i] - model.getY(id)) >= 0.5) {
+                moved.add(i);
+            }
+        }
+        if (moved.isEmpty()) {
+            return null;
+        }
+        int m = moved.size();
+        int[] movedIds = new int[m];
+        double[] oldX = new double[m];
+        double[] oldY = new double[m];
+        double[] newX = new double[m];
+        double[] newY = new double[m];
+        for (int e = 0; e < m; e++) {
+            int i = moved.get(e);
+            movedIds[e] = ids.get(i);
+            oldX[e] = model.getX(movedIds[e]);
+            oldY[e] = model.getY(movedIds[e]);
+            newX[e] = x[i] - r[i];
+            newY[e] = y[i] - r[i];
+        }
+        return new MoveVerticesCommand(movedIds, oldX, oldY, newX, newY, "Local layout");
+    }
+
+    private double radiusOf(int id) {
+        return index.getCenterX(id) - index.getX(id);
+    }
+}
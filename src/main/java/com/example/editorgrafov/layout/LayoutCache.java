@@ -0,0 +1,453 @@
+package com.example.editorgrafov.layout;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Persistent cache of computed layouts, keyed by structural hash of graph (GraphHash)
+ * - every layout is in its own file (signature and coordinates of every vertex), index file keeps hash, size,
+ *   time of last use and MinHash sketch of every layout
+ * - graph with the same hash gets whole stored layout, lightly edited graph gets layout with the most similar sketch
+ *   and coordinates are assigned to vertices with the same signature (vertices with equal signatures in stored order)
+ * - least recently used layouts are evicted, when sum of sizes of layouts exceeds maxSize
+ * - files are replaced atomically (written into temporary file and moved), damaged index makes cache empty
+ * - more running instances share the cache, every operation holds lock of lock file and reads index again,
+ *   so changes of other instance are merged instead of overwritten, layouts missing in index are deleted on store
+ */
+public class LayoutCache {
+
+    public static final long defaultMaxSize = 256L << 20;
+    //smaller graphs are laid out faster than their layout is read
+    public static final int minVertices = 500;
+
+    private static final int magic = 0x4C415943;
+    private static final int version = 1;
+    private static final double minSimilarity = 0.5;
+    private static final String extension = ".layout";
+    private static final String indexName = "index";
+    private static final String lockName = "lock";
+
+    private final Path directory;
+    private final long maxSize;
+
+    /**
+     * Constructor of LayoutCache
+     * @param directory where layouts are stored (it is created when first layout is stored)
+     * @param maxSize maximal sum of sizes of stored layouts in bytes
+     */
+    public LayoutCache(Path directory, long maxSize) {
+        this.directory = directory;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * @return ~/.editor-grafov/layouts
+     */
+    public static Path defaultDirectory() {
+        return Paths.get(System.getProperty("user.home"), ".editor-grafov", "layouts");
+    }
+
+    /**
+     * Method that finds stored layout of the same or similar graph
+     * @param hash of graph
+     * @param sketch of graph
+     * @param signatures of vertices of graph
+     * @return coordinates of vertices with matching signature, or null if there is no similar layout
+     * @throws IOException iff stored layout could not be read
+     */
+    public synchronized Match lookup(long hash, long[] sketch, long[] signatures) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return null;
+        }
+        return locked(() -> {
+            List<Entry> entries = readIndex();
+            Entry best = null;
+            double bestSimilarity = minSimilarity;
+            for (Entry entry : entries) {
+                if (entry.hash == hash) {
+                    best = entry;
+                    break;
+                }
+                double similarity = GraphHash.similarity(sketch, entry.sketch);
+                if (similarity >= bestSimilarity) {
+                    best = entry;
+                    bestSimilarity = similarity;
+                }
+            }
+            if (best == null) {
+                return null;
+            }
+            Match match = read(best, signatures, best.hash == hash);
+            best.lastUsed = System.currentTimeMillis();
+            writeIndex(entries);
+            return match;
+        });
+    }
+
+    /**
+     * Method that stores layout, previous layout of the same graph is replaced
+     * @param hash of graph
+     * @param sketch of graph
+     * @param signatures of vertices of graph
+     * @param x coordinates of vertices
+     * @param y coordinates of vertices
+     * @throws IOException iff layout could not be written
+     */
+    public synchronized void store(long hash, long[] sketch, long[] signatures, double[] x, double[] y) throws IOException {
+        long size = 20 + 16L * signatures.length;
+        if (size > maxSize) {
+            return;
+        }
+        Files.createDirectories(directory);
+        Entry entry = new Entry(hash, size, System.currentTimeMillis(), sketch);
+        Path temp = Files.createTempFile(directory, "layout", ".tmp");
+        try {
+            //temporary file is unique, so layout is written before cache is locked
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp), 1 << 16))) {
+                out.writeInt(magic);
+                out.writeInt(version);
+                out.writeLong(hash);
+                out.writeInt(signatures.length);
+                for (int i = 0; i < signatures.length; i++) {
+                    out.writeLong(signatures[i]);
+                    out.writeFloat((float) x[i]);
+                    out.writeFloat((float) y[i]);
+                }
+            }
+            locked(() -> {
+                move(temp, file(entry));
+                List<Entry> entries = readIndex();
+                entries.removeIf(old -> old.hash == hash);
+                entries.add(entry);
+                evict(entries);
+                writeIndex(entries);
+                deleteOrphans(entries);
+                return null;
+            });
+        }
+        finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Method that removes every stored layout
+     * @throws IOException iff files could not be deleted
+     */
+    public synchronized void clear() throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        locked(() -> {
+            deleteOrphans(new ArrayList<>());
+            Files.deleteIfExists(directory.resolve(indexName));
+            return null;
+        });
+    }
+
+    /**
+     * @return sum of sizes of stored layouts in bytes
+     * @throws IOException iff cache could not be locked
+     */
+    public synchronized long getSize() throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return 0;
+        }
+        return locked(() -> {
+            long size = 0;
+            for (Entry entry : readIndex()) {
+                size += entry.size;
+            }
+            return size;
+        });
+    }
+
+    /**
+     * Method that runs action while cache is locked against other running instances
+     * - lock is released by closing of channel, also when action fails
+     * @param action which reads or changes files of cache
+     * @return result of action
+     * @throws IOException iff cache could not be locked or action failed
+     */
+    private <T> T locked(LockedAction<T> action) throws IOException {
+        Files.createDirectories(directory);
+        try (FileChannel channel = FileChannel.open(directory.resolve(lockName), StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            channel.lock();
+            return action.run();
+        }
+    }
+
+    private void evict(List<Entry> entries) throws IOException {
+        entries.sort(Comparator.comparingLong(entry -> entry.lastUsed));
+        long size = 0;
+        for (Entry entry : entries) {
+            size += entry.size;
+        }
+        while (size > maxSize && !entries.isEmpty()) {
+            Entry oldest = entries.remove(0);
+            size -= oldest.size;
+            Files.deleteIfExists(file(oldest));
+        }
+    }
+
+    private Match read(Entry entry, long[] signatures, boolean sameGraph) throws IOException {
+        int n = signatures.length;
+        double[] x = new double[n];
+        double[] y = new double[n];
+        Arrays.fill(x, Double.NaN);
+        Arrays.fill(y, Double.NaN);
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file(entry)), 1 << 16))) {
+            if (in.readInt() != magic || in.readInt() != version || in.readLong() != entry.hash) {
+                throw new IOException("Invalid layout file " + file(entry));
+            }
+            int stored = in.readInt();
+            if (stored < 0) {
+                throw new IOException("Invalid layout file " + file(entry));
+            }
+            //stored vertices with the same signature are chained in stored order, head of chain is in map
+            long[] storedSignatures = new long[stored];
+            float[] storedX = new float[stored];
+            float[] storedY = new float[stored];
+            int[] nextSame = new int[stored];
+            LongIntMap heads = new LongIntMap(stored);
+            int[] tails = new int[stored];
+            for (int i = 0; i < stored; i++) {
+                storedSignatures[i] = in.readLong();
+                storedX[i] = in.readFloat();
+                storedY[i] = in.readFloat();
+                nextSame[i] = -1;
+                int head = heads.get(storedSignatures[i]);
+                if (head < 0) {
+                    heads.put(storedSignatures[i], i);
+                    tails[i] = i;
+                }
+                else {
+                    nextSame[tails[head]] = i;
+                    tails[head] = i;
+                }
+            }
+            int matched = 0;
+            for (int i = 0; i < n; i++) {
+                int head = heads.get(signatures[i]);
+                if (head >= 0) {
+                    x[i] = storedX[head];
+                    y[i] = storedY[head];
+                    matched++;
+                    heads.put(signatures[i], nextSame[head]);
+                }
+            }
+            return new Match(x, y, matched, sameGraph && matched == n);
+        }
+    }
+
+    /**
+     * Method that reads index, cache has to be locked
+     * @return entries, whose layouts exist
+     */
+    private List<Entry> readIndex() {
+        List<Entry> entries = new ArrayList<>();
+        Path index = directory.resolve(indexName);
+        if (!Files.exists(index)) {
+            return entries;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(index)))) {
+            if (in.readInt() != magic || in.readInt() != version) {
+                throw new IOException("Invalid index of layout cache");
+            }
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                long hash = in.readLong();
+                long size = in.readLong();
+                long lastUsed = in.readLong();
+                long[] sketch = new long[GraphHash.sketchSize];
+                for (int s = 0; s < sketch.length; s++) {
+                    sketch[s] = in.readLong();
+                }
+                Entry entry = new Entry(hash, size, lastUsed, sketch);
+                if (Files.exists(file(entry))) {
+                    entries.add(entry);
+                }
+            }
+        }
+        catch (IOException e) {
+            //layouts without valid index can not be evicted, so they are thrown away
+            entries.clear();
+            try {
+                deleteOrphans(entries);
+            }
+            catch (IOException ignored) {
+                //cache stays empty
+            }
+        }
+        return entries;
+    }
+
+    private void writeIndex(List<Entry> entries) throws IOException {
+        Path temp = Files.createTempFile(directory, "index", ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(magic);
+                out.writeInt(version);
+                out.writeInt(entries.size());
+                for (Entry entry : entries) {
+                    out.writeLong(entry.hash);
+                    out.writeLong(entry.size);
+                    out.writeLong(entry.lastUsed);
+                    for (long value : entry.sketch) {
+                        out.writeLong(value);
+                    }
+                }
+            }
+            move(temp, directory.resolve(indexName));
+        }
+        finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Method that deletes layouts, which are not in index (evicted by other instance, or left by damaged index)
+     * @param entries of index
+     */
+    private void deleteOrphans(List<Entry> entries) throws IOException {
+        Set<Path> indexed = new HashSet<>();
+        for (Entry entry : entries) {
+            indexed.add(file(entry));
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + extension)) {
+            for (Path file : files) {
+                if (!indexed.contains(file)) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+    }
+
+    private Path file(Entry entry) {
+        return directory.resolve(Long.toHexString(entry.hash) + extension);
+    }
+
+    private static void move(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        }
+        catch (IOException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Action, which is run by locked(), it can throw IOException unlike Supplier
+     */
+    private interface LockedAction<T> {
+        T run() throws IOException;
+    }
+
+    /**
+     * Stored coordinates assigned to vertices of looked up graph
+     */
+    public static class Match {
+        private final double[] x;
+        private final double[] y;
+        private final int matched;
+        private final boolean exact;
+
+        Match(double[] x, double[] y, int matched, boolean exact) {
+            this.x = x;
+            this.y = y;
+            this.matched = matched;
+            this.exact = exact;
+        }
+
+        /**
+         * @return coordinates of vertices, NaN for vertices without stored coordinates
+         */
+        public double[] getX() {
+            return x;
+        }
+
+        public double[] getY() {
+            return y;
+        }
+
+        public int getMatched() {
+            return matched;
+        }
+
+        /**
+         * @return true iff stored layout belongs to the same graph, so every vertex has coordinates
+         */
+        public boolean isExact() {
+            return exact;
+        }
+    }
+
+    private static class Entry {
+        private final long hash;
+        private final long size;
+        private long lastUsed;
+        private final long[] sketch;
+
+        Entry(long hash, long size, long lastUsed, long[] sketch) {
+            this.hash = hash;
+            this.size = size;
+            this.lastUsed = lastUsed;
+            this.sketch = sketch;
+        }
+    }
+
+    /**
+     * Open addressing map from long to non-negative int, get() returns -1 for missing key
+     */
+    private static class LongIntMap {
+        private final long[] keys;
+        private final int[] values;
+        private final boolean[] used;
+        private final int mask;
+
+        LongIntMap(int expected) {
+            int capacity = Integer.highestOneBit(Math.max(expected, 4) * 2 - 1) << 1;
+            keys = new long[capacity];
+            values = new int[capacity];
+            used = new boolean[capacity];
+            mask = capacity - 1;
+        }
+
+        int get(long key) {
+            int slot = (int) GraphHash.mix(key) & mask;
+            while (used[slot]) {
+                if (keys[slot] == key) {
+                    return values[slot];
+                }
+                slot = (slot + 1) & mask;
+            }
+            return -1;
+        }
+
+        void put(long key, int value) {
+            int slot = (int) GraphHash.mix(key) & mask;
+            while (used[slot] && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            used[slot] = true;
+            keys[slot] = key;
+            values[slot] = value;
+        }
+    }
+}
@@ -0,0 +1,276 @@
+package com.example.editorgrafov.layout;
+
+import javafx.application.Platform;
+import javafx.concurrent.Task;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Task, which runs ForceLayout in background thread and streams positions of vertices to JavaFX application thread
+ * - steps of layout are computed on its own ForkJoinPool, so common pool stays free
+ * - at most one frame is published per publishPeriod and at most one frame waits for application thread,
+ *   newer frame replaces waiting one, so slow view never makes layout wait
+ * - last frame is always published (also when task is cancelled), layout is not used by task after that
+ * - positions are shifted so layout is centered in given area, but never starts at negative coordinates
+ * - with LayoutCache, stored layout of the same graph is reused without computation, for similar graph
+ *   only vertices without stored coordinates are laid out, computed layouts of big graphs are stored
+ */
+public class LayoutTask extends Task<Void> {
+
+    private static final long publishPeriod = TimeUnit.MILLISECONDS.toNanos(100);
+    //layout of vertices without stored coordinates around fixed ones
+    private static final int refineIterations = 50;
+
+    private final ForceLayout layout;
+    private final double width;
+    private final double height;
+    private Consumer<Frame> onFrame = frame -> { };
+    private final AtomicReference<Frame> pending = new AtomicReference<>();
+    private LayoutCache cache;
+    private long[] labels;
+    private boolean cachedOnly;
+    private volatile int reused;
+
+    /**
+     * Constructor of LayoutTask
+     * @param layout which is computed
+     * @param width of area, where layout is centered
+     * @param height of area, where layout is centered
+     */
+    public LayoutTask(ForceLayout layout, double width, double height) {
+        this.layout = layout;
+        this.width = width;
+        this.height = height;
+    }
+
+    /**
+     * Method that sets consumer of frames, it has to be set before task is started
+     * @param onFrame called from JavaFX application thread
+     */
+    public void setOnFrame(Consumer<Frame> onFrame) {
+        this.onFrame = onFrame;
+    }
+
+    /**
+     * Method that sets cache of layouts, it has to be set before task is started
+     * @param cache of layouts
+     * @param labels hashes of labels of vertices (GraphHash.labelHashes())
+     * @param cachedOnly if true, layout is only taken from cache and nothing is computed when cache has no similar layout
+     */
+    public void setCache(LayoutCache cache, long[] labels, boolean cachedOnly) {
+        this.cache = cache;
+        this.labels = labels;
+        this.cachedOnly = cachedOnly;
+    }
+
+    /**
+     * @return number of vertices, whose coordinates were taken from cache
+     */
+    public int getReused() {
+        return reused;
+    }
+
+    @Override
+    protected Void call() {
+        updateMessage("Layout of " + layout.getIds().length + " nodes");
+        long[] signatures = null;
+        long hash = 0;
+        long[] sketch = null;
+        if (cache != null && layout.getIds().length >= LayoutCache.minVertices) {
+            signatures = GraphHash.signatures(labels, layout.getOffsets(), layout.getNeighbors());
+            hash = GraphHash.hash(signatures, layout.getNeighbors().length);
+            sketch = GraphHash.sketch(signatures);
+            LayoutCache.Match match = null;
+            try {
+                match = cache.lookup(hash, sketch, signatures);
+            }
+            catch (IOException e) {
+                //layout is computed again
+            }
+            if (match != null && match.isExact()) {
+                reuse(match);
+                publish(true);
+                return null;
+            }
+            //layout with too few matching vertices would need almost complete computation anyway
+            if (match != null && match.getMatched() * 2 >= signatures.length) {
+                reuse(match);
+            }
+        }
+        if (cachedOnly && reused == 0) {
+            publishNothing();
+            return null;
+        }
+        ForkJoinPool pool = new ForkJoinPool();
+        try {
+            long lastPublish = System.nanoTime();
+            while (!layout.isDone() && !isCancelled()) {
+                layout.step(pool);
+                updateProgress(layout.getIteration(), layout.getIterations());
+                long now = System.nanoTime();
+                if (now - lastPublish >= publishPeriod) {
+                    publish(false);
+                    lastPublish = now;
+                }
+            }
+        }
+        finally {
+            pool.shutdown();
+            publish(true);
+        }
+        if (signatures != null && !isCancelled()) {
+            try {
+                cache.store(hash, sketch, signatures, layout.getX(), layout.getY());
+            }
+            catch (IOException e) {
+                //layout is just not cached
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Method that puts stored coordinates into layout, other vertices are placed to center of their placed neighbours
+     * (or randomly near center of stored layout) and they are laid out around fixed stored vertices
+     */
+    private void reuse(LayoutCache.Match match) {
+        double[] x = layout.getX();
+        double[] y = layout.getY();
+        double[] storedX = match.getX();
+        double[] storedY = match.getY();
+        int n = x.length;
+        boolean[] fixed = new boolean[n];
+        boolean[] placed = new boolean[n];
+        double centerX = 0;
+        double centerY = 0;
+        for (int i = 0; i < n; i++) {
+            if (!Double.isNaN(storedX[i])) {
+                x[i] = storedX[i];
+                y[i] = storedY[i];
+                fixed[i] = true;
+                placed[i] = true;
+                centerX += x[i];
+                centerY += y[i];
+            }
+        }
+        reused = match.getMatched();
+        if (reused == n) {
+            return;
+        }
+        centerX /= Math.max(reused, 1);
+        centerY /= Math.max(reused, 1);
+        int[] offsets = layout.getOffsets();
+        int[] neighbors = layout.getNeighbors();
+        double k = layout.getIdealDistance();
+        double spread = k * Math.sqrt(n - reused);
+        Random random = new Random();
+        for (int i = 0; i < n; i++) {
+            if (placed[i]) {
+                continue;
+            }
+            double sumX = 0;
+            double sumY = 0;
+            int count = 0;
+            for (int e = offsets[i]; e < offsets[i + 1]; e++) {
+                if (placed[neighbors[e]]) {
+                    sumX += x[neighbors[e]];
+                    sumY += y[neighbors[e]];
+                    count++;
+                }
+            }
+            double jitterX = (random.nextDouble() - 0.5) * k;
+            double jitterY = (random.nextDouble() - 0.5) * k;
+            if (count > 0) {
+                x[i] = sumX / count + jitterX;
+                y[i] = sumY / count + jitterY;
+            }
+            else {
+                x[i] = centerX + (random.nextDouble() - 0.5) * spread;
+                y[i] = centerY + (random.nextDouble() - 0.5) * spread;
+            }
+            placed[i] = true;
+        }
+        layout.setFixed(fixed);
+        layout.setIterations(Math.min(refineIterations, layout.getIterations()));
+        layout.setInitialTemperature(2 * k);
+    }
+    /**
+     * Method that publishes last frame without positions, when cache had no layout and nothing was computed
+     */
+    private void publishNothing() {
+        if (pending.getAndSet(new Frame(layout.getIds(), null, null, true)) == null) {
+            Platform.runLater(() -> onFrame.accept(pending.getAndSet(null)));
+        }
+    }
+
+    private void publish(boolean last) {
+        int[] ids = layout.getIds();
+        double[] x = layout.getX();
+        double[] y = layout.getY();
+        double minX = Double.POSITIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY;
+        double maxY = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < ids.length; i++) {
+            minX = Math.min(minX, x[i]);
+            minY = Math.min(minY, y[i]);
+            maxX = Math.max(maxX, x[i]);
+            maxY = Math.max(maxY, y[i]);
+        }
+        double shiftX = ids.length == 0 ? 0 : Math.max(0, (width - (maxX - minX)) / 2) - minX;
+        double shiftY = ids.length == 0 ? 0 : Math.max(0, (height - (maxY - minY)) / 2) - minY;
+        double[] frameX = new double[ids.length];
+        double[] frameY = new double[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            frameX[i] = x[i] + shiftX;
+            frameY[i] = y[i] + shiftY;
+        }
+        if (pending.getAndSet(new Frame(ids, frameX, frameY, last)) == null) {
+            Platform.runLater(() -> onFrame.accept(pending.getAndSet(null)));
+        }
+    }
+
+    /**
+     * Positions of vertices at some step of layout, vertex ids[i] is at (x[i], y[i])
+     */
+    public static class Frame {
+        private final int[] ids;
+        private final double[] x;
+        private final double[] y;
+        private final boolean last;
+
+        Frame(int[] ids, double[] x, double[] y, boolean last) {
+            this.ids = ids;
+            this.x = x;
+            this.y = y;
+            this.last = last;
+        }
+
+        public int[] getIds() {
+            return ids;
+        }
+
+        /**
+         * @return coordinates of vertices, or null if layout was neither found in cache nor computed
+         */
+        public double[] getX() {
+            return x;
+        }
+
+        public double[] getY() {
+            return y;
+        }
+
+        /**
+         * @return true iff this is final result of layout
+         */
+        public boolean isLast() {
+            return last;
+        }
+    }
+}
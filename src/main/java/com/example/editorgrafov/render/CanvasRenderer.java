@@ -0,0 +1,384 @@
+package com.example.editorgrafov.render;
+
+import com.example.editorgrafov.GraphModel;
+import com.example.editorgrafov.GraphModelListener;
+import com.example.editorgrafov.Vertex;
+import com.example.editorgrafov.collections.IntList;
+import com.example.editorgrafov.spatial.GraphIndex;
+import javafx.animation.AnimationTimer;
+import javafx.geometry.VPos;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.FontWeight;
+import javafx.scene.text.TextAlignment;
+
+import java.util.Arrays;
+
+/**
+ * Renderer, which draws all vertices onto one Canvas straight from primitive arrays of model (edges are drawn below
+ * it by EdgeRenderer)
+ * - there is no node per vertex, so scene graph does not need CSS and layout pass for every vertex
+ * - every change of model only marks canvas dirty, canvas is redrawn at most once per pulse
+ * - drawing is done in batched passes (fills, outlines, labels), so state of
+ *   GraphicsContext changes only between passes (and when color of vertex differs from previous one)
+ * - appearance of vertices is kept in arrays indexed by id, it is changed through CanvasVertex handles
+ * - only vertices intersecting visible area are drawn, they are found in GraphIndex
+ * - position of vertex in model is top-left corner of its square (same as layout of Vertex node)
+ * - dragged vertices are drawn moved by one shared offset, so dragging does not change index nor model
+ */
+public class CanvasRenderer implements GraphModelListener {
+
+    private static final Color selectionColor = Color.DODGERBLUE;
+    private static final Font labelFont = Font.font(null, FontWeight.BOLD, Font.getDefault().getSize());
+    //labels are not readable anyway, when there are too many of them
+    private static final int maxLabels = 20_000;
+
+    private final GraphModel model;
+    private final GraphIndex index;
+    private final Canvas canvas = new Canvas();
+    private final AnimationTimer timer;
+    private Color[] fills = new Color[64];
+    private Color[] valueColors = new Color[64];
+    private int[] radii = new int[64];
+    private boolean[] selected = new boolean[64];
+    private boolean[] dragged = new boolean[64];
+    private final IntList draggedIds = new IntList();
+    private double dragX;
+    private double dragY;
+    private boolean dirty;
+    private final IntList visible = new IntList();
+
+    /**
+     * Constructor of CanvasRenderer, renderer listens to model until dispose() is called
+     * @param model of graph, which is drawn
+     * @param index of vertices and edges of model, it has to use radii of this renderer
+     */
+    public CanvasRenderer(GraphModel model, GraphIndex index) {
+        this.model = model;
+        this.index = index;
+        model.addListener(this);
+        canvas.widthProperty().addListener((observableValue, oldWidth, width) -> requestRedraw());
+        canvas.heightProperty().addListener((observableValue, oldHeight, height) -> requestRedraw());
+        timer = new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                if (dirty) {
+                    redraw();
+                }
+            }
+        };
+        timer.start();
+        dirty = true;
+    }
+
+    public Canvas getCanvas() {
+        return canvas;
+    }
+
+    /**
+     * Method that stops listening to model and redrawing, canvas can be thrown away afterwards
+     */
+    public void dispose() {
+        timer.stop();
+        model.removeListener(this);
+    }
+
+    /**
+     * Method that returns handle of vertex, through which its appearance is changed
+     * - handle is only small object with id, it can be created whenever it is needed
+     * @param id of vertex
+     * @return handle of vertex
+     */
+    public CanvasVertex getVertex(int id) {
+        return new CanvasVertex(this, id);
+    }
+
+    /**
+     * Method that marks canvas to be redrawn in next pulse
+     */
+    public void requestRedraw() {
+        dirty = true;
+    }
+
+    /**
+     * Method that finds vertex, which is drawn on given point (vertex drawn last wins)
+     * @param x coordinate of point
+     * @param y coordinate of point
+     * @return id of vertex, or -1 if there is no vertex on point
+     */
+    public int pick(double x, double y) {
+        return index.pick(x, y);
+    }
+
+    /**
+     * Method that draws vertex on temporary position (while it is dragged or laid out), model is not changed
+     * @param id of dragged vertex
+     * @param x temporary coordinate
+     * @param y temporary coordinate
+     */
+    public void setDragged(int id, double x, double y) {
+        index.updateVertex(id, x, y);
+        requestRedraw();
+    }
+
+    /**
+     * Method that draws vertex on its position in model again, after dragging ended
+     * @param id of dragged vertex
+     */
+    public void resetDragged(int id) {
+        index.updateVertex(id);
+        requestRedraw();
+    }
+
+    /**
+     * Method that starts drawing of vertices moved by offset (see setDragOffset)
+     * @param ids of dragged vertices, only first count of them are used
+     * @param count number of dragged vertices
+     */
+    public void startDrag(int[] ids, int count) {
+        endDrag();
+        draggedIds.ensureCapacity(count);
+        for (int i = 0; i < count; i++) {
+            ensureCapacity(ids[i] + 1);
+            dragged[ids[i]] = true;
+            draggedIds.add(ids[i]);
+        }
+    }
+
+    /**
+     * Method that moves all dragged vertices by the same offset from their positions in model
+     * @param dx offset in x axis
+     * @param dy offset in y axis
+     */
+    public void setDragOffset(double dx, double dy) {
+        dragX = dx;
+        dragY = dy;
+        requestRedraw();
+    }
+
+    /**
+     * Method that draws dragged vertices on their positions in model again
+     */
+    public void endDrag() {
+        for (int i = 0; i < draggedIds.size(); i++) {
+            int id = draggedIds.get(i);
+            if (id < dragged.length) {
+                dragged[id] = false;
+            }
+        }
+        draggedIds.clear();
+        dragX = 0;
+        dragY = 0;
+        requestRedraw();
+    }
+
+    private boolean isDragged(int id) {
+        return id < dragged.length && dragged[id];
+    }
+
+    /**
+     * Method that returns x coordinate of vertex, as it is drawn
+     * @param id of vertex
+     * @return x coordinate of top-left corner
+     */
+    public double getX(int id) {
+        return isDragged(id) ? index.getX(id) + dragX : index.getX(id);
+    }
+
+    /**
+     * Method that returns y coordinate of vertex, as it is drawn
+     * @param id of vertex
+     * @return y coordinate of top-left corner
+     */
+    public double getY(int id) {
+        return isDragged(id) ? index.getY(id) + dragY : index.getY(id);
+    }
+
+    String getLabel(int id) {
+        return model.getLabel(id);
+    }
+
+    Color getFill(int id) {
+        Color fill = id < fills.length ? fills[id] : null;
+        return fill == null ? Vertex.defaultColorFill : fill;
+    }
+
+    void setFill(int id, Color color) {
+        ensureCapacity(id + 1);
+        fills[id] = color;
+        requestRedraw();
+    }
+
+    Color getValueColor(int id) {
+        Color color = id < valueColors.length ? valueColors[id] : null;
+        return color == null ? Color.BLACK : color;
+    }
+
+    void setValueColor(int id, Color color) {
+        ensureCapacity(id + 1);
+        valueColors[id] = color;
+        requestRedraw();
+    }
+
+    int getRadius(int id) {
+        int radius = id < radii.length ? radii[id] : 0;
+        return radius == 0 ? Vertex.defaultRadius : radius;
+    }
+
+    void setRadius(int id, int radius) {
+        ensureCapacity(id + 1);
+        radii[id] = radius;
+        index.updateVertex(id);
+        requestRedraw();
+    }
+
+    boolean isSelected(int id) {
+        return id < selected.length && selected[id];
+    }
+
+    void setSelected(int id, boolean value) {
+        ensureCapacity(id + 1);
+        selected[id] = value;
+        requestRedraw();
+    }
+
+    /**
+     * Method that draws all vertices
+     */
+    public void redraw() {
+        dirty = false;
+        GraphicsContext gc = canvas.getGraphicsContext2D();
+        double width = canvas.getWidth();
+        double height = canvas.getHeight();
+        gc.clearRect(0, 0, width, height);
+
+        //vertices are drawn in order of ids, so vertex added later is on top (same as in node mode)
+        visible.clear();
+        if (draggedIds.isEmpty()) {
+            index.queryVertices(0, 0, width, height, visible::add);
+        }
+        else {
+            //dragged vertices are not on their indexed positions, they are tested one by one
+            index.queryVertices(0, 0, width, height, id -> {
+                if (!isDragged(id)) {
+                    visible.add(id);
+                }
+            });
+            for (int i = 0; i < draggedIds.size(); i++) {
+                int id = draggedIds.get(i);
+                int diameter = 2 * getRadius(id);
+                double x = getX(id);
+                double y = getY(id);
+                if (model.isAlive(id) && x < width && y < height && x + diameter > 0 && y + diameter > 0) {
+                    visible.add(id);
+                }
+            }
+        }
+        int[] ids = visible.toArray();
+        Arrays.sort(ids);
+
+        //fills - color is changed only when it differs from color of previous vertex
+        Color current = null;
+        for (int id : ids) {
+            Color fill = getFill(id);
+            if (fill != current) {
+                gc.setFill(fill);
+                current = fill;
+            }
+            int radius = getRadius(id);
+            gc.fillOval(getX(id), getY(id), 2 * radius, 2 * radius);
+        }
+
+        gc.setStroke(Color.BLACK);
+        gc.setLineWidth(1);
+        boolean anySelected = false;
+        for (int id : ids) {
+            int radius = getRadius(id);
+            gc.strokeOval(getX(id), getY(id), 2 * radius, 2 * radius);
+            anySelected |= isSelected(id);
+        }
+        if (anySelected) {
+            gc.setStroke(selectionColor);
+            gc.setLineWidth(3);
+            for (int id : ids) {
+                if (isSelected(id)) {
+                    int radius = getRadius(id);
+                    gc.strokeOval(getX(id), getY(id), 2 * radius, 2 * radius);
+                }
+            }
+        }
+
+        if (ids.length <= maxLabels) {
+            drawLabels(gc, ids);
+        }
+    }
+
+    private void drawLabels(GraphicsContext gc, int[] ids) {
+        gc.setFont(labelFont);
+        gc.setTextAlign(TextAlignment.CENTER);
+        gc.setTextBaseline(VPos.CENTER);
+        Color current = null;
+        for (int id : ids) {
+            Color color = getValueColor(id);
+            if (color != current) {
+                gc.setFill(color);
+                current = color;
+            }
+            int radius = getRadius(id);
+            gc.fillText(model.getLabel(id), getX(id) + radius, getY(id) + radius);
+        }
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > fills.length) {
+            int newLength = Math.max(capacity, fills.length << 1);
+            fills = Arrays.copyOf(fills, newLength);
+            valueColors = Arrays.copyOf(valueColors, newLength);
+            radii = Arrays.copyOf(radii, newLength);
+            selected = Arrays.copyOf(selected, newLength);
+            dragged = Arrays.copyOf(dragged, newLength);
+        }
+    }
+
+    private void resetStyle(int id) {
+        if (id < fills.length) {
+            fills[id] = null;
+            valueColors[id] = null;
+            radii[id] = 0;
+            selected[id] = false;
+        }
+    }
+
+    @Override
+    public void vertexAdded(int id) {
+        resetStyle(id);
+        requestRedraw();
+    }
+
+    @Override
+    public void vertexRemoved(int id, String label) {
+        resetStyle(id);
+        requestRedraw();
+    }
+
+    @Override
+    public void vertexMoved(int id, double oldX, double oldY) {
+        requestRedraw();
+    }
+
+    @Override
+    public void graphCleared() {
+        Arrays.fill(fills, null);
+        Arrays.fill(valueColors, null);
+        Arrays.fill(radii, 0);
+        Arrays.fill(selected, false);
+        endDrag();
+    }
+
+    @Override
+    public void graphLoaded() {
+        requestRedraw();
+    }
+}
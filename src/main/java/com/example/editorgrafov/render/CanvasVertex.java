@@ -0,0 +1,82 @@
+package com.example.editorgrafov.render;
+
+import com.example.editorgrafov.Vertex;
+import com.example.editorgrafov.VertexHandle;
+import javafx.scene.paint.Color;
+
+/**
+ * Lightweight handle of vertex drawn by CanvasRenderer, it only holds id and forwards changes into arrays of renderer
+ */
+public class CanvasVertex implements VertexHandle {
+
+    private final CanvasRenderer renderer;
+    private final int id;
+
+    CanvasVertex(CanvasRenderer renderer, int id) {
+        this.renderer = renderer;
+        this.id = id;
+    }
+
+    @Override
+    public int getVertexId() {
+        return id;
+    }
+
+    @Override
+    public String getString() {
+        return renderer.getLabel(id);
+    }
+
+    @Override
+    public Color getFill() {
+        return renderer.getFill(id);
+    }
+
+    @Override
+    public void setVertexFill(Color color) {
+        renderer.setFill(id, color);
+    }
+
+    @Override
+    public void resetFill() {
+        renderer.setFill(id, null);
+    }
+
+    @Override
+    public int getRadius() {
+        return renderer.getRadius(id);
+    }
+
+    @Override
+    public void resizeNode(int radius) {
+        renderer.setRadius(id, radius);
+    }
+
+    @Override
+    public void resetRadius() {
+        renderer.setRadius(id, Vertex.defaultRadius);
+    }
+
+    @Override
+    public void setValueColor(Color color) {
+        renderer.setValueColor(id, color);
+    }
+
+    @Override
+    public void setSelected(boolean selected) {
+        renderer.setSelected(id, selected);
+    }
+
+    @Override
+    public boolean isSelected() {
+        return renderer.isSelected(id);
+    }
+
+    /**
+     * Method that returns color of value inside vertex
+     * @return color of value
+     */
+    public Color getValueColor() {
+        return renderer.getValueColor(id);
+    }
+}
@@ -0,0 +1,366 @@
+package com.example.editorgrafov.render;
+
+import com.example.editorgrafov.GraphModel;
+import com.example.editorgrafov.GraphModelListener;
+import com.example.editorgrafov.algorithms.GraphAlgorithms;
+import com.example.editorgrafov.collections.IntList;
+import com.example.editorgrafov.spatial.GraphIndex;
+import javafx.animation.AnimationTimer;
+import javafx.scene.Group;
+import javafx.scene.Node;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.layout.Region;
+import javafx.scene.paint.Color;
+
+import java.util.Arrays;
+
+/**
+ * Renderer of edges, which draws them onto two canvases placed below vertices (in both rendering modes)
+ * - base canvas holds all edges, it is redrawn at most once per pulse and only after model (or index) changed
+ * - when drag starts, edges incident to dragged vertices are taken out of base canvas and drawn onto overlay canvas,
+ *   so every mouse event of drag redraws only those edges, base canvas stays untouched until drag ends
+ * - incident edges are found in GraphIndex (vertex -> slots of its edges), so drag does not go through all edges
+ * - every canvas is drawn in one pass per style, its edges are stroked as one path
+ * - only edges intersecting visible area are drawn onto base canvas
+ * - edges with weight above 1 (e.g. edges of supervertices) are thicker, width grows with logarithm of weight,
+ *   they are drawn in one more pass per width
+ * - edges are directed, so every edge has arrowhead at border of its target vertex, arrowhead is part of path of edge
+ *   (it does not need its own pass), loop has no arrowhead
+ */
+public class EdgeRenderer implements GraphModelListener {
+
+    private static final Color edgeColor = Color.gray(0.35);
+    private static final Color draggedEdgeColor = Color.gray(0.15);
+    private static final int maxWidth = 8;
+    //length of arrowhead of edge with width 1, it grows with width of edge
+    private static final double arrowSize = 8;
+
+    private final GraphModel model;
+    private final GraphIndex index;
+    private final Canvas base = new Canvas();
+    private final Canvas overlay = new Canvas();
+    private final Group view = new Group(base, overlay);
+    private final AnimationTimer timer;
+    private boolean baseDirty;
+    private boolean overlayDirty;
+    //dragged vertices and slots of their edges
+    private boolean[] dragged = new boolean[64];
+    private final IntList draggedIds = new IntList();
+    private boolean[] active = new boolean[64];
+    private final IntList activeSlots = new IntList();
+    private double dragX;
+    private double dragY;
+    private GraphAlgorithms.EdgeWeight weights;
+    //heavy edges of last redraw of base canvas and their widths
+    private final IntList heavySlots = new IntList();
+    private final IntList heavyWidths = new IntList();
+
+    /**
+     * Constructor of EdgeRenderer, renderer listens to model until dispose() is called
+     * @param model of graph
+     * @param index of vertices and edges of model, edges are drawn between centers of indexed vertices
+     */
+    public EdgeRenderer(GraphModel model, GraphIndex index) {
+        this.model = model;
+        this.index = index;
+        model.addListener(this);
+        view.setMouseTransparent(true);
+        view.setManaged(false);
+        base.widthProperty().addListener((observableValue, oldWidth, width) -> requestRedraw());
+        base.heightProperty().addListener((observableValue, oldHeight, height) -> requestRedraw());
+        timer = new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                if (baseDirty) {
+                    redrawBase();
+                }
+                if (overlayDirty) {
+                    redrawOverlay();
+                }
+            }
+        };
+        timer.start();
+        baseDirty = true;
+    }
+
+    /**
+     * @return node with canvases of edges, it should be placed below vertices
+     */
+    public Node getView() {
+        return view;
+    }
+
+    /**
+     * Method that makes canvases of edges as big as region, in which graph is displayed
+     * @param region with vertices
+     */
+    public void bindSize(Region region) {
+        base.widthProperty().bind(region.widthProperty());
+        base.heightProperty().bind(region.heightProperty());
+        overlay.widthProperty().bind(region.widthProperty());
+        overlay.heightProperty().bind(region.heightProperty());
+    }
+
+    /**
+     * Method that stops listening to model and redrawing
+     */
+    public void dispose() {
+        timer.stop();
+        model.removeListener(this);
+    }
+
+    /**
+     * Method that sets weights of edges, which decide width of edges
+     * @param weights of edges, null if all edges have the same width
+     */
+    public void setWeights(GraphAlgorithms.EdgeWeight weights) {
+        this.weights = weights;
+        requestRedraw();
+    }
+
+    /**
+     * Method that marks all edges to be redrawn in next pulse (e.g. after vertices were moved only in index)
+     */
+    public void requestRedraw() {
+        baseDirty = true;
+        overlayDirty |= !activeSlots.isEmpty();
+    }
+
+    /**
+     * Method that moves edges of given vertices from base canvas onto overlay canvas
+     * @param ids of dragged vertices, only first count of them are used
+     * @param count number of dragged vertices
+     */
+    public void startDrag(int[] ids, int count) {
+        endDrag();
+        if (index.getSlotCapacity() > active.length) {
+            active = Arrays.copyOf(active, Math.max(index.getSlotCapacity(), active.length << 1));
+        }
+        for (int i = 0; i < count; i++) {
+            int id = ids[i];
+            if (id >= dragged.length) {
+                dragged = Arrays.copyOf(dragged, Math.max(id + 1, dragged.length << 1));
+            }
+            dragged[id] = true;
+            draggedIds.add(id);
+            index.incidentEdges(id, slot -> {
+                if (!active[slot]) {
+                    active[slot] = true;
+                    activeSlots.add(slot);
+                }
+            });
+        }
+        baseDirty = true;
+        overlayDirty = true;
+    }
+
+    /**
+     * Method that moves edges of dragged vertices by offset (other end of edge stays, if it is not dragged)
+     * @param dx offset of dragged vertices in x axis
+     * @param dy offset of dragged vertices in y axis
+     */
+    public void setDragOffset(double dx, double dy) {
+        dragX = dx;
+        dragY = dy;
+        overlayDirty = true;
+    }
+
+    /**
+     * Method that puts edges of dragged vertices back onto base canvas
+     */
+    public void endDrag() {
+        if (draggedIds.isEmpty() && activeSlots.isEmpty()) {
+            return;
+        }
+        for (int i = 0; i < draggedIds.size(); i++) {
+            dragged[draggedIds.get(i)] = false;
+        }
+        draggedIds.clear();
+        for (int i = 0; i < activeSlots.size(); i++) {
+            active[activeSlots.get(i)] = false;
+        }
+        activeSlots.clear();
+        dragX = 0;
+        dragY = 0;
+        baseDirty = true;
+        overlayDirty = true;
+    }
+
+    private boolean isActive(int slot) {
+        return slot < active.length && active[slot];
+    }
+
+    private boolean isDragged(int id) {
+        return id < dragged.length && dragged[id];
+    }
+
+    private void redrawBase() {
+        baseDirty = false;
+        GraphicsContext gc = base.getGraphicsContext2D();
+        double width = base.getWidth();
+        double height = base.getHeight();
+        gc.clearRect(0, 0, width, height);
+        if (index.getNumberOfEdges() == 0) {
+            return;
+        }
+        gc.setStroke(edgeColor);
+        gc.setLineWidth(1);
+        gc.beginPath();
+        heavySlots.clear();
+        heavyWidths.clear();
+        index.queryEdges(0, 0, width, height, slot -> {
+            if (!isActive(slot)) {
+                int from = index.getEdgeFrom(slot);
+                int to = index.getEdgeTo(slot);
+                int lineWidth = lineWidth(from, to);
+                if (lineWidth > 1) {
+                    heavySlots.add(slot);
+                    heavyWidths.add(lineWidth);
+                    return;
+                }
+                addEdge(gc, index.getCenterX(from), index.getCenterY(from), index.getCenterX(to), index.getCenterY(to), radius(to), 1);
+            }
+        });
+        gc.stroke();
+        for (int lineWidth = 2; lineWidth <= maxWidth && !heavySlots.isEmpty(); lineWidth++) {
+            gc.setLineWidth(lineWidth);
+            gc.beginPath();
+            for (int i = 0; i < heavySlots.size(); i++) {
+                if (heavyWidths.get(i) == lineWidth) {
+                    int slot = heavySlots.get(i);
+                    int from = index.getEdgeFrom(slot);
+                    int to = index.getEdgeTo(slot);
+                    addEdge(gc, index.getCenterX(from), index.getCenterY(from), index.getCenterX(to), index.getCenterY(to),
+                            radius(to), lineWidth);
+                }
+            }
+            gc.stroke();
+        }
+    }
+
+    /**
+     * @return width of edge, 1 for edges with weight up to 1
+     */
+    private int lineWidth(int from, int to) {
+        if (weights == null) {
+            return 1;
+        }
+        double weight = weights.weight(from, to);
+        if (weight <= 1) {
+            return 1;
+        }
+        return Math.min(maxWidth, 1 + (int) Math.ceil(Math.log(weight) / Math.log(2)));
+    }
+
+    private void redrawOverlay() {
+        overlayDirty = false;
+        GraphicsContext gc = overlay.getGraphicsContext2D();
+        gc.clearRect(0, 0, overlay.getWidth(), overlay.getHeight());
+        if (activeSlots.isEmpty()) {
+            return;
+        }
+        gc.setStroke(draggedEdgeColor);
+        gc.setLineWidth(1);
+        gc.beginPath();
+        for (int i = 0; i < activeSlots.size(); i++) {
+            int slot = activeSlots.get(i);
+            int from = index.getEdgeFrom(slot);
+            int to = index.getEdgeTo(slot);
+            if (lineWidth(from, to) == 1) {
+                addEdge(gc, centerX(from), centerY(from), centerX(to), centerY(to), radius(to), 1);
+            }
+        }
+        gc.stroke();
+        //dragged edges are few, so heavy ones are stroked one by one
+        for (int i = 0; i < activeSlots.size(); i++) {
+            int slot = activeSlots.get(i);
+            int from = index.getEdgeFrom(slot);
+            int to = index.getEdgeTo(slot);
+            int lineWidth = lineWidth(from, to);
+            if (lineWidth > 1) {
+                gc.setLineWidth(lineWidth);
+                gc.beginPath();
+                addEdge(gc, centerX(from), centerY(from), centerX(to), centerY(to), radius(to), lineWidth);
+                gc.stroke();
+            }
+        }
+    }
+
+    /**
+     * Method that adds line of edge and its arrowhead (two short lines meeting at border of target) into current path
+     * @param radius of target vertex
+     * @param lineWidth width of edge, arrowhead of wider edge is bigger
+     */
+    private static void addEdge(GraphicsContext gc, double fromX, double fromY, double toX, double toY, double radius, int lineWidth) {
+        gc.moveTo(fromX, fromY);
+        gc.lineTo(toX, toY);
+        double dx = toX - fromX;
+        double dy = toY - fromY;
+        double length = Math.sqrt(dx * dx + dy * dy);
+        //loop, or vertices overlap so border of target is behind source
+        if (length <= radius) {
+            return;
+        }
+        double unitX = dx / length;
+        double unitY = dy / length;
+        double size = arrowSize + 2 * (lineWidth - 1);
+        double tipX = toX - unitX * radius;
+        double tipY = toY - unitY * radius;
+        double baseX = tipX - unitX * size;
+        double baseY = tipY - unitY * size;
+        double half = size / 2;
+        gc.moveTo(baseX - unitY * half, baseY + unitX * half);
+        gc.lineTo(tipX, tipY);
+        gc.lineTo(baseX + unitY * half, baseY - unitX * half);
+    }
+
+    /**
+     * @return radius of indexed vertex
+     */
+    private double radius(int id) {
+        return index.getCenterX(id) - index.getX(id);
+    }
+
+    private double centerX(int id) {
+        return isDragged(id) ? index.getCenterX(id) + dragX : index.getCenterX(id);
+    }
+
+    private double centerY(int id) {
+        return isDragged(id) ? index.getCenterY(id) + dragY : index.getCenterY(id);
+    }
+
+    @Override
+    public void vertexRemoved(int id, String label) {
+        //slots of removed edges can be reused by other edges, so they are not drawn as dragged anymore
+        endDrag();
+        requestRedraw();
+    }
+
+    @Override
+    public void vertexMoved(int id, double oldX, double oldY) {
+        requestRedraw();
+    }
+
+    @Override
+    public void edgeAdded(int from, int to) {
+        requestRedraw();
+    }
+
+    @Override
+    public void edgeRemoved(int from, int to) {
+        endDrag();
+        requestRedraw();
+    }
+
+    @Override
+    public void graphCleared() {
+        endDrag();
+        requestRedraw();
+    }
+
+    @Override
+    public void graphLoaded() {
+        requestRedraw();
+    }
+}
@@ -0,0 +1,385 @@
+package com.example.editorgrafov.spatial;
+
+import com.example.editorgrafov.GraphModel;
+import com.example.editorgrafov.GraphModelListener;
+import com.example.editorgrafov.collections.IntList;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Spatial index of displayed graph - vertices (their circles) and edges (bounding boxes of their lines) in QuadTree
+ * - index listens to model, so it is updated incrementally on every insert, move and removal
+ * - position of vertex can be changed also temporarily (while vertex is dragged), model is changed only at the end
+ * - edges are stored under slots, every vertex knows slots of its incident edges, so its edges follow it when it moves
+ *   (slot knows its positions in lists of both of its vertices, so it is taken out of them in O(1))
+ * - position of vertex in model is top-left corner of square around its circle
+ */
+public class GraphIndex implements GraphModelListener {
+
+    private final GraphModel model;
+    private final IntUnaryOperator radius;
+    private final QuadTree vertices = new QuadTree();
+    private final QuadTree edges = new QuadTree();
+    private IntList[] incident = new IntList[64];
+    private int[] slotFrom = new int[64];
+    private int[] slotTo = new int[64];
+    //position of slot in incident[slotFrom[slot]] and in incident[slotTo[slot]]
+    private int[] slotFromPosition = new int[64];
+    private int[] slotToPosition = new int[64];
+    private int slotCount;
+    private final IntList freeSlots = new IntList();
+
+    /**
+     * Constructor of GraphIndex, whole model is indexed and index listens to it afterwards
+     * @param model of graph
+     * @param radius function, which returns radius of vertex with given id
+     */
+    public GraphIndex(GraphModel model, IntUnaryOperator radius) {
+        this.model = model;
+        this.radius = radius;
+        indexModel();
+        model.addListener(this);
+    }
+
+    /**
+     * Method that indexes every vertex and edge of model, arrays are resized only once before
+     */
+    private void indexModel() {
+        int numberOfEdges = model.getNumberOfEdges();
+        if (numberOfEdges > slotFrom.length) {
+            slotFrom = Arrays.copyOf(slotFrom, numberOfEdges);
+            slotTo = Arrays.copyOf(slotTo, numberOfEdges);
+            slotFromPosition = Arrays.copyOf(slotFromPosition, numberOfEdges);
+            slotToPosition = Arrays.copyOf(slotToPosition, numberOfEdges);
+        }
+        if (model.getCapacity() > incident.length) {
+            incident = Arrays.copyOf(incident, model.getCapacity());
+        }
+        for (int id = 0; id < model.getCapacity(); id++) {
+            if (model.isAlive(id)) {
+                vertexAdded(id);
+            }
+        }
+        for (int id = 0; id < model.getCapacity(); id++) {
+            if (model.isAlive(id)) {
+                for (int destination : model.getGraph().outgoingEdgesDestinations(id)) {
+                    edgeAdded(id, destination);
+                }
+            }
+        }
+    }
+
+    /**
+     * Method that stops listening to model
+     */
+    public void dispose() {
+        model.removeListener(this);
+    }
+
+    /**
+     * Method that places vertex to its position in model again (e.g. after its radius changed or dragging ended)
+     * @param id of vertex
+     */
+    public void updateVertex(int id) {
+        if (model.isAlive(id)) {
+            updateVertex(id, model.getX(id), model.getY(id));
+        }
+    }
+
+    /**
+     * Method that places vertex to temporary position, edges of vertex are moved as well
+     * @param id of vertex
+     * @param x coordinate of top-left corner
+     * @param y coordinate of top-left corner
+     */
+    public void updateVertex(int id, double x, double y) {
+        int r = radius.applyAsInt(id);
+        vertices.put(id, x, y, x + 2 * r, y + 2 * r);
+        IntList slots = id < incident.length ? incident[id] : null;
+        if (slots != null) {
+            for (int i = 0; i < slots.size(); i++) {
+                placeEdge(slots.get(i));
+            }
+        }
+    }
+
+    /**
+     * Method that returns x coordinate of vertex, as it is indexed (it differs from model while vertex is dragged)
+     * @param id of vertex
+     * @return x coordinate of top-left corner
+     */
+    public double getX(int id) {
+        return vertices.getMinX(id);
+    }
+
+    /**
+     * Method that returns y coordinate of vertex, as it is indexed (it differs from model while vertex is dragged)
+     * @param id of vertex
+     * @return y coordinate of top-left corner
+     */
+    public double getY(int id) {
+        return vertices.getMinY(id);
+    }
+
+    public double getCenterX(int id) {
+        return (vertices.getMinX(id) + vertices.getMaxX(id)) / 2;
+    }
+
+    public double getCenterY(int id) {
+        return (vertices.getMinY(id) + vertices.getMaxY(id)) / 2;
+    }
+
+    /**
+     * Method that finds vertex, whose circle contains given point, vertex with the biggest id wins (it is drawn last)
+     * @param x coordinate of point
+     * @param y coordinate of point
+     * @return id of vertex, or -1 if there is no vertex on point
+     */
+    public int pick(double x, double y) {
+        int[] found = {-1};
+        vertices.query(x, y, x, y, id -> {
+            double r = (vertices.getMaxX(id) - vertices.getMinX(id)) / 2;
+            double dx = x - getCenterX(id);
+            double dy = y - getCenterY(id);
+            if (id > found[0] && dx * dx + dy * dy <= r * r) {
+                found[0] = id;
+            }
+        });
+        return found[0];
+    }
+
+    /**
+     * Method that finds vertex, whose center is nearest to given point
+     * @param x coordinate of point
+     * @param y coordinate of point
+     * @param maxDistance only vertices with center closer than this are considered
+     * @return id of vertex, or -1 if there is no vertex close enough
+     */
+    public int nearest(double x, double y, double maxDistance) {
+        return vertices.nearest(x, y, maxDistance);
+    }
+
+    /**
+     * Method that finds vertices, whose circles (their bounding boxes) intersect rectangle
+     * @param minX left side of rectangle
+     * @param minY top side of rectangle
+     * @param maxX right side of rectangle
+     * @param maxY bottom side of rectangle
+     * @param consumer receives ids of vertices (in no particular order)
+     */
+    public void queryVertices(double minX, double minY, double maxX, double maxY, IntConsumer consumer) {
+        vertices.query(minX, minY, maxX, maxY, consumer);
+    }
+
+    /**
+     * Method that finds vertices, whose centers are inside of rectangle (e.g. rubber-band selection)
+     * @param minX left side of rectangle
+     * @param minY top side of rectangle
+     * @param maxX right side of rectangle
+     * @param maxY bottom side of rectangle
+     * @return ids of vertices in ascending order
+     */
+    public int[] verticesInside(double minX, double minY, double maxX, double maxY) {
+        IntList found = new IntList();
+        vertices.query(minX, minY, maxX, maxY, id -> {
+            double x = getCenterX(id);
+            double y = getCenterY(id);
+            if (x >= minX && x <= maxX && y >= minY && y <= maxY) {
+                found.add(id);
+            }
+        });
+        int[] ids = found.toArray();
+        Arrays.sort(ids);
+        return ids;
+    }
+
+    /**
+     * Method that finds edges, whose bounding boxes intersect rectangle
+     * @param minX left side of rectangle
+     * @param minY top side of rectangle
+     * @param maxX right side of rectangle
+     * @param maxY bottom side of rectangle
+     * @param consumer receives slots of edges, their vertices are returned by getEdgeFrom() and getEdgeTo()
+     */
+    public void queryEdges(double minX, double minY, double maxX, double maxY, IntConsumer consumer) {
+        edges.query(minX, minY, maxX, maxY, consumer);
+    }
+
+    /**
+     * Method that returns slots of edges incident to vertex (outgoing, incoming and loop), without searching
+     * @param id of vertex
+     * @param consumer receives slots of edges, loop is received once
+     */
+    public void incidentEdges(int id, IntConsumer consumer) {
+        IntList slots = id < incident.length ? incident[id] : null;
+        if (slots != null) {
+            for (int i = 0; i < slots.size(); i++) {
+                consumer.accept(slots.get(i));
+            }
+        }
+    }
+
+    /**
+     * @return upper bound of slots of edges (every slot is smaller)
+     */
+    public int getSlotCapacity() {
+        return slotCount;
+    }
+
+    public int getEdgeFrom(int slot) {
+        return slotFrom[slot];
+    }
+
+    public int getEdgeTo(int slot) {
+        return slotTo[slot];
+    }
+
+    public int getNumberOfVertices() {
+        return vertices.size();
+    }
+
+    public int getNumberOfEdges() {
+        return edges.size();
+    }
+
+    private void placeEdge(int slot) {
+        int from = slotFrom[slot];
+        int to = slotTo[slot];
+        double fromX = getCenterX(from);
+        double fromY = getCenterY(from);
+        double toX = getCenterX(to);
+        double toY = getCenterY(to);
+        edges.put(slot, Math.min(fromX, toX), Math.min(fromY, toY), Math.max(fromX, toX), Math.max(fromY, toY));
+    }
+
+    private IntList incidentOf(int id) {
+        if (id >= incident.length) {
+            incident = Arrays.copyOf(incident, Math.max(id + 1, incident.length << 1));
+        }
+        if (incident[id] == null) {
+            incident[id] = new IntList(4);
+        }
+        return incident[id];
+    }
+
+    /**
+     * @return slot of edge from -> to, or -1 if edge is not indexed
+     */
+    private int findSlot(int from, int to) {
+        IntList slots = from < incident.length ? incident[from] : null;
+        IntList other = to < incident.length ? incident[to] : null;
+        if (other != null && (slots == null || other.size() < slots.size())) {
+            //shorter list is searched
+            slots = other;
+        }
+        if (slots != null) {
+            for (int i = 0; i < slots.size(); i++) {
+                int slot = slots.get(i);
+                if (slotFrom[slot] == from && slotTo[slot] == to) {
+                    return slot;
+                }
+            }
+        }
+        return -1;
+    }
+
+    private void removeSlot(int slot) {
+        int from = slotFrom[slot];
+        int to = slotTo[slot];
+        removeIncident(from, slotFromPosition[slot]);
+        if (to != from) {
+            removeIncident(to, slotToPosition[slot]);
+        }
+        edges.remove(slot);
+        freeSlots.add(slot);
+    }
+
+    /**
+     * Method that removes slot at position from list of vertex, the last slot of list is moved into its place
+     */
+    private void removeIncident(int id, int position) {
+        IntList slots = incident[id];
+        slots.swapRemove(position);
+        if (position < slots.size()) {
+            int moved = slots.get(position);
+            if (slotFrom[moved] == id) {
+                slotFromPosition[moved] = position;
+            }
+            else {
+                slotToPosition[moved] = position;
+            }
+        }
+    }
+
+    @Override
+    public void vertexAdded(int id) {
+        updateVertex(id);
+    }
+
+    @Override
+    public void vertexRemoved(int id, String label) {
+        IntList slots = id < incident.length ? incident[id] : null;
+        if (slots != null) {
+            while (!slots.isEmpty()) {
+                removeSlot(slots.getLast());
+            }
+            incident[id] = null;
+        }
+        vertices.remove(id);
+    }
+
+    @Override
+    public void vertexMoved(int id, double oldX, double oldY) {
+        updateVertex(id);
+    }
+
+    @Override
+    public void edgeAdded(int from, int to) {
+        int slot;
+        if (!freeSlots.isEmpty()) {
+            slot = freeSlots.removeLast();
+        }
+        else {
+            slot = slotCount++;
+            if (slot == slotFrom.length) {
+                slotFrom = Arrays.copyOf(slotFrom, slot << 1);
+                slotTo = Arrays.copyOf(slotTo, slot << 1);
+                slotFromPosition = Arrays.copyOf(slotFromPosition, slot << 1);
+                slotToPosition = Arrays.copyOf(slotToPosition, slot << 1);
+            }
+        }
+        slotFrom[slot] = from;
+        slotTo[slot] = to;
+        slotFromPosition[slot] = incidentOf(from).size();
+        incidentOf(from).add(slot);
+        if (to != from) {
+            slotToPosition[slot] = incidentOf(to).size();
+            incidentOf(to).add(slot);
+        }
+        placeEdge(slot);
+    }
+
+    @Override
+    public void edgeRemoved(int from, int to) {
+        int slot = findSlot(from, to);
+        if (slot >= 0) {
+            removeSlot(slot);
+        }
+    }
+
+    @Override
+    public void graphCleared() {
+        vertices.clear();
+        edges.clear();
+        Arrays.fill(incident, null);
+        slotCount = 0;
+        freeSlots.clear();
+    }
+
+    @Override
+    public void graphLoaded() {
+        indexModel();
+    }
+}
@@ -0,0 +1,380 @@
+package com.example.editorgrafov.spatial;
+
+import com.example.editorgrafov.collections.IntList;
+
+import java.util.Arrays;
+import java.util.PriorityQueue;
+import java.util.function.IntConsumer;
+
+/**
+ * Loose quadtree of items (non-negative int ids) with axis aligned bounding boxes
+ * - item is stored in the deepest node, whose square contains center of item and whose loose square
+ *   (square enlarged twice around the same center) contains whole box, so every item has exactly one place
+ * - root grows (gets new parent) whenever item does not fit into it, so coordinates are not limited
+ * - node is split when it has more than leafCapacity items, depth is limited by maxDepth
+ * - insert, remove and update take O(depth), queries visit only nodes intersecting queried area
+ *   (position of item in list of its node is kept, so item is removed from crowded node in O(1) as well)
+ */
+public class QuadTree {
+
+    private static final int leafCapacity = 16;
+    private static final int maxDepth = 24;
+    private static final double initialHalfSize = 512;
+
+    private Node root = new Node(0, 0, initialHalfSize, 0);
+    private Node[] nodeOf = new Node[64];
+    private int[] positionOf = new int[64];
+    private double[] minX = new double[64];
+    private double[] minY = new double[64];
+    private double[] maxX = new double[64];
+    private double[] maxY = new double[64];
+    private int size;
+
+    /**
+     * Node of tree, which covers square centerX +- halfSize, centerY +- halfSize
+     */
+    private static final class Node {
+        private final double centerX;
+        private final double centerY;
+        private final double halfSize;
+        private int depth;
+        private Node parent;
+        private Node[] children;
+        private final IntList items = new IntList(4);
+
+        Node(double centerX, double centerY, double halfSize, int depth) {
+            this.centerX = centerX;
+            this.centerY = centerY;
+            this.halfSize = halfSize;
+            this.depth = depth;
+        }
+
+        int quadrant(double x, double y) {
+            return (x >= centerX ? 1 : 0) | (y >= centerY ? 2 : 0);
+        }
+
+        boolean contains(double x, double y) {
+            return x >= centerX - halfSize && x < centerX + halfSize && y >= centerY - halfSize && y < centerY + halfSize;
+        }
+
+        /**
+         * @return true iff item with given center and size can be stored in this node
+         */
+        boolean fits(double x, double y, double extent) {
+            return contains(x, y) && extent <= halfSize;
+        }
+
+        boolean intersectsLoose(double queryMinX, double queryMinY, double queryMaxX, double queryMaxY) {
+            double loose = 2 * halfSize;
+            return queryMinX <= centerX + loose && queryMaxX >= centerX - loose
+                    && queryMinY <= centerY + loose && queryMaxY >= centerY - loose;
+        }
+
+        double distanceSquared(double x, double y) {
+            double dx = Math.max(Math.abs(x - centerX) - halfSize, 0);
+            double dy = Math.max(Math.abs(y - centerY) - halfSize, 0);
+            return dx * dx + dy * dy;
+        }
+    }
+
+    /**
+     * Method that returns number of items in tree
+     * @return number of items
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Method that checks, whether item is in tree
+     * @param item id of item
+     * @return true iff item is in tree
+     */
+    public boolean contains(int item) {
+        return item < nodeOf.length && nodeOf[item] != null;
+    }
+
+    /**
+     * Method that inserts item or updates its box, if it is already in tree
+     * @param item id of item
+     * @param minX left side of box
+     * @param minY top side of box
+     * @param maxX right side of box
+     * @param maxY bottom side of box
+     */
+    public void put(int item, double minX, double minY, double maxX, double maxY) {
+        if (item < 0) {
+            throw new IllegalArgumentException("Item must not be negative: " + item);
+        }
+        if (!Double.isFinite(minX) || !Double.isFinite(minY) || !Double.isFinite(maxX) || !Double.isFinite(maxY)) {
+            throw new IllegalArgumentException("Box of item " + item + " is not finite");
+        }
+        ensureCapacity(item + 1);
+        double x = (minX + maxX) / 2;
+        double y = (minY + maxY) / 2;
+        double extent = Math.max(maxX - minX, maxY - minY) / 2;
+        Node node = nodeOf[item];
+        if (node != null) {
+            //fast path - item stays in the same node (e.g. vertex was moved only a little)
+            boolean stays = node.fits(x, y, extent) && (node.children == null || !node.children[node.quadrant(x, y)].fits(x, y, extent));
+            setBox(item, minX, minY, maxX, maxY);
+            if (stays) {
+                return;
+            }
+            detach(item, node);
+        }
+        else {
+            setBox(item, minX, minY, maxX, maxY);
+            size++;
+        }
+        while (!root.fits(x, y, extent)) {
+            grow(x, y);
+        }
+        insert(root, item, x, y, extent);
+    }
+
+    /**
+     * Method that removes item from tree
+     * @param item id of item
+     * @return true iff item was in tree
+     */
+    public boolean remove(int item) {
+        if (!contains(item)) {
+            return false;
+        }
+        detach(item, nodeOf[item]);
+        size--;
+        return true;
+    }
+
+    /**
+     * Method that removes every item
+     */
+    public void clear() {
+        root = new Node(0, 0, initialHalfSize, 0);
+        Arrays.fill(nodeOf, null);
+        size = 0;
+    }
+
+    public double getMinX(int item) {
+        return minX[item];
+    }
+
+    public double getMinY(int item) {
+        return minY[item];
+    }
+
+    public double getMaxX(int item) {
+        return maxX[item];
+    }
+
+    public double getMaxY(int item) {
+        return maxY[item];
+    }
+
+    /**
+     * Method that finds every item, whose box intersects given rectangle
+     * @param queryMinX left side of rectangle
+     * @param queryMinY top side of rectangle
+     * @param queryMaxX right side of rectangle
+     * @param queryMaxY bottom side of rectangle
+     * @param consumer receives ids of found items (in no particular order)
+     */
+    public void query(double queryMinX, double queryMinY, double queryMaxX, double queryMaxY, IntConsumer consumer) {
+        query(root, queryMinX, queryMinY, queryMaxX, queryMaxY, consumer);
+    }
+
+    private void query(Node node, double queryMinX, double queryMinY, double queryMaxX, double queryMaxY, IntConsumer consumer) {
+        if (!node.intersectsLoose(queryMinX, queryMinY, queryMaxX, queryMaxY)) {
+            return;
+        }
+        IntList items = node.items;
+        for (int i = 0; i < items.size(); i++) {
+            int item = items.get(i);
+            if (minX[item] <= queryMaxX && maxX[item] >= queryMinX && minY[item] <= queryMaxY && maxY[item] >= queryMinY) {
+                consumer.accept(item);
+            }
+        }
+        if (node.children != null) {
+            for (Node child : node.children) {
+                query(child, queryMinX, queryMinY, queryMaxX, queryMaxY, consumer);
+            }
+        }
+    }
+
+    /**
+     * Method that finds item, whose center is nearest to given point
+     * - nodes are visited in order of their distance from point, search stops when no closer item can exist
+     * @param x coordinate of point
+     * @param y coordinate of point
+     * @param maxDistance only items with center closer than this are considered
+     * @return id of nearest item, or -1 if there is no item close enough
+     */
+    public int nearest(double x, double y, double maxDistance) {
+        double best = maxDistance * maxDistance;
+        int bestItem = -1;
+        PriorityQueue<double[]> queue = new PriorityQueue<>((a, b) -> Double.compare(a[0], b[0]));
+        Node[] nodes = new Node[16];
+        int count = 0;
+        nodes[count] = root;
+        queue.add(new double[]{root.distanceSquared(x, y), count++});
+        while (!queue.isEmpty()) {
+            double[] entry = queue.poll();
+            if (entry[0] > best) {
+                break;
+            }
+            Node node = nodes[(int) entry[1]];
+            IntList items = node.items;
+            for (int i = 0; i < items.size(); i++) {
+                int item = items.get(i);
+                double dx = (minX[item] + maxX[item]) / 2 - x;
+                double dy = (minY[item] + maxY[item]) / 2 - y;
+                double distance = dx * dx + dy * dy;
+                if (distance <= best) {
+                    best = distance;
+                    bestItem = item;
+                }
+            }
+            if (node.children != null) {
+                for (Node child : node.children) {
+                    //centers of items are inside of (not loose) square of their node
+                    double distance = child.distanceSquared(x, y);
+                    if (distance <= best) {
+                        if (count == nodes.length) {
+                            nodes = Arrays.copyOf(nodes, count << 1);
+                        }
+                        nodes[count] = child;
+                        queue.add(new double[]{distance, count++});
+                    }
+                }
+            }
+        }
+        return bestItem;
+    }
+
+    private void insert(Node node, int item, double x, double y, double extent) {
+        while (node.children != null) {
+            Node child = node.children[node.quadrant(x, y)];
+            if (!child.fits(x, y, extent)) {
+                break;
+            }
+            node = child;
+        }
+        add(node, item);
+        if (node.children == null && node.items.size() > leafCapacity && node.depth < maxDepth) {
+            split(node);
+        }
+    }
+
+    private void split(Node node) {
+        double half = node.halfSize / 2;
+        node.children = new Node[4];
+        for (int quadrant = 0; quadrant < 4; quadrant++) {
+            double childX = node.centerX + ((quadrant & 1) != 0 ? half : -half);
+            double childY = node.centerY + ((quadrant & 2) != 0 ? half : -half);
+            Node child = new Node(childX, childY, half, node.depth + 1);
+            child.parent = node;
+            node.children[quadrant] = child;
+        }
+        IntList items = node.items;
+        for (int i = items.size() - 1; i >= 0; i--) {
+            int item = items.get(i);
+            double x = (minX[item] + maxX[item]) / 2;
+            double y = (minY[item] + maxY[item]) / 2;
+            double extent = Math.max(maxX[item] - minX[item], maxY[item] - minY[item]) / 2;
+            Node child = node.children[node.quadrant(x, y)];
+            if (child.fits(x, y, extent)) {
+                removeAt(node, i);
+                add(child, item);
+            }
+        }
+    }
+
+    /**
+     * Method that adds new root, whose quadrant is current root, new root is extended towards given point
+     */
+    private void grow(double x, double y) {
+        Node old = root;
+        double half = old.halfSize;
+        double centerX = old.centerX + (x >= old.centerX ? half : -half);
+        double centerY = old.centerY + (y >= old.centerY ? half : -half);
+        Node newRoot = new Node(centerX, centerY, 2 * half, 0);
+        newRoot.children = new Node[4];
+        for (int quadrant = 0; quadrant < 4; quadrant++) {
+            double childX = centerX + ((quadrant & 1) != 0 ? half : -half);
+            double childY = centerY + ((quadrant & 2) != 0 ? half : -half);
+            Node child = quadrant == newRoot.quadrant(old.centerX, old.centerY) ? old : new Node(childX, childY, half, 1);
+            child.parent = newRoot;
+            newRoot.children[quadrant] = child;
+        }
+        increaseDepth(old);
+        root = newRoot;
+    }
+
+    private static void increaseDepth(Node node) {
+        node.depth++;
+        if (node.children != null) {
+            for (Node child : node.children) {
+                increaseDepth(child);
+            }
+        }
+    }
+
+    /**
+     * Method that removes item from its node, empty leaves are merged back into their parent
+     */
+    private void detach(int item, Node node) {
+        removeAt(node, positionOf[item]);
+        nodeOf[item] = null;
+        Node parent = node.parent;
+        while (parent != null && isEmptyLeaves(parent)) {
+            parent.children = null;
+            parent = parent.parent;
+        }
+    }
+
+    private void add(Node node, int item) {
+        positionOf[item] = node.items.size();
+        node.items.add(item);
+        nodeOf[item] = node;
+    }
+
+    /**
+     * Method that removes item at position from list of node, the last item of list is moved into its place
+     */
+    private void removeAt(Node node, int position) {
+        IntList items = node.items;
+        items.swapRemove(position);
+        if (position < items.size()) {
+            positionOf[items.get(position)] = position;
+        }
+    }
+
+    private static boolean isEmptyLeaves(Node node) {
+        for (Node child : node.children) {
+            if (child.children != null || !child.items.isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void setBox(int item, double itemMinX, double itemMinY, double itemMaxX, double itemMaxY) {
+        minX[item] = itemMinX;
+        minY[item] = itemMinY;
+        maxX[item] = itemMaxX;
+        maxY[item] = itemMaxY;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > nodeOf.length) {
+            int newLength = Math.max(capacity, nodeOf.length << 1);
+            nodeOf = Arrays.copyOf(nodeOf, newLength);
+            positionOf = Arrays.copyOf(positionOf, newLength);
+            minX = Arrays.copyOf(minX, newLength);
+            minY = Arrays.copyOf(minY, newLength);
+            maxX = Arrays.copyOf(maxX, newLength);
+            maxY = Arrays.copyOf(maxY, newLength);
+        }
+    }
+}
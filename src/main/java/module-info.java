@@ -2,6 +2,7 @@ module com.example.editorgrafov {
     requires javafx.controls;
     requires javafx.fxml;
     requires javafx.web;
+    requires java.xml;
 
     requires org.controlsfx.controls;
     requires com.dlsc.formsfx;
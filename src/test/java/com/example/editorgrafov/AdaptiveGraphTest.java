@@ -0,0 +1,133 @@
+package com.example.editorgrafov;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdaptiveGraphTest {
+
+    private static final int n = 64;
+
+    @Test
+    void graphMigratesToMatrixAndBackWithoutLosingEdges() {
+        AdaptiveGraph graph = new AdaptiveGraph();
+        boolean[][] expected = new boolean[n][n];
+        boolean[] present = new boolean[n];
+        for (int v = 0; v < n; v++) {
+            graph.addVertex(v);
+            present[v] = true;
+        }
+        //density 0.25 is crossed at n * n / 4 edges
+        int added = 0;
+        for (int from = 0; from < n && !graph.isDense(); from++) {
+            for (int to = 0; to < n && !graph.isDense(); to++) {
+                graph.addEdge(from, to);
+                expected[from][to] = true;
+                added++;
+            }
+        }
+        assertTrue(graph.isDense());
+        assertTrue(added >= n * n / 4);
+        AdjacencyListTest.assertSameGraph(expected, present, graph);
+
+        //density 0.0625 is crossed back only after most edges are removed
+        for (int from = 0; from < n && graph.isDense(); from++) {
+            for (int to = 0; to < n && graph.isDense(); to++) {
+                if (expected[from][to]) {
+                    graph.removeEdge(from, to);
+                    expected[from][to] = false;
+                }
+            }
+        }
+        assertFalse(graph.isDense());
+        assertTrue(graph.getDensity() < 0.0625);
+        AdjacencyListTest.assertSameGraph(expected, present, graph);
+    }
+
+    @Test
+    void removalOfVerticesMigratesToList() {
+        AdaptiveGraph graph = new AdaptiveGraph();
+        boolean[][] expected = new boolean[n][n];
+        boolean[] present = new boolean[n];
+        for (int v = 0; v < n; v++) {
+            graph.addVertex(v);
+            present[v] = true;
+        }
+        //dense block among first 40 vertices
+        for (int from = 0; from < 40; from++) {
+            for (int to = 0; to < 40; to++) {
+                graph.addEdge(from, to);
+                expected[from][to] = true;
+            }
+        }
+        assertTrue(graph.isDense());
+        for (int v = 0; v < 40 && graph.isDense(); v++) {
+            graph.removeVertex(v);
+            AdjacencyListTest.removeVertex(expected, present, v);
+        }
+        assertFalse(graph.isDense());
+        AdjacencyListTest.assertSameGraph(expected, present, graph);
+    }
+
+    @Test
+    void vertexWithBigIdForcesList() {
+        AdaptiveGraph graph = new AdaptiveGraph();
+        for (int v = 0; v < 40; v++) {
+            graph.addVertex(v);
+        }
+        for (int from = 0; from < 40; from++) {
+            for (int to = 0; to < 40; to++) {
+                graph.addEdge(from, to);
+            }
+        }
+        assertTrue(graph.isDense());
+        graph.addVertex(1 << 20);
+        assertFalse(graph.isDense());
+        assertTrue(graph.containsVertex(1 << 20));
+        assertTrue(graph.existsEdge(39, 0));
+    }
+
+    @Test
+    void randomChangesMatchMatrixInBothRepresentations() {
+        Random random = new Random(6);
+        AdaptiveGraph graph = new AdaptiveGraph();
+        boolean[][] expected = new boolean[n][n];
+        boolean[] present = new boolean[n];
+        boolean wasDense = false;
+        boolean wasSparse = false;
+        for (int phase = 0; phase < 6; phase++) {
+            //phases alternate between adding and removing, so graph crosses both thresholds several times
+            boolean adding = phase % 2 == 0;
+            for (int operation = 0; operation < 4000; operation++) {
+                int from = random.nextInt(n);
+                int to = random.nextInt(n);
+                if (!present[from] || !present[to]) {
+                    graph.addVertex(from);
+                    graph.addVertex(to);
+                    present[from] = true;
+                    present[to] = true;
+                }
+                else if (adding) {
+                    graph.addEdge(from, to);
+                    expected[from][to] = true;
+                }
+                else if (random.nextInt(500) == 0) {
+                    graph.removeVertex(from);
+                    AdjacencyListTest.removeVertex(expected, present, from);
+                }
+                else {
+                    graph.removeEdge(from, to);
+                    expected[from][to] = false;
+                }
+                wasDense |= graph.isDense();
+                wasSparse |= !graph.isDense();
+            }
+            AdjacencyListTest.assertSameGraph(expected, present, graph);
+        }
+        assertTrue(wasDense);
+        assertTrue(wasSparse);
+    }
+}
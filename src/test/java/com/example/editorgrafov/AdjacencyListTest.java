@@ -0,0 +1,161 @@
+package com.example.editorgrafov;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdjacencyListTest {
+
+    /**
+     * removal swaps last entry of list into hole, so twin of moved entry has to be told its new position,
+     * otherwise next removal through twin takes wrong entry from list of the other end
+     */
+    @Test
+    void removalThroughTwinsKeepsBothListsConsistent() {
+        AdjacencyList graph = new AdjacencyList();
+        for (int v = 0; v < 5; v++) {
+            graph.addVertex(v);
+        }
+        for (int to = 1; to < 5; to++) {
+            graph.addEdge(0, to);
+            graph.addEdge(to, 0);
+        }
+        graph.addEdge(0, 0);
+        assertTrue(graph.removeEdge(0, 1));
+        assertTrue(graph.removeEdge(3, 0));
+        assertFalse(graph.removeEdge(0, 1));
+        assertArrayEquals(new int[]{0, 2, 3, 4}, sorted(graph.outgoingEdgesDestinations(0)));
+        assertArrayEquals(new int[]{0, 1, 2, 4}, sorted(graph.incomingEdgesSources(0)));
+        graph.removeVertex(2);
+        assertArrayEquals(new int[]{0, 3, 4}, sorted(graph.outgoingEdgesDestinations(0)));
+        assertArrayEquals(new int[]{0, 1, 4}, sorted(graph.incomingEdgesSources(0)));
+        assertEquals(0, graph.getInDegree(2));
+        graph.removeVertex(0);
+        assertEquals(0, graph.getNumberOfEdges());
+        for (int v = 1; v < 5; v++) {
+            assertEquals(0, graph.getOutDegree(v));
+            assertEquals(0, graph.getInDegree(v));
+        }
+    }
+
+    @Test
+    void randomChangesMatchMatrix() {
+        Random random = new Random(4);
+        AdjacencyList graph = new AdjacencyList(4);
+        boolean[][] expected = new boolean[40][40];
+        boolean[] present = new boolean[40];
+        for (int operation = 0; operation < 50_000; operation++) {
+            int from = random.nextInt(40);
+            int to = random.nextInt(40);
+            int kind = random.nextInt(20);
+            if (kind == 0) {
+                graph.removeVertex(from);
+                removeVertex(expected, present, from);
+            }
+            else if (kind < 3 || !present[from] || !present[to]) {
+                graph.addVertex(from);
+                present[from] = true;
+            }
+            else if (kind < 12) {
+                assertEquals(!expected[from][to], graph.addEdge(from, to));
+                expected[from][to] = true;
+            }
+            else {
+                assertEquals(expected[from][to], graph.removeEdge(from, to));
+                expected[from][to] = false;
+            }
+            if (operation % 500 == 0) {
+                assertSameGraph(expected, present, graph);
+            }
+        }
+        assertSameGraph(expected, present, graph);
+    }
+
+    @Test
+    void copyOfCsrGraphCanBeEdited() {
+        Random random = new Random(5);
+        AdaptiveGraph source = new AdaptiveGraph();
+        boolean[][] expected = new boolean[30][30];
+        boolean[] present = new boolean[30];
+        for (int v = 0; v < 30; v++) {
+            if (v % 7 != 3) {
+                source.addVertex(v);
+                present[v] = true;
+            }
+        }
+        for (int i = 0; i < 120; i++) {
+            int from = random.nextInt(30);
+            int to = random.nextInt(30);
+            if (present[from] && present[to]) {
+                source.addEdge(from, to);
+                expected[from][to] = true;
+            }
+        }
+        AdjacencyList graph = AdjacencyList.of(CsrGraph.of(source));
+        assertSameGraph(expected, present, graph);
+        for (int from = 0; from < 30; from += 2) {
+            for (int to = 0; to < 30; to++) {
+                if (expected[from][to]) {
+                    assertTrue(graph.removeEdge(from, to));
+                    expected[from][to] = false;
+                }
+            }
+        }
+        graph.removeVertex(5);
+        removeVertex(expected, present, 5);
+        assertSameGraph(expected, present, graph);
+    }
+
+    static void removeVertex(boolean[][] expected, boolean[] present, int vertex) {
+        present[vertex] = false;
+        for (int other = 0; other < present.length; other++) {
+            expected[vertex][other] = false;
+            expected[other][vertex] = false;
+        }
+    }
+
+    /**
+     * Method that checks vertices, edges, both lists of neighbours and degrees of graph against matrix
+     */
+    static void assertSameGraph(boolean[][] expected, boolean[] present, Graph graph) {
+        int vertices = 0;
+        int edges = 0;
+        for (int v = 0; v < present.length; v++) {
+            assertEquals(present[v], graph.containsVertex(v));
+            if (!present[v]) {
+                continue;
+            }
+            vertices++;
+            int[] out = new int[present.length];
+            int outCount = 0;
+            int[] in = new int[present.length];
+            int inCount = 0;
+            for (int other = 0; other < present.length; other++) {
+                assertEquals(expected[v][other], graph.existsEdge(v, other));
+                if (expected[v][other]) {
+                    out[outCount++] = other;
+                }
+                if (expected[other][v]) {
+                    in[inCount++] = other;
+                }
+            }
+            edges += outCount;
+            assertArrayEquals(Arrays.copyOf(out, outCount), sorted(graph.outgoingEdgesDestinations(v)));
+            assertArrayEquals(Arrays.copyOf(in, inCount), sorted(graph.incomingEdgesSources(v)));
+            assertEquals(outCount, graph.getOutDegree(v));
+        }
+        assertEquals(vertices, graph.getNumberOfVertices());
+        assertEquals(edges, graph.getNumberOfEdges());
+    }
+
+    static int[] sorted(int[] values) {
+        Arrays.sort(values);
+        return values;
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.editorgrafov;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EdgeSetTest {
+
+    @Test
+    void keyKeepsBothEnds() {
+        int[] ids = {0, 1, 42, 65535, 65536, Integer.MAX_VALUE, -1, Integer.MIN_VALUE};
+        for (int from : ids) {
+            for (int to : ids) {
+                long key = EdgeSet.key(from, to);
+                assertEquals(from, EdgeSet.from(key));
+                assertEquals(to, EdgeSet.to(key));
+            }
+        }
+    }
+
+    @Test
+    void directionIsPartOfKey() {
+        EdgeSet edges = new EdgeSet();
+        assertTrue(edges.add(1, 2));
+        assertFalse(edges.add(1, 2));
+        assertTrue(edges.contains(1, 2));
+        assertFalse(edges.contains(2, 1));
+        assertTrue(edges.add(2, 1));
+        assertEquals(2, edges.size());
+    }
+
+    @Test
+    void weightsFollowEdgesMovedByRemoval() {
+        EdgeSet edges = new EdgeSet();
+        for (int i = 0; i < 100; i++) {
+            edges.add(i, i + 1);
+        }
+        assertEquals(EdgeSet.defaultWeight, edges.getWeight(5, 6));
+        for (int i = 0; i < 100; i++) {
+            edges.setWeight(i, i + 1, i);
+        }
+        assertFalse(edges.setWeight(1, 0, 3));
+        assertTrue(Float.isNaN(edges.getWeight(1, 0)));
+        //removal moves last edge 99 -> 100 into place of removed one
+        assertTrue(edges.remove(10, 11));
+        assertFalse(edges.remove(10, 11));
+        assertEquals(99, edges.getWeight(99, 100));
+        edges.add(10, 11);
+        assertEquals(EdgeSet.defaultWeight, edges.getWeight(10, 11));
+        for (int i = 0; i < 100; i++) {
+            if (i != 10) {
+                assertEquals(i, edges.getWeight(i, i + 1));
+            }
+        }
+    }
+
+    @Test
+    void randomChangesKeepWeights() {
+        Random random = new Random(3);
+        EdgeSet edges = new EdgeSet();
+        float[][] expected = new float[32][32];
+        for (int operation = 0; operation < 100_000; operation++) {
+            int from = random.nextInt(32);
+            int to = random.nextInt(32);
+            switch (random.nextInt(3)) {
+                case 0:
+                    assertEquals(expected[from][to] == 0, edges.add(from, to));
+                    if (expected[from][to] == 0) {
+                        expected[from][to] = EdgeSet.defaultWeight;
+                    }
+                    break;
+                case 1:
+                    assertEquals(expected[from][to] != 0, edges.remove(from, to));
+                    expected[from][to] = 0;
+                    break;
+                default:
+                    float weight = 1 + random.nextInt(10);
+                    assertEquals(expected[from][to] != 0, edges.setWeight(from, to, weight));
+                    if (expected[from][to] != 0) {
+                        expected[from][to] = weight;
+                    }
+                    break;
+            }
+        }
+        int size = 0;
+        for (int from = 0; from < 32; from++) {
+            for (int to = 0; to < 32; to++) {
+                if (expected[from][to] == 0) {
+                    assertFalse(edges.contains(from, to));
+                }
+                else {
+                    size++;
+                    assertEquals(expected[from][to], edges.getWeight(from, to));
+                }
+            }
+        }
+        assertEquals(size, edges.size());
+    }
+}
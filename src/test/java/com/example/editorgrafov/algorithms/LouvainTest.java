@@ -0,0 +1,198 @@
+package com.example.editorgrafov.algorithms;
+
+import com.example.editorgrafov.AdjacencyList;
+import com.example.editorgrafov.CsrGraph;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LouvainTest {
+
+    private static ForkJoinPool pool;
+
+    @BeforeAll
+    static void createPool() {
+        pool = new ForkJoinPool(4);
+    }
+
+    @AfterAll
+    static void shutdownPool() {
+        pool.shutdown();
+    }
+
+    /**
+     * ring of 8 cliques of 6 vertices, neighbouring cliques are joined by single edge,
+     * so every clique is one community (ring is too short for merging of neighbouring cliques to pay off)
+     */
+    @Test
+    void cliquesJoinedBySingleEdgesAreCommunities() {
+        int cliques = 8;
+        int size = 6;
+        AdjacencyList graph = new AdjacencyList();
+        for (int v = 0; v < cliques * size; v++) {
+            graph.addVertex(v);
+        }
+        for (int c = 0; c < cliques; c++) {
+            for (int i = 0; i < size; i++) {
+                for (int j = i + 1; j < size; j++) {
+                    graph.addEdge(c * size + i, c * size + j);
+                }
+            }
+            graph.addEdge(c * size, ((c + 1) % cliques) * size + 1);
+        }
+        CsrGraph csr = CsrGraph.of(graph);
+        Clustering clustering = Louvain.cluster(csr, null, Louvain.defaultTolerance, pool);
+
+        int last = clustering.getLevelCount() - 1;
+        int[] communities = clustering.getCommunities(last);
+        assertEquals(cliques, clustering.getCommunityCount(last));
+        for (int v = 0; v < cliques * size; v++) {
+            assertEquals(communities[v - v % size], communities[v]);
+            if (v % size == 0) {
+                assertNotEquals(communities[v], communities[(v + size) % (cliques * size)]);
+            }
+        }
+        assertEquals(modularity(csr, null, communities), clustering.getModularity(last), 1e-9);
+        //2 * 15 edges inside of every clique out of 2 * 128, every clique has degree 30 + 2 out of 256
+        double expected = cliques * (30.0 / 256 - Math.pow(32.0 / 256, 2));
+        assertEquals(expected, clustering.getModularity(last), 1e-9);
+    }
+
+    @Test
+    void weightsDecideCommunities() {
+        //cycle 0 - 1 - 2 - 3 - 0, heavy edges 0 - 1 and 2 - 3
+        AdjacencyList graph = new AdjacencyList();
+        for (int v = 0; v < 4; v++) {
+            graph.addVertex(v);
+        }
+        graph.addEdge(0, 1);
+        graph.addEdge(1, 2);
+        graph.addEdge(2, 3);
+        graph.addEdge(3, 0);
+        CsrGraph csr = CsrGraph.of(graph);
+        double[] weights = new double[csr.getNumberOfEdges()];
+        int[] offsets = csr.getOffsets();
+        int[] targets = csr.getTargets();
+        for (int v = 0; v < 4; v++) {
+            for (int i = offsets[v]; i < offsets[v + 1]; i++) {
+                weights[i] = v + targets[i] == 1 || v + targets[i] == 5 ? 10 : 1;
+            }
+        }
+        Clustering clustering = Louvain.cluster(csr, weights, Louvain.defaultTolerance, pool);
+        int[] communities = clustering.getCommunities(clustering.getLevelCount() - 1);
+        assertEquals(communities[0], communities[1]);
+        assertEquals(communities[2], communities[3]);
+        assertNotEquals(communities[0], communities[2]);
+        assertEquals(modularity(csr, weights, communities), clustering.getModularity(clustering.getLevelCount() - 1), 1e-9);
+    }
+
+    @Test
+    void graphWithoutEdgesHasLonelyVertices() {
+        AdjacencyList graph = new AdjacencyList();
+        graph.addVertex(0);
+        graph.addVertex(2);
+        graph.addVertex(5);
+        Clustering clustering = Louvain.cluster(CsrGraph.of(graph), null, Louvain.defaultTolerance, pool);
+        assertEquals(1, clustering.getLevelCount());
+        assertEquals(3, clustering.getCommunityCount(0));
+        int[] communities = clustering.getCommunities(0);
+        assertEquals(-1, communities[1]);
+        assertEquals(-1, communities[4]);
+        assertEquals(3, communities[0] + communities[2] + communities[5]);
+    }
+
+    /**
+     * planted partition - 20 groups of 50 vertices, edges go mostly inside of group,
+     * levels are nested and result does not depend on number of threads
+     */
+    @Test
+    void plantedGroupsAreFoundOnEveryNumberOfThreads() {
+        Random random = new Random(8);
+        int groups = 20;
+        int size = 50;
+        int n = groups * size;
+        AdjacencyList graph = new AdjacencyList(n);
+        for (int v = 0; v < n; v++) {
+            graph.addVertex(v);
+        }
+        for (int i = 0; i < 8 * n; i++) {
+            int from = random.nextInt(n);
+            int to = random.nextInt(10) == 0 ? random.nextInt(n) : from - from % size + random.nextInt(size);
+            if (from != to) {
+                graph.addEdge(from, to);
+            }
+        }
+        CsrGraph csr = CsrGraph.of(graph);
+        Clustering clustering = Louvain.cluster(csr, null, Louvain.defaultTolerance, pool);
+        int last = clustering.getLevelCount() - 1;
+        int[] communities = clustering.getCommunities(last);
+        assertEquals(groups, clustering.getCommunityCount(last));
+        for (int v = 0; v < n; v++) {
+            assertEquals(communities[v - v % size], communities[v]);
+        }
+        for (int level = 1; level < clustering.getLevelCount(); level++) {
+            assertTrue(clustering.getModularity(level) >= clustering.getModularity(level - 1));
+            int[] finer = clustering.getCommunities(level - 1);
+            int[] coarser = clustering.getCommunities(level);
+            int[] parent = new int[clustering.getCommunityCount(level - 1)];
+            for (int v = 0; v < n; v++) {
+                parent[finer[v]] = coarser[v];
+            }
+            for (int v = 0; v < n; v++) {
+                assertEquals(parent[finer[v]], coarser[v]);
+            }
+        }
+
+        ForkJoinPool single = new ForkJoinPool(1);
+        try {
+            Clustering sequential = Louvain.cluster(csr, null, Louvain.defaultTolerance, single);
+            assertEquals(clustering.getLevelCount(), sequential.getLevelCount());
+            for (int level = 0; level < clustering.getLevelCount(); level++) {
+                assertArrayEquals(clustering.getCommunities(level), sequential.getCommunities(level));
+            }
+        }
+        finally {
+            single.shutdown();
+        }
+    }
+
+    /**
+     * @return modularity of communities, direction of edges is ignored
+     */
+    private static double modularity(CsrGraph graph, double[] weights, int[] communities) {
+        int[] offsets = graph.getOffsets();
+        int[] targets = graph.getTargets();
+        int count = 0;
+        for (int community : communities) {
+            count = Math.max(count, community + 1);
+        }
+        double[] inside = new double[count];
+        double[] total = new double[count];
+        double sum = 0;
+        for (int v = 0; v < graph.getCapacity(); v++) {
+            for (int i = offsets[v]; i < offsets[v + 1]; i++) {
+                double weight = weights == null ? 1 : weights[i];
+                int to = targets[i];
+                sum += 2 * weight;
+                total[communities[v]] += weight;
+                total[communities[to]] += weight;
+                if (communities[v] == communities[to]) {
+                    inside[communities[v]] += 2 * weight;
+                }
+            }
+        }
+        double modularity = 0;
+        for (int c = 0; c < count; c++) {
+            modularity += inside[c] / sum - (total[c] / sum) * (total[c] / sum);
+        }
+        return modularity;
+    }
+}
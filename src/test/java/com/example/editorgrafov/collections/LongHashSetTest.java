@@ -0,0 +1,102 @@
+package com.example.editorgrafov.collections;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LongHashSetTest {
+
+    @Test
+    void addedKeysHaveDenseIndices() {
+        LongHashSet set = new LongHashSet();
+        for (long key = 0; key < 1000; key++) {
+            assertTrue(set.add(key * 31));
+            assertEquals(key, set.indexOf(key * 31));
+        }
+        assertFalse(set.add(31));
+        assertEquals(1000, set.size());
+        assertEquals(-1, set.indexOf(1));
+    }
+
+    @Test
+    void removalMovesLastKeyIntoHole() {
+        LongHashSet set = new LongHashSet();
+        for (long key = 0; key < 10; key++) {
+            set.add(key);
+        }
+        assertEquals(3, set.remove(3));
+        assertEquals(9, set.size());
+        assertEquals(3, set.indexOf(9));
+        assertEquals(9, set.get(3));
+        assertEquals(-1, set.remove(3));
+    }
+
+    /**
+     * small table with many removals, so clusters of probing are long and every removal shifts keys back
+     */
+    @Test
+    void removalKeepsEveryOtherKeyReachable() {
+        Random random = new Random(1);
+        LongHashSet set = new LongHashSet();
+        Set<Long> expected = new HashSet<>();
+        for (int operation = 0; operation < 200_000; operation++) {
+            long key = random.nextInt(64) - 32;
+            if (random.nextBoolean()) {
+                assertEquals(expected.add(key), set.add(key));
+            }
+            else {
+                assertEquals(expected.remove(key), set.remove(key) >= 0);
+            }
+            if (operation % 1000 == 0) {
+                assertSameKeys(expected, set);
+            }
+        }
+        assertSameKeys(expected, set);
+    }
+
+    @Test
+    void removalOfEveryKeyEmptiesTable() {
+        Random random = new Random(2);
+        LongHashSet set = new LongHashSet();
+        List<Long> keys = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            long key = random.nextLong();
+            if (set.add(key)) {
+                keys.add(key);
+            }
+        }
+        for (int i = keys.size() - 1; i >= 0; i -= 2) {
+            assertTrue(set.remove(keys.get(i)) >= 0);
+        }
+        for (int i = 0; i < keys.size(); i++) {
+            assertEquals(i % 2 == keys.size() % 2, set.contains(keys.get(i)));
+        }
+        for (long key : keys) {
+            set.remove(key);
+        }
+        assertTrue(set.isEmpty());
+        for (long key : keys) {
+            assertFalse(set.contains(key));
+        }
+    }
+
+    private static void assertSameKeys(Set<Long> expected, LongHashSet set) {
+        assertEquals(expected.size(), set.size());
+        for (int index = 0; index < set.size(); index++) {
+            long key = set.get(index);
+            assertTrue(expected.contains(key));
+            assertEquals(index, set.indexOf(key));
+        }
+        for (long key : expected) {
+            assertTrue(set.contains(key));
+        }
+    }
+}
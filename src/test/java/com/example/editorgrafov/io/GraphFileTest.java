@@ -0,0 +1,169 @@
+package com.example.editorgrafov.io;
+
+import com.example.editorgrafov.GraphSnapshot;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class GraphFileTest {
+
+    //offsets of counts in header
+    private static final int vertices = 8;
+    private static final int edges = 12;
+    private static final int labels = 16;
+    private static final int labelBytes = 20;
+    private static final int labelOffsets = 24;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void smallGraphIsReadBack() throws IOException {
+        GraphSnapshot snapshot = new GraphSnapshot(new int[]{0, 3, 7}, new String[]{"", "a", "ěščř"},
+                new int[]{1, 2, 0}, new float[]{0, -1.5f, 1e6f}, new float[]{2, 3, 4}, new int[]{0, 3, 7}, new int[]{3, 7, 7});
+        assertSame(snapshot, roundTrip(snapshot));
+    }
+
+    @Test
+    void emptyGraphIsReadBack() throws IOException {
+        GraphSnapshot snapshot = new GraphSnapshot(new int[0], new String[0], new int[0], new float[0], new float[0], new int[0], new int[0]);
+        assertSame(snapshot, roundTrip(snapshot));
+    }
+
+    /**
+     * graph bigger than buffer of writer, so arrays and labels are written in several parts
+     */
+    @Test
+    void bigGraphIsReadBack() throws IOException {
+        Random random = new Random(7);
+        int n = 20_000;
+        int m = 50_000;
+        int[] ids = new int[n];
+        String[] labels = new String[n];
+        int[] labelIndices = new int[n];
+        float[] x = new float[n];
+        float[] y = new float[n];
+        for (int i = 0; i < n; i++) {
+            ids[i] = 2 * i;
+            labels[i] = "node " + i + "x".repeat(random.nextInt(5));
+            labelIndices[i] = i;
+            x[i] = random.nextFloat() * 1000;
+            y[i] = random.nextFloat() * 1000;
+        }
+        labels[n / 2] = "long".repeat(20_000);
+        int[] from = new int[m];
+        int[] to = new int[m];
+        for (int i = 0; i < m; i++) {
+            from[i] = ids[random.nextInt(n)];
+            to[i] = ids[random.nextInt(n)];
+        }
+        GraphSnapshot snapshot = new GraphSnapshot(ids, labels, labelIndices, x, y, from, to);
+        assertSame(snapshot, roundTrip(snapshot));
+    }
+
+    @Test
+    void truncatedFileIsRejected() throws IOException {
+        Path path = write(sample());
+        byte[] bytes = Files.readAllBytes(path);
+        for (int length : new int[]{0, 7, 23, 24, bytes.length / 2, bytes.length - 1}) {
+            Files.write(path, Arrays.copyOf(bytes, length));
+            assertThrows(IOException.class, () -> GraphFile.read(path), "length " + length);
+        }
+    }
+
+    @Test
+    void wrongMagicOrVersionIsRejected() throws IOException {
+        assertCorrupted(0, 0x12345678);
+        assertCorrupted(4, 2);
+    }
+
+    /**
+     * sizes computed from huge counts must not overflow, so they are rejected before any array is allocated
+     */
+    @Test
+    void corruptedCountsAreRejected() throws IOException {
+        for (int offset : new int[]{vertices, edges, labels, labelBytes}) {
+            assertCorrupted(offset, -1);
+            assertCorrupted(offset, Integer.MAX_VALUE);
+            assertCorrupted(offset, Integer.MAX_VALUE / 4);
+            assertCorrupted(offset, Integer.MIN_VALUE);
+        }
+        assertCorrupted(vertices, 4);
+        assertCorrupted(edges, 3);
+    }
+
+    @Test
+    void corruptedLabelsAreRejected() throws IOException {
+        //offsets of labels "", "a", "bc": 0, 0, 1, 3
+        assertCorrupted(labelOffsets, 1);
+        assertCorrupted(labelOffsets + 8, 4);
+        assertCorrupted(labelOffsets + 12, 0);
+        //label indices follow ids
+        assertCorrupted(labelOffsets + 4 * 4 + 4 + 3 * 4, 3);
+    }
+
+    @Test
+    void invalidVerticesAndEdgesAreRejected() throws IOException {
+        int idsOffset = labelOffsets + 4 * 4 + 4;
+        int xOffset = idsOffset + 2 * 3 * 4;
+        int fromOffset = xOffset + 2 * 3 * 4;
+        assertCorrupted(idsOffset, -5);
+        //duplicate id
+        assertCorrupted(idsOffset + 4, 0);
+        assertCorrupted(xOffset, Float.floatToIntBits(Float.NaN));
+        assertCorrupted(xOffset + 3 * 4, Float.floatToIntBits(Float.POSITIVE_INFINITY));
+        assertCorrupted(fromOffset, 9);
+        assertCorrupted(fromOffset + 2 * 4, 9);
+    }
+
+    /**
+     * @return graph with three vertices (ids 0, 1, 2), labels "", "a", "bc" and edges 0 -> 1, 1 -> 2
+     */
+    private static GraphSnapshot sample() {
+        return new GraphSnapshot(new int[]{0, 1, 2}, new String[]{"", "a", "bc"}, new int[]{0, 1, 2},
+                new float[]{1, 2, 3}, new float[]{4, 5, 6}, new int[]{0, 1}, new int[]{1, 2});
+    }
+
+    /**
+     * Method that writes sample graph, replaces int at offset and checks, that file is not read
+     */
+    private void assertCorrupted(int offset, int value) throws IOException {
+        Path path = write(sample());
+        ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(path)).order(ByteOrder.LITTLE_ENDIAN);
+        bytes.putInt(offset, value);
+        Files.write(path, bytes.array());
+        assertThrows(IOException.class, () -> GraphFile.read(path), "value " + value + " at " + offset);
+    }
+
+    private Path write(GraphSnapshot snapshot) throws IOException {
+        Path path = Files.createTempFile(directory, "graph", "." + GraphFile.extension);
+        GraphFile.write(snapshot, path);
+        return path;
+    }
+
+    private GraphSnapshot roundTrip(GraphSnapshot snapshot) throws IOException {
+        return GraphFile.read(write(snapshot));
+    }
+
+    private static void assertSame(GraphSnapshot expected, GraphSnapshot actual) {
+        assertArrayEquals(expected.getIds(), actual.getIds());
+        assertArrayEquals(expected.getLabels(), actual.getLabels());
+        assertArrayEquals(expected.getLabelIndices(), actual.getLabelIndices());
+        assertArrayEquals(expected.getX(), actual.getX());
+        assertArrayEquals(expected.getY(), actual.getY());
+        assertArrayEquals(expected.getFrom(), actual.getFrom());
+        assertArrayEquals(expected.getTo(), actual.getTo());
+        assertEquals(expected.getNumberOfEdges(), actual.getNumberOfEdges());
+    }
+}
@@ -0,0 +1,197 @@
+package com.example.editorgrafov.io;
+
+import com.example.editorgrafov.GraphModel;
+import com.example.editorgrafov.hierarchy.Hierarchy;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JournalTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void replayRestoresChangesAfterCrash() throws IOException {
+        GraphModel model = new GraphModel();
+        Hierarchy hierarchy = new Hierarchy(model);
+        Path path = directory.resolve("graph.grf.journal");
+        Journal journal = open(model, hierarchy, path);
+        int a = model.addVertex("a", 10, 20);
+        int b = model.addVertex("\u011b\u0161\u010d", 30, 40);
+        int c = model.addVertex("c", 50, 60);
+        model.addEdge(a, b);
+        model.addEdge(b, c);
+        model.addEdge(c, a);
+        model.removeEdge(b, c);
+        model.moveVertex(a, 15, 25);
+        model.removeVertex(c);
+        int group = hierarchy.collapse(new int[]{a, b}, "group");
+        String expected = state(model, hierarchy);
+        journal.close();
+
+        GraphModel replayed = new GraphModel();
+        Hierarchy replayedHierarchy = new Hierarchy(replayed);
+        try (Journal again = new Journal(replayed, replayedHierarchy, path)) {
+            assertEquals(10, again.replay());
+        }
+        assertEquals(expected, state(replayed, replayedHierarchy));
+        assertTrue(replayedHierarchy.isSupervertex(group));
+    }
+
+    @Test
+    void journalOfVersionOneIsReplayed() throws IOException {
+        Path path = directory.resolve("old.journal");
+        byte[] label = "old".getBytes(StandardCharsets.UTF_8);
+        ByteBuffer bytes = ByteBuffer.allocate(256).order(ByteOrder.LITTLE_ENDIAN);
+        bytes.putInt(0x4A524746).putInt(1);
+        bytes.put((byte) 1).putInt(0).putDouble(1).putDouble(2).putInt(label.length).put(label);
+        bytes.put((byte) 1).putInt(1).putDouble(3).putDouble(4).putInt(0);
+        bytes.put((byte) 4).putInt(0).putInt(1);
+        bytes.put((byte) 3).putInt(1).putDouble(5).putDouble(6);
+        bytes.flip();
+        write(path, bytes);
+
+        GraphModel model = new GraphModel();
+        try (Journal journal = new Journal(model, new Hierarchy(model), path)) {
+            assertEquals(4, journal.replay());
+        }
+        assertEquals("old", model.getLabel(0));
+        assertEquals("", model.getLabel(1));
+        assertEquals(5, model.getX(1));
+        assertEquals(6, model.getY(1));
+        assertTrue(model.getGraph().existsEdge(0, 1));
+        assertEquals(1, model.getGraph().getNumberOfEdges());
+    }
+
+    @Test
+    void tornRecordAtEndIsCutOff() throws IOException {
+        GraphModel model = new GraphModel();
+        Hierarchy hierarchy = new Hierarchy(model);
+        Path path = directory.resolve("torn.journal");
+        Journal journal = open(model, hierarchy, path);
+        int a = model.addVertex("a", 1, 1);
+        int b = model.addVertex("b", 2, 2);
+        model.addEdge(a, b);
+        String expected = state(model, hierarchy);
+        journal.close();
+        long complete = Files.size(path);
+
+        //half of ADD_VERTEX record, as if process died while writing it
+        ByteBuffer torn = ByteBuffer.allocate(13).order(ByteOrder.LITTLE_ENDIAN);
+        torn.put((byte) 1).putInt(7).putDouble(3);
+        torn.flip();
+        try (SeekableByteChannel channel = Files.newByteChannel(path, StandardOpenOption.APPEND)) {
+            channel.write(torn);
+        }
+
+        GraphModel replayed = new GraphModel();
+        Hierarchy replayedHierarchy = new Hierarchy(replayed);
+        Journal again = new Journal(replayed, replayedHierarchy, path);
+        assertEquals(3, again.replay());
+        assertEquals(expected, state(replayed, replayedHierarchy));
+        assertEquals(complete, Files.size(path));
+        assertFalse(replayed.isAlive(7));
+
+        //records written after recovery follow the last complete record
+        replayed.addListener(again);
+        replayedHierarchy.addListener(again);
+        replayed.moveVertex(a, 9, 9);
+        expected = state(replayed, replayedHierarchy);
+        again.close();
+        GraphModel last = new GraphModel();
+        Hierarchy lastHierarchy = new Hierarchy(last);
+        try (Journal journalOfLast = new Journal(last, lastHierarchy, path)) {
+            assertEquals(4, journalOfLast.replay());
+        }
+        assertEquals(expected, state(last, lastHierarchy));
+    }
+
+    @Test
+    void checkpointAfterSaveAsMovesJournalNextToNewFile() throws IOException {
+        GraphModel model = new GraphModel();
+        Hierarchy hierarchy = new Hierarchy(model);
+        Path file = directory.resolve("first.grf");
+        Path journalPath = Journal.locate(file);
+        Journal journal = open(model, hierarchy, journalPath);
+        for (int i = 0; i < 6; i++) {
+            model.addVertex("v" + i, 10 * i, 0);
+        }
+        for (int i = 0; i < 5; i++) {
+            model.addEdge(i, i + 1);
+        }
+        int group = hierarchy.collapse(new int[]{0, 1, 2}, "group");
+
+        //"Save As" - snapshot is flattened, collapse of group is kept in journal after mark
+        Path target = directory.resolve("second.grf");
+        long mark = journal.mark();
+        GraphFile.write(hierarchy.flatten(), target);
+        model.addVertex("after save", 100, 100);
+        journal.checkpoint(mark, Journal.locate(target));
+        model.moveVertex(5, 70, 70);
+        String expected = state(model, hierarchy);
+        journal.close();
+
+        assertFalse(Files.exists(journalPath));
+        assertEquals(Journal.locate(target), journal.getPath());
+        GraphModel replayed = new GraphModel();
+        Hierarchy replayedHierarchy = new Hierarchy(replayed);
+        replayed.load(GraphFile.read(target));
+        try (Journal again = new Journal(replayed, replayedHierarchy, Journal.locate(target))) {
+            again.replay();
+        }
+        assertEquals(expected, state(replayed, replayedHierarchy));
+        assertTrue(replayedHierarchy.isSupervertex(group));
+    }
+
+    private static Journal open(GraphModel model, Hierarchy hierarchy, Path path) throws IOException {
+        Journal journal = new Journal(model, hierarchy, path);
+        journal.replay();
+        model.addListener(journal);
+        hierarchy.addListener(journal);
+        return journal;
+    }
+
+    private static void write(Path path, ByteBuffer bytes) throws IOException {
+        try (SeekableByteChannel channel = Files.newByteChannel(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            channel.write(bytes);
+        }
+    }
+
+    /**
+     * @return every vertex with label, rounded position, members and weighted outgoing edges
+     */
+    private static String state(GraphModel model, Hierarchy hierarchy) {
+        StringBuilder state = new StringBuilder();
+        for (int id = 0; id < model.getCapacity(); id++) {
+            if (!model.isAlive(id)) {
+                continue;
+            }
+            state.append(id).append(' ').append(model.getLabel(id))
+                    .append(" @").append(Math.round(model.getX(id))).append(',').append(Math.round(model.getY(id)));
+            if (hierarchy.isSupervertex(id)) {
+                state.append(" members ").append(Arrays.toString(hierarchy.getMembers(id)));
+            }
+            int[] destinations = model.getGraph().outgoingEdgesDestinations(id);
+            Arrays.sort(destinations);
+            for (int destination : destinations) {
+                state.append(" -> ").append(destination).append(" w").append(hierarchy.getWeight(id, destination));
+            }
+            state.append('\n');
+        }
+        return state.toString();
+    }
+}